@@ -0,0 +1,92 @@
+#!/usr/bin/env bash
+#
+# Cold-start time and footprint of the packaged application in each startup mode:
+#
+#   default    fat jar, default profile
+#   lean       fat jar, lean profile (lazy initialization, smaller pools)
+#   lean+cds   extracted jar with the AppCDS archive, lean profile (needs target/cds)
+#
+# Build first:  mvn -Pcds package -DskipTests
+# Run:          scripts/startup-benchmark.sh [runs]      (JAVA_OPTS is passed to every JVM, PORT picks the port)
+#
+# Each run starts on an empty data directory and waits for "Started TransactionApplication". It records Spring's
+# startup time, the JVM uptime at that point, the resident set size, and the heap still in use after a full GC.
+# The table shows the mean over all runs.
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+RUNS="${1:-3}"
+PORT="${PORT:-18090}"
+JAVA_OPTS="${JAVA_OPTS:-}"
+JAR="$(ls "$ROOT"/target/transaction-*.jar 2>/dev/null | grep -v '\.original$' | head -n 1 || true)"
+CDS_DIR="$ROOT/target/cds"
+
+if [[ -z "$JAR" ]]; then
+  echo "No application jar in target/; run: mvn -Pcds package -DskipTests" >&2
+  exit 1
+fi
+
+# run <jvm args...> -- <application args...>: start one instance and print "startup uptime rss_kb heap_kb"
+run() {
+  local data log pid
+  data="$(mktemp -d)"
+  log="$data/application.log"
+  local jvm_args=()
+  while [[ "$1" != "--" ]]; do jvm_args+=("$1"); shift; done
+  shift
+
+  # shellcheck disable=SC2086
+  java $JAVA_OPTS "${jvm_args[@]}" "$@" \
+      --server.port="$PORT" \
+      --audit.journal.directory="$data/journal" \
+      --audit.sink.file.path="$data/audit.frames" \
+      --audit.async.spill-directory="$data/spill" \
+      --recovery.snapshot-file="$data/snapshot.bin" \
+      --wal.directory="$data/wal" \
+      > "$log" 2>&1 &
+  pid=$!
+
+  for _ in $(seq 1 600); do
+    grep -q "Started TransactionApplication" "$log" && break
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "Application exited during startup:" >&2
+      tail -n 20 "$log" >&2
+      exit 1
+    fi
+    sleep 0.1
+  done
+
+  local times rss heap
+  times="$(sed -n 's/.*Started TransactionApplication in \([0-9.]*\) seconds (process running for \([0-9.]*\)).*/\1 \2/p' "$log")"
+  rss="$(ps -o rss= -p "$pid" | tr -d ' ')"
+  jcmd "$pid" GC.run > /dev/null
+  heap="$(jstat -gc "$pid" | awk 'NR == 1 { for (i = 1; i <= NF; i++) col[$i] = i }
+                                  NR == 2 { printf "%.0f", $col["S0U"] + $col["S1U"] + $col["EU"] + $col["OU"] }')"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  rm -rf "$data"
+  echo "$times $rss $heap"
+}
+
+# measure <label> <jvm args...> -- <application args...>
+measure() {
+  local label="$1"; shift
+  local results=""
+  for _ in $(seq 1 "$RUNS"); do
+    results+="$(run "$@")"$'\n'
+  done
+  printf '%s' "$results" | awk -v label="$label" '
+      NF == 4 { startup += $1; uptime += $2; rss += $3; heap += $4; n++ }
+      END { printf "%-10s %12.2f %12.2f %12.0f %12.1f\n", label, startup / n, uptime / n, rss / n / 1024, heap / n / 1024 }'
+}
+
+printf '%-10s %12s %12s %12s %12s\n' "mode" "startup s" "uptime s" "rss MB" "heap MB"
+measure default -jar "$JAR" --
+measure lean -jar "$JAR" -- --spring.profiles.active=lean
+if [[ -f "$CDS_DIR/application.jsa" ]]; then
+  measure lean+cds -XX:SharedArchiveFile="$CDS_DIR/application.jsa" -Xlog:cds=off -Xlog:class+path=off \
+      -jar "$CDS_DIR/$(basename "$JAR")" -- --spring.profiles.active=lean
+else
+  echo "lean+cds   skipped: no $CDS_DIR/application.jsa (build with mvn -Pcds package -DskipTests)"
+fi
@@ -0,0 +1,66 @@
+package net.jpmchase.transaction.codec;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Reads length-prefixed binary frames, big-endian, one per transaction:
+ * <pre>
+ * int   frame length in bytes, excluding this field (9 + id length)
+ * long  amount in minor units
+ * byte  transaction type ordinal (0 = CREDIT, 1 = DEBIT)
+ * bytes id, UTF-8
+ * </pre>
+ */
+public class BinaryTransactionReader implements TransactionReader {
+    public static final int HEADER_BYTES = Long.BYTES + Byte.BYTES;
+    public static final int MAX_ID_BYTES = Transaction.MAX_ID_BYTES;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final DataInputStream input;
+    private final byte[] id = new byte[MAX_ID_BYTES];
+    private long frame;
+
+    public BinaryTransactionReader(final InputStream input) {
+        this.input = new DataInputStream(new BufferedInputStream(notNull(input, "input must not be null"), 64 * 1024));
+    }
+
+    @Override
+    public Transaction read() throws IOException {
+        final int length;
+        try {
+            length = input.readInt();
+        } catch (final EOFException e) {
+            return null;
+        }
+        frame++;
+        if (length < HEADER_BYTES || length > HEADER_BYTES + MAX_ID_BYTES) {
+            throw malformed("frame length " + length + " out of range");
+        }
+        try {
+            final long amount = input.readLong();
+            final int type = input.readUnsignedByte();
+            final int idLength = length - HEADER_BYTES;
+            input.readFully(id, 0, idLength);
+
+            if (amount < 0) throw malformed("amount must not be negative");
+            if (type >= TYPES.length) throw malformed("unknown transaction type " + type);
+            return Transaction.ofMinorUnits(new String(id, 0, idLength, StandardCharsets.UTF_8), amount, TYPES[type]);
+        } catch (final EOFException e) {
+            throw malformed("truncated frame");
+        }
+    }
+
+    private IllegalArgumentException malformed(final String reason) {
+        return new IllegalArgumentException("Malformed transaction " + frame + ": " + reason);
+    }
+}
@@ -0,0 +1,89 @@
+package net.jpmchase.transaction.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Money;
+import net.jpmchase.transaction.model.Transaction;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Reads newline-delimited JSON, one object per transaction:
+ * <pre>
+ * {"id":"7f0c...","amount":125.50,"transactionType":"CREDIT"}
+ * {"id":"9a1e...","amountInMinorUnits":4200,"transactionType":"DEBIT"}
+ * </pre>
+ * Objects are pulled token by token from the stream without building a JSON tree. Unknown fields are skipped.
+ */
+public class NdjsonTransactionReader implements TransactionReader {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private long line;
+
+    public NdjsonTransactionReader(final InputStream input) throws IOException {
+        this.parser = JSON_FACTORY.createParser(notNull(input, "input must not be null"));
+    }
+
+    @Override
+    public Transaction read() throws IOException {
+        try {
+            final JsonToken start = parser.nextToken();
+            if (start == null) return null;
+            line++;
+            if (start != JsonToken.START_OBJECT) throw malformed("expected a JSON object");
+
+            String id = null;
+            long amount = -1L;
+            TransactionType transactionType = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.currentName();
+                final JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "id" -> id = parser.getValueAsString();
+                    case "amount" -> amount = Money.toMinorUnits(number(value, field).getDoubleValue());
+                    case "amountInMinorUnits" -> amount = number(value, field).getLongValue();
+                    case "transactionType" -> transactionType = transactionType(parser.getValueAsString());
+                    default -> parser.skipChildren();
+                }
+            }
+            if (id == null) throw malformed("id is required");
+            if (amount < 0) throw malformed("amount is required and must not be negative");
+            if (transactionType == null) throw malformed("transactionType is required");
+            return transaction(id, amount, transactionType);
+        } catch (final JsonProcessingException e) {
+            throw malformed(e.getOriginalMessage());
+        }
+    }
+
+    private Transaction transaction(final String id, final long amount, final TransactionType transactionType) {
+        try {
+            return Transaction.ofMinorUnits(id, amount, transactionType);
+        } catch (final IllegalArgumentException e) {
+            throw malformed(e.getMessage());
+        }
+    }
+
+    private JsonParser number(final JsonToken value, final String field) {
+        if (!value.isNumeric()) throw malformed(field + " must be a number");
+        return parser;
+    }
+
+    private TransactionType transactionType(final String value) {
+        try {
+            return TransactionType.valueOf(value);
+        } catch (final IllegalArgumentException | NullPointerException e) {
+            throw malformed("unknown transactionType " + value);
+        }
+    }
+
+    private IllegalArgumentException malformed(final String reason) {
+        return new IllegalArgumentException("Malformed transaction " + line + ": " + reason);
+    }
+}
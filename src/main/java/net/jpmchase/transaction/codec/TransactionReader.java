@@ -0,0 +1,20 @@
+package net.jpmchase.transaction.codec;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.io.IOException;
+
+/**
+ * Pull-based decoder of a stream of transactions, reading one transaction at a time so a body of any size is
+ * never materialised in memory.
+ */
+public interface TransactionReader {
+    /**
+     * Decode the next transaction.
+     *
+     * @return the next transaction, or null at the end of the stream
+     * @throws IllegalArgumentException if the stream is malformed
+     * @throws IOException              if the underlying stream fails
+     */
+    Transaction read() throws IOException;
+}
@@ -0,0 +1,63 @@
+package net.jpmchase.transaction.config;
+
+import net.jpmchase.transaction.enums.AuditSinkType;
+import net.jpmchase.transaction.enums.BackPressurePolicy;
+import net.jpmchase.transaction.service.audit.AuditServiceImpl;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import net.jpmchase.transaction.service.audit.sink.AsyncAuditSink;
+import net.jpmchase.transaction.service.audit.sink.AuditSink;
+import net.jpmchase.transaction.service.audit.sink.FileAuditSink;
+import net.jpmchase.transaction.service.audit.sink.SocketAuditSink;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+
+/**
+ * {@link AuditServiceImpl} journals every cut batch to a {@link TransactionJournal} on disk from its own writer
+ * thread, up to {@code audit.journal.queue-capacity} batches behind ingest, then forwards it to the {@link AuditSink}
+ * selected by {@code audit.sink.type}. Delivery to that sink runs off the journal writer as well through an
+ * {@link AsyncAuditSink} unless {@code audit.async.enabled} is false.
+ */
+@Configuration
+public class AuditConfiguration {
+
+    @Bean
+    public TransactionJournal transactionJournal(
+            @Value("${audit.journal.directory}") final Path directory,
+            @Value("${audit.journal.records-per-segment}") final Integer recordsPerSegment) {
+        return TransactionJournal.open(directory, recordsPerSegment);
+    }
+
+    @Bean
+    public AuditSink auditSink(
+            @Value("${audit.sink.type}") final AuditSinkType type,
+            @Value("${audit.sink.flush-interval-ms}") final Long flushIntervalMillis,
+            @Value("${audit.sink.file.path}") final Path file,
+            @Value("${audit.sink.file.compression-level}") final Integer compressionLevel,
+            @Value("${audit.sink.socket.address}") final String address,
+            @Value("${audit.sink.socket.buffer-bytes}") final Integer bufferBytes,
+            @Value("${audit.sink.socket.timeout-ms}") final Long timeoutMillis) {
+        return switch (type) {
+            case NONE -> AuditSink.discarding();
+            case FILE -> new FileAuditSink(file, compressionLevel, flushIntervalMillis);
+            case SOCKET -> new SocketAuditSink(SocketAuditSink.address(address), bufferBytes, flushIntervalMillis,
+                    timeoutMillis);
+        };
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "audit.async.enabled", havingValue = "true", matchIfMissing = true)
+    public AsyncAuditSink asyncAuditSink(
+            @Qualifier("auditSink") final AuditSink auditSink,
+            @Value("${audit.async.queue-capacity}") final Integer queueCapacity,
+            @Value("${audit.async.back-pressure}") final BackPressurePolicy backPressurePolicy,
+            @Value("${audit.async.spill-directory}") final Path spillDirectory) {
+        return new AsyncAuditSink(auditSink, queueCapacity, backPressurePolicy, spillDirectory);
+    }
+}
@@ -0,0 +1,50 @@
+package net.jpmchase.transaction.config;
+
+import net.jpmchase.transaction.service.account.ShardedAccountBalanceService;
+import net.jpmchase.transaction.service.cluster.ClusterServer;
+import net.jpmchase.transaction.service.cluster.ClusterTopology;
+import net.jpmchase.transaction.service.cluster.DeduplicatingAccountBalanceService;
+import net.jpmchase.transaction.service.cluster.PartitionedAccountBalanceService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Partitioned mode ({@code cluster.enabled}): this instance owns one hash range of the accounts, serves it to the
+ * other nodes on the address of its entry in {@code cluster.nodes}, and forwards requests for other accounts to their
+ * owners. The owned accounts apply each transaction id at most once, so a forwarded transaction can be resent.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterConfiguration {
+
+    @Bean
+    public ClusterTopology clusterTopology(@Value("${cluster.nodes}") final String nodes,
+                                           @Value("${cluster.node-index}") final Integer nodeIndex) {
+        return ClusterTopology.parse(nodes, nodeIndex);
+    }
+
+    @Bean
+    public DeduplicatingAccountBalanceService ownedAccountBalanceService(
+            final ShardedAccountBalanceService accountBalanceService,
+            @Value("${cluster.dedup-window}") final Integer windowSize) {
+        return new DeduplicatingAccountBalanceService(accountBalanceService, windowSize);
+    }
+
+    @Bean
+    public ClusterServer clusterServer(final ClusterTopology topology,
+                                       final DeduplicatingAccountBalanceService ownedAccountBalanceService) {
+        return new ClusterServer(topology.localAddress(), ownedAccountBalanceService);
+    }
+
+    @Bean
+    @Primary
+    public PartitionedAccountBalanceService partitionedAccountBalanceService(
+            final ClusterTopology topology,
+            final DeduplicatingAccountBalanceService ownedAccountBalanceService,
+            @Value("${cluster.request-timeout-ms}") final Integer requestTimeoutMillis) {
+        return new PartitionedAccountBalanceService(topology, ownedAccountBalanceService, requestTimeoutMillis);
+    }
+}
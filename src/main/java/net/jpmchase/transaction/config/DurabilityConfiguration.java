@@ -0,0 +1,49 @@
+package net.jpmchase.transaction.config;
+
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import net.jpmchase.transaction.service.wal.DurableBankAccountService;
+import net.jpmchase.transaction.service.wal.WriteAheadLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+
+import java.nio.file.Path;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Durable acceptance ({@code wal.enabled}): transactions are forced to a write-ahead log before they are applied,
+ * and replayed from it after the journal has been recovered. Wraps the synchronized ingest path, so startup fails
+ * if the ring-buffer ingest mode is selected as well.
+ */
+@Configuration
+@ConditionalOnProperty(name = "wal.enabled", havingValue = "true")
+public class DurabilityConfiguration {
+
+    public DurabilityConfiguration(@Value("${bank-account.ingest.mode:synchronized}") final String ingestMode) {
+        isTrue(!"ring-buffer".equals(ingestMode),
+                "wal.enabled requires bank-account.ingest.mode=synchronized; the ring buffer would bypass the log");
+    }
+
+    @Bean
+    public WriteAheadLog writeAheadLog(@Value("${wal.directory}") final Path directory,
+                                       @Value("${wal.group-commit-micros}") final Long groupCommitMicros,
+                                       final TransactionJournal journal) {
+        return WriteAheadLog.open(directory, journal.recordCount(), groupCommitMicros);
+    }
+
+    @Bean
+    @Primary
+    @DependsOn("recoveryService")
+    public DurableBankAccountService durableBankAccountService(
+            final BankAccountServiceImpl bankAccountService,
+            final WriteAheadLog writeAheadLog,
+            final TransactionJournal journal,
+            @Value("${wal.checkpoint-interval-seconds}") final Long checkpointIntervalSeconds) {
+        return new DurableBankAccountService(bankAccountService, writeAheadLog, journal, checkpointIntervalSeconds);
+    }
+}
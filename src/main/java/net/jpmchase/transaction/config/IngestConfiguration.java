@@ -0,0 +1,35 @@
+package net.jpmchase.transaction.config;
+
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import net.jpmchase.transaction.service.ingest.RingBufferBankAccountService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Selects how transactions enter the {@link BankAccountServiceImpl}: directly on the caller's thread
+ * ({@code synchronized}, the default) or through a lock-free ring buffer ({@code ring-buffer}), and whether
+ * redelivered transaction ids are skipped ({@code dedup.enabled}, the default).
+ */
+@Configuration
+public class IngestConfiguration {
+
+    @Bean
+    public TransactionDeduplicator transactionDeduplicator(
+            @Value("${dedup.enabled:true}") final boolean enabled,
+            @Value("${dedup.window-size}") final Integer windowSize) {
+        return enabled ? new TransactionDeduplicator(windowSize) : TransactionDeduplicator.disabled();
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "bank-account.ingest.mode", havingValue = "ring-buffer")
+    public RingBufferBankAccountService ringBufferBankAccountService(
+            final BankAccountServiceImpl bankAccountService,
+            @Value("${bank-account.ingest.ring-buffer-size}") final Integer ringBufferSize) {
+        return new RingBufferBankAccountService(bankAccountService, ringBufferSize);
+    }
+}
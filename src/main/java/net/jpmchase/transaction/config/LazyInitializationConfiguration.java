@@ -0,0 +1,27 @@
+package net.jpmchase.transaction.config;
+
+import net.jpmchase.transaction.controller.ReactiveBalanceServer;
+import net.jpmchase.transaction.service.audit.AuditServiceImpl;
+import net.jpmchase.transaction.service.cluster.ClusterServer;
+import net.jpmchase.transaction.service.recovery.RecoveryService;
+import net.jpmchase.transaction.service.wal.DurableBankAccountService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Beans that are created at startup even when {@code spring.main.lazy-initialization} is on (the {@code lean}
+ * profile): recovery of the balance from the journal and write-ahead log, the cluster server other nodes forward to
+ * and the reactive balance server, which are never looked up by anything else but must still run, and the audit
+ * chain, so the first batch cut does not build the journal and sink while holding the balance monitor. Everything
+ * else, including the producers and the servlet web layer, is created on first use.
+ */
+@Configuration
+public class LazyInitializationConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter startupTasks() {
+        return LazyInitializationExcludeFilter.forBeanTypes(RecoveryService.class, DurableBankAccountService.class,
+                ClusterServer.class, ReactiveBalanceServer.class, AuditServiceImpl.class);
+    }
+}
@@ -0,0 +1,46 @@
+package net.jpmchase.transaction.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpmchase.transaction.controller.ReactiveBalanceRoutes;
+import net.jpmchase.transaction.controller.ReactiveBalanceServer;
+import net.jpmchase.transaction.service.BankAccountService;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Reactive serving mode ({@code reactive.enabled}): the balance reads and the balance event stream are also served
+ * by WebFlux on Reactor Netty, on their own port, for connection counts the thread-per-request servlet stack cannot
+ * hold. Uses the same sampling interval, heartbeat and subscriber limit as the servlet stream.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.enabled", havingValue = "true")
+public class ReactiveConfiguration {
+
+    @Bean
+    public ReactiveBalanceRoutes reactiveBalanceRoutes(
+            final BankAccountService bankAccountService,
+            final TransactionAggregator aggregator,
+            final ObjectMapper objectMapper,
+            @Value("${balance-stream.interval-ms}") final Long intervalMillis,
+            @Value("${balance-stream.heartbeat-ms}") final Long heartbeatMillis,
+            @Value("${balance-stream.max-subscribers}") final Integer maxSubscribers) {
+        return new ReactiveBalanceRoutes(bankAccountService, aggregator, objectMapper, intervalMillis,
+                heartbeatMillis, maxSubscribers, Schedulers.parallel());
+    }
+
+    @Bean
+    public ReactiveBalanceServer reactiveBalanceServer(
+            final ReactiveBalanceRoutes routes,
+            final ObjectMapper objectMapper,
+            @Value("${reactive.address}") final String address,
+            @Value("${reactive.port}") final Integer port,
+            @Value("${reactive.event-loop-threads}") final Integer eventLoopThreads) {
+        return new ReactiveBalanceServer(new InetSocketAddress(address, port), eventLoopThreads, routes, objectMapper);
+    }
+}
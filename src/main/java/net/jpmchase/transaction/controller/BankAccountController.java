@@ -1,26 +1,73 @@
 package net.jpmchase.transaction.controller;
 
-import net.jpmchase.transaction.producer.TransactionProducer;
+import net.jpmchase.transaction.codec.BinaryTransactionReader;
+import net.jpmchase.transaction.codec.NdjsonTransactionReader;
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.model.AccountTransactionRequest;
+import net.jpmchase.transaction.model.BalanceSnapshot;
+import net.jpmchase.transaction.model.BatchReconciliation;
+import net.jpmchase.transaction.model.IngestAcknowledgement;
+import net.jpmchase.transaction.model.Money;
+import net.jpmchase.transaction.model.Reconciliation;
+import net.jpmchase.transaction.model.ReconciliationReport;
+import net.jpmchase.transaction.model.TotalBalance;
+import net.jpmchase.transaction.model.WindowAggregate;
 import net.jpmchase.transaction.service.BankAccountService;
+import net.jpmchase.transaction.service.TransactionIngestService;
+import net.jpmchase.transaction.service.account.AccountBalanceService;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.audit.AuditServiceImpl;
+import net.jpmchase.transaction.service.audit.columnar.ReconciliationQuery;
+import net.jpmchase.transaction.service.cluster.OutcomeUnknownException;
+import net.jpmchase.transaction.service.stream.BalanceStream;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
 @RestController
 @RequestMapping("/account")
 public class BankAccountController {
 
-    private static final Logger logger = LogManager.getLogger(TransactionProducer.class);
+    private static final Logger logger = LogManager.getLogger(BankAccountController.class);
+    private static final String NDJSON_VALUE = "application/x-ndjson";
 
     private final BankAccountService bankAccountService;
+    private final AccountBalanceService accountBalanceService;
+    private final TransactionIngestService transactionIngestService;
+    private final TransactionAggregator transactionAggregator;
+    private final AuditServiceImpl auditService;
+    private final BalanceStream balanceStream;
 
-    public BankAccountController(final BankAccountService bankAccountService) {
+    public BankAccountController(final BankAccountService bankAccountService,
+                                 final AccountBalanceService accountBalanceService,
+                                 final TransactionIngestService transactionIngestService,
+                                 final TransactionAggregator transactionAggregator,
+                                 final AuditServiceImpl auditService,
+                                 final BalanceStream balanceStream) {
         this.bankAccountService = bankAccountService;
+        this.accountBalanceService = accountBalanceService;
+        this.transactionIngestService = transactionIngestService;
+        this.transactionAggregator = transactionAggregator;
+        this.auditService = auditService;
+        this.balanceStream = balanceStream;
     }
 
     @GetMapping("/balance")
@@ -29,9 +76,202 @@ public class BankAccountController {
             return ResponseEntity.ok(bankAccountService.retrieveBalance());
         }
         catch (final Exception ex) {
-            logger.info("Error occurred while retrieving account balance");
+            logger.error("Error occurred while retrieving account balance", ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while retrieving account balance: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Balance together with the transaction count, last audit batch number and publication version it belongs to.
+     * Served without waiting for writers.
+     */
+    @GetMapping("/balance/snapshot")
+    public ResponseEntity<BalanceSnapshot> getBalanceSnapshot() {
+        try {
+            return ResponseEntity.ok(bankAccountService.retrieveBalanceSnapshot());
+        }
+        catch (final Exception ex) {
+            logger.error("Error occurred while retrieving account balance snapshot", ex);
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
                     "Error occurred while retrieving account balance: " + ex.getMessage());
         }
     }
+
+    /**
+     * Server-sent events carrying the {@link BalanceSnapshot} whenever it changes, sampled at most once per
+     * {@code balance-stream.interval-ms}; the event id is the snapshot version. The connection is held without a
+     * request thread, so many clients can stay subscribed instead of polling. Writes still block a sender thread, so
+     * for tens of thousands of clients the same stream is served non-blocking by {@link ReactiveBalanceRoutes}
+     * ({@code reactive.enabled}).
+     */
+    @GetMapping(value = "/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalance() {
+        try {
+            return balanceStream.subscribe();
+        }
+        catch (final IllegalStateException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        }
+    }
+
+    /**
+     * Rolling 1 second, 1 minute and 1 hour aggregates of the processed transaction stream.
+     */
+    @GetMapping("/aggregates")
+    public ResponseEntity<List<WindowAggregate>> getAggregates() {
+        try {
+            return ResponseEntity.ok(transactionAggregator.aggregates());
+        }
+        catch (final Exception ex) {
+            logger.error("Error occurred while retrieving transaction aggregates", ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while retrieving transaction aggregates: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Audited credit, debit and net totals set against the live balance, optionally restricted to a range of batch
+     * numbers and a journal time range ({@code from} inclusive, {@code to} exclusive, epoch millis).
+     */
+    @GetMapping("/reconciliation")
+    public ResponseEntity<ReconciliationReport> getReconciliation(
+            @RequestParam(required = false) final Integer fromBatch,
+            @RequestParam(required = false) final Integer toBatch,
+            @RequestParam(required = false) final Long from,
+            @RequestParam(required = false) final Long to) {
+        try {
+            final long liveBalance = bankAccountService.retrieveBalanceInMinorUnits();
+            final Reconciliation audited = auditService.reconcile(
+                    ReconciliationQuery.of(fromBatch, toBatch, from, to));
+            return ResponseEntity.ok(new ReconciliationReport(audited, Money.toMajorUnits(liveBalance),
+                    Money.toMajorUnits(liveBalance - audited.netFlowInMinorUnits())));
+        }
+        catch (final IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        catch (final Exception ex) {
+            logger.error("Error occurred while reconciling audit history", ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while reconciling audit history: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Totals of each audited batch, with the same optional filters as {@code /reconciliation}.
+     */
+    @GetMapping("/reconciliation/batches")
+    public ResponseEntity<List<BatchReconciliation>> getBatchReconciliation(
+            @RequestParam(required = false) final Integer fromBatch,
+            @RequestParam(required = false) final Integer toBatch,
+            @RequestParam(required = false) final Long from,
+            @RequestParam(required = false) final Long to) {
+        try {
+            return ResponseEntity.ok(auditService.reconcileBatches(
+                    ReconciliationQuery.of(fromBatch, toBatch, from, to)));
+        }
+        catch (final IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        catch (final Exception ex) {
+            logger.error("Error occurred while reconciling audit batches", ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while reconciling audit history: " + ex.getMessage());
+        }
+    }
+
+    @GetMapping("/{accountNumber}/balance")
+    public ResponseEntity<Double> getAccountBalance(@PathVariable final String accountNumber) {
+        try {
+            return ResponseEntity.ok(accountBalanceService.retrieveBalance(accountNumber));
+        }
+        catch (final IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        catch (final NoSuchElementException ex) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, ex.getMessage());
+        }
+        catch (final UncheckedIOException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        }
+        catch (final Exception ex) {
+            logger.error("Error occurred while retrieving balance for account {}", accountNumber, ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while retrieving account balance: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Apply one transaction to an account in the per-account engine, opening the account on its first accepted
+     * transaction. A debit that breaks the account's limits is answered with 422 and the reason. In partitioned
+     * mode, accounts owned by another cluster node are forwarded to it; if the owner's answer is lost the outcome is
+     * unknown and the answer is 504, and the transaction can be resent with the same id, which the owner applies at
+     * most once.
+     */
+    @PostMapping(value = "/{accountNumber}/transactions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<TransactionResult> postAccountTransaction(
+            @PathVariable final String accountNumber,
+            @RequestBody final AccountTransactionRequest request) {
+        try {
+            final TransactionResult result = accountBalanceService.processTransaction(accountNumber,
+                    request.toTransaction());
+            return ResponseEntity.status(result == TransactionResult.ACCEPTED
+                    ? HttpStatus.OK
+                    : HttpStatus.UNPROCESSABLE_ENTITY).body(result);
+        }
+        catch (final IllegalArgumentException | NullPointerException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        catch (final OutcomeUnknownException ex) {
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, ex.getMessage());
+        }
+        catch (final UncheckedIOException ex) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        }
+        catch (final Exception ex) {
+            logger.error("Error occurred while processing transaction for account {}", accountNumber, ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while processing transaction: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Sum of every account balance, gathered from all cluster nodes; nodes that did not answer are listed.
+     */
+    @GetMapping("/total-balance")
+    public ResponseEntity<TotalBalance> getTotalBalance() {
+        try {
+            return ResponseEntity.ok(accountBalanceService.retrieveTotalBalance());
+        }
+        catch (final Exception ex) {
+            logger.error("Error occurred while retrieving total balance", ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while retrieving total balance: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Stream a batch of transactions, either as NDJSON ({@code application/x-ndjson}) or as length-prefixed binary
+     * frames ({@code application/octet-stream}), acknowledged once the whole body has been processed.
+     */
+    @PostMapping(value = "/transactions", consumes = {NDJSON_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<IngestAcknowledgement> postTransactions(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) final MediaType contentType,
+            final InputStream body) {
+        try {
+            final long accepted = transactionIngestService.ingest(
+                    MediaType.APPLICATION_OCTET_STREAM.isCompatibleWith(contentType)
+                            ? new BinaryTransactionReader(body)
+                            : new NdjsonTransactionReader(body));
+            return ResponseEntity.ok(new IngestAcknowledgement(accepted));
+        }
+        catch (final IllegalArgumentException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        catch (final Exception ex) {
+            logger.error("Error occurred while ingesting transactions", ex);
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
+                    "Error occurred while ingesting transactions: " + ex.getMessage());
+        }
+    }
 }
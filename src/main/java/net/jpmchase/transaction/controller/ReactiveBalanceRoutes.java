@@ -0,0 +1,140 @@
+package net.jpmchase.transaction.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpmchase.transaction.model.BalanceSnapshot;
+import net.jpmchase.transaction.service.BankAccountService;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The read side of {@link BankAccountController} as WebFlux functional routes, for very many concurrent clients:
+ * the balance, its snapshot, the rolling aggregates and the balance event stream. Served on event-loop threads by
+ * {@link ReactiveBalanceServer}; every read is the lock-free balance seqlock or the aggregator's optimistic read, so
+ * no handler blocks an event loop and no client holds a thread.
+ * <p>
+ * The stream samples the snapshot once per interval for all subscribers together and serialises each change once;
+ * the event id is the snapshot version and a new subscriber starts from the latest one. Each subscriber keeps only
+ * its latest undelivered event, so a client that stops reading costs neither a thread nor a growing queue: its
+ * socket is simply not written until it drains, and it then receives the newest version. A comment is sent every
+ * heartbeat interval so connections that have gone away are found and closed.
+ */
+public class ReactiveBalanceRoutes implements MeterBinder {
+
+    static final String EVENT_NAME = "balance";
+    private static final ServerSentEvent<String> HEARTBEAT = ServerSentEvent.<String>builder().comment("").build();
+
+    private final BankAccountService bankAccountService;
+    private final TransactionAggregator aggregator;
+    private final ObjectMapper objectMapper;
+    private final Duration heartbeat;
+    private final int maxSubscribers;
+    private final Scheduler scheduler;
+    private final Flux<ServerSentEvent<String>> changes;
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    /**
+     * @param intervalMillis  how often the balance is sampled for the stream; changes in between are conflated
+     * @param heartbeatMillis how often each stream gets a comment
+     * @param maxSubscribers  open streams allowed, checked when a stream is requested
+     * @param scheduler       timer for sampling and heartbeats
+     */
+    public ReactiveBalanceRoutes(final BankAccountService bankAccountService,
+                                 final TransactionAggregator aggregator,
+                                 final ObjectMapper objectMapper,
+                                 final Long intervalMillis,
+                                 final Long heartbeatMillis,
+                                 final Integer maxSubscribers,
+                                 final Scheduler scheduler) {
+        this.bankAccountService = notNull(bankAccountService, "bankAccountService must not be null");
+        this.aggregator = notNull(aggregator, "aggregator must not be null");
+        this.objectMapper = notNull(objectMapper, "objectMapper must not be null");
+        notNull(intervalMillis, "intervalMillis must not be null");
+        notNull(heartbeatMillis, "heartbeatMillis must not be null");
+        notNull(maxSubscribers, "maxSubscribers must not be null");
+        isTrue(intervalMillis > 0, "intervalMillis must be positive");
+        isTrue(heartbeatMillis > 0, "heartbeatMillis must be positive");
+        isTrue(maxSubscribers > 0, "maxSubscribers must be positive");
+        this.heartbeat = Duration.ofMillis(heartbeatMillis);
+        this.maxSubscribers = maxSubscribers;
+        this.scheduler = notNull(scheduler, "scheduler must not be null");
+
+        this.changes = Flux.interval(Duration.ZERO, Duration.ofMillis(intervalMillis), scheduler)
+                .onBackpressureDrop()
+                .map(tick -> bankAccountService.retrieveBalanceSnapshot())
+                .distinctUntilChanged(BalanceSnapshot::version)
+                .map(this::event)
+                .replay(1)
+                .refCount();
+    }
+
+    public RouterFunction<ServerResponse> routes() {
+        return RouterFunctions.route()
+                .GET("/account/balance", request -> json(bankAccountService.retrieveBalance()))
+                .GET("/account/balance/snapshot", request -> json(bankAccountService.retrieveBalanceSnapshot()))
+                .GET("/account/balance/stream", this::stream)
+                .GET("/account/aggregates", request -> json(aggregator.aggregates()))
+                .build();
+    }
+
+    private static Mono<ServerResponse> json(final Object body) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+
+    private Mono<ServerResponse> stream(final ServerRequest request) {
+        if (subscriberCount.get() >= maxSubscribers) {
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .bodyValue("Balance stream subscriber limit of " + maxSubscribers + " reached");
+        }
+        final Flux<ServerSentEvent<String>> events = Flux.merge(
+                        changes.onBackpressureLatest(),
+                        Flux.interval(heartbeat, heartbeat, scheduler).onBackpressureDrop().map(tick -> HEARTBEAT))
+                .doOnSubscribe(subscription -> subscriberCount.incrementAndGet())
+                .doFinally(signal -> subscriberCount.decrementAndGet());
+        return ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .body(BodyInserters.fromServerSentEvents(events));
+    }
+
+    private ServerSentEvent<String> event(final BalanceSnapshot snapshot) {
+        try {
+            return ServerSentEvent.builder(objectMapper.writeValueAsString(snapshot))
+                    .id(Long.toString(snapshot.version()))
+                    .event(EVENT_NAME)
+                    .build();
+        } catch (final JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("balance.stream.reactive.subscribers", this, ReactiveBalanceRoutes::subscriberCount)
+                .description("Open balance event streams on the reactive endpoint")
+                .register(registry);
+    }
+}
@@ -0,0 +1,72 @@
+package net.jpmchase.transaction.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+import java.net.InetSocketAddress;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Reactor Netty server for the {@link ReactiveBalanceRoutes}, alongside the servlet container. Every connection is
+ * multiplexed over a few event-loop threads, so tens of thousands of open balance streams cost socket buffers rather
+ * than threads. Listens from construction until {@link #close()}.
+ */
+public class ReactiveBalanceServer implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(ReactiveBalanceServer.class);
+
+    private final LoopResources loops;
+    private final DisposableServer server;
+
+    /**
+     * @param bindAddress      address to listen on; port 0 picks a free port
+     * @param eventLoopThreads threads serving every connection
+     * @param routes           the routes to serve
+     * @param objectMapper     JSON mapper shared with the servlet endpoints
+     */
+    public ReactiveBalanceServer(final InetSocketAddress bindAddress,
+                                 final Integer eventLoopThreads,
+                                 final ReactiveBalanceRoutes routes,
+                                 final ObjectMapper objectMapper) {
+        notNull(bindAddress, "bindAddress must not be null");
+        notNull(eventLoopThreads, "eventLoopThreads must not be null");
+        isTrue(eventLoopThreads > 0, "eventLoopThreads must be positive");
+        notNull(routes, "routes must not be null");
+        notNull(objectMapper, "objectMapper must not be null");
+
+        final HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        this.loops = LoopResources.create("reactive-balance", 1, eventLoopThreads, true);
+        this.server = HttpServer.create()
+                .bindAddress(() -> bindAddress)
+                .runOn(loops)
+                .handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(routes.routes(), strategies)))
+                .bindNow();
+        logger.info("Reactive balance API listening on {}", server.address());
+    }
+
+    public InetSocketAddress localAddress() {
+        return (InetSocketAddress) server.address();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+        loops.dispose();
+    }
+}
@@ -0,0 +1,13 @@
+package net.jpmchase.transaction.enums;
+
+/**
+ * Downstream system that journaled audit batches are delivered to.
+ */
+public enum AuditSinkType {
+    /** No downstream system; batches are only journaled. */
+    NONE,
+    /** Append deflated frames to a local file. */
+    FILE,
+    /** Stream frames to a TCP or Unix domain socket. */
+    SOCKET
+}
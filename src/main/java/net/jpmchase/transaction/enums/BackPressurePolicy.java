@@ -0,0 +1,13 @@
+package net.jpmchase.transaction.enums;
+
+/**
+ * What the asynchronous audit stage does with a batch when its queue is full.
+ */
+public enum BackPressurePolicy {
+    /** Wait for room in the queue, stalling the ingest thread. */
+    BLOCK,
+    /** Discard the batch and count it as dropped. */
+    DROP,
+    /** Write the batch to disk and publish it once the queue has drained, preserving batch order. */
+    SPILL
+}
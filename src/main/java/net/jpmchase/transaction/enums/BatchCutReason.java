@@ -0,0 +1,15 @@
+package net.jpmchase.transaction.enums;
+
+/**
+ * Why a pending audit batch was cut.
+ */
+public enum BatchCutReason {
+    /** The batch reached the policy's current transaction count limit. */
+    SIZE,
+    /** The batch reached the configured value ceiling. */
+    VALUE,
+    /** The batch waited longer than the policy's current linger time. */
+    LINGER,
+    /** The pending batch was cut on demand, for example at shutdown. */
+    FLUSH
+}
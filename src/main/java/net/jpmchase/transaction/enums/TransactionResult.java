@@ -0,0 +1,17 @@
+package net.jpmchase.transaction.enums;
+
+/**
+ * Outcome of applying a transaction to an account.
+ */
+public enum TransactionResult {
+    /** The transaction was applied to the balance. */
+    ACCEPTED,
+    /** The debit would have taken the balance below the account's overdraft limit. */
+    REJECTED_OVERDRAFT,
+    /** The debit exceeded the account's maximum single debit. */
+    REJECTED_DEBIT_LIMIT;
+
+    public boolean isAccepted() {
+        return this == ACCEPTED;
+    }
+}
@@ -0,0 +1,17 @@
+package net.jpmchase.transaction.model;
+
+import net.jpmchase.transaction.enums.TransactionType;
+
+/**
+ * Body of a single transaction posted against an account.
+ *
+ * @param id              transaction id
+ * @param amount          amount in major units
+ * @param transactionType credit or debit
+ */
+public record AccountTransactionRequest(String id, double amount, TransactionType transactionType) {
+
+    public Transaction toTransaction() {
+        return new Transaction(id, amount, transactionType);
+    }
+}
@@ -0,0 +1,20 @@
+package net.jpmchase.transaction.model;
+
+/**
+ * A consistent view of the account balance as published by the writer.
+ *
+ * @param version             number of publications so far; a higher version is a later state
+ * @param balance             balance in major units
+ * @param balanceInMinorUnits exact balance in minor units (pence)
+ * @param transactionCount    transactions applied since start-up or recovery
+ * @param lastBatchNumber     number of the last audit batch published, or -1 if none has been
+ */
+public record BalanceSnapshot(long version, double balance, long balanceInMinorUnits, long transactionCount,
+                              int lastBatchNumber) {
+
+    public static BalanceSnapshot of(final long version, final long balanceInMinorUnits, final long transactionCount,
+                                     final int lastBatchNumber) {
+        return new BalanceSnapshot(version, Money.toMajorUnits(balanceInMinorUnits), balanceInMinorUnits,
+                transactionCount, lastBatchNumber);
+    }
+}
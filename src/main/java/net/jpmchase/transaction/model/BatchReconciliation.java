@@ -0,0 +1,16 @@
+package net.jpmchase.transaction.model;
+
+/**
+ * Totals of one audit batch. Amounts are in major units.
+ *
+ * @param batchNumber     audit batch number
+ * @param timestampMillis time the batch was journaled
+ * @param creditCount     credits in the batch
+ * @param creditVolume    total credited
+ * @param debitCount      debits in the batch
+ * @param debitVolume     total debited
+ * @param netFlow         credits less debits
+ */
+public record BatchReconciliation(int batchNumber, long timestampMillis, long creditCount, double creditVolume,
+                                  long debitCount, double debitVolume, double netFlow) {
+}
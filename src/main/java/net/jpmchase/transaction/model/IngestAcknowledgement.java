@@ -0,0 +1,9 @@
+package net.jpmchase.transaction.model;
+
+/**
+ * Single acknowledgement for a streamed batch of transactions.
+ *
+ * @param accepted number of transactions accepted from the batch
+ */
+public record IngestAcknowledgement(long accepted) {
+}
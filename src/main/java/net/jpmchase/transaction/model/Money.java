@@ -0,0 +1,43 @@
+package net.jpmchase.transaction.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point money arithmetic. Amounts are carried as a {@code long} number of minor units (pence), which keeps
+ * sums exact and independent of the order they are added in.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    public static final long MINOR_UNITS_PER_MAJOR = 100L;
+
+    private Money() {
+    }
+
+    /**
+     * Convert a major-unit amount to minor units, rounding half up to the nearest penny.
+     */
+    public static long toMinorUnits(final double amount) {
+        return Math.round(amount * MINOR_UNITS_PER_MAJOR);
+    }
+
+    /**
+     * Convert a whole major-unit amount to minor units, saturating at {@link Long#MAX_VALUE}/{@link Long#MIN_VALUE}.
+     */
+    public static long toMinorUnits(final long amount) {
+        final long high = Math.multiplyHigh(amount, MINOR_UNITS_PER_MAJOR);
+        final long low = amount * MINOR_UNITS_PER_MAJOR;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) return low;
+        return amount < 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+    }
+
+    public static double toMajorUnits(final long amountInMinorUnits) {
+        return (double) amountInMinorUnits / MINOR_UNITS_PER_MAJOR;
+    }
+
+    /**
+     * Render minor units as a plain decimal string, e.g. {@code 12345} as {@code "123.45"}.
+     */
+    public static String format(final long amountInMinorUnits) {
+        return BigDecimal.valueOf(amountInMinorUnits, SCALE).toPlainString();
+    }
+}
@@ -0,0 +1,28 @@
+package net.jpmchase.transaction.model;
+
+/**
+ * Totals of the audited transactions matching a reconciliation query. Amounts are in major units, with the net
+ * flow also in exact minor units for comparison against balances.
+ *
+ * @param batchCount          audit batches matched
+ * @param transactionCount    transactions in those batches
+ * @param creditCount         credits among them
+ * @param creditVolume        total credited
+ * @param debitCount          debits among them
+ * @param debitVolume         total debited
+ * @param netFlow             credits less debits
+ * @param netFlowInMinorUnits credits less debits in minor units
+ */
+public record Reconciliation(long batchCount, long transactionCount, long creditCount, double creditVolume,
+                             long debitCount, double debitVolume, double netFlow, long netFlowInMinorUnits) {
+
+    public static Reconciliation of(final long batchCount,
+                                    final long creditCount, final long creditVolumeInMinorUnits,
+                                    final long debitCount, final long debitVolumeInMinorUnits) {
+        final long net = creditVolumeInMinorUnits - debitVolumeInMinorUnits;
+        return new Reconciliation(batchCount, creditCount + debitCount,
+                creditCount, Money.toMajorUnits(creditVolumeInMinorUnits),
+                debitCount, Money.toMajorUnits(debitVolumeInMinorUnits),
+                Money.toMajorUnits(net), net);
+    }
+}
@@ -0,0 +1,12 @@
+package net.jpmchase.transaction.model;
+
+/**
+ * Audited totals set against the live balance. Amounts are in major units.
+ *
+ * @param audited     totals of the audited transactions matched
+ * @param liveBalance balance currently served by the bank account service
+ * @param unaudited   live balance less the audited net flow; over the full history this is the net of transactions
+ *                    not yet cut into a journaled batch, and anything else points at a discrepancy
+ */
+public record ReconciliationReport(Reconciliation audited, double liveBalance, double unaudited) {
+}
@@ -0,0 +1,22 @@
+package net.jpmchase.transaction.model;
+
+import java.util.List;
+
+/**
+ * Sum of all account balances, gathered from every node that answered.
+ *
+ * @param balance             total balance in major units
+ * @param balanceInMinorUnits total balance in minor units
+ * @param accountCount        accounts tracked by the nodes that answered
+ * @param nodesReached        nodes included in the totals
+ * @param unreachableNodes    nodes that did not answer, whose accounts are missing from the totals
+ */
+public record TotalBalance(double balance, long balanceInMinorUnits, long accountCount, int nodesReached,
+                           List<String> unreachableNodes) {
+
+    public static TotalBalance of(final long balanceInMinorUnits, final long accountCount, final int nodesReached,
+                                  final List<String> unreachableNodes) {
+        return new TotalBalance(Money.toMajorUnits(balanceInMinorUnits), balanceInMinorUnits, accountCount,
+                nodesReached, List.copyOf(unreachableNodes));
+    }
+}
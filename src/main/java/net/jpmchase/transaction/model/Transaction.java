@@ -2,32 +2,171 @@ package net.jpmchase.transaction.model;
 
 import net.jpmchase.transaction.enums.TransactionType;
 
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
 
 public class Transaction {
-    private final String id;
-    private final double amount;
+    /**
+     * Longest id in UTF-8 bytes, the width of the audit journal's id field. Longer ids are rejected here, at ingest,
+     * so every accepted transaction can be journaled.
+     */
+    public static final int MAX_ID_BYTES = 48;
+    private static final int UUID_LENGTH = 36;
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final long amountInMinorUnits;
     private final TransactionType transactionType;
+    private final boolean uuidId;
+    private final long idMostSignificantBits;
+    private final long idLeastSignificantBits;
+    private String id; // rendered from the UUID bits on first use when uuidId, otherwise set at construction
 
     public Transaction(final String id,
                        final double amount,
                        final TransactionType transactionType) {
+        this(id, Money.toMinorUnits(amount), transactionType);
+    }
+
+    private Transaction(final String id,
+                        final long amountInMinorUnits,
+                        final TransactionType transactionType) {
         this.id = notNull(id, "id must not be null");
-        this.amount = amount;
+        isTrue(utf8Length(id) <= MAX_ID_BYTES, "id must not be longer than %d bytes", MAX_ID_BYTES);
+        this.amountInMinorUnits = amountInMinorUnits;
+        this.transactionType = notNull(transactionType, "transactionType must not be null");
+        this.uuidId = false;
+        this.idMostSignificantBits = 0L;
+        this.idLeastSignificantBits = 0L;
+    }
+
+    private Transaction(final long idMostSignificantBits,
+                        final long idLeastSignificantBits,
+                        final long amountInMinorUnits,
+                        final TransactionType transactionType) {
+        this.amountInMinorUnits = amountInMinorUnits;
         this.transactionType = notNull(transactionType, "transactionType must not be null");
+        this.uuidId = true;
+        this.idMostSignificantBits = idMostSignificantBits;
+        this.idLeastSignificantBits = idLeastSignificantBits;
+    }
+
+    /**
+     * Create a transaction from an amount already held in minor units (pence).
+     */
+    public static Transaction ofMinorUnits(final String id,
+                                           final long amountInMinorUnits,
+                                           final TransactionType transactionType) {
+        return new Transaction(id, amountInMinorUnits, transactionType);
+    }
+
+    /**
+     * Create a transaction identified by the 128 bits of a UUID. The canonical id string is rendered only if
+     * {@link #getId()} is called, so producing, deduplicating and journaling such a transaction allocates no id.
+     */
+    public static Transaction ofUuid(final long idMostSignificantBits,
+                                     final long idLeastSignificantBits,
+                                     final long amountInMinorUnits,
+                                     final TransactionType transactionType) {
+        return new Transaction(idMostSignificantBits, idLeastSignificantBits, amountInMinorUnits, transactionType);
     }
 
     public String getId() {
-        return id;
+        String rendered = id;
+        if (rendered == null) {
+            rendered = new UUID(idMostSignificantBits, idLeastSignificantBits).toString();
+            id = rendered;
+        }
+        return rendered;
+    }
+
+    /**
+     * Whether the id is held as UUID bits, readable without rendering it through {@link #getIdMostSignificantBits()}
+     * and {@link #getIdLeastSignificantBits()}.
+     */
+    public boolean hasUuidId() {
+        return uuidId;
+    }
+
+    public long getIdMostSignificantBits() {
+        return idMostSignificantBits;
+    }
+
+    public long getIdLeastSignificantBits() {
+        return idLeastSignificantBits;
+    }
+
+    /**
+     * Length of the id in UTF-8 bytes.
+     */
+    public int getIdLength() {
+        return uuidId ? UUID_LENGTH : utf8Length(id);
+    }
+
+    /**
+     * Write the id as UTF-8 into {@code target} from index 0, without allocating unless it has non-ASCII characters.
+     *
+     * @param target array of at least {@link #MAX_ID_BYTES} bytes
+     * @return the number of bytes written
+     */
+    public int encodeId(final byte[] target) {
+        if (uuidId) {
+            hex(idMostSignificantBits >>> 32, 8, target, 0);
+            target[8] = '-';
+            hex(idMostSignificantBits >>> 16, 4, target, 9);
+            target[13] = '-';
+            hex(idMostSignificantBits, 4, target, 14);
+            target[18] = '-';
+            hex(idLeastSignificantBits >>> 48, 4, target, 19);
+            target[23] = '-';
+            hex(idLeastSignificantBits, 12, target, 24);
+            return UUID_LENGTH;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            final char c = id.charAt(i);
+            if (c >= 0x80) {
+                final byte[] utf8 = id.getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(utf8, 0, target, 0, utf8.length);
+                return utf8.length;
+            }
+            target[i] = (byte) c;
+        }
+        return id.length();
     }
 
     public double getAmount() {
-        return amount;
+        return Money.toMajorUnits(amountInMinorUnits);
+    }
+
+    public long getAmountInMinorUnits() {
+        return amountInMinorUnits;
+    }
+
+    /**
+     * The amount in minor units with the sign of its {@link TransactionType#getImpact() impact} on a balance.
+     */
+    public long getSignedAmountInMinorUnits() {
+        return amountInMinorUnits * transactionType.getImpact();
     }
 
     public TransactionType getTransactionType() {
         return transactionType;
     }
 
+    private static int utf8Length(final String id) {
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) >= 0x80) return id.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return id.length();
+    }
+
+    private static void hex(long value, final int digits, final byte[] target, final int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            target[i] = HEX_DIGITS[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
 }
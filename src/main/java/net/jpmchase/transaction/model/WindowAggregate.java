@@ -0,0 +1,19 @@
+package net.jpmchase.transaction.model;
+
+/**
+ * Aggregates of the transactions processed over a rolling window ending now. Amounts are in major units.
+ *
+ * @param window           window name, e.g. {@code 1m}
+ * @param windowSeconds    window length in seconds
+ * @param count            transactions processed in the window
+ * @param transactionsPerSecond average throughput over the window
+ * @param creditVolume     total credited
+ * @param debitVolume      total debited
+ * @param netFlow          credits less debits
+ * @param minAmount        smallest single amount, or 0 if the window is empty
+ * @param maxAmount        largest single amount, or 0 if the window is empty
+ */
+public record WindowAggregate(String window, double windowSeconds, long count, double transactionsPerSecond,
+                              double creditVolume, double debitVolume, double netFlow,
+                              double minAmount, double maxAmount) {
+}
@@ -1,73 +1,203 @@
 package net.jpmchase.transaction.producer;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Money;
 import net.jpmchase.transaction.model.Transaction;
 import net.jpmchase.transaction.service.BankAccountService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Component;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Random;
-import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Load generator feeding random credits and debits into the {@link BankAccountService}.
+ * <p>
+ * {@code producer-count} workers each pace themselves to an equal share of {@code target-tps} against a fixed
+ * schedule, producing every transaction that has fallen due when they wake, so the target holds even when it is
+ * far above the timer resolution. A target of zero produces as fast as the service accepts. Achieved throughput
+ * and lag behind the target are reported every {@code report-interval-seconds}. A worker whose transaction fails
+ * backs off for {@value #ERROR_BACKOFF_MILLIS} ms before producing again. Setting {@code enabled} to false
+ * leaves the producer out of the context altogether.
+ */
 @Component
-public class TransactionProducer {
+@ConditionalOnProperty(name = "transaction-producer.enabled", havingValue = "true", matchIfMissing = true)
+@DependsOn("recoveryService")
+public class TransactionProducer implements MeterBinder {
     private static final Logger logger = LogManager.getLogger(TransactionProducer.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long ERROR_BACKOFF_MILLIS = 100L;
+    private static final long ERROR_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(ERROR_BACKOFF_MILLIS);
+
     private final BankAccountService bankAccountService;
-    private final Long lowerLimit;
-    private final Long upperLimit;
+    private final long lowerLimit;
+    private final long upperLimit;
+    private final long targetTps;
+    private final int producerCount;
+    private final double creditRatio;
+    private final long reportIntervalSeconds;
+    private final LongAdder produced = new LongAdder();
+    private ExecutorService producers;
+    private ScheduledExecutorService reporter;
+    private volatile long startNanos;
+    private volatile long lastReportNanos;
+    private volatile long lastReportCount;
+    private volatile double achievedTps;
+    private volatile boolean running;
 
     public TransactionProducer(final BankAccountService bankAccountService,
                                @Value("${transaction-producer.amount-lower-limit}") final Long lowerLimit,
-                               @Value("${transaction-producer.amount-lower-limit}") final Long upperLimit) {
-        this.bankAccountService = bankAccountService;
-        this.lowerLimit = lowerLimit;
-        this.upperLimit = upperLimit;
+                               @Value("${transaction-producer.amount-upper-limit}") final Long upperLimit,
+                               @Value("${transaction-producer.target-tps}") final Long targetTps,
+                               @Value("${transaction-producer.producer-count}") final Integer producerCount,
+                               @Value("${transaction-producer.credit-ratio}") final Double creditRatio,
+                               @Value("${transaction-producer.report-interval-seconds}") final Long reportIntervalSeconds) {
+        this.bankAccountService = notNull(bankAccountService, "bankAccountService must not be null");
+        this.lowerLimit = Money.toMinorUnits(notNull(lowerLimit, "lowerLimit must not be null").longValue());
+        this.upperLimit = Money.toMinorUnits(notNull(upperLimit, "upperLimit must not be null").longValue());
+        this.targetTps = notNull(targetTps, "targetTps must not be null");
+        this.producerCount = notNull(producerCount, "producerCount must not be null");
+        this.creditRatio = notNull(creditRatio, "creditRatio must not be null");
+        this.reportIntervalSeconds = notNull(reportIntervalSeconds, "reportIntervalSeconds must not be null");
+        isTrue(lowerLimit <= upperLimit, "lowerLimit must not exceed upperLimit");
+        isTrue(targetTps >= 0, "targetTps must not be negative");
+        isTrue(producerCount > 0, "producerCount must be positive");
+        inclusiveBetween(0.0, 1.0, creditRatio, "creditRatio must be between 0 and 1");
+        isTrue(reportIntervalSeconds > 0, "reportIntervalSeconds must be positive");
     }
 
     @PostConstruct
     public void startProducing() {
-        Executors.newFixedThreadPool(10).execute(this::produceCredits);
-        Executors.newFixedThreadPool(10).execute(this::produceDebits);
+        running = true;
+        startNanos = System.nanoTime();
+        lastReportNanos = startNanos;
+        producers = Executors.newFixedThreadPool(producerCount, daemonThreads("transaction-producer"));
+        for (int i = 0; i < producerCount; i++) {
+            producers.execute(this::produce);
+        }
+        reporter = Executors.newSingleThreadScheduledExecutor(daemonThreads("transaction-producer-report"));
+        reporter.scheduleAtFixedRate(this::report, reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
     }
 
-    private void produceCredits() {
-        while(true) {
-            Transaction credit = generateRandomTxn(TransactionType.CREDIT);
-            bankAccountService.processTransaction(credit);
-            try {
-                Thread.sleep(40);  // 25 credits per second
-            } catch (final InterruptedException e) {
-                logger.error("Error in credit producer thread", e);
-                Thread.currentThread().interrupt();
-                break;
-            }
-        }
+    @PreDestroy
+    public void stopProducing() {
+        running = false;
+        if (producers != null) producers.shutdownNow();
+        if (reporter != null) reporter.shutdownNow();
+    }
+
+    public long producedTransactions() {
+        return produced.sum();
+    }
+
+    /**
+     * Throughput achieved over the last report interval, in transactions per second.
+     */
+    public double achievedTps() {
+        return achievedTps;
     }
 
-    private void produceDebits() {
-        while(true) {
-            Transaction debit = generateRandomTxn(TransactionType.DEBIT);
-            bankAccountService.processTransaction(debit);
+    /**
+     * Transactions the producers are behind the target schedule since they started; zero when unthrottled.
+     */
+    public long lagTransactions() {
+        if (targetTps == 0 || !running) return 0L;
+        final long due = (long) ((double) (System.nanoTime() - startNanos) * targetTps / NANOS_PER_SECOND);
+        return Math.max(0L, due - produced.sum());
+    }
+
+    public long targetTps() {
+        return targetTps;
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("transaction.producer.produced", this, TransactionProducer::producedTransactions)
+                .description("Transactions submitted by the producers")
+                .register(registry);
+        Gauge.builder("transaction.producer.achieved.tps", this, TransactionProducer::achievedTps)
+                .description("Throughput achieved over the last report interval")
+                .register(registry);
+        Gauge.builder("transaction.producer.target.tps", this, TransactionProducer::targetTps)
+                .description("Configured throughput target, zero when unthrottled")
+                .register(registry);
+        Gauge.builder("transaction.producer.lag", this, TransactionProducer::lagTransactions)
+                .description("Transactions the producers are behind the target schedule")
+                .register(registry);
+    }
+
+    private void produce() {
+        final long intervalNanos = targetTps == 0 ? 0L : NANOS_PER_SECOND * producerCount / targetTps;
+        long next = System.nanoTime();
+        while (running && !Thread.currentThread().isInterrupted()) {
             try {
-                Thread.sleep(40);  // 25 debits per second
-            } catch (InterruptedException e) {
-                logger.error("Error in debit producer thread", e);
-                Thread.currentThread().interrupt();
-                break;
+                final long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+                do {
+                    bankAccountService.processTransaction(generateRandomTxn());
+                    produced.increment();
+                    next += intervalNanos;
+                } while (running && next <= now);
+            } catch (final RuntimeException e) {
+                logger.error("Error in transaction producer thread", e);
+                // skip the failed slot and pause, so a failing service is not retried in a tight loop
+                next = Math.max(next + intervalNanos, System.nanoTime() + ERROR_BACKOFF_NANOS);
             }
         }
     }
 
-    private Transaction generateRandomTxn(final TransactionType transactionType){
-        return new Transaction(
-                UUID.randomUUID().toString(),
-                new Random().nextDouble() * (upperLimit - lowerLimit) + lowerLimit,
-                transactionType
+    private void report() {
+        final long now = System.nanoTime();
+        final long count = produced.sum();
+        achievedTps = (double) (count - lastReportCount) * NANOS_PER_SECOND / Math.max(1L, now - lastReportNanos);
+        lastReportNanos = now;
+        lastReportCount = count;
+        logger.info("Produced {} transactions, achieved {} tx/s against target {} tx/s, lagging by {}",
+                count, Math.round(achievedTps), targetTps, lagTransactions());
+    }
+
+    private Transaction generateRandomTxn(){
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        // random (version 4, IETF variant) UUID bits, as UUID.randomUUID() lays them out, never rendered as text
+        return Transaction.ofUuid(
+                (random.nextLong() & ~0xF000L) | 0x4000L,
+                (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L,
+                random.nextLong(lowerLimit, upperLimit + 1),
+                random.nextDouble() < creditRatio ? TransactionType.CREDIT : TransactionType.DEBIT
         );
     }
 
+    private static ThreadFactory daemonThreads(final String name) {
+        final AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, name + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
 }
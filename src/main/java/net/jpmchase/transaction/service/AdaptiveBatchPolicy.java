@@ -0,0 +1,137 @@
+package net.jpmchase.transaction.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpmchase.transaction.enums.BatchCutReason;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.exclusiveBetween;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * {@link BatchPolicy} that sizes batches from the observed ingest rate and audit publish latency.
+ * <p>
+ * Each cut updates moving averages of the ingest rate and of the audit publish latency, which covers journaling and
+ * downstream delivery even when the sink delivers after {@code publishBatch} returns. The policy then aims for one
+ * batch per {@code publishLatency / publishOverhead}, so publishing takes at most that share of ingest time, clamped
+ * to the configured linger range. The size limit is the number of transactions expected in that interval, capped by
+ * {@code maxBatchSize}, and the linger time is the interval itself. Heavy load therefore grows batches towards the
+ * ceiling for throughput, while light load gives small batches that are cut by age within the maximum linger for
+ * audit freshness.
+ */
+@Component
+public class AdaptiveBatchPolicy implements BatchPolicy, MeterBinder {
+    private static final double SMOOTHING = 0.2;
+
+    private final long maxBatchSize;
+    private final long minLingerNanos;
+    private final long maxLingerNanos;
+    private final double publishOverhead;
+    private final LongAdder[] cuts = new LongAdder[BatchCutReason.values().length];
+    private volatile double ingestRate; // transactions per second
+    private volatile double publishNanos;
+    private volatile long sizeLimit;
+    private volatile long lingerNanos;
+
+    public AdaptiveBatchPolicy(@Value("${audit.batch-size}") final Long maxBatchSize,
+                               @Value("${audit.batch-policy.min-linger-ms}") final Long minLingerMillis,
+                               @Value("${audit.batch-policy.max-linger-ms}") final Long maxLingerMillis,
+                               @Value("${audit.batch-policy.publish-overhead}") final Double publishOverhead) {
+        notNull(maxBatchSize, "maxBatchSize must not be null");
+        notNull(minLingerMillis, "minLingerMillis must not be null");
+        notNull(maxLingerMillis, "maxLingerMillis must not be null");
+        notNull(publishOverhead, "publishOverhead must not be null");
+        isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+        isTrue(minLingerMillis > 0 && minLingerMillis <= maxLingerMillis,
+                "linger range must be positive and ordered");
+        exclusiveBetween(0.0, 1.0, publishOverhead, "publishOverhead must be between 0 and 1");
+
+        this.maxBatchSize = maxBatchSize;
+        this.minLingerNanos = TimeUnit.MILLISECONDS.toNanos(minLingerMillis);
+        this.maxLingerNanos = TimeUnit.MILLISECONDS.toNanos(maxLingerMillis);
+        this.publishOverhead = publishOverhead;
+        for (int i = 0; i < cuts.length; i++) {
+            cuts[i] = new LongAdder();
+        }
+        // start small and fresh; the first cuts teach the policy the real load
+        this.sizeLimit = 1;
+        this.lingerNanos = minLingerNanos;
+    }
+
+    @Override
+    public long maxBatchSize() {
+        return sizeLimit;
+    }
+
+    @Override
+    public long lingerNanos() {
+        return lingerNanos;
+    }
+
+    @Override
+    public void recordCut(final BatchCutReason reason, final int size, final long intervalNanos,
+                          final long publishNanos) {
+        cuts[reason.ordinal()].increment();
+
+        final double rate = size * 1e9 / Math.max(intervalNanos, 1L);
+        final boolean first = this.publishNanos == 0.0;
+        this.ingestRate = first ? rate : ingestRate + SMOOTHING * (rate - ingestRate);
+        this.publishNanos = first ? publishNanos : this.publishNanos + SMOOTHING * (publishNanos - this.publishNanos);
+
+        final long interval = Math.max(minLingerNanos,
+                Math.min(maxLingerNanos, (long) (this.publishNanos / publishOverhead)));
+        this.lingerNanos = interval;
+        this.sizeLimit = Math.max(1L, Math.min(maxBatchSize, Math.round(ingestRate * interval / 1e9)));
+    }
+
+    /**
+     * Moving average of the ingest rate in transactions per second.
+     */
+    public double ingestRate() {
+        return ingestRate;
+    }
+
+    /**
+     * Moving average of the audit publish latency in nanoseconds.
+     */
+    public double publishNanos() {
+        return publishNanos;
+    }
+
+    public long cuts(final BatchCutReason reason) {
+        return cuts[reason.ordinal()].sum();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("audit.batch.policy.size.limit", this, AdaptiveBatchPolicy::maxBatchSize)
+                .description("Transaction count at which the pending audit batch is currently cut")
+                .baseUnit("transactions")
+                .register(registry);
+        TimeGauge.builder("audit.batch.policy.linger", this, TimeUnit.NANOSECONDS, AdaptiveBatchPolicy::lingerNanos)
+                .description("Age at which a pending audit batch is currently cut")
+                .register(registry);
+        Gauge.builder("audit.batch.policy.ingest.rate", this, AdaptiveBatchPolicy::ingestRate)
+                .description("Moving average of the ingest rate seen at batch cuts")
+                .baseUnit("transactions/s")
+                .register(registry);
+        TimeGauge.builder("audit.batch.policy.publish.latency", this, TimeUnit.NANOSECONDS,
+                        AdaptiveBatchPolicy::publishNanos)
+                .description("Moving average of the time the audit service takes to journal and deliver a batch")
+                .register(registry);
+        for (final BatchCutReason reason : BatchCutReason.values()) {
+            FunctionCounter.builder("audit.batch.cuts", this, policy -> policy.cuts(reason))
+                    .description("Audit batches cut, by reason")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package net.jpmchase.transaction.service;
+
+import net.jpmchase.transaction.model.BalanceSnapshot;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Seqlock publication of the balance state, so readers never block the writer and never allocate.
+ * <p>
+ * The single writer (callers must serialise {@link #publish}) makes the sequence odd, stores the fields and makes it
+ * even again. A reader copies the fields between two reads of the sequence and retries if a write overlapped, so it
+ * always observes one whole publication.
+ */
+final class BalancePublisher {
+    private static final VarHandle SEQUENCE;
+    private static final VarHandle BALANCE;
+    private static final VarHandle TRANSACTION_COUNT;
+    private static final VarHandle LAST_BATCH_NUMBER;
+
+    static {
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            SEQUENCE = lookup.findVarHandle(BalancePublisher.class, "sequence", long.class);
+            BALANCE = lookup.findVarHandle(BalancePublisher.class, "balance", long.class);
+            TRANSACTION_COUNT = lookup.findVarHandle(BalancePublisher.class, "transactionCount", long.class);
+            LAST_BATCH_NUMBER = lookup.findVarHandle(BalancePublisher.class, "lastBatchNumber", int.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private long sequence;
+    private long balance;
+    private long transactionCount;
+    private int lastBatchNumber = -1;
+
+    /**
+     * Publish a new state. Must only be called by one thread at a time.
+     */
+    void publish(final long balanceInMinorUnits, final long transactions, final int lastBatch) {
+        final long start = (long) SEQUENCE.getOpaque(this);
+        SEQUENCE.setOpaque(this, start + 1);
+        VarHandle.storeStoreFence();
+        BALANCE.setOpaque(this, balanceInMinorUnits);
+        TRANSACTION_COUNT.setOpaque(this, transactions);
+        LAST_BATCH_NUMBER.setOpaque(this, lastBatch);
+        SEQUENCE.setRelease(this, start + 2);
+    }
+
+    /**
+     * Balance in minor units from the latest publication.
+     */
+    long balance() {
+        while (true) {
+            final long start = (long) SEQUENCE.getAcquire(this);
+            final long value = (long) BALANCE.getOpaque(this);
+            if (validate(start)) return value;
+            Thread.onSpinWait();
+        }
+    }
+
+    BalanceSnapshot snapshot() {
+        while (true) {
+            final long start = (long) SEQUENCE.getAcquire(this);
+            final long value = (long) BALANCE.getOpaque(this);
+            final long transactions = (long) TRANSACTION_COUNT.getOpaque(this);
+            final int lastBatch = (int) LAST_BATCH_NUMBER.getOpaque(this);
+            if (validate(start)) return BalanceSnapshot.of(start >>> 1, value, transactions, lastBatch);
+            Thread.onSpinWait();
+        }
+    }
+
+    private boolean validate(final long start) {
+        VarHandle.loadLoadFence();
+        return (start & 1) == 0 && start == (long) SEQUENCE.getOpaque(this);
+    }
+}
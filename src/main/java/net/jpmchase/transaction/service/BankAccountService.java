@@ -1,5 +1,6 @@
 package net.jpmchase.transaction.service;
 
+import net.jpmchase.transaction.model.BalanceSnapshot;
 import net.jpmchase.transaction.model.Transaction;
 
 /**
@@ -12,8 +13,24 @@ public interface BankAccountService {
      * @param transaction transaction to process
      */
     void processTransaction(Transaction transaction);
+    /**
+     * Process a contiguous batch of transactions in arrival order, amortising the per-call overhead of
+     * {@link #processTransaction(Transaction)} across the batch.
+     *
+     * @param transactions array holding the transactions to process
+     * @param count        number of transactions to process, starting at index 0
+     */
+    void processTransactions(Transaction[] transactions, int count);
     /**
      * Retrieve the balance in the account
      */
     double retrieveBalance();
+    /**
+     * Retrieve the exact balance in the account in minor units (pence)
+     */
+    long retrieveBalanceInMinorUnits();
+    /**
+     * Retrieve a consistent, versioned view of the balance, transaction count and last audit batch number
+     */
+    BalanceSnapshot retrieveBalanceSnapshot();
 }
\ No newline at end of file
@@ -2,74 +2,296 @@ package net.jpmchase.transaction.service;
 
 
 import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import net.jpmchase.transaction.enums.BatchCutReason;
+import net.jpmchase.transaction.model.BalanceSnapshot;
+import net.jpmchase.transaction.model.Money;
 import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
 import net.jpmchase.transaction.service.audit.AuditService;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import org.apache.commons.lang3.Validate;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.concurrent.atomic.DoubleAdder;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
 
+/**
+ * Writers are serialised on this service's monitor and publish every new balance through a {@link BalancePublisher}
+ * seqlock, so balance reads never take the monitor and never wait for writers.
+ * <p>
+ * Transactions whose id the {@link TransactionDeduplicator} has already seen are skipped and counted, so a
+ * redelivered transaction is applied exactly once.
+ * <p>
+ * Audit batches are cut at the value ceiling or at the count limit of the {@link BatchPolicy}, which learns from
+ * every cut. If the policy has a linger time, a background tick every {@value #LINGER_TICK_MILLIS} ms also cuts a
+ * pending batch once it has waited that long, so the clock is read per batch rather than per transaction.
+ * <p>
+ * A cut hands the batch to the {@link AuditService}, which journals it off this monitor, so cutting a full batch does
+ * not stall ingest for the journal append. {@link #cutPendingBatch()} also waits until every cut batch is journaled,
+ * and is what checkpoints and {@link #close()} rely on, so a clean shutdown leaves nothing outside the journal. If
+ * the audit service refuses a batch the batch stays pending and is retried at the next cut.
+ * <p>
+ * Processing latency is timed for one call in {@value #TIMING_SAMPLE_INTERVAL} to keep the clock reads off most of
+ * the hot path; counts and batch cuts are recorded for every call.
+ */
 @Service
-public class BankAccountServiceImpl implements BankAccountService {
+public class BankAccountServiceImpl implements BankAccountService, AutoCloseable {
     private static final Logger logger = LogManager.getLogger(BankAccountServiceImpl.class);
-    private final DoubleAdder balance = new DoubleAdder();
-    private final List<Transaction> transactions = Collections.synchronizedList(new ArrayList<>());
-    private final double maxBatchValue;
-    private final double maxBatchSize;
+    private static final int TIMING_SAMPLE_INTERVAL = 64;
+    private static final long LINGER_TICK_MILLIS = 5L;
+    private final BalancePublisher published = new BalancePublisher();
+    private final BatchAccumulator batch; // guarded by this
+    private final BatchPolicy batchPolicy; // guarded by this
+    private final ScheduledExecutorService lingerTicker;
     private final AuditService auditService;
-    private int batchNumber = 0;
+    private final TransactionAggregator aggregator;
+    private final TransactionDeduplicator deduplicator; // guarded by this
+    private long balance; // minor units, guarded by this
+    private long transactionCount; // guarded by this
+    private int batchNumber = 0; // guarded by this
+    private int untimedCalls; // guarded by this
+    private long lastCutNanos = System.nanoTime(); // guarded by this
+    private long pendingSinceNanos; // first tick that saw the pending batch, 0 if none; guarded by this
+    private final Counter processedTransactions;
+    private final Counter duplicateTransactions;
+    private final Timer singleProcessTimer;
+    private final Timer bulkProcessTimer;
+    private final DistributionSummary batchSizes;
+    private final DistributionSummary batchValues;
 
     public BankAccountServiceImpl(@Value("${audit.batch-capacity}") final Long maxBatchValue,
-                                  @Value("${audit.batch-capacity}") final Long maxBatchSize,
-                                  final AuditService auditService ) {
-        this.maxBatchValue = notNull(maxBatchValue, "maxBatchValue must not be null");
-        this.maxBatchSize = notNull(maxBatchSize, "maxBatchSize must not be null");
+                                  final BatchPolicy batchPolicy,
+                                  final AuditService auditService,
+                                  final TransactionAggregator aggregator,
+                                  final TransactionDeduplicator deduplicator,
+                                  final MeterRegistry meterRegistry) {
+        notNull(maxBatchValue, "maxBatchValue must not be null");
+        this.batchPolicy = notNull(batchPolicy, "batchPolicy must not be null");
+        this.batch = new BatchAccumulator(Money.toMinorUnits(maxBatchValue.longValue()), batchPolicy.maxBatchSize());
         this.auditService = notNull(auditService, "auditService must not be null");
+        this.aggregator = notNull(aggregator, "aggregator must not be null");
+        this.deduplicator = notNull(deduplicator, "deduplicator must not be null");
+        notNull(meterRegistry, "meterRegistry must not be null");
+
+        this.processedTransactions = Counter.builder("bank.account.transactions")
+                .description("Transactions applied to the balance")
+                .register(meterRegistry);
+        this.duplicateTransactions = Counter.builder("bank.account.duplicates")
+                .description("Transactions skipped because their id was already processed")
+                .register(meterRegistry);
+        this.singleProcessTimer = Timer.builder("bank.account.process")
+                .description("Time to apply a processing call to the balance")
+                .tag("mode", "single")
+                .register(meterRegistry);
+        this.bulkProcessTimer = Timer.builder("bank.account.process")
+                .description("Time to apply a processing call to the balance")
+                .tag("mode", "bulk")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("audit.batch.size")
+                .description("Transactions per audit batch cut")
+                .baseUnit("transactions")
+                .register(meterRegistry);
+        this.batchValues = DistributionSummary.builder("audit.batch.value")
+                .description("Total value per audit batch cut")
+                .baseUnit("pounds")
+                .register(meterRegistry);
+
+        if (batchPolicy.lingerNanos() == Long.MAX_VALUE) {
+            this.lingerTicker = null;
+        } else {
+            this.lingerTicker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "audit-batch-linger");
+                thread.setDaemon(true);
+                return thread;
+            });
+            lingerTicker.scheduleAtFixedRate(this::cutLingeringBatch, LINGER_TICK_MILLIS, LINGER_TICK_MILLIS,
+                    TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public synchronized void processTransaction(final Transaction transaction) {
         notNull(transaction, "transaction must not be null");
 
+        final long start = ++untimedCalls == TIMING_SAMPLE_INTERVAL ? System.nanoTime() : 0L;
+        boolean applied = false;
         try {
-            transactions.add(transaction);
-            balance.add(transaction.getAmount() * transaction.getTransactionType().getImpact());
+            final long amount = transaction.getSignedAmountInMinorUnits();
+            if (!deduplicator.firstSeen(transaction)) {
+                duplicateTransactions.increment();
+                return;
+            }
+            applied = true;
+            balance += amount;
+            transactionCount++;
+            aggregator.record(transaction);
 
-            if (shouldPublishBatch()) publishBatchForAudit();
+            if (batch.add(transaction)) cutFullBatch();
 
         } catch (final Exception e) {
             logger.error("Error processing transaction: {}", transaction, e);
             throw new RuntimeException("Error occurred while processing transaction: "+ e.getMessage());
+        } finally {
+            if (applied) {
+                publishBalance();
+                processedTransactions.increment();
+            }
+            if (untimedCalls == TIMING_SAMPLE_INTERVAL) {
+                untimedCalls = 0;
+                singleProcessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
         }
     }
 
+    /**
+     * Every transaction is checked before any is applied, so an invalid batch leaves the balance untouched. Duplicates
+     * are then filtered out, the net balance delta is applied once, and audit batches are cut at the same boundaries
+     * as one-at-a-time processing. The caller's array is never modified.
+     */
+    @Override
+    public synchronized void processTransactions(final Transaction[] transactions, final int count) {
+        notNull(transactions, "transactions must not be null");
+        Validate.inclusiveBetween(0, transactions.length, count, "count must be between 0 and the array length");
+        for (int i = 0; i < count; i++) {
+            notNull(transactions[i], "transaction must not be null");
+        }
+
+        final long start = System.nanoTime();
+        Transaction[] unique = transactions;
+        int uniqueCount = 0;
+        boolean applied = false;
+        try {
+            long delta = 0;
+            for (int i = 0; i < count; i++) {
+                final Transaction transaction = transactions[i];
+                if (!deduplicator.firstSeen(transaction)) {
+                    // copy only once a duplicate turns up; everything before it is already in place
+                    if (unique == transactions) unique = Arrays.copyOf(transactions, count);
+                    continue;
+                }
+                if (unique != transactions) unique[uniqueCount] = transaction;
+                uniqueCount++;
+                delta += transaction.getSignedAmountInMinorUnits();
+            }
+
+            applied = true;
+            balance += delta;
+            transactionCount += uniqueCount;
+            aggregator.record(unique, uniqueCount);
+
+            for (int i = 0; i < uniqueCount; i++) {
+                if (batch.add(unique[i])) cutFullBatch();
+            }
+        } catch (final Exception e) {
+            logger.error("Error processing batch of {} transactions", count, e);
+            throw new RuntimeException("Error occurred while processing transactions: "+ e.getMessage());
+        } finally {
+            if (applied) {
+                publishBalance();
+                processedTransactions.increment(uniqueCount);
+                duplicateTransactions.increment(count - uniqueCount);
+            }
+            bulkProcessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public double retrieveBalance() {
+        return Money.toMajorUnits(published.balance());
+    }
+
+    @Override
+    public long retrieveBalanceInMinorUnits() {
+        return published.balance();
+    }
+
     @Override
-    public synchronized double retrieveBalance() {
-        return balance.sum();
+    public BalanceSnapshot retrieveBalanceSnapshot() {
+        return published.snapshot();
     }
 
-    private boolean shouldPublishBatch() {
-        double totalValue = transactions.stream()
-                .mapToDouble(Transaction::getAmount)
-                .sum();
-        return totalValue >= maxBatchValue || transactions.size() >= maxBatchSize;
+    /**
+     * Reset the balance and batch number to recovered state. Must be called before any transaction is processed.
+     *
+     * @param balanceInMinorUnits recovered balance
+     * @param nextBatchNumber     number of the next audit batch to publish
+     */
+    public synchronized void restore(final long balanceInMinorUnits, final int nextBatchNumber) {
+        balance = balanceInMinorUnits;
+        transactionCount = 0;
+        batchNumber = nextBatchNumber;
+        publishBalance();
     }
 
-    private void publishBatchForAudit() {
-        final ImmutableList<Transaction> batchForAudit;
-        synchronized (transactions) {
-            batchForAudit = ImmutableList.copyOf(transactions);
-            transactions.clear();
+    /**
+     * Cut the pending batch now, if there is one, returning once it and every earlier batch are journaled.
+     */
+    public synchronized void cutPendingBatch() {
+        if (batch.size() > 0) {
+            publishBatchForAudit(BatchCutReason.FLUSH);
+            publishBalance();
         }
+        auditService.awaitJournaled();
+    }
+
+    @PreDestroy
+    @Override
+    public void close() {
+        if (lingerTicker != null) lingerTicker.shutdownNow();
+        try {
+            cutPendingBatch();
+        } catch (final RuntimeException e) {
+            logger.error("Error cutting pending audit batch {} at shutdown", batchNumber, e);
+        }
+    }
+
+    private synchronized void cutLingeringBatch() {
+        try {
+            if (batch.size() == 0) return;
+            final long now = System.nanoTime();
+            if (pendingSinceNanos == 0L) {
+                pendingSinceNanos = now;
+            } else if (now - pendingSinceNanos >= batchPolicy.lingerNanos()) {
+                publishBatchForAudit(BatchCutReason.LINGER);
+                publishBalance();
+            }
+        } catch (final RuntimeException e) {
+            logger.error("Error cutting lingering audit batch {}", batchNumber, e);
+        }
+    }
+
+    private void publishBalance() {
+        published.publish(balance, transactionCount, batchNumber - 1);
+    }
+
+    private void cutFullBatch() {
+        publishBatchForAudit(batch.isValueFull() ? BatchCutReason.VALUE : BatchCutReason.SIZE);
+    }
+
+    private void publishBatchForAudit(final BatchCutReason reason) {
+        final ImmutableList<Transaction> batchForAudit = batch.pending();
+        final long start = System.nanoTime();
         auditService.publishBatch(batchForAudit, batchNumber);
+        batchValues.record(Money.toMajorUnits(batch.value()));
+        batch.clear();
+        pendingSinceNanos = 0L;
+        batchSizes.record(batchForAudit.size());
         batchNumber++;
+        batchPolicy.recordCut(reason, batchForAudit.size(), start - lastCutNanos, auditService.publishLatencyNanos());
+        batch.setMaxBatchSize(batchPolicy.maxBatchSize());
+        lastCutNanos = start;
     }
 }
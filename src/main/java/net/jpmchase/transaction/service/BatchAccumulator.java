@@ -0,0 +1,87 @@
+package net.jpmchase.transaction.service;
+
+import com.google.common.collect.ImmutableList;
+import net.jpmchase.transaction.model.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The pending audit batch together with its running value and count, so deciding whether to cut a batch costs
+ * O(1) per transaction instead of re-summing the whole batch.
+ * <p>
+ * Not thread-safe: the owning service must guard every call with the same lock, which also makes
+ * {@link #clear()} reset the transactions, value and count as one atomic step.
+ */
+public class BatchAccumulator {
+    private final List<Transaction> transactions = new ArrayList<>();
+    private final long maxBatchValue;
+    private long maxBatchSize;
+    private long value;
+
+    /**
+     * @param maxBatchValue batch value limit in minor units
+     * @param maxBatchSize  batch transaction count limit
+     */
+    public BatchAccumulator(final long maxBatchValue, final long maxBatchSize) {
+        this.maxBatchValue = maxBatchValue;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Add a transaction to the pending batch.
+     *
+     * @param transaction transaction to add
+     * @return true if the batch has reached its value or size limit and should be cut
+     */
+    public boolean add(final Transaction transaction) {
+        value += transaction.getAmountInMinorUnits();
+        transactions.add(transaction);
+        return isFull();
+    }
+
+    public boolean isFull() {
+        return isValueFull() || transactions.size() >= maxBatchSize;
+    }
+
+    /**
+     * Whether the value limit, rather than the size limit alone, has been reached.
+     */
+    public boolean isValueFull() {
+        return value >= maxBatchValue;
+    }
+
+    /**
+     * Change the transaction count limit, effective from the next {@link #add}.
+     */
+    public void setMaxBatchSize(final long maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * The transactions of the pending batch in arrival order. The batch stays pending until {@link #clear()}, so it
+     * is kept if publishing it fails.
+     */
+    public ImmutableList<Transaction> pending() {
+        return ImmutableList.copyOf(transactions);
+    }
+
+    /**
+     * Cut the pending batch, resetting the running value and count.
+     */
+    public void clear() {
+        transactions.clear();
+        value = 0;
+    }
+
+    /**
+     * Running value of the pending batch in minor units.
+     */
+    public long value() {
+        return value;
+    }
+
+    public int size() {
+        return transactions.size();
+    }
+}
@@ -0,0 +1,52 @@
+package net.jpmchase.transaction.service;
+
+import net.jpmchase.transaction.enums.BatchCutReason;
+
+/**
+ * Decides when the pending audit batch is cut by count or age, and learns from every cut. Called only under the
+ * owning service's lock.
+ */
+public interface BatchPolicy {
+
+    /**
+     * Transaction count at which the pending batch is cut.
+     */
+    long maxBatchSize();
+
+    /**
+     * Age in nanoseconds at which a non-empty pending batch is cut, or {@link Long#MAX_VALUE} to wait for a full one.
+     */
+    long lingerNanos();
+
+    /**
+     * Feedback after a batch is cut and handed to the audit service.
+     *
+     * @param reason        why the batch was cut
+     * @param size          transactions in the batch
+     * @param intervalNanos time since the previous cut
+     * @param publishNanos  time the audit service took to journal the batch and deliver it downstream
+     */
+    void recordCut(BatchCutReason reason, int size, long intervalNanos, long publishNanos);
+
+    /**
+     * Policy that always cuts at {@code maxBatchSize} transactions and never by age.
+     */
+    static BatchPolicy fixed(final long maxBatchSize) {
+        return new BatchPolicy() {
+            @Override
+            public long maxBatchSize() {
+                return maxBatchSize;
+            }
+
+            @Override
+            public long lingerNanos() {
+                return Long.MAX_VALUE;
+            }
+
+            @Override
+            public void recordCut(final BatchCutReason reason, final int size, final long intervalNanos,
+                                  final long publishNanos) {
+            }
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package net.jpmchase.transaction.service;
+
+import net.jpmchase.transaction.codec.TransactionReader;
+import net.jpmchase.transaction.model.Transaction;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Feeds a decoded stream of transactions into the {@link BankAccountService} as it is read, in chunks of
+ * {@value #CHUNK_SIZE} so the per-call overhead of processing is amortised across each chunk.
+ */
+@Service
+public class TransactionIngestService {
+    static final int CHUNK_SIZE = 1024;
+
+    private final BankAccountService bankAccountService;
+
+    public TransactionIngestService(final BankAccountService bankAccountService) {
+        this.bankAccountService = notNull(bankAccountService, "bankAccountService must not be null");
+    }
+
+    /**
+     * Process every transaction from the reader. Transactions read before a malformed one stay processed.
+     *
+     * @param reader decoder over the incoming stream
+     * @return the number of transactions processed
+     * @throws IllegalArgumentException if the stream is malformed, reporting how many were accepted before it
+     */
+    public long ingest(final TransactionReader reader) throws IOException {
+        notNull(reader, "reader must not be null");
+
+        final Transaction[] chunk = new Transaction[CHUNK_SIZE];
+        long accepted = 0;
+        int buffered = 0;
+        try {
+            Transaction transaction;
+            while ((transaction = reader.read()) != null) {
+                chunk[buffered++] = transaction;
+                if (buffered == CHUNK_SIZE) {
+                    bankAccountService.processTransactions(chunk, buffered);
+                    accepted += buffered;
+                    buffered = 0;
+                }
+            }
+        } catch (final IllegalArgumentException e) {
+            bankAccountService.processTransactions(chunk, buffered);
+            accepted += buffered;
+            throw new IllegalArgumentException(e.getMessage() + " (" + accepted + " accepted before it)", e);
+        }
+        bankAccountService.processTransactions(chunk, buffered);
+        return accepted + buffered;
+    }
+}
@@ -0,0 +1,58 @@
+package net.jpmchase.transaction.service.account;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.model.TotalBalance;
+import net.jpmchase.transaction.model.Transaction;
+
+/**
+ * Service to aggregate transactions tracking the balance of each individual account.
+ * <p>
+ * This service is expected to receive a significant number of transactions for millions of accounts from
+ * multiple threads.
+ */
+public interface AccountBalanceService {
+    /**
+     * Process a transaction against an account, opening the account on its first accepted transaction. A debit that
+     * breaks the account's limits is rejected atomically and leaves the balance unchanged.
+     *
+     * @param accountNumber the account number the transaction relates to
+     * @param transaction   transaction to process
+     * @return whether the transaction was accepted, or why it was rejected
+     */
+    TransactionResult processTransaction(String accountNumber, Transaction transaction);
+
+    /**
+     * Replace the limits of an account, opening it with a zero balance if it is not yet present.
+     *
+     * @param accountNumber the account number
+     * @param limits        limits to enforce on later debits
+     */
+    void setLimits(String accountNumber, AccountLimits limits);
+
+    /**
+     * Retrieve the limits of an account.
+     *
+     * @throws java.util.NoSuchElementException if the account is not present
+     */
+    AccountLimits retrieveLimits(String accountNumber);
+
+    /**
+     * Retrieve the balance of an account.
+     *
+     * @param accountNumber the account number
+     * @return the balance of the account
+     * @throws java.util.NoSuchElementException if the account has never received a transaction
+     */
+    double retrieveBalance(String accountNumber);
+
+    /**
+     * Number of accounts currently tracked.
+     */
+    long accountCount();
+
+    /**
+     * Sum of all account balances. Not a point-in-time snapshot: transactions applied while it is computed may or
+     * may not be included.
+     */
+    TotalBalance retrieveTotalBalance();
+}
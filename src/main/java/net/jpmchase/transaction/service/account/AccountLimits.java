@@ -0,0 +1,52 @@
+package net.jpmchase.transaction.service.account;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.model.Money;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Debit rules for an account, in minor units.
+ *
+ * @param overdraftLimitInMinorUnits how far below zero a debit may take the balance
+ * @param maxDebitInMinorUnits       largest single debit allowed
+ */
+public record AccountLimits(long overdraftLimitInMinorUnits, long maxDebitInMinorUnits) {
+
+    /**
+     * No overdraft floor and no debit cap.
+     */
+    public static final AccountLimits UNLIMITED = new AccountLimits(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    public AccountLimits {
+        isTrue(overdraftLimitInMinorUnits >= 0, "overdraftLimit must not be negative");
+        isTrue(maxDebitInMinorUnits >= 0, "maxDebit must not be negative");
+    }
+
+    /**
+     * Check a signed amount against these limits for an account holding {@code balance}.
+     *
+     * @return the rejection, or null if the amount is within limits
+     */
+    public TransactionResult check(final long balance, final long amount) {
+        return check(overdraftLimitInMinorUnits, maxDebitInMinorUnits, balance, amount);
+    }
+
+    static TransactionResult check(final long overdraftLimit, final long maxDebit, final long balance,
+                                   final long amount) {
+        if (amount >= 0) return null;
+        final long debit = -amount;
+        if (debit > maxDebit) return TransactionResult.REJECTED_DEBIT_LIMIT;
+        if (overdraftLimit != Long.MAX_VALUE && balance + overdraftLimit < debit) {
+            return TransactionResult.REJECTED_OVERDRAFT;
+        }
+        return null;
+    }
+
+    /**
+     * Limits from amounts in major units.
+     */
+    public static AccountLimits of(final double overdraftLimit, final double maxDebit) {
+        return new AccountLimits(Money.toMinorUnits(overdraftLimit), Money.toMinorUnits(maxDebit));
+    }
+}
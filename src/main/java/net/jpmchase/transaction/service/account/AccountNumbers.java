@@ -0,0 +1,64 @@
+package net.jpmchase.transaction.service.account;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Account number rules: {@code ACC} followed by five upper-case letters or digits, e.g. {@code ACC12345}.
+ */
+public final class AccountNumbers {
+    public static final String PREFIX = "ACC";
+    public static final int LENGTH = 8;
+
+    private AccountNumbers() {
+    }
+
+    /**
+     * Validate the account number without allocating, so it can sit on the ingest hot path.
+     *
+     * @param accountNumber the account number to validate
+     * @return the validated account number
+     */
+    public static String validate(final String accountNumber) {
+        notNull(accountNumber, "accountNumber must not be null");
+        if (!isValid(accountNumber)) {
+            throw new IllegalArgumentException("Account number invalid");
+        }
+        return accountNumber;
+    }
+
+    /**
+     * Pack the eight ASCII characters of a valid account number into a single {@code long}, one byte per
+     * character. The encoding is never zero, which leaves zero free to mark empty ledger slots.
+     *
+     * @param accountNumber a valid account number
+     * @return the packed key
+     */
+    public static long encode(final String accountNumber) {
+        long key = 0L;
+        for (int i = 0; i < LENGTH; i++) {
+            key = (key << 8) | (accountNumber.charAt(i) & 0xFF);
+        }
+        return key;
+    }
+
+    public static String decode(final long key) {
+        final char[] chars = new char[LENGTH];
+        for (int i = LENGTH - 1, shift = 0; i >= 0; i--, shift += 8) {
+            chars[i] = (char) ((key >>> shift) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    public static boolean isValid(final String accountNumber) {
+        if (accountNumber.length() != LENGTH || !accountNumber.startsWith(PREFIX)) {
+            return false;
+        }
+        for (int i = PREFIX.length(); i < LENGTH; i++) {
+            final char c = accountNumber.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'A' && c <= 'Z')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
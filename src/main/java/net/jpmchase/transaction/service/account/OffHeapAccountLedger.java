@@ -0,0 +1,214 @@
+package net.jpmchase.transaction.service.account;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.NoSuchElementException;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Open-addressing table of account balances held outside the Java heap.
+ * <p>
+ * Each slot is 40 bytes of a direct {@link ByteBuffer}: the account key from {@link AccountNumbers#encode}, the
+ * balance in minor units as a fixed-point {@code long}, the account's {@link AccountLimits} and a sequence word that
+ * publishes the two limits as a seqlock, so a reader always sees both limits from the same {@link #setLimits} call.
+ * Keys use linear probing and are never removed, so the table needs no tombstones. Capacity is fixed at
+ * construction and sized for a 75% maximum load factor.
+ * <p>
+ * Reads are lock-free and may run concurrently with writes. Balances change only by compare-and-set through
+ * {@link #tryApply}, so any number of threads may apply transactions to existing accounts at once. Opening accounts
+ * and changing limits are single-writer: callers must serialise {@link #open} and {@link #setLimits} calls on the
+ * same ledger, for example with a shard lock. No path allocates.
+ */
+public class OffHeapAccountLedger {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int SLOT_BYTES = 40;
+    private static final int KEY_OFFSET = 0;
+    private static final int BALANCE_OFFSET = 8;
+    private static final int OVERDRAFT_OFFSET = 16;
+    private static final int MAX_DEBIT_OFFSET = 24;
+    private static final int LIMITS_SEQUENCE_OFFSET = 32;
+    private static final long EMPTY = 0L;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private final ByteBuffer slots;
+    private final int mask;
+    private final int maxAccounts;
+    private volatile int size;
+
+    public OffHeapAccountLedger(final int expectedAccounts) {
+        isTrue(expectedAccounts > 0, "expectedAccounts must be positive");
+        final long minSlots = (long) Math.ceil(expectedAccounts / MAX_LOAD_FACTOR);
+        // rounding up to a power of two can double the slot count, so bound the rounded capacity
+        final long slotCount = Long.highestOneBit(Math.max(2L, minSlots - 1)) << 1;
+        isTrue(slotCount <= Integer.MAX_VALUE / SLOT_BYTES, "expectedAccounts too large for a single ledger");
+
+        final int capacity = (int) slotCount;
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        this.mask = capacity - 1;
+        this.maxAccounts = (int) (capacity * MAX_LOAD_FACTOR);
+    }
+
+    /**
+     * Find an account's slot, opening the account with a zero balance and the given limits if it is not yet present.
+     * Single-writer.
+     *
+     * @return the slot offset to pass to {@link #tryApply}
+     * @throws IllegalStateException if the ledger is full
+     */
+    public int open(final long key, final AccountLimits limits) {
+        int slot = indexFor(key);
+        while (true) {
+            final int offset = slot * SLOT_BYTES;
+            final long current = (long) LONGS.getAcquire(slots, offset + KEY_OFFSET);
+            if (current == key) return offset;
+            if (current == EMPTY) {
+                if (size >= maxAccounts) {
+                    throw new IllegalStateException("ledger capacity of " + maxAccounts + " accounts exhausted");
+                }
+                LONGS.setRelease(slots, offset + BALANCE_OFFSET, 0L);
+                writeLimits(offset, limits);
+                LONGS.setRelease(slots, offset + KEY_OFFSET, key);
+                size++;
+                return offset;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Make one attempt to apply a signed amount to the account at {@code offset}, enforcing its limits on debits.
+     *
+     * @param offset slot offset from {@link #open} or {@link #offsetOf}
+     * @param amount signed amount in minor units
+     * @return the outcome, or null if another writer changed the balance first and the caller should retry
+     */
+    public TransactionResult tryApply(final int offset, final long amount) {
+        final long balance = (long) LONGS.getVolatile(slots, offset + BALANCE_OFFSET);
+        if (amount < 0) {
+            while (true) {
+                final long start = (long) LONGS.getAcquire(slots, offset + LIMITS_SEQUENCE_OFFSET);
+                final long overdraftLimit = (long) LONGS.getOpaque(slots, offset + OVERDRAFT_OFFSET);
+                final long maxDebit = (long) LONGS.getOpaque(slots, offset + MAX_DEBIT_OFFSET);
+                if (validateLimits(offset, start)) {
+                    final TransactionResult rejection = AccountLimits.check(overdraftLimit, maxDebit, balance, amount);
+                    if (rejection != null) return rejection;
+                    break;
+                }
+                Thread.onSpinWait();
+            }
+        }
+        return LONGS.compareAndSet(slots, offset + BALANCE_OFFSET, balance, balance + amount)
+                ? TransactionResult.ACCEPTED
+                : null;
+    }
+
+    /**
+     * Replace the limits of an existing account. Single-writer.
+     *
+     * @throws java.util.NoSuchElementException if the account is not present
+     */
+    public void setLimits(final long key, final AccountLimits limits) {
+        notNull(limits, "limits must not be null");
+        final int offset = offsetOf(key);
+        if (offset < 0) throw new NoSuchElementException("Account number is not present");
+        writeLimits(offset, limits);
+    }
+
+    public AccountLimits limits(final long key) {
+        final int offset = offsetOf(key);
+        if (offset < 0) throw new NoSuchElementException("Account number is not present");
+        while (true) {
+            final long start = (long) LONGS.getAcquire(slots, offset + LIMITS_SEQUENCE_OFFSET);
+            final long overdraftLimit = (long) LONGS.getOpaque(slots, offset + OVERDRAFT_OFFSET);
+            final long maxDebit = (long) LONGS.getOpaque(slots, offset + MAX_DEBIT_OFFSET);
+            if (validateLimits(offset, start)) return new AccountLimits(overdraftLimit, maxDebit);
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return true if the account has an entry in this ledger
+     */
+    public boolean contains(final long key) {
+        return offsetOf(key) >= 0;
+    }
+
+    /**
+     * Read an account balance without locking.
+     *
+     * @param key account key from {@link AccountNumbers#encode}
+     * @return the balance in minor units
+     * @throws java.util.NoSuchElementException if the account is not present
+     */
+    public long balance(final long key) {
+        final int offset = offsetOf(key);
+        if (offset < 0) throw new NoSuchElementException("Account number is not present");
+        return (long) LONGS.getVolatile(slots, offset + BALANCE_OFFSET);
+    }
+
+    /**
+     * Sum of every balance, read without locking. Empty slots hold a zero balance, so the scan needs no key check.
+     * Transactions applied during the scan may or may not be included.
+     */
+    public long totalBalance() {
+        long total = 0L;
+        for (int offset = BALANCE_OFFSET; offset < slots.capacity(); offset += SLOT_BYTES) {
+            total += (long) LONGS.getAcquire(slots, offset);
+        }
+        return total;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int maxAccounts() {
+        return maxAccounts;
+    }
+
+    /**
+     * Off-heap bytes reserved by this ledger.
+     */
+    public long offHeapBytes() {
+        return slots.capacity();
+    }
+
+    /**
+     * @return the slot offset of the account, or -1 if it is not present
+     */
+    public int offsetOf(final long key) {
+        int slot = indexFor(key);
+        while (true) {
+            final int offset = slot * SLOT_BYTES;
+            final long current = (long) LONGS.getAcquire(slots, offset + KEY_OFFSET);
+            if (current == key) return offset;
+            if (current == EMPTY) return -1;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void writeLimits(final int offset, final AccountLimits limits) {
+        final long start = (long) LONGS.getOpaque(slots, offset + LIMITS_SEQUENCE_OFFSET);
+        LONGS.setOpaque(slots, offset + LIMITS_SEQUENCE_OFFSET, start + 1);
+        VarHandle.storeStoreFence();
+        LONGS.setOpaque(slots, offset + OVERDRAFT_OFFSET, limits.overdraftLimitInMinorUnits());
+        LONGS.setOpaque(slots, offset + MAX_DEBIT_OFFSET, limits.maxDebitInMinorUnits());
+        LONGS.setRelease(slots, offset + LIMITS_SEQUENCE_OFFSET, start + 2);
+    }
+
+    private boolean validateLimits(final int offset, final long start) {
+        VarHandle.loadLoadFence();
+        return (start & 1) == 0 && start == (long) LONGS.getOpaque(slots, offset + LIMITS_SEQUENCE_OFFSET);
+    }
+
+    private int indexFor(final long key) {
+        final long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,220 @@
+package net.jpmchase.transaction.service.account;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.model.Money;
+import net.jpmchase.transaction.model.TotalBalance;
+import net.jpmchase.transaction.model.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * {@link AccountBalanceService} that spreads accounts over a fixed number of shards by account hash.
+ * <p>
+ * Each shard owns an {@link OffHeapAccountLedger}. Transactions against existing accounts are applied by
+ * compare-and-set on the balance, with limits checked against the value being replaced, so a debit is accepted or
+ * rejected atomically without any lock. After {@value #CAS_ATTEMPTS} failed attempts a writer falls back to its
+ * shard's lock stripe, which queues it behind other contended writers of that shard instead of spinning. Opening an
+ * account and changing limits also take the shard lock. There is no global lock, and balance reads do not lock at
+ * all. Balances are kept as fixed-point minor units.
+ */
+@Service
+public class ShardedAccountBalanceService implements AccountBalanceService, MeterBinder {
+    private static final double SHARD_HEADROOM = 1.05;
+    private static final int CAS_ATTEMPTS = 4;
+
+    private final Shard[] shards;
+    private final int shardShift;
+    private final AccountLimits defaultLimits;
+    private final LongAdder[] results = new LongAdder[TransactionResult.values().length];
+    private final LongAdder lockFallbacks = new LongAdder();
+
+    /**
+     * @param defaultOverdraftLimit overdraft limit of newly opened accounts in major units, or null for none
+     * @param defaultMaxDebit       largest single debit for newly opened accounts in major units, or null for none
+     */
+    public ShardedAccountBalanceService(
+            @Value("${account.shards}") final Integer shardCount,
+            @Value("${account.max-accounts}") final Integer maxAccounts,
+            @Value("${account.limits.overdraft-limit:#{null}}") final Double defaultOverdraftLimit,
+            @Value("${account.limits.max-debit:#{null}}") final Double defaultMaxDebit) {
+        notNull(shardCount, "shardCount must not be null");
+        notNull(maxAccounts, "maxAccounts must not be null");
+        isTrue(shardCount > 0 && Integer.bitCount(shardCount) == 1, "shardCount must be a positive power of two");
+        isTrue(maxAccounts > 0, "maxAccounts must be positive");
+
+        final int accountsPerShard = (int) Math.ceil((double) maxAccounts / shardCount * SHARD_HEADROOM);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(new OffHeapAccountLedger(accountsPerShard));
+        }
+        this.shardShift = Long.SIZE - Integer.numberOfTrailingZeros(shardCount);
+        this.defaultLimits = new AccountLimits(
+                defaultOverdraftLimit == null ? Long.MAX_VALUE : Money.toMinorUnits(defaultOverdraftLimit),
+                defaultMaxDebit == null ? Long.MAX_VALUE : Money.toMinorUnits(defaultMaxDebit));
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public TransactionResult processTransaction(final String accountNumber, final Transaction transaction) {
+        AccountNumbers.validate(accountNumber);
+        notNull(transaction, "transaction must not be null");
+
+        final long key = AccountNumbers.encode(accountNumber);
+        final long amount = transaction.getSignedAmountInMinorUnits();
+        final Shard shard = shardFor(key);
+        final int offset = shard.ledger.offsetOf(key);
+        final TransactionResult result = offset < 0 ? shard.openAndApply(key, amount) : shard.apply(offset, amount);
+        results[result.ordinal()].increment();
+        return result;
+    }
+
+    @Override
+    public void setLimits(final String accountNumber, final AccountLimits limits) {
+        AccountNumbers.validate(accountNumber);
+        notNull(limits, "limits must not be null");
+
+        final long key = AccountNumbers.encode(accountNumber);
+        shardFor(key).setLimits(key, limits);
+    }
+
+    @Override
+    public AccountLimits retrieveLimits(final String accountNumber) {
+        AccountNumbers.validate(accountNumber);
+
+        final long key = AccountNumbers.encode(accountNumber);
+        return shardFor(key).ledger.limits(key);
+    }
+
+    @Override
+    public double retrieveBalance(final String accountNumber) {
+        AccountNumbers.validate(accountNumber);
+
+        final long key = AccountNumbers.encode(accountNumber);
+        return Money.toMajorUnits(shardFor(key).ledger.balance(key));
+    }
+
+    @Override
+    public long accountCount() {
+        long count = 0;
+        for (final Shard shard : shards) {
+            count += shard.ledger.size();
+        }
+        return count;
+    }
+
+    @Override
+    public TotalBalance retrieveTotalBalance() {
+        long balance = 0L;
+        long accounts = 0L;
+        for (final Shard shard : shards) {
+            balance += shard.ledger.totalBalance();
+            accounts += shard.ledger.size();
+        }
+        return TotalBalance.of(balance, accounts, 1, List.of());
+    }
+
+    /**
+     * Off-heap bytes reserved across all shards.
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (final Shard shard : shards) {
+            bytes += shard.ledger.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Number of transactions that have ended with the given result.
+     */
+    public long transactionCount(final TransactionResult result) {
+        return results[result.ordinal()].sum();
+    }
+
+    /**
+     * Number of transactions that exhausted their compare-and-set attempts and took the shard lock.
+     */
+    public long lockFallbacks() {
+        return lockFallbacks.sum();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        for (final TransactionResult result : TransactionResult.values()) {
+            FunctionCounter.builder("account.transactions", this, service -> service.transactionCount(result))
+                    .description("Per-account transactions by outcome")
+                    .tag("result", result.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("account.lock.fallbacks", this, ShardedAccountBalanceService::lockFallbacks)
+                .description("Transactions that fell back from compare-and-set to the shard lock")
+                .register(registry);
+        Gauge.builder("account.count", this, ShardedAccountBalanceService::accountCount)
+                .description("Accounts currently tracked")
+                .register(registry);
+    }
+
+    private Shard shardFor(final long key) {
+        // top bits of the mixed key pick the shard; the ledger probes from the low bits
+        return shardShift == Long.SIZE ? shards[0] : shards[(int) ((key * 0x9E3779B97F4A7C15L) >>> shardShift)];
+    }
+
+    private final class Shard {
+        private final OffHeapAccountLedger ledger;
+
+        private Shard(final OffHeapAccountLedger ledger) {
+            this.ledger = ledger;
+        }
+
+        TransactionResult apply(final int offset, final long amount) {
+            for (int attempt = 0; attempt < CAS_ATTEMPTS; attempt++) {
+                final TransactionResult result = ledger.tryApply(offset, amount);
+                if (result != null) return result;
+            }
+            lockFallbacks.increment();
+            synchronized (this) {
+                return applyLocked(offset, amount);
+            }
+        }
+
+        synchronized TransactionResult openAndApply(final long key, final long amount) {
+            int offset = ledger.offsetOf(key);
+            if (offset < 0) {
+                // a refused first debit leaves no account behind
+                final TransactionResult rejection = defaultLimits.check(0L, amount);
+                if (rejection != null) return rejection;
+                offset = ledger.open(key, defaultLimits);
+            }
+            return applyLocked(offset, amount);
+        }
+
+        synchronized void setLimits(final long key, final AccountLimits limits) {
+            if (ledger.contains(key)) {
+                ledger.setLimits(key, limits);
+            } else {
+                ledger.open(key, limits);
+            }
+        }
+
+        private TransactionResult applyLocked(final int offset, final long amount) {
+            // lock-free writers may still race us, so the balance is only ever changed by compare-and-set
+            TransactionResult result;
+            while ((result = ledger.tryApply(offset, amount)) == null) {
+                Thread.onSpinWait();
+            }
+            return result;
+        }
+    }
+}
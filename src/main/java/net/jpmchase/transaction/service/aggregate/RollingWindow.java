@@ -0,0 +1,118 @@
+package net.jpmchase.transaction.service.aggregate;
+
+import net.jpmchase.transaction.model.Money;
+import net.jpmchase.transaction.model.WindowAggregate;
+
+import java.util.Arrays;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A time window split into a ring of fixed-length buckets of primitive counters. Recording touches only the bucket
+ * for the current time, recycling it once the ring has come round, and a query folds every live bucket, so both cost
+ * nothing per transaction already recorded.
+ * <p>
+ * Not thread-safe: the owner must serialise recording and make queries consistent with it.
+ */
+class RollingWindow {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final String name;
+    private final long bucketMillis;
+    private final long[] bucketIds;
+    private final long[] counts;
+    private final long[] credits;
+    private final long[] debits;
+    private final long[] minimums;
+    private final long[] maximums;
+    private long currentBucketStart = Long.MAX_VALUE;
+    private long currentBucketEnd = Long.MIN_VALUE;
+    private int currentSlot;
+
+    /**
+     * @param name         window name reported with its aggregates
+     * @param buckets      number of buckets in the ring
+     * @param bucketMillis length of each bucket in milliseconds
+     */
+    RollingWindow(final String name, final int buckets, final long bucketMillis) {
+        this.name = notNull(name, "name must not be null");
+        isTrue(buckets > 0, "buckets must be positive");
+        isTrue(bucketMillis > 0, "bucketMillis must be positive");
+        this.bucketMillis = bucketMillis;
+        this.bucketIds = new long[buckets];
+        this.counts = new long[buckets];
+        this.credits = new long[buckets];
+        this.debits = new long[buckets];
+        this.minimums = new long[buckets];
+        this.maximums = new long[buckets];
+        Arrays.fill(bucketIds, EMPTY);
+    }
+
+    /**
+     * Record a run of transactions processed at the same instant.
+     *
+     * @param nowMillis wall-clock time of processing
+     * @param count     number of transactions
+     * @param credit    credited volume in minor units
+     * @param debit     debited volume in minor units
+     * @param min       smallest amount in minor units
+     * @param max       largest amount in minor units
+     */
+    void record(final long nowMillis, final long count, final long credit, final long debit,
+                final long min, final long max) {
+        if (nowMillis < currentBucketStart || nowMillis >= currentBucketEnd) advance(nowMillis);
+        final int slot = currentSlot;
+        counts[slot] += count;
+        credits[slot] += credit;
+        debits[slot] += debit;
+        minimums[slot] = Math.min(minimums[slot], min);
+        maximums[slot] = Math.max(maximums[slot], max);
+    }
+
+    /**
+     * Move to the bucket holding {@code nowMillis}, resetting it if it still holds an older bucket. Only runs once
+     * per bucket, keeping the divisions off the per-transaction path.
+     */
+    private void advance(final long nowMillis) {
+        final long bucketId = nowMillis / bucketMillis;
+        final int slot = (int) Math.floorMod(bucketId, (long) bucketIds.length);
+        if (bucketIds[slot] != bucketId) {
+            bucketIds[slot] = bucketId;
+            counts[slot] = 0;
+            credits[slot] = 0;
+            debits[slot] = 0;
+            minimums[slot] = Long.MAX_VALUE;
+            maximums[slot] = Long.MIN_VALUE;
+        }
+        currentSlot = slot;
+        currentBucketStart = bucketId * bucketMillis;
+        currentBucketEnd = currentBucketStart + bucketMillis;
+    }
+
+    /**
+     * Fold the buckets covering the window that ends in the bucket holding {@code nowMillis}.
+     */
+    WindowAggregate aggregate(final long nowMillis) {
+        final long newest = nowMillis / bucketMillis;
+        final long oldest = newest - bucketIds.length;
+        long count = 0;
+        long credit = 0;
+        long debit = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int slot = 0; slot < bucketIds.length; slot++) {
+            final long bucketId = bucketIds[slot];
+            if (bucketId <= oldest || bucketId > newest) continue;
+            count += counts[slot];
+            credit += credits[slot];
+            debit += debits[slot];
+            min = Math.min(min, minimums[slot]);
+            max = Math.max(max, maximums[slot]);
+        }
+        final double seconds = bucketIds.length * bucketMillis / 1_000.0;
+        return new WindowAggregate(name, seconds, count, count / seconds,
+                Money.toMajorUnits(credit), Money.toMajorUnits(debit), Money.toMajorUnits(credit - debit),
+                count == 0 ? 0.0 : Money.toMajorUnits(min), count == 0 ? 0.0 : Money.toMajorUnits(max));
+    }
+}
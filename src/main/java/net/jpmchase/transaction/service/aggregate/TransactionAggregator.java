@@ -0,0 +1,126 @@
+package net.jpmchase.transaction.service.aggregate;
+
+import com.google.common.collect.ImmutableList;
+import jakarta.annotation.PreDestroy;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.model.WindowAggregate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Rolling 1 second, 1 minute and 1 hour aggregates of the processed transaction stream.
+ * <p>
+ * Recording reads a coarse clock ticked every {@value #CLOCK_TICK_MILLIS} ms instead of the system clock, and takes
+ * one uncontended write stamp for all three windows. Queries fold at most 60 buckets per window under an optimistic
+ * read, falling back to a read lock only if a write overlaps, so dashboards can poll as often as they like without
+ * holding up ingestion.
+ */
+@Service
+public class TransactionAggregator implements AutoCloseable {
+    private static final long CLOCK_TICK_MILLIS = 10L;
+
+    private final LongSupplier clock;
+    private final ScheduledExecutorService ticker;
+    private volatile long coarseNow = System.currentTimeMillis();
+    private final StampedLock lock = new StampedLock();
+    private final RollingWindow[] windows = {
+            new RollingWindow("1s", 10, 100L),
+            new RollingWindow("1m", 60, 1_000L),
+            new RollingWindow("1h", 60, 60_000L)
+    };
+
+    @Autowired
+    public TransactionAggregator() {
+        this.clock = () -> coarseNow;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "aggregate-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> coarseNow = System.currentTimeMillis(),
+                CLOCK_TICK_MILLIS, CLOCK_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    TransactionAggregator(final LongSupplier clock) {
+        this.clock = notNull(clock, "clock must not be null");
+        this.ticker = null;
+    }
+
+    public void record(final Transaction transaction) {
+        final long amount = transaction.getAmountInMinorUnits();
+        final boolean credit = transaction.getTransactionType() == TransactionType.CREDIT;
+        record(1, credit ? amount : 0, credit ? 0 : amount, amount, amount);
+    }
+
+    /**
+     * Record the first {@code count} transactions of a batch as processed together.
+     */
+    public void record(final Transaction[] transactions, final int count) {
+        if (count == 0) return;
+        long credit = 0;
+        long debit = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            final long amount = transactions[i].getAmountInMinorUnits();
+            if (transactions[i].getTransactionType() == TransactionType.CREDIT) credit += amount;
+            else debit += amount;
+            min = Math.min(min, amount);
+            max = Math.max(max, amount);
+        }
+        record(count, credit, debit, min, max);
+    }
+
+    /**
+     * Aggregates for every window, shortest first.
+     */
+    public ImmutableList<WindowAggregate> aggregates() {
+        final long now = clock.getAsLong();
+        final long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            final ImmutableList<WindowAggregate> aggregates = fold(now);
+            if (lock.validate(stamp)) return aggregates;
+        }
+        final long readStamp = lock.readLock();
+        try {
+            return fold(now);
+        } finally {
+            lock.unlockRead(readStamp);
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        if (ticker != null) ticker.shutdownNow();
+    }
+
+    private void record(final long count, final long credit, final long debit, final long min, final long max) {
+        final long now = clock.getAsLong();
+        final long stamp = lock.writeLock();
+        try {
+            for (final RollingWindow window : windows) {
+                window.record(now, count, credit, debit, min, max);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private ImmutableList<WindowAggregate> fold(final long now) {
+        final ImmutableList.Builder<WindowAggregate> aggregates = ImmutableList.builder();
+        for (final RollingWindow window : windows) {
+            aggregates.add(window.aggregate(now));
+        }
+        return aggregates.build();
+    }
+}
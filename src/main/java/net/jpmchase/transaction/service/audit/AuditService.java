@@ -7,4 +7,19 @@ import java.util.List;
 public interface AuditService {
 
     void publishBatch(final List<Transaction> transactions, final int batchNumber);
+
+    /**
+     * Wait until every batch published before this call is journaled. Implementations that journal within
+     * {@link #publishBatch} return at once.
+     */
+    default void awaitJournaled() {
+    }
+
+    /**
+     * Time the last batch took to be journaled and delivered downstream, in nanoseconds, including delivery that
+     * happens after {@link #publishBatch} returns, or 0 if not measured.
+     */
+    default long publishLatencyNanos() {
+        return 0L;
+    }
 }
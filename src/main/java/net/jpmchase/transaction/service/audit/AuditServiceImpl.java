@@ -1,36 +1,281 @@
 package net.jpmchase.transaction.service.audit;
 
 import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import net.jpmchase.transaction.model.BatchReconciliation;
+import net.jpmchase.transaction.model.Money;
+import net.jpmchase.transaction.model.Reconciliation;
 import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.audit.columnar.ColumnarAuditStore;
+import net.jpmchase.transaction.service.audit.columnar.ReconciliationQuery;
+import net.jpmchase.transaction.service.audit.journal.JournalCursor;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import net.jpmchase.transaction.service.audit.sink.AuditSink;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.noNullElements;
 import static org.apache.commons.lang3.Validate.notNull;
 
+/**
+ * Hands each audit batch to a bounded queue drained by a dedicated journal writer thread, so a cut costs a queue
+ * insert rather than a journal append of up to a whole batch. The writer journals batches in the order they were
+ * handed off, then forwards each one to the downstream {@link AuditSink}. Sink failures are counted and logged but
+ * never hold up journaling.
+ * <p>
+ * Durability is acknowledged separately: {@link #awaitJournaled()} returns once every batch handed off so far is in
+ * the journal, and the cuts that must be durable (flush, checkpoint, shutdown) wait on it. When the queue is full a
+ * hand-off waits for the writer, so the journal throttles ingest instead of the backlog growing without bound.
+ * <p>
+ * A batch the journal rejects is retried by the writer, backing off from {@value #MIN_RETRY_MILLIS} ms up to
+ * {@value #MAX_RETRY_MILLIS} ms. While it is failing, hand-offs and durability waits fail with its error, so the
+ * caller keeps its batch pending and nothing is treated as journaled.
+ */
 @Service
-public class AuditServiceImpl implements AuditService {
+public class AuditServiceImpl implements AuditService, AutoCloseable {
 
-    private final ImmutableList.Builder<Transaction> transactionHistory = ImmutableList.builder();
-    public synchronized void publishBatch(final List<Transaction> transactions,
-                                          final int batchNumber) {
+    private static final Logger logger = LogManager.getLogger(AuditServiceImpl.class);
+    private static final long POLL_MILLIS = 100L;
+    private static final long MIN_RETRY_MILLIS = 100L;
+    private static final long MAX_RETRY_MILLIS = 30_000L;
+
+    private final TransactionJournal journal;
+    private final AuditSink sink;
+    private final ColumnarAuditStore columns;
+    private final BlockingQueue<AuditBatch> queue;
+    private final Thread writer;
+    private final Timer publishTimer;
+    private final Counter sinkFailures;
+    private long handedOffBatches; // guarded by this
+    private long journaledBatches; // guarded by this
+    private RuntimeException journalFailure; // guarded by this
+    private volatile long publishLatencyNanos;
+    private volatile boolean running = true;
+
+    public AuditServiceImpl(final TransactionJournal journal,
+                            final AuditSink sink,
+                            final MeterRegistry meterRegistry,
+                            @Value("${audit.journal.queue-capacity}") final Integer queueCapacity) {
+        this.journal = notNull(journal, "journal must not be null");
+        this.sink = notNull(sink, "sink must not be null");
+        this.columns = new ColumnarAuditStore(journal);
+        notNull(meterRegistry, "meterRegistry must not be null");
+        notNull(queueCapacity, "queueCapacity must not be null");
+        isTrue(queueCapacity > 0, "queueCapacity must be positive");
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.publishTimer = Timer.builder("audit.publish")
+                .description("Time to journal an audit batch and hand it to the downstream sink")
+                .register(meterRegistry);
+        this.sinkFailures = Counter.builder("audit.sink.failures")
+                .description("Journaled batches the downstream sink failed to accept")
+                .register(meterRegistry);
+        Gauge.builder("audit.journal.queue.depth", queue, BlockingQueue::size)
+                .description("Audit batches handed off and waiting to be journaled")
+                .register(meterRegistry);
+        this.writer = new Thread(this::writeLoop, "audit-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Hand a batch to the journal writer, waiting for room if {@code audit.journal.queue-capacity} batches are
+     * already waiting. The batch is journaled once {@link #awaitJournaled()} returns.
+     *
+     * @throws RuntimeException the journal's last error, while the writer cannot journal
+     */
+    public void publishBatch(final List<Transaction> transactions,
+                             final int batchNumber) {
         notNull(transactions, "transactions must not be null");
         noNullElements(transactions, "transactions must have no null elements");
 
-        double totalValue = transactions.stream()
-                .mapToDouble(Transaction::getAmount)
-                .sum();
+        synchronized (this) {
+            if (journalFailure != null) throw journalFailure;
+        }
+        try {
+            queue.put(new AuditBatch(transactions, batchNumber));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing off audit batch " + batchNumber, e);
+        }
+        synchronized (this) {
+            handedOffBatches++;
+        }
+    }
 
-        System.out.println("Batch Number: " + batchNumber);
-        System.out.println("Total value: £" + totalValue);
-        System.out.println("Count of transactions: " + transactions.size());
+    /**
+     * Wait until every batch handed off before this call is journaled.
+     *
+     * @throws RuntimeException the journal's last error, while the writer cannot journal
+     */
+    @Override
+    public synchronized void awaitJournaled() {
+        final long target = handedOffBatches;
+        while (journaledBatches < target) {
+            if (journalFailure != null) throw journalFailure;
+            try {
+                wait();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for audit batches to be journaled", e);
+            }
+        }
+    }
 
-        transactionHistory.addAll(transactions);
-        // Send transactions to downstream system
+    /**
+     * Time the writer spent journaling the last batch and handing it to the sink, plus the time the sink last took
+     * to deliver a batch when it delivers asynchronously.
+     */
+    @Override
+    public long publishLatencyNanos() {
+        return publishLatencyNanos;
     }
 
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stop accepting batches and wait for the writer to journal the ones already handed off. A batch the journal
+     * still rejects at that point is logged and abandoned.
+     */
+    @PreDestroy
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Materialise the whole audit history on the heap. Prefer {@link #historyCursor()} or
+     * {@link #historyForBatches(int, int)} for large histories.
+     */
     public ImmutableList<Transaction> getTransactionHistory(){
-        return transactionHistory.build();
+        final ImmutableList.Builder<Transaction> history = ImmutableList.builder();
+        final JournalCursor cursor = journal.cursor();
+        while (cursor.next()) {
+            history.add(cursor.toTransaction());
+        }
+        return history.build();
+    }
+
+    /**
+     * Credit, debit and net totals of the audited batches matching {@code query}, summed in parallel over columns
+     * built from the journal on demand.
+     */
+    public Reconciliation reconcile(final ReconciliationQuery query) {
+        return columns.reconcile(query);
+    }
+
+    /**
+     * Totals of each audited batch matching {@code query}, in batch order.
+     */
+    public List<BatchReconciliation> reconcileBatches(final ReconciliationQuery query) {
+        return columns.reconcileBatches(query);
+    }
+
+    /**
+     * Zero-copy sequential reader over the whole audit history.
+     */
+    public JournalCursor historyCursor() {
+        return journal.cursor();
+    }
+
+    /**
+     * Zero-copy reader over the audit history of batches {@code fromBatch} to {@code toBatch} inclusive.
+     */
+    public JournalCursor historyForBatches(final int fromBatch, final int toBatch) {
+        return journal.batches(fromBatch, toBatch);
+    }
+
+    private void writeLoop() {
+        while (true) {
+            final AuditBatch batch;
+            try {
+                batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                if (!running && queue.isEmpty()) return;
+                continue;
+            }
+            final long start = System.nanoTime();
+            if (!journal(batch)) continue;
+            deliver(batch);
+            final long elapsed = System.nanoTime() - start;
+            publishTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            publishLatencyNanos = elapsed + sink.deliveryNanos();
+        }
+    }
+
+    private boolean journal(final AuditBatch batch) {
+        long backoffMillis = MIN_RETRY_MILLIS;
+        while (true) {
+            try {
+                journal.append(batch.transactions(), batch.batchNumber());
+                synchronized (this) {
+                    journaledBatches++;
+                    journalFailure = null;
+                    notifyAll();
+                }
+                return true;
+            } catch (final RuntimeException e) {
+                synchronized (this) {
+                    journalFailure = e;
+                    notifyAll();
+                }
+                if (!running) {
+                    logger.error("Audit batch {} of {} transactions could not be journaled before shutdown",
+                            batch.batchNumber(), batch.transactions().size(), e);
+                    return false;
+                }
+                logger.error("Error journaling audit batch {}, retrying in {} ms", batch.batchNumber(),
+                        backoffMillis, e);
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (final InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, MAX_RETRY_MILLIS);
+            }
+        }
+    }
+
+    private void deliver(final AuditBatch batch) {
+        if (logger.isDebugEnabled()) {
+            final long totalValue = batch.transactions().stream()
+                    .mapToLong(Transaction::getAmountInMinorUnits)
+                    .sum();
+            logger.debug("Batch Number: {}, Total value: £{}, Count of transactions: {}",
+                    batch.batchNumber(), Money.format(totalValue), batch.transactions().size());
+        }
+        try {
+            sink.publish(batch.transactions(), batch.batchNumber());
+        } catch (final RuntimeException e) {
+            // the batch is already journaled, so a downstream outage must not hold up journaling
+            sinkFailures.increment();
+            logger.error("Error sending audit batch {} downstream", batch.batchNumber(), e);
+        }
+    }
+
+    private record AuditBatch(List<Transaction> transactions, int batchNumber) {
     }
 }
@@ -0,0 +1,89 @@
+package net.jpmchase.transaction.service.audit.columnar;
+
+import net.jpmchase.transaction.model.BatchReconciliation;
+import net.jpmchase.transaction.model.Reconciliation;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Columnar view of the audit journal for reconciliation queries, 9 bytes per transaction held in memory-mapped
+ * {@link SegmentColumns} files beside the journal segments rather than on the heap.
+ * <p>
+ * Nothing is read at startup: each segment's columns are built, or reopened, the first time a query reaches it and
+ * then extended with whatever the journal has appended since. Queries see only whole batches, like any journal
+ * reader, and sum the segments in parallel on the common {@link ForkJoinPool}, each in a tight loop over its
+ * columns.
+ */
+public class ColumnarAuditStore {
+    private static final String COLUMNS_PREFIX = "columns-";
+    private static final String COLUMNS_SUFFIX = ".columns";
+
+    private final TransactionJournal journal;
+    private final List<SegmentColumns> segments = new ArrayList<>(); // guarded by this
+
+    public ColumnarAuditStore(final TransactionJournal journal) {
+        this.journal = notNull(journal, "journal must not be null");
+    }
+
+    /**
+     * Credit, debit and net totals over the batches matching {@code query}.
+     */
+    public Reconciliation reconcile(final ReconciliationQuery query) {
+        notNull(query, "query must not be null");
+
+        final long records = journal.recordCount();
+        return segments(records).parallelStream()
+                .map(segment -> segment.reconcile(journal, records, query))
+                .collect(Totals::new, Totals::combine, Totals::combine)
+                .toReconciliation();
+    }
+
+    /**
+     * Totals of each batch matching {@code query}, in batch order.
+     */
+    public List<BatchReconciliation> reconcileBatches(final ReconciliationQuery query) {
+        notNull(query, "query must not be null");
+
+        final long records = journal.recordCount();
+        final List<List<SegmentColumns.Run>> runs = segments(records).parallelStream()
+                .map(segment -> segment.reconcileRuns(journal, records, query))
+                .toList();
+        final List<SegmentColumns.Run> batches = new ArrayList<>();
+        for (final List<SegmentColumns.Run> segmentRuns : runs) {
+            for (final SegmentColumns.Run run : segmentRuns) {
+                if (run.continuation() && !batches.isEmpty()) {
+                    batches.get(batches.size() - 1).totals().combine(run.totals());
+                } else {
+                    batches.add(run);
+                }
+            }
+        }
+        return batches.stream()
+                .map(run -> run.totals().toBatchReconciliation(run.batchNumber(), run.timestampMillis()))
+                .toList();
+    }
+
+    /**
+     * Columns of every journal segment holding any of the first {@code records}, added as the journal grows.
+     * Queries read up to a record count taken once, which always ends on a batch boundary.
+     */
+    private synchronized List<SegmentColumns> segments(final long records) {
+        final int recordsPerSegment = journal.recordsPerSegment();
+        final List<SegmentColumns> visible = new ArrayList<>();
+        for (int i = 0; (long) i * recordsPerSegment < records; i++) {
+            if (i == segments.size()) {
+                final long baseRecord = (long) i * recordsPerSegment;
+                segments.add(new SegmentColumns(journal.directory().resolve(
+                        String.format("%s%020d%s", COLUMNS_PREFIX, baseRecord, COLUMNS_SUFFIX)),
+                        baseRecord, recordsPerSegment));
+            }
+            visible.add(segments.get(i));
+        }
+        return visible;
+    }
+}
@@ -0,0 +1,35 @@
+package net.jpmchase.transaction.service.audit.columnar;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Audit batches to reconcile: those numbered {@code fromBatch} to {@code toBatch} inclusive and journaled at or
+ * after {@code fromMillis} and before {@code toMillis}.
+ */
+public record ReconciliationQuery(int fromBatch, int toBatch, long fromMillis, long toMillis) {
+
+    public static final ReconciliationQuery ALL =
+            new ReconciliationQuery(Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE);
+
+    public ReconciliationQuery {
+        isTrue(fromBatch <= toBatch, "fromBatch must not be after toBatch");
+        isTrue(fromMillis <= toMillis, "fromMillis must not be after toMillis");
+    }
+
+    /**
+     * Query built from optional bounds, any of which may be null for unbounded.
+     */
+    public static ReconciliationQuery of(final Integer fromBatch, final Integer toBatch,
+                                         final Long fromMillis, final Long toMillis) {
+        return new ReconciliationQuery(
+                fromBatch == null ? Integer.MIN_VALUE : fromBatch,
+                toBatch == null ? Integer.MAX_VALUE : toBatch,
+                fromMillis == null ? Long.MIN_VALUE : fromMillis,
+                toMillis == null ? Long.MAX_VALUE : toMillis);
+    }
+
+    boolean matches(final int batchNumber, final long timestampMillis) {
+        return batchNumber >= fromBatch && batchNumber <= toBatch
+                && timestampMillis >= fromMillis && timestampMillis < toMillis;
+    }
+}
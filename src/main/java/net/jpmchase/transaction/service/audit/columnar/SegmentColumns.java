@@ -0,0 +1,222 @@
+package net.jpmchase.transaction.service.audit.columnar;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.service.audit.journal.JournalCursor;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Columns of one journal segment, memory-mapped from a file beside it: the amount in minor units and a flag byte
+ * per transaction, and a table of the batch runs in the segment (little-endian):
+ * <pre>
+ *  0  int   records built
+ *  4  int   batch runs
+ *  8  int   checksum of the segment's last journal record, once sealed
+ * 12  int   capacity
+ * 16  byte  sealed
+ * 17  byte  first run continues a batch from the previous segment
+ * 64        long amount[capacity], byte flags[capacity], then 16 byte runs {long timestamp, int batch, int start}
+ * </pre>
+ * The columns are built from the journal the first time a query reaches the segment and extended as it fills. A
+ * file is reused after a restart only if it was sealed full and the journal's last record in the segment still has
+ * the checksum it was sealed with; anything else is rebuilt, so the columns cannot outlive a journal that recovery
+ * cut back.
+ */
+final class SegmentColumns {
+    private static final byte DEBIT = 1;
+    private static final byte CONTINUES = 2;
+    private static final int COUNT_OFFSET = 0;
+    private static final int RUNS_OFFSET = 4;
+    private static final int CHECKSUM_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int SEALED_OFFSET = 16;
+    private static final int FIRST_RUN_CONTINUES_OFFSET = 17;
+    private static final int HEADER_BYTES = 64;
+    private static final int RUN_BYTES = 16;
+
+    private final Path file;
+    private final long baseRecord;
+    private final int capacity;
+    private MappedByteBuffer buffer; // guarded by this, mapped on first use
+    private LongBuffer amounts; // guarded by this
+    private ByteBuffer flags; // guarded by this
+    private ByteBuffer runTable; // guarded by this
+    private int count; // guarded by this
+    private int runs; // guarded by this
+    private boolean firstRunContinues; // guarded by this
+
+    SegmentColumns(final Path file, final long baseRecord, final int capacity) {
+        this.file = file;
+        this.baseRecord = baseRecord;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Totals of the runs matching {@code query} among the first {@code records} of the journal, not counting a
+     * batch carried over from the previous segment again.
+     */
+    synchronized Totals reconcile(final TransactionJournal journal, final long records,
+                                  final ReconciliationQuery query) {
+        final int end = catchUp(journal, records);
+        final Totals totals = new Totals();
+        for (int run = 0; run < runs && runStart(run) < end; run++) {
+            if (!query.matches(runBatchNumber(run), runTimestampMillis(run))) continue;
+            addTo(totals, run, end);
+            if (run == 0 && firstRunContinues) totals.batches--;
+        }
+        return totals;
+    }
+
+    /**
+     * Totals of each run matching {@code query} among the first {@code records} of the journal, in journal order.
+     */
+    synchronized List<Run> reconcileRuns(final TransactionJournal journal, final long records,
+                                         final ReconciliationQuery query) {
+        final int end = catchUp(journal, records);
+        final List<Run> matching = new ArrayList<>();
+        for (int run = 0; run < runs && runStart(run) < end; run++) {
+            if (!query.matches(runBatchNumber(run), runTimestampMillis(run))) continue;
+            final Totals totals = new Totals();
+            addTo(totals, run, end);
+            matching.add(new Run(runBatchNumber(run), runTimestampMillis(run), run == 0 && firstRunContinues, totals));
+        }
+        return matching;
+    }
+
+    /**
+     * Add one run's totals. The loop is branch free so it stays a straight pass over the two columns.
+     */
+    private void addTo(final Totals totals, final int run, final int end) {
+        final int from = runStart(run);
+        final int to = run + 1 < runs ? Math.min(runStart(run + 1), end) : end;
+        long debitCount = 0;
+        long debitVolume = 0;
+        long volume = 0;
+        for (int i = from; i < to; i++) {
+            final long amount = amounts.get(i);
+            final long debit = flags.get(i) & DEBIT;
+            volume += amount;
+            debitCount += debit;
+            debitVolume += amount & -debit;
+        }
+        totals.batches++;
+        totals.creditCount += to - from - debitCount;
+        totals.creditVolume += volume - debitVolume;
+        totals.debitCount += debitCount;
+        totals.debitVolume += debitVolume;
+    }
+
+    /**
+     * Fold in any of the first {@code records} of the journal not yet in the columns. Another query may already have
+     * folded in more, so this returns where the caller's view of the segment ends.
+     */
+    private int catchUp(final TransactionJournal journal, final long records) {
+        if (buffer == null) map(journal);
+        final int visible = (int) Math.min(capacity, records - baseRecord);
+        if (count >= visible) return visible;
+
+        final JournalCursor cursor;
+        boolean continues;
+        if (count > 0) {
+            cursor = journal.cursor(baseRecord + count);
+            continues = (flags.get(count - 1) & CONTINUES) != 0;
+        } else if (baseRecord > 0) {
+            cursor = journal.cursor(baseRecord - 1);
+            cursor.next();
+            continues = cursor.continuesBatch();
+            firstRunContinues = continues;
+        } else {
+            cursor = journal.cursor(baseRecord);
+            continues = false;
+        }
+        while (count < visible && cursor.next()) {
+            if (count == 0 || !continues) {
+                final int offset = runOffset(runs++);
+                runTable.putLong(offset, cursor.timestampMillis());
+                runTable.putInt(offset + 8, cursor.batchNumber());
+                runTable.putInt(offset + 12, count);
+            }
+            continues = cursor.continuesBatch();
+            amounts.put(count, cursor.amountInMinorUnits());
+            flags.put(count, (byte) ((cursor.transactionType() == TransactionType.DEBIT ? DEBIT : 0)
+                    | (continues ? CONTINUES : 0)));
+            count++;
+        }
+        buffer.putInt(COUNT_OFFSET, count);
+        buffer.putInt(RUNS_OFFSET, runs);
+        buffer.put(FIRST_RUN_CONTINUES_OFFSET, (byte) (firstRunContinues ? 1 : 0));
+        if (count == capacity) {
+            // the columns must be on disk before the header vouches for them
+            buffer.force();
+            buffer.putInt(CHECKSUM_OFFSET, cursor.checksum());
+            buffer.put(SEALED_OFFSET, (byte) 1);
+            buffer.force();
+        }
+        return visible;
+    }
+
+    private void map(final TransactionJournal journal) {
+        final long runsStart = (HEADER_BYTES + 9L * capacity + 7) & ~7L;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, runsStart + (long) RUN_BYTES * capacity);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error mapping audit columns " + file, e);
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        amounts = buffer.slice(HEADER_BYTES, 8 * capacity).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        flags = buffer.slice(HEADER_BYTES + 8 * capacity, capacity);
+        runTable = buffer.slice((int) runsStart, RUN_BYTES * capacity).order(ByteOrder.LITTLE_ENDIAN);
+
+        if (isSealedFor(journal)) {
+            count = capacity;
+            runs = buffer.getInt(RUNS_OFFSET);
+            firstRunContinues = buffer.get(FIRST_RUN_CONTINUES_OFFSET) == 1;
+        } else {
+            buffer.put(SEALED_OFFSET, (byte) 0);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+        }
+    }
+
+    private boolean isSealedFor(final TransactionJournal journal) {
+        if (buffer.get(SEALED_OFFSET) != 1 || buffer.getInt(CAPACITY_OFFSET) != capacity
+                || buffer.getInt(COUNT_OFFSET) != capacity || journal.recordCount() < baseRecord + capacity) {
+            return false;
+        }
+        final JournalCursor last = journal.cursor(baseRecord + capacity - 1);
+        return last.next() && last.checksum() == buffer.getInt(CHECKSUM_OFFSET);
+    }
+
+    private static int runOffset(final int run) {
+        return run * RUN_BYTES;
+    }
+
+    private long runTimestampMillis(final int run) {
+        return runTable.getLong(runOffset(run));
+    }
+
+    private int runBatchNumber(final int run) {
+        return runTable.getInt(runOffset(run) + 8);
+    }
+
+    private int runStart(final int run) {
+        return runTable.getInt(runOffset(run) + 12);
+    }
+
+    /**
+     * The part of one batch held in a segment; {@code continuation} when the batch began in the previous segment.
+     */
+    record Run(int batchNumber, long timestampMillis, boolean continuation, Totals totals) {
+    }
+}
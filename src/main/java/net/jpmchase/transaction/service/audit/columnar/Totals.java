@@ -0,0 +1,36 @@
+package net.jpmchase.transaction.service.audit.columnar;
+
+import net.jpmchase.transaction.model.BatchReconciliation;
+import net.jpmchase.transaction.model.Money;
+import net.jpmchase.transaction.model.Reconciliation;
+
+/**
+ * Mutable running totals, one per journal segment, combined on the way back up.
+ */
+final class Totals {
+    long batches;
+    long creditCount;
+    long creditVolume;
+    long debitCount;
+    long debitVolume;
+
+    Totals combine(final Totals other) {
+        batches += other.batches;
+        creditCount += other.creditCount;
+        creditVolume += other.creditVolume;
+        debitCount += other.debitCount;
+        debitVolume += other.debitVolume;
+        return this;
+    }
+
+    Reconciliation toReconciliation() {
+        return Reconciliation.of(batches, creditCount, creditVolume, debitCount, debitVolume);
+    }
+
+    BatchReconciliation toBatchReconciliation(final int batchNumber, final long timestampMillis) {
+        return new BatchReconciliation(batchNumber, timestampMillis,
+                creditCount, Money.toMajorUnits(creditVolume),
+                debitCount, Money.toMajorUnits(debitVolume),
+                Money.toMajorUnits(creditVolume - debitVolume));
+    }
+}
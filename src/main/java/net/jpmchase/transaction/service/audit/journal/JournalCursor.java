@@ -0,0 +1,129 @@
+package net.jpmchase.transaction.service.audit.journal;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static net.jpmchase.transaction.service.audit.journal.JournalRecords.*;
+
+/**
+ * Sequential, zero-copy reader over a {@link TransactionJournal}. Each {@link #next()} verifies the record checksum
+ * and positions the accessors on it; field accessors read straight from the mapped segment and only {@link #id()}
+ * and {@link #toTransaction()} allocate.
+ * <p>
+ * A cursor is not thread-safe, but any number of cursors can read while the journal is being appended to. Reaching
+ * the end is not final: {@code next()} picks up batches appended later.
+ */
+public final class JournalCursor {
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final TransactionJournal journal;
+    private final int fromBatch;
+    private final int toBatch;
+    private final boolean filtered;
+    private long nextRecord;
+    private long position = -1L;
+    private int segmentIndex = -1;
+    private ByteBuffer records;
+    private JournalRecords.Verifier verifier;
+    private int offset;
+
+    JournalCursor(final TransactionJournal journal, final long fromRecord, final int fromBatch, final int toBatch) {
+        this.journal = journal;
+        this.nextRecord = fromRecord;
+        this.fromBatch = fromBatch;
+        this.toBatch = toBatch;
+        this.filtered = fromBatch != Integer.MIN_VALUE || toBatch != Integer.MAX_VALUE;
+    }
+
+    /**
+     * Advance to the next record.
+     *
+     * @return false once there are no more visible records
+     * @throws IllegalStateException if the record fails its checksum
+     */
+    public boolean next() {
+        final int recordsPerSegment = journal.recordsPerSegment();
+        while (nextRecord < journal.recordCount()) {
+            final int index = (int) (nextRecord / recordsPerSegment);
+            if (index != segmentIndex) {
+                final JournalSegment segment = journal.segment(index);
+                segmentIndex = index;
+                if (filtered && !segment.mayContain(fromBatch, toBatch)) {
+                    nextRecord = segment.baseRecord() + recordsPerSegment;
+                    continue;
+                }
+                records = segment.buffer().duplicate().order(ByteOrder.LITTLE_ENDIAN);
+                verifier = new JournalRecords.Verifier(segment.buffer());
+            }
+            offset = (int) (nextRecord % recordsPerSegment) * RECORD_BYTES;
+            position = nextRecord++;
+            if (!verifier.isValid(offset)) {
+                throw new IllegalStateException("journal record " + position + " failed its checksum");
+            }
+            if (filtered && (batchNumber() < fromBatch || batchNumber() > toBatch)) continue;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Position of the current record in the journal.
+     */
+    public long position() {
+        return position;
+    }
+
+    public int batchNumber() {
+        return records.getInt(offset + BATCH_NUMBER_OFFSET);
+    }
+
+    public long amountInMinorUnits() {
+        return records.getLong(offset + AMOUNT_OFFSET);
+    }
+
+    public TransactionType transactionType() {
+        return TYPES[records.get(offset + TYPE_OFFSET)];
+    }
+
+    /**
+     * The signed impact of the current record on a balance, in minor units.
+     */
+    public long signedAmountInMinorUnits() {
+        return amountInMinorUnits() * transactionType().getImpact();
+    }
+
+    /**
+     * Time the record was appended, in epoch milliseconds.
+     */
+    public long timestampMillis() {
+        return records.getLong(offset + TIMESTAMP_OFFSET);
+    }
+
+    /**
+     * Whether the next record in the journal belongs to the same batch as the current one.
+     */
+    public boolean continuesBatch() {
+        return records.get(offset + FLAGS_OFFSET) == BATCH_CONTINUES;
+    }
+
+    /**
+     * Checksum stored with the current record, which identifies it cheaply.
+     */
+    public int checksum() {
+        return records.getInt(offset + CRC_OFFSET);
+    }
+
+    public String id() {
+        final byte[] id = new byte[records.get(offset + ID_LENGTH_OFFSET)];
+        records.get(offset + ID_OFFSET, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    public Transaction toTransaction() {
+        return Transaction.ofMinorUnits(id(), amountInMinorUnits(), transactionType());
+    }
+}
@@ -0,0 +1,62 @@
+package net.jpmchase.transaction.service.audit.journal;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.zip.CRC32C;
+
+/**
+ * Fixed-width binary layout of one journal record (little-endian, 80 bytes):
+ * <pre>
+ *  0  long  timestamp millis
+ *  8  long  amount in minor units
+ * 16  int   batch number
+ * 20  byte  transaction type ordinal
+ * 21  byte  id length in bytes
+ * 22  48    id bytes (UTF-8, zero padded)
+ * 70  byte  flags: {@link #BATCH_CONTINUES} on every record of a batch but its last
+ * 76  int   CRC32C of bytes 0..75
+ * </pre>
+ */
+final class JournalRecords {
+    static final int RECORD_BYTES = 80;
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int AMOUNT_OFFSET = 8;
+    static final int BATCH_NUMBER_OFFSET = 16;
+    static final int TYPE_OFFSET = 20;
+    static final int ID_LENGTH_OFFSET = 21;
+    static final int ID_OFFSET = 22;
+    static final int ID_CAPACITY = Transaction.MAX_ID_BYTES;
+    static final int FLAGS_OFFSET = 70;
+    static final int CRC_OFFSET = 76;
+    static final byte BATCH_CONTINUES = 1;
+
+    private JournalRecords() {
+    }
+
+    /**
+     * Computes record checksums straight from the mapped buffer without copying or allocating.
+     */
+    static final class Verifier {
+        private final ByteBuffer view;
+        private final ByteBuffer records;
+        private final CRC32C crc = new CRC32C();
+
+        Verifier(final ByteBuffer buffer) {
+            this.view = buffer.duplicate();
+            this.records = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int checksum(final int offset) {
+            view.limit(view.capacity()).position(offset).limit(offset + CRC_OFFSET);
+            crc.reset();
+            crc.update(view);
+            return (int) crc.getValue();
+        }
+
+        boolean isValid(final int offset) {
+            return checksum(offset) == records.getInt(offset + CRC_OFFSET);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package net.jpmchase.transaction.service.audit.journal;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static net.jpmchase.transaction.service.audit.journal.JournalRecords.BATCH_NUMBER_OFFSET;
+import static net.jpmchase.transaction.service.audit.journal.JournalRecords.RECORD_BYTES;
+
+/**
+ * One fixed-size, memory-mapped file of the journal holding {@code capacity} records starting at {@code baseRecord}.
+ */
+final class JournalSegment {
+    private final Path file;
+    private final long baseRecord;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+    private volatile int count;
+    private int minBatch = Integer.MAX_VALUE; // guarded by this
+    private int maxBatch = Integer.MIN_VALUE; // guarded by this
+    private int summarised; // records folded into min/max, guarded by this
+
+    private JournalSegment(final Path file, final long baseRecord, final int capacity,
+                           final MappedByteBuffer buffer, final int count) {
+        this.file = file;
+        this.baseRecord = baseRecord;
+        this.capacity = capacity;
+        this.buffer = buffer;
+        this.count = count;
+    }
+
+    /**
+     * Create a new, empty segment file.
+     */
+    static JournalSegment create(final Path file, final long baseRecord, final int capacity) throws IOException {
+        return new JournalSegment(file, baseRecord, capacity, map(file, capacity), 0);
+    }
+
+    /**
+     * Map an existing segment file. A sealed segment is trusted to be full; for the tail segment the record count is
+     * recovered by scanning up to the first record whose checksum does not match.
+     */
+    static JournalSegment open(final Path file, final long baseRecord, final int capacity,
+                               final boolean tail) throws IOException {
+        final MappedByteBuffer buffer = map(file, capacity);
+        int count = capacity;
+        if (tail) {
+            final JournalRecords.Verifier verifier = new JournalRecords.Verifier(buffer);
+            count = 0;
+            while (count < capacity && verifier.isValid(count * RECORD_BYTES)) {
+                count++;
+            }
+        }
+        return new JournalSegment(file, baseRecord, capacity, buffer, count);
+    }
+
+    private static MappedByteBuffer map(final Path file, final int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_BYTES);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long baseRecord() {
+        return baseRecord;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    int count() {
+        return count;
+    }
+
+    boolean isFull() {
+        return count == capacity;
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * Publish a record written at index {@code count}; called only by the journal's single writer.
+     */
+    void committed(final int batchNumber) {
+        synchronized (this) {
+            if (summarised == count) {
+                minBatch = Math.min(minBatch, batchNumber);
+                maxBatch = Math.max(maxBatch, batchNumber);
+                summarised++;
+            }
+        }
+        count++;
+    }
+
+    /**
+     * Drop the records from index {@code retained} on, zeroing them so their checksums no longer match; called only
+     * while the journal is recovered, before any reader exists.
+     */
+    synchronized void truncate(final int retained) {
+        for (int offset = retained * RECORD_BYTES; offset < count * RECORD_BYTES; offset++) {
+            buffer.put(offset, (byte) 0);
+        }
+        count = retained;
+        minBatch = Integer.MAX_VALUE;
+        maxBatch = Integer.MIN_VALUE;
+        summarised = 0;
+    }
+
+    /**
+     * Whether any record in this segment may carry a batch number in {@code [fromBatch, toBatch]}.
+     */
+    synchronized boolean mayContain(final int fromBatch, final int toBatch) {
+        final int visible = count;
+        for (; summarised < visible; summarised++) {
+            final int batchNumber = buffer.getInt(summarised * RECORD_BYTES + BATCH_NUMBER_OFFSET);
+            minBatch = Math.min(minBatch, batchNumber);
+            maxBatch = Math.max(maxBatch, batchNumber);
+        }
+        return summarised > 0 && minBatch <= toBatch && maxBatch >= fromBatch;
+    }
+
+    void force() {
+        buffer.force();
+    }
+}
@@ -0,0 +1,263 @@
+package net.jpmchase.transaction.service.audit.journal;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static net.jpmchase.transaction.service.audit.journal.JournalRecords.*;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.noNullElements;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Append-only journal of audited transactions, stored as fixed-width binary records with a CRC each in
+ * memory-mapped segment files of {@code recordsPerSegment} records.
+ * <p>
+ * There is a single writer; any number of {@link JournalCursor readers} can scan concurrently and see whole
+ * batches only. Every record but the last of a batch is flagged as continuing the batch, and the segments a batch
+ * needs are created before any of it is written. On reopening, the tail of the last segment is recovered up to the
+ * first record whose checksum does not match, then cut back to the end of the last complete batch, so a batch
+ * torn by a crash is dropped whole. History is bounded by disk, not heap.
+ */
+public class TransactionJournal implements Closeable {
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final List<JournalSegment> segments = new CopyOnWriteArrayList<>();
+    private final byte[] idBytes = new byte[ID_CAPACITY];
+    private JournalSegment writerSegment;
+    private JournalRecords.Verifier writerChecksum;
+    private volatile long recordCount;
+
+    private TransactionJournal(final Path directory, final int recordsPerSegment) {
+        this.directory = directory;
+        this.recordsPerSegment = recordsPerSegment;
+    }
+
+    /**
+     * Open the journal in {@code directory}, creating it if needed and recovering any existing segments.
+     */
+    public static TransactionJournal open(final Path directory, final Integer recordsPerSegment) {
+        notNull(directory, "directory must not be null");
+        notNull(recordsPerSegment, "recordsPerSegment must not be null");
+        isTrue(recordsPerSegment > 0 && (long) recordsPerSegment * RECORD_BYTES <= Integer.MAX_VALUE,
+                "recordsPerSegment out of range");
+
+        final TransactionJournal journal = new TransactionJournal(directory, recordsPerSegment);
+        try {
+            Files.createDirectories(directory);
+            journal.recover();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error opening transaction journal in " + directory, e);
+        }
+        return journal;
+    }
+
+    /**
+     * Append a batch of transactions. The batch becomes visible to readers once every record is written.
+     *
+     * @param transactions transactions of the batch
+     * @param batchNumber  audit batch number recorded against each transaction
+     * @return the timestamp recorded against the batch
+     */
+    public synchronized long append(final List<Transaction> transactions, final int batchNumber) {
+        noNullElements(notNull(transactions, "transactions must not be null"),
+                "transactions must have no null elements");
+
+        final long timestamp = System.currentTimeMillis();
+        final int last = transactions.size() - 1;
+        try {
+            reserve(transactions.size());
+            for (int i = 0; i <= last; i++) {
+                write(activeSegment(), transactions.get(i), batchNumber, timestamp, i < last ? BATCH_CONTINUES : 0);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error appending batch " + batchNumber + " to transaction journal", e);
+        }
+        recordCount += transactions.size();
+        return timestamp;
+    }
+
+    /**
+     * Number of records readers can currently see.
+     */
+    public long recordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Batch number of the last record readers can see, or -1 if the journal is empty.
+     */
+    public int lastBatchNumber() {
+        final long count = recordCount;
+        if (count == 0) return -1;
+        final JournalCursor cursor = cursor(count - 1);
+        return cursor.next() ? cursor.batchNumber() : -1;
+    }
+
+    /**
+     * Reader over every record from the start of the journal.
+     */
+    public JournalCursor cursor() {
+        return cursor(0L);
+    }
+
+    /**
+     * Reader starting at the given record position.
+     */
+    public JournalCursor cursor(final long fromRecord) {
+        isTrue(fromRecord >= 0, "fromRecord must not be negative");
+        return new JournalCursor(this, fromRecord, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reader over the records of batches {@code fromBatch} to {@code toBatch} inclusive, skipping whole segments
+     * that hold no batch in the range.
+     */
+    public JournalCursor batches(final int fromBatch, final int toBatch) {
+        isTrue(fromBatch <= toBatch, "fromBatch must not be after toBatch");
+        return new JournalCursor(this, 0L, fromBatch, toBatch);
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    public int recordsPerSegment() {
+        return recordsPerSegment;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Write mapped pages of every segment back to disk.
+     */
+    public void flush() {
+        segments.forEach(JournalSegment::force);
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+    }
+
+    JournalSegment segment(final int index) {
+        return segments.get(index);
+    }
+
+    private void recover() throws IOException {
+        final List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            final Path file = files.get(i);
+            final long baseRecord = (long) i * recordsPerSegment;
+            if (!file.equals(segmentFile(baseRecord)) || Files.size(file) != (long) recordsPerSegment * RECORD_BYTES) {
+                throw new IllegalStateException("journal segment " + file + " does not match recordsPerSegment "
+                        + recordsPerSegment);
+            }
+            segments.add(JournalSegment.open(file, baseRecord, recordsPerSegment, i == files.size() - 1));
+        }
+        // segments reserved for a batch the crash cut short may be empty, so the tail is the last one holding records
+        while (!segments.isEmpty() && segments.get(segments.size() - 1).count() == 0) {
+            dropLastSegment();
+            if (!segments.isEmpty()) {
+                final JournalSegment tail = segments.remove(segments.size() - 1);
+                segments.add(JournalSegment.open(tail.file(), tail.baseRecord(), recordsPerSegment, true));
+            }
+        }
+        truncateTornBatch();
+        if (!segments.isEmpty()) {
+            writerSegment = segments.get(segments.size() - 1);
+            writerChecksum = new JournalRecords.Verifier(writerSegment.buffer());
+            recordCount = writerSegment.baseRecord() + writerSegment.count();
+        }
+    }
+
+    /**
+     * Cut the recovered records back to the end of the last batch whose final record was written. A torn batch may
+     * straddle segments, so the segments it emptied are dropped and the one it was cut back into becomes the tail.
+     */
+    private void truncateTornBatch() throws IOException {
+        for (int index = segments.size() - 1; index >= 0; index--) {
+            final JournalSegment segment = segments.get(index);
+            int retained = segment.count();
+            while (retained > 0
+                    && segment.buffer().get((retained - 1) * RECORD_BYTES + FLAGS_OFFSET) == BATCH_CONTINUES) {
+                retained--;
+            }
+            if (retained < segment.count()) {
+                segment.truncate(retained);
+                segment.force();
+            }
+            if (retained > 0) break;
+        }
+        while (!segments.isEmpty() && segments.get(segments.size() - 1).count() == 0) {
+            dropLastSegment();
+        }
+    }
+
+    private void dropLastSegment() throws IOException {
+        Files.delete(segments.remove(segments.size() - 1).file());
+    }
+
+    /**
+     * Create every segment needed to hold {@code records} more records, so a batch cannot fail part-way through
+     * for want of a segment.
+     */
+    private void reserve(final int records) throws IOException {
+        long capacity = (long) segments.size() * recordsPerSegment;
+        while (capacity - recordCount < records) {
+            segments.add(JournalSegment.create(segmentFile(capacity), capacity, recordsPerSegment));
+            capacity += recordsPerSegment;
+        }
+    }
+
+    private JournalSegment activeSegment() {
+        if (writerSegment == null || writerSegment.isFull()) {
+            final int index = writerSegment == null ? 0 : (int) (writerSegment.baseRecord() / recordsPerSegment) + 1;
+            if (writerSegment != null) writerSegment.force();
+            writerSegment = segments.get(index);
+            writerChecksum = new JournalRecords.Verifier(writerSegment.buffer());
+        }
+        return writerSegment;
+    }
+
+    private void write(final JournalSegment segment, final Transaction transaction,
+                       final int batchNumber, final long timestamp, final byte flags) {
+        final MappedByteBuffer buffer = segment.buffer();
+        final int offset = segment.count() * RECORD_BYTES;
+        final int idLength = transaction.encodeId(idBytes);
+        Arrays.fill(idBytes, idLength, ID_CAPACITY, (byte) 0);
+
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putLong(offset + AMOUNT_OFFSET, transaction.getAmountInMinorUnits());
+        buffer.putInt(offset + BATCH_NUMBER_OFFSET, batchNumber);
+        buffer.put(offset + TYPE_OFFSET, (byte) transaction.getTransactionType().ordinal());
+        buffer.put(offset + ID_LENGTH_OFFSET, (byte) idLength);
+        buffer.put(offset + ID_OFFSET, idBytes, 0, ID_CAPACITY);
+        buffer.put(offset + FLAGS_OFFSET, flags);
+        buffer.putInt(offset + CRC_OFFSET, writerChecksum.checksum(offset));
+        segment.committed(batchNumber);
+    }
+
+    private Path segmentFile(final long baseRecord) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, baseRecord, SEGMENT_SUFFIX));
+    }
+}
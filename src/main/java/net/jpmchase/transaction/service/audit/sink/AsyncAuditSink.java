@@ -0,0 +1,268 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpmchase.transaction.enums.BackPressurePolicy;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * {@link AuditSink} that hands journaled batches to a bounded queue drained by a dedicated publisher thread, so
+ * cutting a batch never waits for the downstream system.
+ * <p>
+ * When the queue is full the configured {@link BackPressurePolicy} applies. It only governs downstream delivery:
+ * batches reach this sink after they are journaled, so a dropped or lost batch is still audited and recovered.
+ * Batches are always delivered to the delegate in the order they were accepted, including batches that were
+ * spilled to disk.
+ */
+public class AsyncAuditSink implements AuditSink, MeterBinder {
+    private static final Logger logger = LogManager.getLogger(AsyncAuditSink.class);
+    private static final long POLL_MILLIS = 100L;
+
+    private final AuditSink delegate;
+    private final BlockingQueue<AuditBatch> queue;
+    private final BackPressurePolicy backPressurePolicy;
+    private final Path spillDirectory;
+    private final Deque<Path> spilledBatches = new ArrayDeque<>(); // guarded by itself
+    private final Thread publisher;
+    private final LongAdder droppedBatches = new LongAdder();
+    private final LongAdder publishedBatches = new LongAdder();
+    private final AtomicLong lastPublishLatencyNanos = new AtomicLong();
+    private final AtomicLong maxPublishLatencyNanos = new AtomicLong();
+    private long spillSequence;
+    private volatile boolean running = true;
+
+    public AsyncAuditSink(final AuditSink delegate,
+                             final Integer queueCapacity,
+                             final BackPressurePolicy backPressurePolicy,
+                             final Path spillDirectory) {
+        this.delegate = notNull(delegate, "delegate must not be null");
+        notNull(queueCapacity, "queueCapacity must not be null");
+        isTrue(queueCapacity > 0, "queueCapacity must be positive");
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.backPressurePolicy = notNull(backPressurePolicy, "backPressurePolicy must not be null");
+        this.spillDirectory = notNull(spillDirectory, "spillDirectory must not be null");
+        this.publisher = new Thread(this::publishLoop, "audit-publisher");
+        this.publisher.setDaemon(true);
+        this.publisher.start();
+    }
+
+    @Override
+    public void publish(final List<Transaction> transactions, final int batchNumber) {
+        notNull(transactions, "transactions must not be null");
+        final AuditBatch batch = new AuditBatch(transactions, batchNumber);
+
+        switch (backPressurePolicy) {
+            case BLOCK -> enqueueBlocking(batch);
+            case DROP -> {
+                if (!queue.offer(batch)) {
+                    droppedBatches.increment();
+                    logger.warn("Audit queue full, dropped batch {} of {} transactions", batchNumber, transactions.size());
+                }
+            }
+            case SPILL -> {
+                synchronized (spilledBatches) {
+                    // once anything is on disk, later batches queue behind it to keep publish order
+                    if (!spilledBatches.isEmpty() || !queue.offer(batch)) spill(batch);
+                }
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public int spilledBatches() {
+        synchronized (spilledBatches) {
+            return spilledBatches.size();
+        }
+    }
+
+    public long droppedBatches() {
+        return droppedBatches.sum();
+    }
+
+    public long publishedBatches() {
+        return publishedBatches.sum();
+    }
+
+    public long lastPublishLatencyNanos() {
+        return lastPublishLatencyNanos.get();
+    }
+
+    public long maxPublishLatencyNanos() {
+        return maxPublishLatencyNanos.get();
+    }
+
+    /**
+     * Time the delegate took to accept the last batch the publisher handed it.
+     */
+    @Override
+    public long deliveryNanos() {
+        return lastPublishLatencyNanos();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("audit.async.queue.depth", this, AsyncAuditSink::queueDepth)
+                .description("Audit batches waiting in memory for the publisher")
+                .register(registry);
+        Gauge.builder("audit.async.spilled", this, AsyncAuditSink::spilledBatches)
+                .description("Audit batches waiting on disk for the publisher")
+                .register(registry);
+        FunctionCounter.builder("audit.async.dropped", this, AsyncAuditSink::droppedBatches)
+                .description("Audit batches dropped because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("audit.async.published", this, AsyncAuditSink::publishedBatches)
+                .description("Audit batches handed to the delegate")
+                .register(registry);
+        TimeGauge.builder("audit.async.publish.latency.max", this, TimeUnit.NANOSECONDS,
+                        AsyncAuditSink::maxPublishLatencyNanos)
+                .description("Longest time from enqueue to publish")
+                .register(registry);
+    }
+
+    /**
+     * Delivery is asynchronous; the delegate flushes batches as the publisher hands them over.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Stop accepting work and wait for every queued and spilled batch to be published. The delegate stays open for
+     * its owner to close.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            publisher.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueueBlocking(final AuditBatch batch) {
+        try {
+            queue.put(batch);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing audit batch " + batch.batchNumber(), e);
+        }
+    }
+
+    private void publishLoop() {
+        while (true) {
+            final AuditBatch batch;
+            try {
+                batch = nextBatch();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                if (!running && queue.isEmpty() && spilledBatches() == 0) return;
+                continue;
+            }
+            publish(batch);
+        }
+    }
+
+    private AuditBatch nextBatch() throws InterruptedException {
+        final AuditBatch queued = queue.poll();
+        if (queued != null) return queued;
+
+        final AuditBatch spilled = unspill();
+        if (spilled != null) return spilled;
+
+        return queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void publish(final AuditBatch batch) {
+        final long start = System.nanoTime();
+        try {
+            delegate.publish(batch.transactions(), batch.batchNumber());
+            publishedBatches.increment();
+        } catch (final RuntimeException e) {
+            logger.error("Error publishing audit batch {}", batch.batchNumber(), e);
+        } finally {
+            final long latency = System.nanoTime() - start;
+            lastPublishLatencyNanos.set(latency);
+            maxPublishLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    private void spill(final AuditBatch batch) {
+        final Path file = spillDirectory.resolve("audit-batch-" + batch.batchNumber() + "-" + spillSequence++ + ".spill");
+        try {
+            Files.createDirectories(spillDirectory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeInt(batch.batchNumber());
+                out.writeInt(batch.transactions().size());
+                for (final Transaction transaction : batch.transactions()) {
+                    out.writeUTF(transaction.getId());
+                    out.writeLong(transaction.getAmountInMinorUnits());
+                    out.writeByte(transaction.getTransactionType().ordinal());
+                }
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error spilling audit batch " + batch.batchNumber(), e);
+        }
+        spilledBatches.addLast(file);
+    }
+
+    private AuditBatch unspill() {
+        final Path file;
+        synchronized (spilledBatches) {
+            file = spilledBatches.peekFirst();
+            if (file == null) return null;
+            // queue is empty and new batches keep spilling until this one is removed, so order is preserved
+            spilledBatches.removeFirst();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            final int batchNumber = in.readInt();
+            final int count = in.readInt();
+            final List<Transaction> transactions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                transactions.add(Transaction.ofMinorUnits(in.readUTF(), in.readLong(),
+                        TransactionType.values()[in.readByte()]));
+            }
+            Files.deleteIfExists(file);
+            return new AuditBatch(transactions, batchNumber);
+        } catch (final IOException e) {
+            logger.error("Error reading spilled audit batch {}", file, e);
+            return null;
+        }
+    }
+
+    private record AuditBatch(List<Transaction> transactions, int batchNumber) {
+    }
+}
@@ -0,0 +1,11 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.util.List;
+
+/**
+ * One decoded audit batch as read back by a downstream receiver.
+ */
+public record AuditFrame(int batchNumber, List<Transaction> transactions) {
+}
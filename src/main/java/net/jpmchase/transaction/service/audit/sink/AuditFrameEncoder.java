@@ -0,0 +1,114 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import static net.jpmchase.transaction.service.audit.sink.AuditFrames.*;
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Encodes batches into reusable direct buffers laid out as {@link AuditFrames} describes, writing transaction
+ * fields straight into the body so nothing is allocated per transaction. Not thread safe.
+ */
+final class AuditFrameEncoder {
+    private final ByteBuffer header = ByteBuffer.allocateDirect(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer[] frame = new ByteBuffer[2];
+    private final byte[] idBytes = new byte[Transaction.MAX_ID_BYTES];
+    private final Deflater deflater;
+    private ByteBuffer body;
+    private ByteBuffer compressed;
+
+    private AuditFrameEncoder(final int initialBodyBytes, final Deflater deflater) {
+        this.body = ByteBuffer.allocateDirect(initialBodyBytes).order(ByteOrder.LITTLE_ENDIAN);
+        this.deflater = deflater;
+        this.compressed = deflater == null ? null : ByteBuffer.allocateDirect(initialBodyBytes);
+        frame[0] = header;
+    }
+
+    /**
+     * Encoder that writes bodies as is.
+     */
+    static AuditFrameEncoder raw(final int initialBodyBytes) {
+        return new AuditFrameEncoder(initialBodyBytes, null);
+    }
+
+    /**
+     * Encoder that deflates bodies at the given {@link Deflater} level.
+     */
+    static AuditFrameEncoder deflating(final int initialBodyBytes, final int compressionLevel) {
+        isTrue(compressionLevel >= Deflater.DEFAULT_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION,
+                "compressionLevel out of range");
+        return new AuditFrameEncoder(initialBodyBytes, new Deflater(compressionLevel, true));
+    }
+
+    /**
+     * Encode a batch. The returned buffers are reused by the next call and are meant for a single gathering write.
+     *
+     * @return header and body buffers, positioned for writing
+     */
+    ByteBuffer[] encode(final List<Transaction> transactions, final int batchNumber) {
+        body.clear();
+        for (final Transaction transaction : transactions) {
+            ensureBodyCapacity(RECORD_OVERHEAD + Transaction.MAX_ID_BYTES);
+            body.putLong(transaction.getAmountInMinorUnits());
+            body.put((byte) transaction.getTransactionType().ordinal());
+            final int idLength = transaction.encodeId(idBytes);
+            body.put((byte) idLength).put(idBytes, 0, idLength);
+        }
+        body.flip();
+        final int rawLength = body.remaining();
+        final ByteBuffer written = deflater == null ? body : deflate();
+
+        header.clear();
+        header.putInt(MAGIC_OFFSET, MAGIC)
+                .putInt(BATCH_NUMBER_OFFSET, batchNumber)
+                .putInt(COUNT_OFFSET, transactions.size())
+                .putInt(RAW_LENGTH_OFFSET, rawLength)
+                .putInt(BODY_LENGTH_OFFSET, written.remaining())
+                .putInt(CRC_OFFSET, checksum(written));
+        frame[1] = written;
+        return frame;
+    }
+
+    static long remaining(final ByteBuffer[] buffers) {
+        long remaining = 0;
+        for (final ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        return remaining;
+    }
+
+    void close() {
+        if (deflater != null) deflater.end();
+    }
+
+    private ByteBuffer deflate() {
+        deflater.reset();
+        deflater.setInput(body);
+        deflater.finish();
+        compressed.clear();
+        while (!deflater.finished()) {
+            if (!compressed.hasRemaining()) {
+                compressed = grow(compressed, compressed.capacity() * 2);
+            }
+            deflater.deflate(compressed);
+        }
+        return compressed.flip();
+    }
+
+    private void ensureBodyCapacity(final int bytes) {
+        if (body.remaining() < bytes) {
+            body = grow(body, Math.max(body.capacity() * 2, body.position() + bytes));
+        }
+    }
+
+    private static ByteBuffer grow(final ByteBuffer buffer, final int capacity) {
+        final ByteBuffer grown = ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        grown.put(buffer.flip());
+        return grown;
+    }
+}
@@ -0,0 +1,119 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Binary frame written by the audit sinks, one per batch (little-endian):
+ * <pre>
+ * header, 24 bytes
+ *  0  int   magic "AUD1"
+ *  4  int   batch number
+ *  8  int   transaction count
+ * 12  int   body length before compression
+ * 16  int   body length as written
+ * 20  int   CRC32C of the body as written
+ * body, one record per transaction
+ *  0  long  amount in minor units
+ *  8  byte  transaction type ordinal
+ *  9  byte  id length in bytes
+ * 10  n     id bytes (UTF-8)
+ * </pre>
+ * The socket sink writes the body as is; the file sink deflates it (raw DEFLATE, no zlib wrapper).
+ */
+public final class AuditFrames {
+    public static final int HEADER_BYTES = 24;
+    static final int MAGIC = 0x31445541;
+    static final int MAGIC_OFFSET = 0;
+    static final int BATCH_NUMBER_OFFSET = 4;
+    static final int COUNT_OFFSET = 8;
+    static final int RAW_LENGTH_OFFSET = 12;
+    static final int BODY_LENGTH_OFFSET = 16;
+    static final int CRC_OFFSET = 20;
+    static final int RECORD_OVERHEAD = 10;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private AuditFrames() {
+    }
+
+    /**
+     * Read the next frame from {@code channel}.
+     *
+     * @param compressed whether frame bodies are deflated
+     * @return the frame, or null if the channel ended cleanly between frames
+     * @throws IOException if the channel fails or ends mid-frame, or the frame is corrupt
+     */
+    public static AuditFrame read(final ReadableByteChannel channel, final boolean compressed) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (!readFully(channel, header, true)) return null;
+        if (header.getInt(MAGIC_OFFSET) != MAGIC) throw new StreamCorruptedException("Bad audit frame magic");
+
+        final ByteBuffer body = ByteBuffer.allocate(header.getInt(BODY_LENGTH_OFFSET)).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, body, false);
+        if (checksum(body) != header.getInt(CRC_OFFSET)) {
+            throw new StreamCorruptedException("Audit frame " + header.getInt(BATCH_NUMBER_OFFSET)
+                    + " failed its checksum");
+        }
+        final ByteBuffer records = compressed ? inflate(body, header.getInt(RAW_LENGTH_OFFSET)) : body;
+
+        final int count = header.getInt(COUNT_OFFSET);
+        final List<Transaction> transactions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final long amount = records.getLong();
+            final TransactionType type = TYPES[records.get()];
+            final byte[] id = new byte[records.get() & 0xFF];
+            records.get(id);
+            transactions.add(Transaction.ofMinorUnits(new String(id, StandardCharsets.UTF_8), amount, type));
+        }
+        return new AuditFrame(header.getInt(BATCH_NUMBER_OFFSET), transactions);
+    }
+
+    static int checksum(final ByteBuffer body) {
+        final CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static boolean readFully(final ReadableByteChannel channel, final ByteBuffer buffer,
+                                     final boolean endAllowed) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (endAllowed && buffer.position() == 0) return false;
+                throw new EOFException("Audit stream ended mid-frame");
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static ByteBuffer inflate(final ByteBuffer body, final int rawLength) throws IOException {
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(body);
+            final ByteBuffer records = ByteBuffer.allocate(rawLength).order(ByteOrder.LITTLE_ENDIAN);
+            while (records.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(records) == 0 && inflater.needsInput()) break;
+            }
+            if (records.hasRemaining()) throw new StreamCorruptedException("Audit frame body is truncated");
+            return records.flip();
+        } catch (final DataFormatException e) {
+            throw new StreamCorruptedException("Audit frame body is not deflated: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * Downstream system that audited batches are delivered to once they are journaled.
+ * <p>
+ * Implementations may hold batches back until {@link #flush()}, trading delivery latency for throughput, and are
+ * called by a single publisher at a time.
+ */
+public interface AuditSink extends Closeable {
+
+    /**
+     * Deliver a batch, or buffer it for the next flush.
+     *
+     * @param transactions transactions of the batch
+     * @param batchNumber  audit batch number
+     */
+    void publish(List<Transaction> transactions, int batchNumber);
+
+    /**
+     * Push any buffered batches downstream.
+     */
+    void flush();
+
+    /**
+     * Time the last batch took to reach downstream, in nanoseconds, for sinks that deliver off the caller's thread;
+     * 0 for sinks whose {@link #publish} call is the delivery.
+     */
+    default long deliveryNanos() {
+        return 0L;
+    }
+
+    @Override
+    void close();
+
+    /**
+     * Sink that discards every batch, for deployments without a downstream audit system.
+     */
+    static AuditSink discarding() {
+        return new AuditSink() {
+            @Override
+            public void publish(final List<Transaction> transactions, final int batchNumber) {
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
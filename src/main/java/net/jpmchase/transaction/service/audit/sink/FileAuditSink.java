@@ -0,0 +1,96 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * {@link AuditSink} that appends each batch to a file as one {@link AuditFrames frame} with a deflated body,
+ * written with a single gathering write of header and body.
+ * <p>
+ * With a flush interval of zero every batch is forced to disk before {@link #publish} returns. Otherwise batches
+ * reach the page cache immediately and are forced at most every {@code flushIntervalMillis}, so a crash can lose
+ * the last interval and leave a torn final frame. Read the file back with
+ * {@link AuditFrames#read(java.nio.channels.ReadableByteChannel, boolean) AuditFrames.read(channel, true)}.
+ */
+public class FileAuditSink implements AuditSink {
+    private static final int INITIAL_BODY_BYTES = 64 * 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final AuditFrameEncoder encoder;
+    private final PeriodicFlusher flusher;
+    private boolean unforced;
+
+    public FileAuditSink(final Path file, final Integer compressionLevel, final Long flushIntervalMillis) {
+        this.file = notNull(file, "file must not be null");
+        notNull(compressionLevel, "compressionLevel must not be null");
+        notNull(flushIntervalMillis, "flushIntervalMillis must not be null");
+        isTrue(flushIntervalMillis >= 0, "flushIntervalMillis must not be negative");
+
+        this.encoder = AuditFrameEncoder.deflating(INITIAL_BODY_BYTES, compressionLevel);
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            this.channel = FileChannel.open(file, CREATE, WRITE, APPEND);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error opening audit sink file " + file, e);
+        }
+        this.flusher = flushIntervalMillis == 0
+                ? null
+                : PeriodicFlusher.start("audit-file-flush", flushIntervalMillis, this::flush);
+    }
+
+    @Override
+    public synchronized void publish(final List<Transaction> transactions, final int batchNumber) {
+        notNull(transactions, "transactions must not be null");
+
+        final ByteBuffer[] frame = encoder.encode(transactions, batchNumber);
+        try {
+            while (AuditFrameEncoder.remaining(frame) > 0) {
+                channel.write(frame);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error writing audit batch " + batchNumber + " to " + file, e);
+        }
+        unforced = true;
+        if (flusher == null) flush();
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (!unforced) return;
+        try {
+            channel.force(false);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error forcing audit sink file " + file, e);
+        }
+        unforced = false;
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) flusher.close();
+        synchronized (this) {
+            try {
+                flush();
+                channel.close();
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Error closing audit sink file " + file, e);
+            } finally {
+                encoder.close();
+            }
+        }
+    }
+}
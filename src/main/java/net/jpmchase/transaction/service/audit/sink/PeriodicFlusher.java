@@ -0,0 +1,43 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daemon thread that flushes a sink at a fixed interval, so buffered batches are bounded in age even when no
+ * further batch arrives.
+ */
+final class PeriodicFlusher implements AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(PeriodicFlusher.class);
+
+    private final ScheduledExecutorService executor;
+
+    private PeriodicFlusher(final String threadName) {
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static PeriodicFlusher start(final String threadName, final long intervalMillis, final Runnable flush) {
+        final PeriodicFlusher flusher = new PeriodicFlusher(threadName);
+        flusher.executor.scheduleWithFixedDelay(() -> {
+            try {
+                flush.run();
+            } catch (final RuntimeException e) {
+                logger.error("Error flushing audit sink", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        return flusher;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
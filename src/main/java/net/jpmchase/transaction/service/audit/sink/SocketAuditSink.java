@@ -0,0 +1,195 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notBlank;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * {@link AuditSink} that streams {@link AuditFrames frames} with raw bodies to a TCP or Unix domain socket.
+ * <p>
+ * With a flush interval of zero each batch is sent as it is published with a single gathering write of header and
+ * body. Otherwise frames are coalesced in a direct buffer of {@code bufferBytes} and sent with one write when it
+ * fills or every {@code flushIntervalMillis}, whichever comes first; a frame larger than the buffer is sent on its
+ * own. The connection is opened on first use and reopened after a failure; frames buffered or in flight when a
+ * write fails are lost, the journal remaining the record of them.
+ * <p>
+ * Connecting and each send are bounded by {@code timeoutMillis}, so a blackholed or stalled receiver cannot hold
+ * the publisher indefinitely. After a failure the sink fails fast without touching the network until a backoff of
+ * {@value #INITIAL_BACKOFF_MILLIS} ms, doubling per consecutive failure up to {@value #MAX_BACKOFF_MILLIS} ms, has
+ * passed.
+ */
+public class SocketAuditSink implements AuditSink {
+    private static final String UNIX_PREFIX = "unix:";
+    private static final int INITIAL_BODY_BYTES = 64 * 1024;
+    private static final long INITIAL_BACKOFF_MILLIS = 100L;
+    private static final long MAX_BACKOFF_MILLIS = 30_000L;
+
+    private final SocketAddress address;
+    private final AuditFrameEncoder encoder = AuditFrameEncoder.raw(INITIAL_BODY_BYTES);
+    private final ByteBuffer pending;
+    private final ByteBuffer[] pendingWrite = new ByteBuffer[1];
+    private final PeriodicFlusher flusher;
+    private final long timeoutMillis;
+    private SocketChannel channel;
+    private Selector selector;
+    private long backoffMillis; // 0 while the last send succeeded
+    private long retryAtNanos = System.nanoTime();
+
+    public SocketAuditSink(final SocketAddress address, final Integer bufferBytes, final Long flushIntervalMillis,
+                           final Long timeoutMillis) {
+        this.address = notNull(address, "address must not be null");
+        notNull(bufferBytes, "bufferBytes must not be null");
+        notNull(flushIntervalMillis, "flushIntervalMillis must not be null");
+        notNull(timeoutMillis, "timeoutMillis must not be null");
+        isTrue(bufferBytes > 0, "bufferBytes must be positive");
+        isTrue(flushIntervalMillis >= 0, "flushIntervalMillis must not be negative");
+        isTrue(timeoutMillis > 0, "timeoutMillis must be positive");
+        this.timeoutMillis = timeoutMillis;
+
+        this.pending = flushIntervalMillis == 0 ? null : ByteBuffer.allocateDirect(bufferBytes);
+        this.pendingWrite[0] = pending;
+        this.flusher = flushIntervalMillis == 0
+                ? null
+                : PeriodicFlusher.start("audit-socket-flush", flushIntervalMillis, this::flush);
+    }
+
+    /**
+     * Parse {@code host:port} as a TCP address or {@code unix:/path} as a Unix domain socket address.
+     */
+    public static SocketAddress address(final String address) {
+        notBlank(address, "address must not be blank");
+        if (address.startsWith(UNIX_PREFIX)) {
+            return UnixDomainSocketAddress.of(address.substring(UNIX_PREFIX.length()));
+        }
+        final int colon = address.lastIndexOf(':');
+        isTrue(colon > 0 && colon < address.length() - 1, "address must be host:port or unix:/path");
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    @Override
+    public synchronized void publish(final List<Transaction> transactions, final int batchNumber) {
+        notNull(transactions, "transactions must not be null");
+
+        final ByteBuffer[] frame = encoder.encode(transactions, batchNumber);
+        if (pending == null) {
+            send(frame);
+            return;
+        }
+        final long frameBytes = AuditFrameEncoder.remaining(frame);
+        if (frameBytes > pending.remaining()) flush();
+        if (frameBytes > pending.remaining()) {
+            send(frame);
+        } else {
+            pending.put(frame[0]).put(frame[1]);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (pending == null || pending.position() == 0) return;
+        pending.flip();
+        try {
+            send(pendingWrite);
+        } finally {
+            pending.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flusher != null) flusher.close();
+        synchronized (this) {
+            try {
+                flush();
+            } finally {
+                disconnect();
+                encoder.close();
+            }
+        }
+    }
+
+    private void send(final ByteBuffer[] buffers) {
+        final long waitNanos = retryAtNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            throw new UncheckedIOException("Error sending audit frames to " + address, new IOException(
+                    "receiver unavailable, next attempt in " + TimeUnit.NANOSECONDS.toMillis(waitNanos) + " ms"));
+        }
+        try {
+            final SocketChannel connected = connected();
+            final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            while (AuditFrameEncoder.remaining(buffers) > 0) {
+                if (connected.write(buffers) == 0) await(SelectionKey.OP_WRITE, deadlineNanos, "write");
+            }
+            backoffMillis = 0L;
+        } catch (final IOException e) {
+            disconnect();
+            backoffMillis = backoffMillis == 0L
+                    ? INITIAL_BACKOFF_MILLIS
+                    : Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+            retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+            throw new UncheckedIOException("Error sending audit frames to " + address, e);
+        }
+    }
+
+    private SocketChannel connected() throws IOException {
+        if (channel == null) {
+            channel = address instanceof UnixDomainSocketAddress
+                    ? SocketChannel.open(StandardProtocolFamily.UNIX)
+                    : SocketChannel.open();
+            selector = Selector.open();
+            channel.configureBlocking(false);
+            if (address instanceof InetSocketAddress) {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            }
+            if (!channel.connect(address)) {
+                await(SelectionKey.OP_CONNECT, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis),
+                        "connect");
+                channel.finishConnect();
+            }
+        }
+        return channel;
+    }
+
+    private void await(final int operation, final long deadlineNanos, final String action) throws IOException {
+        channel.register(selector, operation);
+        while (true) {
+            final long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                throw new SocketTimeoutException(action + " timed out after " + timeoutMillis + " ms");
+            }
+            if (selector.select(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(remainingNanos))) > 0) {
+                selector.selectedKeys().clear();
+                return;
+            }
+        }
+    }
+
+    private void disconnect() {
+        try {
+            if (channel != null) channel.close();
+            if (selector != null) selector.close();
+        } catch (final IOException ignored) {
+            // the connection is being abandoned either way
+        } finally {
+            channel = null;
+            selector = null;
+        }
+    }
+}
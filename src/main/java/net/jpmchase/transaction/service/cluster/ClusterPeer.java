@@ -0,0 +1,145 @@
+package net.jpmchase.transaction.service.cluster;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Client side of {@link ClusterProtocol} for one remote node. Concurrent callers each borrow an idle connection or
+ * open a new one; up to {@link #MAX_IDLE_CONNECTIONS} are kept for reuse. A connection that fails is discarded, so
+ * the next call reconnects.
+ * <p>
+ * An idle connection may have been closed by the node since it was last used, so a call that fails on one is tried
+ * once more on a fresh connection; a call that times out waiting for its answer is not. Once a request has been
+ * sent, a failure is an {@link OutcomeUnknownException}, since the node may already have carried it out.
+ */
+final class ClusterPeer implements AutoCloseable {
+    static final int MAX_IDLE_CONNECTIONS = 8;
+
+    private final InetSocketAddress address;
+    private final int timeoutMillis;
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+
+    ClusterPeer(final InetSocketAddress address, final int timeoutMillis) {
+        this.address = address;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Send a request and read its response.
+     *
+     * @throws OutcomeUnknownException if the request was sent but no answer came back within the timeout
+     * @throws UncheckedIOException    if the node cannot be reached
+     */
+    <T> T call(final ClusterProtocol.Writer request, final ClusterProtocol.Reader<T> response) {
+        final Connection pooled = idle.pollFirst();
+        if (pooled == null) return callOnNewConnection(request, response, false);
+        try {
+            return exchange(pooled, request, response);
+        } catch (final SocketTimeoutException e) {
+            pooled.close();
+            throw outcomeUnknown(e);
+        } catch (final IOException e) {
+            pooled.close();
+            return callOnNewConnection(request, response, pooled.sent);
+        }
+    }
+
+    private <T> T callOnNewConnection(final ClusterProtocol.Writer request, final ClusterProtocol.Reader<T> response,
+                                      final boolean sentBefore) {
+        Connection connection = null;
+        try {
+            connection = connect();
+            return exchange(connection, request, response);
+        } catch (final IOException e) {
+            if (connection != null) connection.close();
+            if (sentBefore || connection != null && connection.sent) throw outcomeUnknown(e);
+            throw new UncheckedIOException("Cluster node " + address + " unreachable", e);
+        }
+    }
+
+    private <T> T exchange(final Connection connection, final ClusterProtocol.Writer request,
+                           final ClusterProtocol.Reader<T> response) throws IOException {
+        connection.sent = false;
+        request.write(connection.out);
+        connection.out.flush();
+        connection.sent = true;
+        final int status = connection.in.readUnsignedByte();
+        if (status != ClusterProtocol.OK) {
+            final String message = connection.in.readUTF();
+            release(connection);
+            throw ClusterProtocol.failure(status, message);
+        }
+        final T result = response.read(connection.in);
+        release(connection);
+        return result;
+    }
+
+    private OutcomeUnknownException outcomeUnknown(final IOException cause) {
+        return new OutcomeUnknownException("Cluster node " + address
+                + " unreachable after the request was sent, so its outcome is unknown", cause);
+    }
+
+    InetSocketAddress address() {
+        return address;
+    }
+
+    private Connection connect() throws IOException {
+        final Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutMillis);
+            socket.connect(address.isUnresolved()
+                    ? new InetSocketAddress(address.getHostString(), address.getPort())
+                    : address, timeoutMillis);
+            return new Connection(socket);
+        } catch (final IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void release(final Connection connection) {
+        if (idle.size() < MAX_IDLE_CONNECTIONS) {
+            idle.offerFirst(connection);
+        } else {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private boolean sent; // the current request has been handed to the network
+
+        private Connection(final Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (final IOException ignored) {
+                // the connection is being abandoned either way
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package net.jpmchase.transaction.service.cluster;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.TotalBalance;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.account.AccountBalanceService;
+import net.jpmchase.transaction.service.account.AccountLimits;
+import net.jpmchase.transaction.service.account.AccountNumbers;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary request/response protocol between cluster nodes, big-endian over a plain TCP stream.
+ * <p>
+ * A request is an operation byte followed by its fixed fields; accounts travel as their packed
+ * {@link AccountNumbers#encode key} and amounts in minor units. A response is a status byte followed by the result
+ * on {@link #OK}, or by a UTF message otherwise. A connection carries one request at a time.
+ *
+ * <pre>
+ * APPLY      key:long amount:long type:byte id:utf  -> result:byte
+ * BALANCE    key:long                               -> balance:double
+ * SET_LIMITS key:long overdraft:long maxDebit:long  -> (empty)
+ * LIMITS     key:long                               -> overdraft:long maxDebit:long
+ * TOTAL                                             -> balance:long accounts:long
+ * </pre>
+ */
+final class ClusterProtocol {
+    static final int APPLY = 1;
+    static final int BALANCE = 2;
+    static final int SET_LIMITS = 3;
+    static final int LIMITS = 4;
+    static final int TOTAL = 5;
+
+    static final int OK = 0;
+    static final int INVALID = 1;
+    static final int NOT_FOUND = 2;
+    static final int ERROR = 3;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionResult[] RESULTS = TransactionResult.values();
+
+    private ClusterProtocol() {
+    }
+
+    @FunctionalInterface
+    interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    static Writer apply(final long key, final Transaction transaction) {
+        return out -> {
+            out.writeByte(APPLY);
+            out.writeLong(key);
+            out.writeLong(transaction.getAmountInMinorUnits());
+            out.writeByte(transaction.getTransactionType().ordinal());
+            out.writeUTF(transaction.getId());
+        };
+    }
+
+    static TransactionResult readResult(final DataInputStream in) throws IOException {
+        return RESULTS[in.readUnsignedByte()];
+    }
+
+    static Writer balance(final long key) {
+        return out -> {
+            out.writeByte(BALANCE);
+            out.writeLong(key);
+        };
+    }
+
+    static Writer setLimits(final long key, final AccountLimits limits) {
+        return out -> {
+            out.writeByte(SET_LIMITS);
+            out.writeLong(key);
+            out.writeLong(limits.overdraftLimitInMinorUnits());
+            out.writeLong(limits.maxDebitInMinorUnits());
+        };
+    }
+
+    static Writer limits(final long key) {
+        return out -> {
+            out.writeByte(LIMITS);
+            out.writeLong(key);
+        };
+    }
+
+    static AccountLimits readLimits(final DataInputStream in) throws IOException {
+        return new AccountLimits(in.readLong(), in.readLong());
+    }
+
+    static Writer total() {
+        return out -> out.writeByte(TOTAL);
+    }
+
+    static TotalBalance readTotal(final DataInputStream in) throws IOException {
+        return TotalBalance.of(in.readLong(), in.readLong(), 1, List.of());
+    }
+
+    /**
+     * Exception raised on the calling node for a non-{@link #OK} response.
+     */
+    static RuntimeException failure(final int status, final String message) {
+        return switch (status) {
+            case INVALID -> new IllegalArgumentException(message);
+            case NOT_FOUND -> new NoSuchElementException(message);
+            default -> new IllegalStateException(message);
+        };
+    }
+
+    /**
+     * Read the rest of a request whose operation byte has been read, run it against {@code local} and write the
+     * response.
+     */
+    static void serve(final int operation, final DataInputStream in, final DataOutputStream out,
+                      final AccountBalanceService local) throws IOException {
+        switch (operation) {
+            case APPLY -> {
+                final long key = in.readLong();
+                final long amount = in.readLong();
+                final int type = in.readUnsignedByte();
+                final String id = in.readUTF();
+                respond(out, () -> {
+                    isType(type);
+                    final TransactionResult result = local.processTransaction(AccountNumbers.decode(key),
+                            Transaction.ofMinorUnits(id, amount, TYPES[type]));
+                    return o -> o.writeByte(result.ordinal());
+                });
+            }
+            case BALANCE -> {
+                final long key = in.readLong();
+                respond(out, () -> {
+                    final double balance = local.retrieveBalance(AccountNumbers.decode(key));
+                    return o -> o.writeDouble(balance);
+                });
+            }
+            case SET_LIMITS -> {
+                final long key = in.readLong();
+                final long overdraft = in.readLong();
+                final long maxDebit = in.readLong();
+                respond(out, () -> {
+                    local.setLimits(AccountNumbers.decode(key), new AccountLimits(overdraft, maxDebit));
+                    return o -> { };
+                });
+            }
+            case LIMITS -> {
+                final long key = in.readLong();
+                respond(out, () -> {
+                    final AccountLimits limits = local.retrieveLimits(AccountNumbers.decode(key));
+                    return o -> {
+                        o.writeLong(limits.overdraftLimitInMinorUnits());
+                        o.writeLong(limits.maxDebitInMinorUnits());
+                    };
+                });
+            }
+            case TOTAL -> respond(out, () -> {
+                final TotalBalance total = local.retrieveTotalBalance();
+                return o -> {
+                    o.writeLong(total.balanceInMinorUnits());
+                    o.writeLong(total.accountCount());
+                };
+            });
+            default -> throw new IOException("Unknown cluster operation " + operation);
+        }
+    }
+
+    private static void isType(final int type) {
+        if (type >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown transaction type " + type);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Writer handle();
+    }
+
+    private static void respond(final DataOutputStream out, final Handler handler) throws IOException {
+        final Writer result;
+        try {
+            result = handler.handle();
+        } catch (final IllegalArgumentException | NullPointerException e) {
+            fail(out, INVALID, e);
+            return;
+        } catch (final NoSuchElementException e) {
+            fail(out, NOT_FOUND, e);
+            return;
+        } catch (final RuntimeException e) {
+            fail(out, ERROR, e);
+            return;
+        }
+        out.writeByte(OK);
+        result.write(out);
+    }
+
+    private static void fail(final DataOutputStream out, final int status, final RuntimeException e)
+            throws IOException {
+        out.writeByte(status);
+        out.writeUTF(String.valueOf(e.getMessage()));
+    }
+}
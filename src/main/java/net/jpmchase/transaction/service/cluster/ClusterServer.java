@@ -0,0 +1,124 @@
+package net.jpmchase.transaction.service.cluster;
+
+import net.jpmchase.transaction.service.account.AccountBalanceService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Serves {@link ClusterProtocol} requests from other nodes against the accounts this node owns, one daemon thread
+ * per peer connection.
+ */
+public class ClusterServer implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(ClusterServer.class);
+
+    private final AccountBalanceService local;
+    private final ServerSocket serverSocket;
+    private final ExecutorService handlers = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "cluster-handler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    /**
+     * @param bindAddress address to listen on; port 0 picks a free port
+     * @param local       the accounts owned by this node
+     */
+    public ClusterServer(final InetSocketAddress bindAddress, final AccountBalanceService local) {
+        notNull(bindAddress, "bindAddress must not be null");
+        this.local = notNull(local, "local must not be null");
+        try {
+            this.serverSocket = new ServerSocket();
+            serverSocket.setReuseAddress(true);
+            serverSocket.bind(bindAddress.isUnresolved()
+                    ? new InetSocketAddress(bindAddress.getHostString(), bindAddress.getPort())
+                    : bindAddress);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error binding cluster server to " + bindAddress, e);
+        }
+        final Thread acceptor = new Thread(this::accept, "cluster-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Cluster server listening on {}", serverSocket.getLocalSocketAddress());
+    }
+
+    public InetSocketAddress localAddress() {
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                handlers.execute(() -> serve(socket));
+            } catch (final IOException e) {
+                if (!closed) {
+                    logger.error("Error accepting cluster connection", e);
+                }
+            }
+        }
+    }
+
+    private void serve(final Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (!closed) {
+                final int operation;
+                try {
+                    operation = in.readUnsignedByte();
+                } catch (final EOFException e) {
+                    return;
+                }
+                ClusterProtocol.serve(operation, in, out, local);
+                out.flush();
+            }
+        } catch (final IOException e) {
+            if (!closed) {
+                logger.warn("Dropping cluster connection from {}: {}", socket.getRemoteSocketAddress(),
+                        e.getMessage());
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            serverSocket.close();
+        } catch (final IOException e) {
+            logger.warn("Error closing cluster server", e);
+        }
+        for (final Socket socket : connections) {
+            try {
+                socket.close();
+            } catch (final IOException ignored) {
+                // the connection is being abandoned either way
+            }
+        }
+        handlers.shutdownNow();
+    }
+}
@@ -0,0 +1,85 @@
+package net.jpmchase.transaction.service.cluster;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notBlank;
+import static org.apache.commons.lang3.Validate.notEmpty;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The nodes of a partitioned cluster and which of them owns each account.
+ * <p>
+ * Account keys are hashed to 32 bits and the hash space is cut into one equal, contiguous range per node, so every
+ * node computes the same owner without coordination. The hash mixes differently from the shard and ledger hashes so
+ * that the accounts a node owns still spread evenly over its own shards. Every node must be configured with the
+ * same node list in the same order.
+ */
+public final class ClusterTopology {
+
+    private final List<InetSocketAddress> nodes;
+    private final int localNode;
+
+    public ClusterTopology(final List<InetSocketAddress> nodes, final int localNode) {
+        notEmpty(nodes, "nodes must not be empty");
+        isTrue(localNode >= 0 && localNode < nodes.size(), "localNode must index one of the %d nodes", nodes.size());
+        this.nodes = List.copyOf(nodes);
+        this.localNode = localNode;
+    }
+
+    /**
+     * Parse a comma-separated list of {@code host:port} node addresses.
+     */
+    public static ClusterTopology parse(final String nodes, final Integer localNode) {
+        notBlank(nodes, "nodes must not be blank");
+        notNull(localNode, "localNode must not be null");
+        final List<InetSocketAddress> addresses = new ArrayList<>();
+        for (final String node : nodes.split(",")) {
+            addresses.add(address(node.trim()));
+        }
+        return new ClusterTopology(addresses, localNode);
+    }
+
+    static InetSocketAddress address(final String address) {
+        final int colon = address.lastIndexOf(':');
+        isTrue(colon > 0 && colon < address.length() - 1, "node address must be host:port, was '%s'", address);
+        return InetSocketAddress.createUnresolved(address.substring(0, colon),
+                Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * Index of the node owning the account with the given {@link net.jpmchase.transaction.service.account.AccountNumbers#encode
+     * key}.
+     */
+    public int ownerOf(final long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return (int) (((hash >>> 32) * nodes.size()) >>> 32);
+    }
+
+    public boolean isLocal(final int node) {
+        return node == localNode;
+    }
+
+    public int localNode() {
+        return localNode;
+    }
+
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    public InetSocketAddress address(final int node) {
+        return nodes.get(node);
+    }
+
+    public InetSocketAddress localAddress() {
+        return nodes.get(localNode);
+    }
+}
@@ -0,0 +1,83 @@
+package net.jpmchase.transaction.service.cluster;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.model.TotalBalance;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.account.AccountBalanceService;
+import net.jpmchase.transaction.service.account.AccountLimits;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * The accounts a cluster node owns, applying each transaction id at most once so a caller can safely resend a
+ * transaction whose forwarded outcome it never learned.
+ * <p>
+ * The ids of accepted transactions are remembered in {@value #STRIPES} {@link TransactionDeduplicator}s striped by
+ * id, each guarded by its own lock held across the check and the apply; a repeat within the window is answered
+ * {@link TransactionResult#ACCEPTED} without touching the balance again. Rejected transactions changed nothing and
+ * are not remembered, so a resent one is judged afresh. Every other operation goes straight to the delegate.
+ */
+public class DeduplicatingAccountBalanceService implements AccountBalanceService {
+    private static final int STRIPES = 64;
+
+    private final AccountBalanceService delegate;
+    private final TransactionDeduplicator[] applied = new TransactionDeduplicator[STRIPES];
+
+    /**
+     * @param delegate   the accounts owned by this node
+     * @param windowSize number of most recent accepted ids remembered, spread over the stripes
+     */
+    public DeduplicatingAccountBalanceService(final AccountBalanceService delegate, final Integer windowSize) {
+        this.delegate = notNull(delegate, "delegate must not be null");
+        notNull(windowSize, "windowSize must not be null");
+        isTrue(windowSize > 0, "windowSize must be positive");
+        for (int i = 0; i < STRIPES; i++) {
+            applied[i] = new TransactionDeduplicator((windowSize + STRIPES - 1) / STRIPES);
+        }
+    }
+
+    @Override
+    public TransactionResult processTransaction(final String accountNumber, final Transaction transaction) {
+        notNull(transaction, "transaction must not be null");
+
+        final TransactionDeduplicator stripe = applied[stripeOf(transaction)];
+        synchronized (stripe) {
+            if (stripe.seen(transaction)) return TransactionResult.ACCEPTED;
+            final TransactionResult result = delegate.processTransaction(accountNumber, transaction);
+            if (result.isAccepted()) stripe.firstSeen(transaction);
+            return result;
+        }
+    }
+
+    @Override
+    public void setLimits(final String accountNumber, final AccountLimits limits) {
+        delegate.setLimits(accountNumber, limits);
+    }
+
+    @Override
+    public AccountLimits retrieveLimits(final String accountNumber) {
+        return delegate.retrieveLimits(accountNumber);
+    }
+
+    @Override
+    public double retrieveBalance(final String accountNumber) {
+        return delegate.retrieveBalance(accountNumber);
+    }
+
+    @Override
+    public long accountCount() {
+        return delegate.accountCount();
+    }
+
+    @Override
+    public TotalBalance retrieveTotalBalance() {
+        return delegate.retrieveTotalBalance();
+    }
+
+    private static int stripeOf(final Transaction transaction) {
+        final int hash = TransactionDeduplicator.keyHash(transaction);
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,16 @@
+package net.jpmchase.transaction.service.cluster;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * A request reached a remote node but its answer did not come back, so the node may or may not have carried it
+ * out. Owners apply each transaction id at most once, so a transaction can be resent with the same id to settle
+ * its outcome.
+ */
+public class OutcomeUnknownException extends UncheckedIOException {
+
+    public OutcomeUnknownException(final String message, final IOException cause) {
+        super(message, cause);
+    }
+}
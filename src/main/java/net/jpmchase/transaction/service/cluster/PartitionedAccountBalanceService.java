@@ -0,0 +1,203 @@
+package net.jpmchase.transaction.service.cluster;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.model.TotalBalance;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.account.AccountBalanceService;
+import net.jpmchase.transaction.service.account.AccountLimits;
+import net.jpmchase.transaction.service.account.AccountNumbers;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Account balances partitioned across a {@link ClusterTopology}. Requests for accounts this node owns go straight to
+ * the local service; the rest are forwarded to their owner over {@link ClusterProtocol}, so any node accepts any
+ * account. The total balance is gathered from every node in parallel.
+ * <p>
+ * Accounts are not replicated: while a node is down its accounts are unavailable, requests for them fail with an
+ * {@link UncheckedIOException}, and the total balance lists it as unreachable. Accounts owned by the other nodes
+ * are unaffected. A forwarded request whose answer is lost fails with an {@link OutcomeUnknownException}; owners
+ * apply each transaction id at most once, so the transaction can be resent with the same id.
+ */
+public class PartitionedAccountBalanceService implements AccountBalanceService, MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(PartitionedAccountBalanceService.class);
+
+    private final ClusterTopology topology;
+    private final AccountBalanceService local;
+    private final ClusterPeer[] peers;
+    private final long timeoutMillis;
+    private final ExecutorService scatter = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "cluster-scatter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final LongAdder forwarded = new LongAdder();
+    private final LongAdder forwardFailures = new LongAdder();
+
+    /**
+     * @param topology      the cluster nodes, including this one
+     * @param local         the accounts owned by this node
+     * @param timeoutMillis how long to wait for a remote node to connect or answer
+     */
+    public PartitionedAccountBalanceService(final ClusterTopology topology,
+                                            final AccountBalanceService local,
+                                            final Integer timeoutMillis) {
+        this.topology = notNull(topology, "topology must not be null");
+        this.local = notNull(local, "local must not be null");
+        notNull(timeoutMillis, "timeoutMillis must not be null");
+        isTrue(timeoutMillis > 0, "timeoutMillis must be positive");
+        this.timeoutMillis = timeoutMillis;
+
+        this.peers = new ClusterPeer[topology.nodeCount()];
+        for (int node = 0; node < peers.length; node++) {
+            if (!topology.isLocal(node)) {
+                peers[node] = new ClusterPeer(topology.address(node), timeoutMillis);
+            }
+        }
+    }
+
+    @Override
+    public TransactionResult processTransaction(final String accountNumber, final Transaction transaction) {
+        final long key = AccountNumbers.encode(AccountNumbers.validate(accountNumber));
+        notNull(transaction, "transaction must not be null");
+        final int owner = topology.ownerOf(key);
+        if (topology.isLocal(owner)) {
+            return local.processTransaction(accountNumber, transaction);
+        }
+        return forward(owner, ClusterProtocol.apply(key, transaction), ClusterProtocol::readResult);
+    }
+
+    @Override
+    public void setLimits(final String accountNumber, final AccountLimits limits) {
+        final long key = AccountNumbers.encode(AccountNumbers.validate(accountNumber));
+        notNull(limits, "limits must not be null");
+        final int owner = topology.ownerOf(key);
+        if (topology.isLocal(owner)) {
+            local.setLimits(accountNumber, limits);
+            return;
+        }
+        forward(owner, ClusterProtocol.setLimits(key, limits), in -> null);
+    }
+
+    @Override
+    public AccountLimits retrieveLimits(final String accountNumber) {
+        final long key = AccountNumbers.encode(AccountNumbers.validate(accountNumber));
+        final int owner = topology.ownerOf(key);
+        if (topology.isLocal(owner)) {
+            return local.retrieveLimits(accountNumber);
+        }
+        return forward(owner, ClusterProtocol.limits(key), ClusterProtocol::readLimits);
+    }
+
+    @Override
+    public double retrieveBalance(final String accountNumber) {
+        final long key = AccountNumbers.encode(AccountNumbers.validate(accountNumber));
+        final int owner = topology.ownerOf(key);
+        if (topology.isLocal(owner)) {
+            return local.retrieveBalance(accountNumber);
+        }
+        return forward(owner, ClusterProtocol.balance(key), in -> in.readDouble());
+    }
+
+    /**
+     * Accounts tracked across the nodes that can be reached.
+     */
+    @Override
+    public long accountCount() {
+        return retrieveTotalBalance().accountCount();
+    }
+
+    /**
+     * Ask every node for its total in parallel and add up the answers. A node that fails or does not answer within
+     * the timeout is listed as unreachable instead of failing the whole query.
+     */
+    @Override
+    public TotalBalance retrieveTotalBalance() {
+        final List<CompletableFuture<TotalBalance>> totals = new ArrayList<>(peers.length);
+        for (int node = 0; node < peers.length; node++) {
+            final ClusterPeer peer = peers[node];
+            totals.add(peer == null
+                    ? CompletableFuture.completedFuture(local.retrieveTotalBalance())
+                    : CompletableFuture.supplyAsync(
+                            () -> peer.call(ClusterProtocol.total(), ClusterProtocol::readTotal), scatter));
+        }
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long balance = 0L;
+        long accounts = 0L;
+        int reached = 0;
+        final List<String> unreachable = new ArrayList<>();
+        for (int node = 0; node < totals.size(); node++) {
+            try {
+                final TotalBalance total = totals.get(node)
+                        .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                balance += total.balanceInMinorUnits();
+                accounts += total.accountCount();
+                reached++;
+            } catch (final ExecutionException | TimeoutException e) {
+                logger.warn("Cluster node {} left out of the total balance: {}", topology.address(node),
+                        e.getCause() == null ? "timed out" : e.getCause().getMessage());
+                unreachable.add(topology.address(node).toString());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while gathering the total balance", e);
+            }
+        }
+        return TotalBalance.of(balance, accounts, reached, unreachable);
+    }
+
+    private <T> T forward(final int owner, final ClusterProtocol.Writer request,
+                          final ClusterProtocol.Reader<T> response) {
+        forwarded.increment();
+        try {
+            return peers[owner].call(request, response);
+        } catch (final UncheckedIOException e) {
+            forwardFailures.increment();
+            throw e;
+        }
+    }
+
+    public long forwardedCount() {
+        return forwarded.sum();
+    }
+
+    public long forwardFailures() {
+        return forwardFailures.sum();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("cluster.requests.forwarded", forwarded, LongAdder::sum)
+                .description("Requests forwarded to the node owning the account")
+                .register(registry);
+        FunctionCounter.builder("cluster.requests.failed", forwardFailures, LongAdder::sum)
+                .description("Forwarded requests whose owning node could not be reached")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        scatter.shutdownNow();
+        for (final ClusterPeer peer : peers) {
+            if (peer != null) peer.close();
+        }
+    }
+}
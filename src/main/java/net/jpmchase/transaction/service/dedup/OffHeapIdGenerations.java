@@ -0,0 +1,148 @@
+package net.jpmchase.transaction.service.dedup;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Three generations of an open-addressing set of 128-bit keys, held outside the Java heap.
+ * <p>
+ * All generations share one hash layout and are interleaved slot by slot: each 48-byte slot of a direct
+ * {@link ByteBuffer} holds the key of generation 0, 1 and 2 in turn, so looking a key up in one generation and
+ * inserting it into another touches the same cache lines. Keys use linear probing and are never removed one at a
+ * time; a whole generation is {@link #retire(int) retired} instead and then zeroed a few slots per key added to the
+ * others, so it is empty again after {@code expectedIds} additions without ever being cleared in one pass. The
+ * all-zero key marks an empty slot, so that key is tracked by a flag. Each generation is sized for a 75% maximum
+ * load factor. Not thread-safe.
+ */
+class OffHeapIdGenerations {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final int GENERATIONS = 3;
+    private static final int SLOT_BYTES = 48;
+    private static final int GENERATION_BYTES = 16;
+    private static final int LOW_OFFSET = 8;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private final ByteBuffer slots;
+    private final int mask;
+    private final int maxIds;
+    private final int clearStep;
+    private final boolean[] containsZero = new boolean[GENERATIONS];
+    private final int[] sizes = new int[GENERATIONS];
+    private int clearing = -1; // generation being zeroed, -1 if none
+    private int clearedSlots;
+
+    OffHeapIdGenerations(final int expectedIds) {
+        isTrue(expectedIds > 0, "expectedIds must be positive");
+        final long minSlots = (long) Math.ceil(expectedIds / MAX_LOAD_FACTOR);
+        // rounding up to a power of two can double the slot count, so bound the rounded capacity
+        final long slotCount = Long.highestOneBit(Math.max(2L, minSlots - 1)) << 1;
+        isTrue(slotCount <= Integer.MAX_VALUE / SLOT_BYTES, "expectedIds too large for a single set");
+
+        final int capacity = (int) slotCount;
+        this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        this.mask = capacity - 1;
+        this.maxIds = (int) (capacity * MAX_LOAD_FACTOR);
+        this.clearStep = (capacity + expectedIds - 1) / expectedIds;
+    }
+
+    /**
+     * @return true if the key was added to the generation, false if it was already present
+     * @throws IllegalStateException if the generation is full
+     */
+    boolean add(final int generation, final long high, final long low) {
+        if (high == 0L && low == 0L) {
+            if (containsZero[generation]) return false;
+            checkCapacity(generation);
+            containsZero[generation] = true;
+            sizes[generation]++;
+            clearAhead(clearStep);
+            return true;
+        }
+        int slot = indexFor(high, low);
+        while (true) {
+            final int offset = slot * SLOT_BYTES + generation * GENERATION_BYTES;
+            final long currentHigh = (long) LONGS.get(slots, offset);
+            final long currentLow = (long) LONGS.get(slots, offset + LOW_OFFSET);
+            if (currentHigh == high && currentLow == low) return false;
+            if (currentHigh == 0L && currentLow == 0L) {
+                checkCapacity(generation);
+                LONGS.set(slots, offset, high);
+                LONGS.set(slots, offset + LOW_OFFSET, low);
+                sizes[generation]++;
+                clearAhead(clearStep);
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    boolean contains(final int generation, final long high, final long low) {
+        if (high == 0L && low == 0L) return containsZero[generation];
+        int slot = indexFor(high, low);
+        while (true) {
+            final int offset = slot * SLOT_BYTES + generation * GENERATION_BYTES;
+            final long currentHigh = (long) LONGS.get(slots, offset);
+            final long currentLow = (long) LONGS.get(slots, offset + LOW_OFFSET);
+            if (currentHigh == high && currentLow == low) return true;
+            if (currentHigh == 0L && currentLow == 0L) return false;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Start emptying a generation, which must not be read or added to until {@code expectedIds} more keys have been
+     * added. The generation retired before it is finished off first if it is not empty yet.
+     */
+    void retire(final int generation) {
+        clearAhead(Integer.MAX_VALUE);
+        clearing = generation;
+        clearedSlots = 0;
+        containsZero[generation] = false;
+        sizes[generation] = 0;
+    }
+
+    /**
+     * Whether a retired generation still has slots left to zero.
+     */
+    boolean isClearing(final int generation) {
+        return clearing == generation;
+    }
+
+    int size(final int generation) {
+        return sizes[generation];
+    }
+
+    int maxIds() {
+        return maxIds;
+    }
+
+    long offHeapBytes() {
+        return slots.capacity();
+    }
+
+    private void clearAhead(final int slotCount) {
+        if (clearing < 0) return;
+        final int end = (int) Math.min(mask + 1L, (long) clearedSlots + slotCount);
+        for (int offset = clearedSlots * SLOT_BYTES + clearing * GENERATION_BYTES; clearedSlots < end;
+             clearedSlots++, offset += SLOT_BYTES) {
+            LONGS.set(slots, offset, 0L);
+            LONGS.set(slots, offset + LOW_OFFSET, 0L);
+        }
+        if (clearedSlots > mask) clearing = -1;
+    }
+
+    private void checkCapacity(final int generation) {
+        if (sizes[generation] >= maxIds) {
+            throw new IllegalStateException("id set capacity of " + maxIds + " ids exhausted");
+        }
+    }
+
+    private int indexFor(final long high, final long low) {
+        final long hash = (high ^ Long.rotateLeft(low, 32)) * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
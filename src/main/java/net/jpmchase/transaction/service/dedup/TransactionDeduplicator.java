@@ -0,0 +1,134 @@
+package net.jpmchase.transaction.service.dedup;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Remembers the ids of recently processed transactions so a redelivered transaction is applied only once.
+ * <p>
+ * Ids are reduced to 128-bit keys by {@link TransactionIds} and kept in three off-heap generations of
+ * {@code windowSize} ids each, interleaved by {@link OffHeapIdGenerations} so a check touches one slot. New ids go
+ * into the current generation and are checked against the previous one as well; once the current generation is
+ * full, the spare generation becomes current, the current one becomes previous and the old previous one is retired.
+ * A retired generation is zeroed a few slots per id added afterwards, so rolling over never stalls the caller.
+ * At least the last {@code windowSize} distinct ids are therefore always remembered, at 64 to 128 bytes of direct
+ * memory per id of window, depending on power-of-two rounding, and none on the heap.
+ * <p>
+ * UUID ids map exactly onto their keys. Other ids are hashed to 128 bits and not compared again, so two of them
+ * are confused only if their keys collide, which for a window of a million ids has a probability below 10^-26.
+ * <p>
+ * Not thread-safe: the owning service must guard every call with the lock it applies transactions under, so the
+ * check and the apply are one atomic step.
+ */
+public class TransactionDeduplicator {
+    private final OffHeapIdGenerations generations;
+    private final long windowSize;
+    private int current;
+    private int previous = 1;
+    private int spare = 2;
+
+    /**
+     * @param windowSize number of most recent distinct ids guaranteed to be remembered
+     */
+    public TransactionDeduplicator(final Integer windowSize) {
+        notNull(windowSize, "windowSize must not be null");
+        isTrue(windowSize > 0, "windowSize must be positive");
+        this.generations = new OffHeapIdGenerations(windowSize);
+        this.windowSize = windowSize;
+    }
+
+    private TransactionDeduplicator() {
+        this.generations = null;
+        this.windowSize = 0;
+    }
+
+    /**
+     * A deduplicator that remembers nothing and treats every id as new.
+     */
+    public static TransactionDeduplicator disabled() {
+        return new TransactionDeduplicator();
+    }
+
+    /**
+     * Record an id as processed.
+     *
+     * @param id transaction id
+     * @return true if the id has not been seen within the window, false if it is a duplicate
+     */
+    public boolean firstSeen(final String id) {
+        if (generations == null) return true;
+        return firstSeen(TransactionIds.high(id), TransactionIds.low(id));
+    }
+
+    /**
+     * Record a transaction's id as processed, reading UUID ids straight from their bits.
+     *
+     * @param transaction transaction whose id to record
+     * @return true if the id has not been seen within the window, false if it is a duplicate
+     */
+    public boolean firstSeen(final Transaction transaction) {
+        if (generations == null) return true;
+        if (transaction.hasUuidId()) {
+            return firstSeen(transaction.getIdMostSignificantBits(), transaction.getIdLeastSignificantBits());
+        }
+        return firstSeen(transaction.getId());
+    }
+
+    /**
+     * Whether a transaction's id has been recorded within the window, without recording it. Lets a caller record
+     * only the transactions it goes on to apply.
+     *
+     * @param transaction transaction whose id to look up
+     * @return true if the id was recorded by {@link #firstSeen} within the window
+     */
+    public boolean seen(final Transaction transaction) {
+        if (generations == null) return false;
+        final long high;
+        final long low;
+        if (transaction.hasUuidId()) {
+            high = transaction.getIdMostSignificantBits();
+            low = transaction.getIdLeastSignificantBits();
+        } else {
+            high = TransactionIds.high(transaction.getId());
+            low = TransactionIds.low(transaction.getId());
+        }
+        return generations.contains(previous, high, low) || generations.contains(current, high, low);
+    }
+
+    /**
+     * Hash of the key a transaction's id is recorded under, so a UUID id hashes alike whether it arrived as bits or
+     * as a string. Lets a caller spread ids over several deduplicators consistently.
+     */
+    public static int keyHash(final Transaction transaction) {
+        final long key = transaction.hasUuidId()
+                ? transaction.getIdMostSignificantBits() ^ transaction.getIdLeastSignificantBits()
+                : TransactionIds.high(transaction.getId()) ^ TransactionIds.low(transaction.getId());
+        return Long.hashCode(key);
+    }
+
+    public long windowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Off-heap bytes reserved by all generations.
+     */
+    public long offHeapBytes() {
+        return generations == null ? 0L : generations.offHeapBytes();
+    }
+
+    private boolean firstSeen(final long high, final long low) {
+        if (generations.contains(previous, high, low)) return false;
+
+        if (generations.size(current) >= windowSize && !generations.contains(current, high, low)) {
+            generations.retire(previous);
+            final int retired = previous;
+            previous = current;
+            current = spare;
+            spare = retired;
+        }
+        return generations.add(current, high, low);
+    }
+}
@@ -0,0 +1,84 @@
+package net.jpmchase.transaction.service.dedup;
+
+import java.util.Arrays;
+
+/**
+ * Reduces a transaction id to a 128-bit key without allocating.
+ * <p>
+ * Canonical UUID strings, which the producers generate, map exactly onto their 128 bits, so distinct UUIDs never
+ * share a key. Any other id is hashed to 128 bits with two independently seeded 64-bit hashes. Each half is
+ * derived on its own, so the key is a pure function of the id even for strings that are only partly UUID-like.
+ */
+final class TransactionIds {
+    private static final int UUID_LENGTH = 36;
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xC2B2AE3D27D4EB4FL;
+    private static final byte[] HEX = new byte[128];
+
+    static {
+        Arrays.fill(HEX, (byte) -1);
+        for (int digit = 0; digit < 16; digit++) {
+            HEX[Character.forDigit(digit, 16)] = (byte) digit;
+            HEX[Character.toUpperCase(Character.forDigit(digit, 16))] = (byte) digit;
+        }
+    }
+
+    private TransactionIds() {
+    }
+
+    /**
+     * Upper 64 bits of the key for {@code id}.
+     */
+    static long high(final String id) {
+        if (isUuidShaped(id)) {
+            final long timeLow = hex(id, 0, 8);
+            final long timeMid = hex(id, 9, 13);
+            final long timeHigh = hex(id, 14, 18);
+            if ((timeLow | timeMid | timeHigh) >= 0) return timeLow << 32 | timeMid << 16 | timeHigh;
+        }
+        return hash(id, SEED_HIGH);
+    }
+
+    /**
+     * Lower 64 bits of the key for {@code id}.
+     */
+    static long low(final String id) {
+        if (isUuidShaped(id)) {
+            final long clockSequence = hex(id, 19, 23);
+            final long node = hex(id, 24, 36);
+            if ((clockSequence | node) >= 0) return clockSequence << 48 | node;
+        }
+        return hash(id, SEED_LOW);
+    }
+
+    private static boolean isUuidShaped(final String id) {
+        return id.length() == UUID_LENGTH
+                && id.charAt(8) == '-' && id.charAt(13) == '-' && id.charAt(18) == '-' && id.charAt(23) == '-';
+    }
+
+    /**
+     * @return the value of the hex digits, or -1 if any character is not a hex digit
+     */
+    private static long hex(final String id, final int from, final int to) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            final char c = id.charAt(i);
+            final int digit = c < HEX.length ? HEX[c] : -1;
+            if (digit < 0) return -1L;
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    private static long hash(final String id, final long seed) {
+        long hash = seed ^ id.length();
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001B3L;
+            hash ^= hash >>> 29;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,124 @@
+package net.jpmchase.transaction.service.ingest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpmchase.transaction.model.BalanceSnapshot;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Lock-free ingestion front for a {@link BankAccountService}.
+ * <p>
+ * Producers only publish into a {@link TransactionRingBuffer}; a single consumer thread drains it and applies the
+ * transactions to the delegate in bulk, which therefore only ever sees one writer and cuts audit batches on that thread.
+ * Processing is asynchronous: failures are logged by the consumer rather than thrown back to the producer, and
+ * {@link #retrieveBalance()} reflects transactions once the consumer has applied them.
+ */
+public class RingBufferBankAccountService implements BankAccountService, MeterBinder, AutoCloseable {
+    private static final Logger logger = LogManager.getLogger(RingBufferBankAccountService.class);
+    private static final int DRAIN_CHUNK = 256;
+    private static final int IDLE_SPINS = 1_000;
+    private static final long IDLE_PARK_NANOS = 50_000L;
+
+    private final BankAccountService delegate;
+    private final TransactionRingBuffer ringBuffer;
+    private final Thread consumer;
+    private volatile boolean running = true;
+
+    public RingBufferBankAccountService(final BankAccountService delegate,
+                                        final Integer ringBufferSize) {
+        this.delegate = notNull(delegate, "delegate must not be null");
+        this.ringBuffer = new TransactionRingBuffer(notNull(ringBufferSize, "ringBufferSize must not be null"));
+        this.consumer = new Thread(this::consume, "transaction-ring-consumer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    @Override
+    public void processTransaction(final Transaction transaction) {
+        notNull(transaction, "transaction must not be null");
+        ringBuffer.publish(transaction);
+    }
+
+    @Override
+    public void processTransactions(final Transaction[] transactions, final int count) {
+        notNull(transactions, "transactions must not be null");
+        for (int i = 0; i < count; i++) {
+            processTransaction(transactions[i]);
+        }
+    }
+
+    @Override
+    public double retrieveBalance() {
+        return delegate.retrieveBalance();
+    }
+
+    @Override
+    public long retrieveBalanceInMinorUnits() {
+        return delegate.retrieveBalanceInMinorUnits();
+    }
+
+    @Override
+    public BalanceSnapshot retrieveBalanceSnapshot() {
+        return delegate.retrieveBalanceSnapshot();
+    }
+
+    /**
+     * Number of published transactions still waiting for the consumer.
+     */
+    public long pendingTransactions() {
+        return ringBuffer.size();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("bank.account.ring.pending", this, RingBufferBankAccountService::pendingTransactions)
+                .description("Published transactions waiting for the ring buffer consumer")
+                .register(registry);
+        Gauge.builder("bank.account.ring.capacity", ringBuffer, TransactionRingBuffer::capacity)
+                .description("Ring buffer slots")
+                .register(registry);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join();
+    }
+
+    private void consume() {
+        final Transaction[] chunk = new Transaction[DRAIN_CHUNK];
+        int idle = 0;
+        while (running || ringBuffer.size() > 0) {
+            final int drained = ringBuffer.drainTo(chunk);
+            if (drained == 0) {
+                if (++idle < IDLE_SPINS) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                continue;
+            }
+            idle = 0;
+            apply(chunk, drained);
+            Arrays.fill(chunk, 0, drained, null);
+        }
+    }
+
+    private void apply(final Transaction[] chunk, final int count) {
+        try {
+            delegate.processTransactions(chunk, count);
+        } catch (final RuntimeException e) {
+            logger.error("Error applying {} transactions from ring buffer", count, e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.jpmchase.transaction.service.ingest;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A cache-line padded sequence counter, so the producer and consumer cursors of the ring buffer never share a
+ * cache line with each other or with neighbouring objects.
+ */
+class Sequence extends SequenceRhsPadding {
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (final ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    Sequence(final long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    long get() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    void set(final long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    long getAndIncrement() {
+        return (long) VALUE.getAndAdd(this, 1L);
+    }
+}
+
+@SuppressWarnings("unused")
+class SequenceLhsPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+}
+
+class SequenceValue extends SequenceLhsPadding {
+    protected volatile long value;
+}
+
+@SuppressWarnings("unused")
+class SequenceRhsPadding extends SequenceValue {
+    protected long p9, p10, p11, p12, p13, p14, p15;
+}
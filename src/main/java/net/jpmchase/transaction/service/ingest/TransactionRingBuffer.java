@@ -0,0 +1,108 @@
+package net.jpmchase.transaction.service.ingest;
+
+import net.jpmchase.transaction.model.Transaction;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer of transactions.
+ * <p>
+ * Producers claim a slot with a single atomic increment, write the entry and mark the slot available for the
+ * current lap; the consumer drains contiguous available slots without taking any lock. When the buffer is full
+ * producers spin briefly and then park until the consumer frees their slot.
+ */
+public class TransactionRingBuffer {
+    private static final VarHandle AVAILABLE = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final int SPIN_TRIES = 100;
+
+    private final Transaction[] entries;
+    private final int[] available;
+    private final int mask;
+    private final int indexShift;
+    private final Sequence claimed = new Sequence(0L);
+    private final Sequence consumed = new Sequence(0L);
+
+    public TransactionRingBuffer(final int capacity) {
+        isTrue(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a positive power of two");
+        this.entries = new Transaction[capacity];
+        this.available = new int[capacity];
+        this.mask = capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(capacity);
+        Arrays.fill(available, -1);
+    }
+
+    /**
+     * Publish a transaction, waiting for a free slot if the consumer has fallen a full lap behind.
+     *
+     * @param transaction transaction to publish
+     */
+    public void publish(final Transaction transaction) {
+        notNull(transaction, "transaction must not be null");
+
+        final long sequence = claimed.getAndIncrement();
+        awaitFreeSlot(sequence);
+
+        final int index = (int) sequence & mask;
+        entries[index] = transaction;
+        AVAILABLE.setRelease(available, index, lap(sequence));
+    }
+
+    /**
+     * Move every contiguously published transaction, up to the length of {@code sink}, into {@code sink}.
+     * Must only ever be called from the single consumer thread.
+     *
+     * @param sink array to fill from index zero
+     * @return the number of transactions drained
+     */
+    public int drainTo(final Transaction[] sink) {
+        long next = consumed.get();
+        int drained = 0;
+        while (drained < sink.length) {
+            final int index = (int) next & mask;
+            if ((int) AVAILABLE.getAcquire(available, index) != lap(next)) {
+                break;
+            }
+            sink[drained++] = entries[index];
+            entries[index] = null;
+            next++;
+        }
+        if (drained > 0) {
+            consumed.set(next);
+        }
+        return drained;
+    }
+
+    /**
+     * Approximate number of claimed transactions not yet drained by the consumer.
+     */
+    public long size() {
+        return Math.max(0L, claimed.get() - consumed.get());
+    }
+
+    public int capacity() {
+        return entries.length;
+    }
+
+    private void awaitFreeSlot(final long sequence) {
+        final long wrapPoint = sequence - entries.length;
+        int tries = 0;
+        while (wrapPoint >= consumed.get()) {
+            if (tries < SPIN_TRIES) {
+                tries++;
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1_000L);
+            }
+        }
+    }
+
+    private int lap(final long sequence) {
+        return (int) (sequence >>> indexShift);
+    }
+}
@@ -0,0 +1,147 @@
+package net.jpmchase.transaction.service.recovery;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.audit.journal.JournalCursor;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Restores the balance and batch number on startup and snapshots them periodically while running.
+ * <p>
+ * State is derived from the audit journal: a snapshot folds the first N journal records into a balance, and
+ * recovery replays only the records written after the latest snapshot, one segment per task in parallel. Because
+ * amounts are fixed-point the replayed balance matches exactly regardless of summation order.
+ * <p>
+ * Every cut batch is journaled whatever happens to it downstream, and at shutdown the pending batch is cut and every
+ * cut batch is journaled before the service stops, so after a clean restart the restored balance matches the last
+ * one served exactly. A crash loses only the pending batch (at most {@code audit.batch-policy.max-linger-ms} of
+ * transactions) and the cut batches still waiting to be journaled (at most {@code audit.journal.queue-capacity}),
+ * unless the write-ahead log is enabled.
+ */
+@Service
+public class RecoveryService {
+    private static final Logger logger = LogManager.getLogger(RecoveryService.class);
+
+    private final TransactionJournal journal;
+    private final SnapshotStore snapshotStore;
+    private final BankAccountServiceImpl bankAccountService;
+    private final long snapshotIntervalSeconds;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "recovery-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private RecoverySnapshot lastSnapshot = RecoverySnapshot.EMPTY; // guarded by this
+
+    public RecoveryService(final TransactionJournal journal,
+                           @Value("${recovery.snapshot-file}") final Path snapshotFile,
+                           final BankAccountServiceImpl bankAccountService,
+                           @Value("${recovery.snapshot-interval-seconds}") final Long snapshotIntervalSeconds) {
+        this.journal = notNull(journal, "journal must not be null");
+        this.snapshotStore = new SnapshotStore(notNull(snapshotFile, "snapshotFile must not be null"));
+        this.bankAccountService = notNull(bankAccountService, "bankAccountService must not be null");
+        this.snapshotIntervalSeconds = notNull(snapshotIntervalSeconds, "snapshotIntervalSeconds must not be null");
+        isTrue(snapshotIntervalSeconds > 0, "snapshotIntervalSeconds must be positive");
+    }
+
+    @PostConstruct
+    public void start() {
+        recover();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalSeconds, snapshotIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        snapshotQuietly();
+    }
+
+    /**
+     * Load the latest snapshot, replay the journal written since and restore the bank account service.
+     *
+     * @return the recovered state
+     */
+    public synchronized RecoverySnapshot recover() {
+        final long start = System.nanoTime();
+        final RecoverySnapshot snapshot = snapshotStore.read().orElse(RecoverySnapshot.EMPTY);
+        final long end = journal.recordCount();
+        isTrue(snapshot.journalPosition() <= end,
+                "snapshot is ahead of the journal: %d > %d records", snapshot.journalPosition(), end);
+
+        final RecoverySnapshot recovered = replayParallel(snapshot, end);
+        bankAccountService.restore(recovered.balanceInMinorUnits(), recovered.nextBatchNumber());
+        lastSnapshot = recovered;
+
+        logger.info("Recovered balance {} and next batch {} from snapshot at {} plus {} journal records in {} ms",
+                recovered.balanceInMinorUnits(), recovered.nextBatchNumber(), snapshot.journalPosition(),
+                end - snapshot.journalPosition(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return recovered;
+    }
+
+    /**
+     * Fold journal records written since the last snapshot into a new snapshot and store it.
+     *
+     * @return the stored snapshot
+     */
+    public synchronized RecoverySnapshot snapshot() {
+        journal.flush();
+        lastSnapshot = replay(lastSnapshot, lastSnapshot.journalPosition(), journal.recordCount());
+        snapshotStore.write(lastSnapshot);
+        return lastSnapshot;
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (final RuntimeException e) {
+            logger.error("Error writing recovery snapshot", e);
+        }
+    }
+
+    private RecoverySnapshot replayParallel(final RecoverySnapshot snapshot, final long end) {
+        final long from = snapshot.journalPosition();
+        final int recordsPerSegment = journal.recordsPerSegment();
+        final long firstSegment = from / recordsPerSegment;
+        final long lastSegment = (end + recordsPerSegment - 1) / recordsPerSegment;
+
+        final RecoverySnapshot replayed = LongStream.range(firstSegment, lastSegment)
+                .parallel()
+                .mapToObj(segment -> replay(RecoverySnapshot.EMPTY,
+                        Math.max(from, segment * recordsPerSegment),
+                        Math.min(end, (segment + 1) * recordsPerSegment)))
+                .reduce(RecoverySnapshot.EMPTY, RecoveryService::combine);
+        return combine(snapshot, replayed);
+    }
+
+    private RecoverySnapshot replay(final RecoverySnapshot base, final long from, final long to) {
+        long balance = base.balanceInMinorUnits();
+        int nextBatchNumber = base.nextBatchNumber();
+        final JournalCursor cursor = journal.cursor(from);
+        for (long position = from; position < to && cursor.next(); position++) {
+            balance += cursor.signedAmountInMinorUnits();
+            nextBatchNumber = Math.max(nextBatchNumber, cursor.batchNumber() + 1);
+        }
+        return new RecoverySnapshot(Math.max(base.journalPosition(), to), balance, nextBatchNumber);
+    }
+
+    private static RecoverySnapshot combine(final RecoverySnapshot left, final RecoverySnapshot right) {
+        return new RecoverySnapshot(Math.max(left.journalPosition(), right.journalPosition()),
+                left.balanceInMinorUnits() + right.balanceInMinorUnits(),
+                Math.max(left.nextBatchNumber(), right.nextBatchNumber()));
+    }
+}
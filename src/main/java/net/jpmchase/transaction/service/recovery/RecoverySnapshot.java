@@ -0,0 +1,12 @@
+package net.jpmchase.transaction.service.recovery;
+
+/**
+ * Account state derived from the first {@code journalPosition} records of the audit journal.
+ *
+ * @param journalPosition     number of journal records folded into this snapshot
+ * @param balanceInMinorUnits net balance of those records
+ * @param nextBatchNumber     batch number to continue from
+ */
+public record RecoverySnapshot(long journalPosition, long balanceInMinorUnits, int nextBatchNumber) {
+    public static final RecoverySnapshot EMPTY = new RecoverySnapshot(0L, 0L, 0);
+}
@@ -0,0 +1,78 @@
+package net.jpmchase.transaction.service.recovery;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Durable single-file store for the latest {@link RecoverySnapshot}. Each write goes to a temporary file that is
+ * forced to disk and atomically moved over the previous snapshot, so a crash leaves either the old or new one.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int SNAPSHOT_BYTES = 4 + 8 + 8 + 4 + 4;
+
+    private final Path file;
+
+    public SnapshotStore(final Path file) {
+        this.file = notNull(file, "file must not be null");
+    }
+
+    public void write(final RecoverySnapshot snapshot) {
+        notNull(snapshot, "snapshot must not be null");
+        final ByteBuffer buffer = ByteBuffer.allocate(SNAPSHOT_BYTES)
+                .putInt(MAGIC)
+                .putLong(snapshot.journalPosition())
+                .putLong(snapshot.balanceInMinorUnits())
+                .putInt(snapshot.nextBatchNumber());
+        buffer.putInt(checksum(buffer.array())).flip();
+
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error writing snapshot " + file, e);
+        }
+    }
+
+    /**
+     * @return the stored snapshot, or empty if none has been written yet
+     * @throws IllegalStateException if the snapshot file is corrupted
+     */
+    public Optional<RecoverySnapshot> read() {
+        if (!Files.exists(file)) return Optional.empty();
+        final byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(file);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error reading snapshot " + file, e);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (bytes.length != SNAPSHOT_BYTES || buffer.getInt() != MAGIC
+                || buffer.getInt(SNAPSHOT_BYTES - 4) != checksum(bytes)) {
+            throw new IllegalStateException("snapshot " + file + " is corrupted");
+        }
+        return Optional.of(new RecoverySnapshot(buffer.getLong(), buffer.getLong(), buffer.getInt()));
+    }
+
+    private static int checksum(final byte[] bytes) {
+        final CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, SNAPSHOT_BYTES - 4);
+        return (int) crc.getValue();
+    }
+}
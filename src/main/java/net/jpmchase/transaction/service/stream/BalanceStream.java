@@ -0,0 +1,342 @@
+package net.jpmchase.transaction.service.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpmchase.transaction.model.BalanceSnapshot;
+import net.jpmchase.transaction.service.BankAccountService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Pushes balance changes to server-sent-event subscribers instead of having them poll.
+ * <p>
+ * One daemon thread samples the published {@link BalanceSnapshot} every interval and, when its version has moved,
+ * serialises it once and hands the same event to every subscriber. Changes between samples are conflated, so the
+ * cost per interval depends on the number of subscribers, not on the transaction rate. Subscribers are held as
+ * asynchronous responses and take no request thread while idle. New subscribers receive the current snapshot on the
+ * next sample. A comment is sent when nothing has changed for the heartbeat interval, so connections that have gone
+ * away are found and dropped.
+ * <p>
+ * The sampling thread never writes to a client. Each subscriber holds at most one undelivered event, replaced by
+ * newer ones, and a small sender pool writes it out; while a write to a subscriber is in flight further events for
+ * it are conflated, so each client sees versions in increasing order and a slow client costs one sender thread, not
+ * everyone's updates. A subscriber whose write has been in flight for longer than the send timeout is disconnected.
+ * Completing an emitter waits for its monitor, which the stalled write holds, so disconnects are handed to their own
+ * threads and the sampling thread never waits on a subscriber. The event id is the snapshot version.
+ */
+@Service
+public class BalanceStream implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(BalanceStream.class);
+    static final String EVENT_NAME = "balance";
+
+    private final BankAccountService bankAccountService;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final long heartbeatMillis;
+    private final long sendTimeoutMillis;
+    private final LongSupplier clock;
+    private final Executor sender;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService disconnector = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "balance-stream-disconnect");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Queue<Subscriber> joining = new ConcurrentLinkedQueue<>();
+    private final Map<SseEmitter, Subscriber> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+    private long lastVersion = -1L;
+    private long lastSentMillis;
+
+    @Autowired
+    public BalanceStream(final BankAccountService bankAccountService,
+                         final ObjectMapper objectMapper,
+                         @Value("${balance-stream.interval-ms}") final Long intervalMillis,
+                         @Value("${balance-stream.heartbeat-ms}") final Long heartbeatMillis,
+                         @Value("${balance-stream.max-subscribers}") final Integer maxSubscribers,
+                         @Value("${balance-stream.send-timeout-ms}") final Long sendTimeoutMillis,
+                         @Value("${balance-stream.sender-threads}") final Integer senderThreads) {
+        this(bankAccountService, objectMapper, heartbeatMillis, maxSubscribers, sendTimeoutMillis,
+                System::currentTimeMillis, sender(senderThreads), ticker(intervalMillis));
+        ticker.scheduleWithFixedDelay(this::tick, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    BalanceStream(final BankAccountService bankAccountService,
+                  final ObjectMapper objectMapper,
+                  final Long heartbeatMillis,
+                  final Integer maxSubscribers,
+                  final Long sendTimeoutMillis,
+                  final LongSupplier clock,
+                  final Executor sender) {
+        this(bankAccountService, objectMapper, heartbeatMillis, maxSubscribers, sendTimeoutMillis, clock, sender,
+                null);
+    }
+
+    private BalanceStream(final BankAccountService bankAccountService,
+                          final ObjectMapper objectMapper,
+                          final Long heartbeatMillis,
+                          final Integer maxSubscribers,
+                          final Long sendTimeoutMillis,
+                          final LongSupplier clock,
+                          final Executor sender,
+                          final ScheduledExecutorService ticker) {
+        this.bankAccountService = notNull(bankAccountService, "bankAccountService must not be null");
+        this.objectMapper = notNull(objectMapper, "objectMapper must not be null");
+        notNull(heartbeatMillis, "heartbeatMillis must not be null");
+        notNull(maxSubscribers, "maxSubscribers must not be null");
+        notNull(sendTimeoutMillis, "sendTimeoutMillis must not be null");
+        isTrue(heartbeatMillis > 0, "heartbeatMillis must be positive");
+        isTrue(maxSubscribers > 0, "maxSubscribers must be positive");
+        isTrue(sendTimeoutMillis > 0, "sendTimeoutMillis must be positive");
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxSubscribers = maxSubscribers;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+        this.clock = notNull(clock, "clock must not be null");
+        this.sender = notNull(sender, "sender must not be null");
+        this.ticker = ticker;
+        this.lastSentMillis = clock.getAsLong();
+    }
+
+    private static ExecutorService sender(final Integer senderThreads) {
+        notNull(senderThreads, "senderThreads must not be null");
+        isTrue(senderThreads > 0, "senderThreads must be positive");
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(senderThreads, runnable -> {
+            final Thread thread = new Thread(runnable, "balance-stream-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ScheduledExecutorService ticker(final Long intervalMillis) {
+        notNull(intervalMillis, "intervalMillis must not be null");
+        isTrue(intervalMillis > 0, "intervalMillis must be positive");
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "balance-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Open a stream of balance events that never times out on its own.
+     *
+     * @throws IllegalStateException if the subscriber limit has been reached
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(0L));
+    }
+
+    SseEmitter subscribe(final SseEmitter emitter) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Balance stream subscriber limit of " + maxSubscribers + " reached");
+        }
+        final Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        joining.add(subscriber);
+        return emitter;
+    }
+
+    private void remove(final Subscriber subscriber) {
+        if (subscribers.remove(subscriber.emitter, subscriber) || joining.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    /**
+     * Sample the balance and hand it to subscribers that need it. Runs on the ticker thread only.
+     */
+    void tick() {
+        try {
+            if (subscriberCount.get() == 0) return;
+            final BalanceSnapshot snapshot = bankAccountService.retrieveBalanceSnapshot();
+            final Set<ResponseBodyEmitter.DataWithMediaType> event = event(snapshot);
+            final long now = clock.getAsLong();
+
+            for (final Subscriber subscriber : subscribers.values()) {
+                if (subscriber.stalledAt(now)) disconnect(subscriber);
+            }
+
+            if (snapshot.version() != lastVersion) {
+                lastVersion = snapshot.version();
+                lastSentMillis = now;
+                for (final Subscriber subscriber : subscribers.values()) {
+                    subscriber.offer(event);
+                }
+            } else if (now - lastSentMillis >= heartbeatMillis) {
+                lastSentMillis = now;
+                final Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("").build();
+                for (final Subscriber subscriber : subscribers.values()) {
+                    subscriber.offerIfIdle(heartbeat);
+                }
+            }
+
+            Subscriber joined;
+            while ((joined = joining.poll()) != null) {
+                subscribers.put(joined.emitter, joined);
+                joined.offer(event);
+            }
+        } catch (final RuntimeException e) {
+            logger.error("Error publishing balance stream", e);
+        }
+    }
+
+    private void disconnect(final Subscriber subscriber) {
+        stalled.increment();
+        remove(subscriber);
+        logger.warn("Disconnecting balance stream subscriber stalled for over {} ms", sendTimeoutMillis);
+        disconnector.execute(() -> subscriber.emitter.completeWithError(
+                new IOException("Balance stream write stalled for over " + sendTimeoutMillis + " ms")));
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> event(final BalanceSnapshot snapshot) {
+        try {
+            return SseEmitter.event()
+                    .id(Long.toString(snapshot.version()))
+                    .name(EVENT_NAME)
+                    .data(objectMapper.writeValueAsString(snapshot))
+                    .build();
+        } catch (final JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    public long eventCount() {
+        return events.sum();
+    }
+
+    public long stalledCount() {
+        return stalled.sum();
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        Gauge.builder("balance.stream.subscribers", this, BalanceStream::subscriberCount)
+                .description("Open balance event streams")
+                .register(registry);
+        FunctionCounter.builder("balance.stream.events", this, BalanceStream::eventCount)
+                .description("Balance events and heartbeats sent to subscribers")
+                .register(registry);
+        FunctionCounter.builder("balance.stream.stalled", this, BalanceStream::stalledCount)
+                .description("Subscribers disconnected because a write to them stalled")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        if (ticker != null) ticker.shutdownNow();
+        if (sender instanceof ExecutorService executor) executor.shutdownNow();
+        joining.forEach(subscriber -> disconnector.execute(subscriber.emitter::complete));
+        subscribers.keySet().forEach(emitter -> disconnector.execute(emitter::complete));
+        disconnector.shutdown();
+    }
+
+    /**
+     * One open stream and the latest event not yet written to it. At most one sender task drains it at a time.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long sendingSinceMillis = -1L;
+
+        private Subscriber(final SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Replace any undelivered event with this one and make sure a sender will write it.
+         */
+        void offer(final Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            pending.set(event);
+            schedule();
+        }
+
+        /**
+         * Queue a heartbeat unless an event is still waiting, which serves the same purpose.
+         */
+        void offerIfIdle(final Set<ResponseBodyEmitter.DataWithMediaType> heartbeat) {
+            if (pending.compareAndSet(null, heartbeat)) schedule();
+        }
+
+        boolean stalledAt(final long now) {
+            final long since = sendingSinceMillis;
+            return since >= 0 && now - since > sendTimeoutMillis;
+        }
+
+        private void schedule() {
+            if (!draining.compareAndSet(false, true)) return;
+            try {
+                sender.execute(this::drain);
+            } catch (final RejectedExecutionException e) {
+                draining.set(false);
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while ((event = pending.getAndSet(null)) != null) {
+                    if (!send(event)) return;
+                }
+                draining.set(false);
+            } while (pending.get() != null && draining.compareAndSet(false, true));
+        }
+
+        private boolean send(final Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            sendingSinceMillis = clock.getAsLong();
+            try {
+                emitter.send(event);
+                events.increment();
+                return true;
+            } catch (final IOException | IllegalStateException e) {
+                remove(this);
+                return false;
+            } finally {
+                sendingSinceMillis = -1L;
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package net.jpmchase.transaction.service.wal;
+
+import jakarta.annotation.PostConstruct;
+import net.jpmchase.transaction.model.BalanceSnapshot;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountService;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.audit.journal.JournalCursor;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import org.apache.commons.lang3.Validate;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Durable acceptance: a transaction is forced to the {@link WriteAheadLog} before it is applied, so when a
+ * processing call returns, the transaction survives a crash even if it has not yet been cut into an audit batch and
+ * journaled. Concurrent callers share forces through the log's group commit.
+ * <p>
+ * On startup, after the journal has been recovered, every logged transaction whose id is not in the journal is
+ * applied again. A periodic checkpoint briefly stops new appends, cuts the pending audit batch so every applied
+ * transaction is journaled, forces the journal and only then rolls the log and deletes the older generations. If
+ * the cut or the force fails nothing is deleted. The ids kept in memory during recovery are therefore bounded by the
+ * journal written over about one checkpoint interval.
+ */
+public class DurableBankAccountService implements BankAccountService, AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(DurableBankAccountService.class);
+
+    private final BankAccountServiceImpl delegate;
+    private final WriteAheadLog log;
+    private final TransactionJournal journal;
+    private final long checkpointIntervalSeconds;
+    private final ReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "wal-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DurableBankAccountService(final BankAccountServiceImpl delegate,
+                                     final WriteAheadLog log,
+                                     final TransactionJournal journal,
+                                     final Long checkpointIntervalSeconds) {
+        this.delegate = notNull(delegate, "delegate must not be null");
+        this.log = notNull(log, "log must not be null");
+        this.journal = notNull(journal, "journal must not be null");
+        this.checkpointIntervalSeconds = notNull(checkpointIntervalSeconds,
+                "checkpointIntervalSeconds must not be null");
+        isTrue(checkpointIntervalSeconds > 0, "checkpointIntervalSeconds must be positive");
+    }
+
+    @PostConstruct
+    public void start() {
+        recover();
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, checkpointIntervalSeconds,
+                checkpointIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void processTransaction(final Transaction transaction) {
+        notNull(transaction, "transaction must not be null");
+        checkpointLock.readLock().lock();
+        try {
+            log.append(transaction);
+            delegate.processTransaction(transaction);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void processTransactions(final Transaction[] transactions, final int count) {
+        notNull(transactions, "transactions must not be null");
+        Validate.inclusiveBetween(0, transactions.length, count, "count must be between 0 and the array length");
+        checkpointLock.readLock().lock();
+        try {
+            log.append(transactions, count);
+            delegate.processTransactions(transactions, count);
+        } finally {
+            checkpointLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public double retrieveBalance() {
+        return delegate.retrieveBalance();
+    }
+
+    @Override
+    public long retrieveBalanceInMinorUnits() {
+        return delegate.retrieveBalanceInMinorUnits();
+    }
+
+    @Override
+    public BalanceSnapshot retrieveBalanceSnapshot() {
+        return delegate.retrieveBalanceSnapshot();
+    }
+
+    /**
+     * Apply every transaction in the log found at startup that did not reach the journal. Must run after the journal
+     * has been recovered and before any new transaction is processed.
+     *
+     * @return the number of transactions applied again
+     */
+    public synchronized long recover() {
+        final long start = System.nanoTime();
+        final Set<String> journaled = new HashSet<>();
+        final JournalCursor cursor = journal.cursor(Math.min(log.firstJournalPosition(), journal.recordCount()));
+        while (cursor.next()) {
+            journaled.add(cursor.id());
+        }
+
+        final long[] reapplied = new long[1];
+        final long logged = log.replay(transaction -> {
+            if (journaled.contains(transaction.getId())) return;
+            delegate.processTransaction(transaction);
+            reapplied[0]++;
+        });
+        logger.info("Applied {} of {} write-ahead log records missing from the journal in {} ms",
+                reapplied[0], logged, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return reapplied[0];
+    }
+
+    /**
+     * Journal every applied transaction, then roll the log and delete the generations before the new one. Appends
+     * wait meanwhile, so no transaction can enter a generation after its records were confirmed journaled.
+     *
+     * @throws RuntimeException if the pending batch could not be journaled; no generation is deleted
+     */
+    public synchronized void checkpoint() {
+        checkpointLock.writeLock().lock();
+        try {
+            delegate.cutPendingBatch();
+            journal.flush();
+            log.deleteBefore(log.roll(journal.recordCount()));
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    private void checkpointQuietly() {
+        try {
+            checkpoint();
+        } catch (final RuntimeException e) {
+            logger.error("Error checkpointing write-ahead log", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,455 @@
+package net.jpmchase.transaction.service.wal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Log of accepted transactions that an append returns from only once its records are forced to disk.
+ * <p>
+ * Appenders encode their records into a shared buffer and wait. A single writer thread swaps the buffer out, writes
+ * it and calls {@link FileChannel#force} once, then releases every appender it covered. Appenders that arrive during
+ * a force join the next one, so forces per second stay bounded by the disk while transactions per force grow with
+ * the number of concurrent callers. A group-commit window optionally holds the writer back to gather more.
+ * <p>
+ * The log is a sequence of generation files, each headed by the journal position when it was started: every
+ * transaction appended to a generation reaches the journal at or after that position. Records carry a CRC32C. On
+ * opening, existing generations are kept for {@link #replay} up to the first torn or corrupt record, and appends go
+ * to a new generation.
+ */
+public class WriteAheadLog implements Closeable, MeterBinder {
+
+    private static final Logger logger = LogManager.getLogger(WriteAheadLog.class);
+    private static final String FILE_PREFIX = "wal-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final int MAGIC = 0x57414C31;
+    static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MIN_PAYLOAD_BYTES = Long.BYTES + Byte.BYTES + Short.BYTES;
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private final Path directory;
+    private final long groupCommitNanos;
+    private final List<Long> recovered;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition pendingWrites = lock.newCondition();
+    private final Condition committed = lock.newCondition();
+    private final CRC32C checksum = new CRC32C(); // guarded by lock
+    private final TreeMap<Long, Long> generations = new TreeMap<>(); // generation -> journal position, guarded by lock
+    private ByteBuffer pending = buffer(INITIAL_BUFFER_BYTES); // guarded by lock
+    private ByteBuffer writing = buffer(INITIAL_BUFFER_BYTES); // swapped with pending under lock
+    private FileChannel channel; // guarded by lock
+    private long appended; // guarded by lock
+    private long durable; // guarded by lock
+    private IOException failure; // guarded by lock
+    private boolean closed; // guarded by lock
+    private final LongAdder commits = new LongAdder();
+    private final Thread writer;
+
+    private WriteAheadLog(final Path directory, final long groupCommitNanos, final List<Long> recovered) {
+        this.directory = directory;
+        this.groupCommitNanos = groupCommitNanos;
+        this.recovered = recovered;
+        this.writer = new Thread(this::writeLoop, "wal-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Open the log in {@code directory}, creating it if needed, and start a new generation for appends.
+     *
+     * @param journalPosition    journal record count now; every transaction appended from here is journaled later
+     * @param groupCommitMicros  how long the writer waits to gather appenders before each force; 0 to not wait
+     */
+    public static WriteAheadLog open(final Path directory, final long journalPosition, final Long groupCommitMicros) {
+        notNull(directory, "directory must not be null");
+        notNull(groupCommitMicros, "groupCommitMicros must not be null");
+        isTrue(journalPosition >= 0, "journalPosition must not be negative");
+        isTrue(groupCommitMicros >= 0, "groupCommitMicros must not be negative");
+
+        try {
+            Files.createDirectories(directory);
+            final TreeMap<Long, Long> existing = new TreeMap<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (final Path file : (Iterable<Path>) files::iterator) {
+                    final String name = file.getFileName().toString();
+                    if (!name.startsWith(FILE_PREFIX) || !name.endsWith(FILE_SUFFIX)) continue;
+                    final long generation = Long.parseLong(
+                            name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+                    existing.put(generation, readJournalPosition(file));
+                }
+            }
+
+            final WriteAheadLog log = new WriteAheadLog(directory,
+                    TimeUnit.MICROSECONDS.toNanos(groupCommitMicros), List.copyOf(existing.keySet()));
+            log.generations.putAll(existing);
+            final long generation = existing.isEmpty() ? 0L : existing.lastKey() + 1;
+            log.channel = log.create(generation, journalPosition);
+            log.generations.put(generation, journalPosition);
+            log.writer.start();
+            return log;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error opening write-ahead log in " + directory, e);
+        }
+    }
+
+    /**
+     * Append a transaction, returning once it is durable.
+     *
+     * @throws UncheckedIOException if the log can no longer be written; later appends fail too
+     */
+    public void append(final Transaction transaction) {
+        notNull(transaction, "transaction must not be null");
+        final byte[] id = idBytes(transaction);
+        lock.lock();
+        try {
+            awaitDurable(enqueue(transaction, id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Append the first {@code count} transactions, returning once all of them are durable.
+     */
+    public void append(final Transaction[] transactions, final int count) {
+        notNull(transactions, "transactions must not be null");
+        isTrue(count >= 0 && count <= transactions.length, "count must be between 0 and the array length");
+        if (count == 0) return;
+        final byte[][] ids = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            ids[i] = idBytes(notNull(transactions[i], "transaction must not be null"));
+        }
+        lock.lock();
+        try {
+            long ticket = 0L;
+            for (int i = 0; i < count; i++) {
+                ticket = enqueue(transactions[i], ids[i]);
+            }
+            awaitDurable(ticket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The id's bytes, rejecting ids the journal could not store so such a transaction is never acknowledged.
+     */
+    private static byte[] idBytes(final Transaction transaction) {
+        final byte[] id = transaction.getId().getBytes(UTF_8);
+        isTrue(id.length <= Transaction.MAX_ID_BYTES, "transaction id must not be longer than %d bytes",
+                Transaction.MAX_ID_BYTES);
+        return id;
+    }
+
+    private long enqueue(final Transaction transaction, final byte[] id) {
+        ensureWritable();
+        final int payloadBytes = MIN_PAYLOAD_BYTES + id.length;
+        if (pending.remaining() < RECORD_HEADER_BYTES + payloadBytes) {
+            final ByteBuffer grown = buffer(Math.max(pending.capacity() * 2,
+                    pending.position() + RECORD_HEADER_BYTES + payloadBytes));
+            pending = grown.put(pending.flip());
+        }
+
+        final int start = pending.position();
+        pending.putInt(payloadBytes)
+                .putInt(0)
+                .putLong(transaction.getAmountInMinorUnits())
+                .put((byte) transaction.getTransactionType().ordinal())
+                .putShort((short) id.length)
+                .put(id);
+        checksum.reset();
+        checksum.update(pending.duplicate().position(start + RECORD_HEADER_BYTES).limit(pending.position()));
+        pending.putInt(start + Integer.BYTES, (int) checksum.getValue());
+
+        pendingWrites.signal();
+        return ++appended;
+    }
+
+    private void awaitDurable(final long ticket) {
+        while (durable < ticket) {
+            if (failure != null) throw new UncheckedIOException("Write-ahead log is no longer writable", failure);
+            committed.awaitUninterruptibly();
+        }
+    }
+
+    private void ensureWritable() {
+        if (failure != null) throw new UncheckedIOException("Write-ahead log is no longer writable", failure);
+        if (closed) throw new IllegalStateException("Write-ahead log is closed");
+    }
+
+    private void writeLoop() {
+        lock.lock();
+        try {
+            while (true) {
+                while (pending.position() == 0) {
+                    if (closed) return;
+                    pendingWrites.awaitUninterruptibly();
+                }
+                if (groupCommitNanos > 0) {
+                    lock.unlock();
+                    LockSupport.parkNanos(groupCommitNanos);
+                    lock.lock();
+                }
+                final ByteBuffer batch = pending;
+                pending = writing;
+                writing = batch;
+                final long upTo = appended;
+                final FileChannel target = channel;
+
+                lock.unlock();
+                IOException error = null;
+                try {
+                    batch.flip();
+                    while (batch.hasRemaining()) target.write(batch);
+                    target.force(false);
+                } catch (final IOException e) {
+                    error = e;
+                } finally {
+                    batch.clear();
+                    lock.lock();
+                }
+
+                if (error != null) {
+                    logger.error("Error forcing write-ahead log; rejecting further appends", error);
+                    failure = error;
+                    committed.signalAll();
+                    return;
+                }
+                commits.increment();
+                durable = upTo;
+                committed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Start a new generation once everything appended so far is durable. Earlier generations are no longer written.
+     *
+     * @param journalPosition journal record count now
+     * @return the new generation
+     */
+    public long roll(final long journalPosition) {
+        lock.lock();
+        try {
+            ensureWritable();
+            awaitDurable(appended);
+            final long generation = generations.lastKey() + 1;
+            final FileChannel next = create(generation, journalPosition);
+            channel.close();
+            channel = next;
+            generations.put(generation, journalPosition);
+            return generation;
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error rolling write-ahead log", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Delete every generation before {@code generation}, whose transactions must all be journaled by now.
+     */
+    public void deleteBefore(final long generation) {
+        lock.lock();
+        try {
+            isTrue(generation <= generations.lastKey(), "cannot delete the generation being written");
+            while (!generations.isEmpty() && generations.firstKey() < generation) {
+                Files.deleteIfExists(file(generations.pollFirstEntry().getKey()));
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error deleting write-ahead log generations", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Journal position of the oldest generation kept: every transaction still in the log was journaled, if at all,
+     * at or after it.
+     */
+    public long firstJournalPosition() {
+        lock.lock();
+        try {
+            return generations.firstEntry().getValue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read back every intact record of the generations found when the log was opened, oldest first.
+     *
+     * @return the number of records read
+     */
+    public long replay(final Consumer<Transaction> consumer) {
+        notNull(consumer, "consumer must not be null");
+        long count = 0L;
+        for (final long generation : recovered) {
+            final Path file = file(generation);
+            if (!Files.exists(file)) continue;
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                count += replay(file, in.map(FileChannel.MapMode.READ_ONLY, 0, in.size()), consumer);
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Error reading write-ahead log " + file, e);
+            }
+        }
+        return count;
+    }
+
+    private long replay(final Path file, final ByteBuffer buffer, final Consumer<Transaction> consumer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN).position(HEADER_BYTES);
+        final CRC32C verifier = new CRC32C();
+        long count = 0L;
+        while (buffer.remaining() >= RECORD_HEADER_BYTES) {
+            final int start = buffer.position();
+            final int payloadBytes = buffer.getInt();
+            final int expected = buffer.getInt();
+            if (payloadBytes < MIN_PAYLOAD_BYTES || payloadBytes > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            verifier.reset();
+            verifier.update(buffer.duplicate().limit(buffer.position() + payloadBytes));
+            final long amount = buffer.getLong();
+            final int type = buffer.get();
+            final int idLength = buffer.getShort();
+            if ((int) verifier.getValue() != expected || type < 0 || type >= TYPES.length
+                    || idLength != payloadBytes - MIN_PAYLOAD_BYTES) {
+                buffer.position(start);
+                break;
+            }
+            final byte[] id = new byte[idLength];
+            buffer.get(id);
+            consumer.accept(Transaction.ofMinorUnits(new String(id, UTF_8), amount, TYPES[type]));
+            count++;
+        }
+        if (buffer.hasRemaining()) {
+            logger.warn("Ignoring {} bytes of torn or corrupt records at the end of {}", buffer.remaining(), file);
+        }
+        return count;
+    }
+
+    private FileChannel create(final long generation, final long journalPosition) throws IOException {
+        final FileChannel created = FileChannel.open(file(generation), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        final ByteBuffer header = buffer(HEADER_BYTES).putInt(MAGIC).putLong(journalPosition).flip();
+        while (header.hasRemaining()) created.write(header);
+        created.force(true);
+        return created;
+    }
+
+    private static long readJournalPosition(final Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = buffer(HEADER_BYTES);
+            while (header.hasRemaining() && in.read(header) >= 0) {
+                // keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException("Not a write-ahead log: " + file);
+            }
+            return header.getLong();
+        }
+    }
+
+    private Path file(final long generation) {
+        return directory.resolve(String.format("%s%016d%s", FILE_PREFIX, generation, FILE_SUFFIX));
+    }
+
+    private static ByteBuffer buffer(final int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Forces performed; each covers every append made since the previous one.
+     */
+    public long commitCount() {
+        return commits.sum();
+    }
+
+    public long durableCount() {
+        lock.lock();
+        try {
+            return durable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int generationCount() {
+        lock.lock();
+        try {
+            return generations.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        FunctionCounter.builder("wal.commits", this, WriteAheadLog::commitCount)
+                .description("Write-ahead log forces, each covering a group of appends")
+                .register(registry);
+        FunctionCounter.builder("wal.records", this, WriteAheadLog::durableCount)
+                .description("Transactions made durable in the write-ahead log")
+                .register(registry);
+        Gauge.builder("wal.generations", this, WriteAheadLog::generationCount)
+                .description("Write-ahead log generation files kept on disk")
+                .register(registry);
+    }
+
+    /**
+     * Finish writing what has been appended and close the current generation.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            pendingWrites.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+            channel.close();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Error closing write-ahead log", e);
+        }
+    }
+}
@@ -1,11 +1,28 @@
 package net.jpmchase.transaction;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 @SpringBootTest
 class TransactionApplicationTests {
 
+	@TempDir
+	static Path directory;
+
+	@DynamicPropertySource
+	static void stateDirectories(final DynamicPropertyRegistry registry) {
+		registry.add("audit.journal.directory", () -> directory.resolve("journal").toString());
+		registry.add("audit.async.spill-directory", () -> directory.resolve("audit-spill").toString());
+		registry.add("audit.sink.file.path", () -> directory.resolve("audit-sink/audit.frames").toString());
+		registry.add("wal.directory", () -> directory.resolve("wal").toString());
+		registry.add("recovery.snapshot-file", () -> directory.resolve("snapshot.bin").toString());
+	}
+
 	@Test
 	void contextLoads() {
 	}
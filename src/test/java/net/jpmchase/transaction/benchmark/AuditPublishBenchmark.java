@@ -0,0 +1,78 @@
+package net.jpmchase.transaction.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.audit.AuditServiceImpl;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import net.jpmchase.transaction.service.audit.sink.AuditSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of {@link AuditServiceImpl#publishBatch} per batch, including waiting for the journal append, by batch size.
+ * {@link BatchBoundaryLatencyBenchmark} measures what ingest itself pays at a batch boundary.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditPublishBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int batchSize;
+
+    private Path directory;
+    private TransactionJournal journal;
+    private AuditServiceImpl service;
+    private List<Transaction> batch;
+    private int batchNumber;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit-benchmark");
+        journal = TransactionJournal.open(directory, 1 << 20);
+        service = new AuditServiceImpl(journal, AuditSink.discarding(), new SimpleMeterRegistry(), 4);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(new Transaction(UUID.randomUUID().toString(), 100.0, TransactionType.CREDIT));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        service.close();
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void publishBatch() {
+        service.publishBatch(batch, batchNumber++);
+        service.awaitJournaled();
+    }
+}
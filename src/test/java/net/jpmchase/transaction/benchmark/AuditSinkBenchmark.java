@@ -0,0 +1,106 @@
+package net.jpmchase.transaction.benchmark;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.audit.sink.AuditSink;
+import net.jpmchase.transaction.service.audit.sink.FileAuditSink;
+import net.jpmchase.transaction.service.audit.sink.SocketAuditSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of handing a 1,000-transaction batch to each {@link AuditSink}, flushing every batch versus coalescing
+ * flushes once a second. The socket sink writes to a loopback receiver that discards what it reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditSinkBenchmark {
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"file", "socket"})
+    public String sinkType;
+
+    @Param({"0", "1000"})
+    public long flushIntervalMillis;
+
+    private Path directory;
+    private ServerSocketChannel server;
+    private Thread receiver;
+    private AuditSink sink;
+    private List<Transaction> batch;
+    private int batchNumber;
+
+    @Setup
+    public void setUp() throws IOException {
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new Transaction(UUID.randomUUID().toString(), 100.0, TransactionType.CREDIT));
+        }
+        if (sinkType.equals("file")) {
+            directory = Files.createTempDirectory("audit-sink-benchmark");
+            sink = new FileAuditSink(directory.resolve("audit.frames"), 1, flushIntervalMillis);
+        } else {
+            server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            receiver = new Thread(this::discard, "benchmark-receiver");
+            receiver.setDaemon(true);
+            receiver.start();
+            sink = new SocketAuditSink(server.getLocalAddress(), 1 << 20, flushIntervalMillis, 1_000L);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        sink.close();
+        if (server != null) server.close();
+        if (directory != null) {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public void publish() {
+        sink.publish(batch, batchNumber++);
+    }
+
+    private void discard() {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (SocketChannel connection = server.accept()) {
+            while (connection.read(buffer.clear()) >= 0) {
+                // drain
+            }
+        } catch (final IOException e) {
+            // receiver closed
+        }
+    }
+}
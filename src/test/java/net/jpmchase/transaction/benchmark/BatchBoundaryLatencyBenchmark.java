@@ -0,0 +1,89 @@
+package net.jpmchase.transaction.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.BatchPolicy;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.audit.AuditServiceImpl;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import net.jpmchase.transaction.service.audit.sink.AuditSink;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Latency of the {@link BankAccountServiceImpl#processTransaction} call that fills and cuts an audit batch, with a
+ * real on-disk audit journal, by batch size. The rest of each batch is processed untimed before every invocation,
+ * and the earlier batches are journaled by then, as they are whenever ingest runs below the journal's throughput.
+ * The journal append happens off the ingest monitor, so the boundary costs the batch copy and the hand-off rather
+ * than the append; above the journal's throughput the hand-off waits for the writer instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBoundaryLatencyBenchmark {
+
+    @Param({"1000", "100000"})
+    public long batchSize;
+
+    private Path directory;
+    private TransactionJournal journal;
+    private AuditServiceImpl auditService;
+    private BankAccountServiceImpl service;
+    private final Transaction transaction = new Transaction("ACC12345", 1.0, TransactionType.CREDIT);
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("batch-boundary-benchmark");
+        journal = TransactionJournal.open(directory, 1 << 20);
+        auditService = new AuditServiceImpl(journal, AuditSink.discarding(), new SimpleMeterRegistry(), 4);
+        service = new BankAccountServiceImpl(Long.MAX_VALUE, BatchPolicy.fixed(batchSize), auditService,
+                new TransactionAggregator(), TransactionDeduplicator.disabled(), new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        service.close();
+        auditService.close();
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillBatch() {
+        for (long i = 1; i < batchSize; i++) {
+            service.processTransaction(transaction);
+        }
+        auditService.awaitJournaled();
+    }
+
+    @Benchmark
+    public void cutBatch() {
+        service.processTransaction(transaction);
+    }
+}
@@ -0,0 +1,55 @@
+package net.jpmchase.transaction.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.BatchPolicy;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-transaction cost of {@link BankAccountServiceImpl#processTransaction}, batch cuts included, as the audit
+ * batch capacity grows.
+ * With incremental threshold tracking the score should stay flat from 10 to 100k transactions per batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchThresholdBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public long batchSize;
+
+    private BankAccountServiceImpl service;
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        service = new BankAccountServiceImpl(Long.MAX_VALUE, BatchPolicy.fixed(batchSize), (transactions, batchNumber) -> { },
+                new TransactionAggregator(),
+                TransactionDeduplicator.disabled(), new SimpleMeterRegistry());
+        transaction = new Transaction("ACC12345", 1.0, TransactionType.CREDIT);
+    }
+
+    @Benchmark
+    public void processTransaction() {
+        service.processTransaction(transaction);
+    }
+}
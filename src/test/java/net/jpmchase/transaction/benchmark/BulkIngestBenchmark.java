@@ -0,0 +1,66 @@
+package net.jpmchase.transaction.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.BatchPolicy;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-transaction cost of one-at-a-time {@link BankAccountServiceImpl#processTransaction} against
+ * {@link BankAccountServiceImpl#processTransactions} over chunks of {@value #CHUNK}, with four contending producers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class BulkIngestBenchmark {
+    private static final int CHUNK = 256;
+
+    private BankAccountServiceImpl service;
+    private Transaction[] chunk;
+
+    @Setup
+    public void setUp() {
+        service = new BankAccountServiceImpl(Long.MAX_VALUE, BatchPolicy.fixed(1_000L), (transactions, batchNumber) -> { },
+                new TransactionAggregator(),
+                TransactionDeduplicator.disabled(), new SimpleMeterRegistry());
+        chunk = new Transaction[CHUNK];
+        for (int i = 0; i < CHUNK; i++) {
+            chunk[i] = new Transaction("T" + i, 1.0, i % 2 == 0 ? TransactionType.CREDIT : TransactionType.DEBIT);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public void oneAtATime() {
+        for (final Transaction transaction : chunk) {
+            service.processTransaction(transaction);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK)
+    public void bulk() {
+        service.processTransactions(chunk, CHUNK);
+    }
+}
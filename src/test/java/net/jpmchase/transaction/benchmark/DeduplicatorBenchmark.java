@@ -0,0 +1,52 @@
+package net.jpmchase.transaction.benchmark;
+
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link TransactionDeduplicator#firstSeen} for fresh UUID ids at window sizes up to tens of millions.
+ * Every id is new, so every call inserts and generations rotate as in production. Subtract {@link #idOnly()} for
+ * the cost of building the id string.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-XX:MaxDirectMemorySize=2g"})
+public class DeduplicatorBenchmark {
+    @Param({"1048576", "16777216"})
+    public int windowSize;
+
+    private TransactionDeduplicator deduplicator;
+    private final long high = UUID.randomUUID().getMostSignificantBits();
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        deduplicator = new TransactionDeduplicator(windowSize);
+    }
+
+    @Benchmark
+    public String idOnly() {
+        return new UUID(high, sequence++).toString();
+    }
+
+    @Benchmark
+    public boolean firstSeen() {
+        return deduplicator.firstSeen(new UUID(high, sequence++ * 0x9E3779B97F4A7C15L).toString());
+    }
+}
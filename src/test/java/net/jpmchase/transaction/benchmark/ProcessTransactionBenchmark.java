@@ -0,0 +1,82 @@
+package net.jpmchase.transaction.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountService;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.BatchPolicy;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import net.jpmchase.transaction.service.ingest.RingBufferBankAccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest throughput of {@link BankAccountService#processTransaction} at 1, 4, 16 and 64 producer threads, for both
+ * the synchronized and ring-buffer ingest modes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessTransactionBenchmark {
+
+    @Param({"synchronized", "ring-buffer"})
+    public String ingestMode;
+
+    private BankAccountService service;
+    private final Transaction transaction = new Transaction("ACC12345", 1.0, TransactionType.CREDIT);
+
+    @Setup
+    public void setUp() {
+        final BankAccountServiceImpl impl = new BankAccountServiceImpl(Long.MAX_VALUE, BatchPolicy.fixed(1_000L),
+                (transactions, batchNumber) -> { }, new TransactionAggregator(),
+                TransactionDeduplicator.disabled(), new SimpleMeterRegistry());
+        service = "ring-buffer".equals(ingestMode) ? new RingBufferBankAccountService(impl, 65_536) : impl;
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        if (service instanceof AutoCloseable closeable) closeable.close();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void threads01() {
+        service.processTransaction(transaction);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void threads04() {
+        service.processTransaction(transaction);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void threads16() {
+        service.processTransaction(transaction);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void threads64() {
+        service.processTransaction(transaction);
+    }
+}
@@ -0,0 +1,81 @@
+package net.jpmchase.transaction.benchmark;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Reconciliation;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.audit.columnar.ColumnarAuditStore;
+import net.jpmchase.transaction.service.audit.columnar.ReconciliationQuery;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Full-history {@link ColumnarAuditStore#reconcile} over a journal of audit batches of 1,000 transactions, with the
+ * columns built by a query in setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ReconciliationBenchmark {
+    private static final int BATCH_SIZE = 1_000;
+
+    @Param({"10000000", "100000000"})
+    public int transactions;
+
+    private Path directory;
+    private TransactionJournal journal;
+    private ColumnarAuditStore store;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("reconciliation-benchmark");
+        journal = TransactionJournal.open(directory, 1 << 20);
+        final Random random = new Random(42);
+        final List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(Transaction.ofMinorUnits("T" + i, random.nextInt(500_000),
+                    random.nextBoolean() ? TransactionType.CREDIT : TransactionType.DEBIT));
+        }
+        for (int batchNumber = 0; batchNumber < transactions / BATCH_SIZE; batchNumber++) {
+            journal.append(batch, batchNumber);
+        }
+        store = new ColumnarAuditStore(journal);
+        store.reconcile(ReconciliationQuery.ALL);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Reconciliation reconcile() {
+        return store.reconcile(ReconciliationQuery.ALL);
+    }
+}
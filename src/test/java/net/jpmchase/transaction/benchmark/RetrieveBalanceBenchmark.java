@@ -0,0 +1,67 @@
+package net.jpmchase.transaction.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.BatchPolicy;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of {@link BankAccountServiceImpl#retrieveBalance} for one reader while three writers ingest
+ * concurrently. Compare the {@code reader} percentiles with {@link #idleReader()} to see the cost of contention.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RetrieveBalanceBenchmark {
+
+    private BankAccountServiceImpl service;
+    private final Transaction transaction = new Transaction("ACC12345", 1.0, TransactionType.CREDIT);
+
+    @Setup
+    public void setUp() {
+        service = new BankAccountServiceImpl(Long.MAX_VALUE, BatchPolicy.fixed(1_000L), (transactions, batchNumber) -> { },
+                new TransactionAggregator(),
+                TransactionDeduplicator.disabled(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    @Group("underWrites")
+    @GroupThreads(1)
+    public double reader() {
+        return service.retrieveBalance();
+    }
+
+    @Benchmark
+    @Group("underWrites")
+    @GroupThreads(3)
+    public void writer() {
+        service.processTransaction(transaction);
+    }
+
+    @Benchmark
+    @Group("idle")
+    @GroupThreads(1)
+    public double idleReader() {
+        return service.retrieveBalance();
+    }
+}
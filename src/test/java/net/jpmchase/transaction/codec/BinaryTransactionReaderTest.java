@@ -0,0 +1,84 @@
+package net.jpmchase.transaction.codec;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryTransactionReaderTest {
+
+    @Test
+    public void readsLengthPrefixedFrames() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        frame(out, "A", 12_550L, 0);
+        frame(out, "B", 4_200L, 1);
+
+        final TransactionReader reader = new BinaryTransactionReader(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertThat(reader.read()).extracting(Transaction::getId, Transaction::getAmountInMinorUnits,
+                Transaction::getTransactionType).containsExactly("A", 12_550L, TransactionType.CREDIT);
+        assertThat(reader.read()).extracting(Transaction::getId, Transaction::getAmountInMinorUnits,
+                Transaction::getTransactionType).containsExactly("B", 4_200L, TransactionType.DEBIT);
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void truncatedFrameIsMalformed() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        frame(new DataOutputStream(bytes), "ABC", 1L, 0);
+        final byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BinaryTransactionReader(new ByteArrayInputStream(truncated)).read())
+                .withMessage("Malformed transaction 1: truncated frame");
+    }
+
+    @Test
+    public void badFrameLengthIsMalformed() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        new DataOutputStream(bytes).writeInt(4);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BinaryTransactionReader(new ByteArrayInputStream(bytes.toByteArray())).read())
+                .withMessage("Malformed transaction 1: frame length 4 out of range");
+    }
+
+    @Test
+    public void idsLongerThanTheJournalAcceptsAreMalformed() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        frame(new DataOutputStream(bytes), "x".repeat(Transaction.MAX_ID_BYTES + 1), 1L, 0);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BinaryTransactionReader(new ByteArrayInputStream(bytes.toByteArray())).read())
+                .withMessage("Malformed transaction 1: frame length 58 out of range");
+    }
+
+    @Test
+    public void unknownTypeIsMalformed() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        frame(new DataOutputStream(bytes), "A", 1L, 7);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new BinaryTransactionReader(new ByteArrayInputStream(bytes.toByteArray())).read())
+                .withMessage("Malformed transaction 1: unknown transaction type 7");
+    }
+
+    private static void frame(final DataOutputStream out, final String id, final long amount, final int type)
+            throws IOException {
+        final byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(BinaryTransactionReader.HEADER_BYTES + idBytes.length);
+        out.writeLong(amount);
+        out.writeByte(type);
+        out.write(idBytes);
+    }
+}
@@ -0,0 +1,71 @@
+package net.jpmchase.transaction.codec;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NdjsonTransactionReaderTest {
+
+    @Test
+    public void readsOneTransactionPerLine() throws IOException {
+        final TransactionReader reader = reader("""
+                {"id":"A","amount":125.5,"transactionType":"CREDIT"}
+                {"transactionType":"DEBIT","amountInMinorUnits":4200,"id":"B","note":{"ignored":[1,2]}}
+                """);
+
+        final Transaction first = reader.read();
+        final Transaction second = reader.read();
+
+        assertThat(first).extracting(Transaction::getId, Transaction::getAmountInMinorUnits, Transaction::getTransactionType)
+                .containsExactly("A", 12_550L, TransactionType.CREDIT);
+        assertThat(second).extracting(Transaction::getId, Transaction::getAmountInMinorUnits, Transaction::getTransactionType)
+                .containsExactly("B", 4_200L, TransactionType.DEBIT);
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void missingFieldsAreMalformed() throws IOException {
+        final TransactionReader reader = reader("""
+                {"id":"A","amount":1,"transactionType":"CREDIT"}
+                {"id":"B","transactionType":"CREDIT"}
+                """);
+        reader.read();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(reader::read)
+                .withMessage("Malformed transaction 2: amount is required and must not be negative");
+    }
+
+    @Test
+    public void unknownTypeIsMalformed() throws IOException {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> reader("{\"id\":\"A\",\"amount\":1,\"transactionType\":\"REFUND\"}").read())
+                .withMessage("Malformed transaction 1: unknown transactionType REFUND");
+    }
+
+    @Test
+    public void idsLongerThanTheJournalAcceptsAreMalformed() {
+        final String id = "x".repeat(Transaction.MAX_ID_BYTES + 1);
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> reader("{\"id\":\"" + id + "\",\"amount\":1,\"transactionType\":\"CREDIT\"}").read())
+                .withMessage("Malformed transaction 1: id must not be longer than 48 bytes");
+    }
+
+    @Test
+    public void invalidJsonIsMalformed() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> reader("{\"id\":\"A\",").read())
+                .withMessageStartingWith("Malformed transaction 1:");
+    }
+
+    private static TransactionReader reader(final String body) throws IOException {
+        return new NdjsonTransactionReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,102 @@
+package net.jpmchase.transaction.controller;
+
+import net.jpmchase.transaction.service.BankAccountService;
+import net.jpmchase.transaction.service.TransactionIngestService;
+import net.jpmchase.transaction.service.account.AccountBalanceService;
+import net.jpmchase.transaction.service.account.ShardedAccountBalanceService;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.audit.AuditServiceImpl;
+import net.jpmchase.transaction.service.cluster.OutcomeUnknownException;
+import net.jpmchase.transaction.service.stream.BalanceStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class BankAccountControllerTest {
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        final BankAccountController controller = new BankAccountController(
+                mock(BankAccountService.class),
+                new ShardedAccountBalanceService(16, 1_000, 100.0, 500.0),
+                mock(TransactionIngestService.class),
+                mock(TransactionAggregator.class),
+                mock(AuditServiceImpl.class),
+                mock(BalanceStream.class));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    public void accountTransactionsAreAppliedAndServedBack() throws Exception {
+        mockMvc.perform(get("/account/ACC12345/balance"))
+                .andExpect(status().isNotFound());
+
+        postTransaction("ACC12345", "{\"id\":\"T1\",\"amount\":250.50,\"transactionType\":\"CREDIT\"}")
+                .andExpect(status().isOk())
+                .andExpect(content().string("\"ACCEPTED\""));
+        postTransaction("ACC12345", "{\"id\":\"T2\",\"amount\":50.25,\"transactionType\":\"DEBIT\"}")
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/account/ACC12345/balance"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("200.25"));
+    }
+
+    @Test
+    public void debitsBreakingLimitsAreRejectedWithTheReason() throws Exception {
+        postTransaction("ACC12345", "{\"id\":\"T1\",\"amount\":600,\"transactionType\":\"DEBIT\"}")
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().string("\"REJECTED_DEBIT_LIMIT\""));
+        postTransaction("ACC12345", "{\"id\":\"T2\",\"amount\":150,\"transactionType\":\"DEBIT\"}")
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().string("\"REJECTED_OVERDRAFT\""));
+    }
+
+    @Test
+    public void invalidRequestsAreBadRequests() throws Exception {
+        postTransaction("ACC1234", "{\"id\":\"T1\",\"amount\":1,\"transactionType\":\"CREDIT\"}")
+                .andExpect(status().isBadRequest());
+        postTransaction("ACC12345", "{\"amount\":1,\"transactionType\":\"CREDIT\"}")
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void lostForwardedOutcomesAreDistinctFromUnavailableOwners() throws Exception {
+        final AccountBalanceService partitioned = mock(AccountBalanceService.class);
+        when(partitioned.processTransaction(eq("ACC11111"), any()))
+                .thenThrow(new OutcomeUnknownException("outcome unknown", new IOException("read timed out")));
+        when(partitioned.processTransaction(eq("ACC22222"), any()))
+                .thenThrow(new UncheckedIOException(new IOException("connection refused")));
+        mockMvc = MockMvcBuilders.standaloneSetup(new BankAccountController(mock(BankAccountService.class),
+                partitioned, mock(TransactionIngestService.class), mock(TransactionAggregator.class),
+                mock(AuditServiceImpl.class), mock(BalanceStream.class))).build();
+
+        postTransaction("ACC11111", "{\"id\":\"T1\",\"amount\":1,\"transactionType\":\"CREDIT\"}")
+                .andExpect(status().isGatewayTimeout());
+        postTransaction("ACC22222", "{\"id\":\"T2\",\"amount\":1,\"transactionType\":\"CREDIT\"}")
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    private ResultActions postTransaction(final String accountNumber, final String body) throws Exception {
+        return mockMvc.perform(post("/account/{accountNumber}/transactions", accountNumber)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}
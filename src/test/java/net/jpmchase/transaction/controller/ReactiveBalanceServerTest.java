@@ -0,0 +1,164 @@
+package net.jpmchase.transaction.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpmchase.transaction.model.BalanceSnapshot;
+import net.jpmchase.transaction.service.BankAccountService;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ReactiveBalanceServerTest {
+
+    private static final int STREAMS = 300;
+
+    private final BankAccountService bankAccountService = mock(BankAccountService.class);
+    private final AtomicReference<BalanceSnapshot> published =
+            new AtomicReference<>(BalanceSnapshot.of(1, 100L, 1, -1));
+    private ReactiveBalanceRoutes routes;
+    private ReactiveBalanceServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void setUp() {
+        when(bankAccountService.retrieveBalanceSnapshot()).thenAnswer(invocation -> published.get());
+        when(bankAccountService.retrieveBalance()).thenAnswer(invocation -> published.get().balance());
+        start(STREAMS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+    }
+
+    private void start(final int maxSubscribers) {
+        if (server != null) server.close();
+        routes = new ReactiveBalanceRoutes(bankAccountService, new TransactionAggregator(), new ObjectMapper(), 10L,
+                60_000L, maxSubscribers, Schedulers.parallel());
+        server = new ReactiveBalanceServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, routes,
+                new ObjectMapper());
+        client = HttpClient.create(ConnectionProvider.newConnection())
+                .baseUrl("http://127.0.0.1:" + server.localAddress().getPort());
+    }
+
+    private void awaitSubscribers(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (routes.subscriberCount() != count) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + count + " subscribers");
+            Thread.sleep(5);
+        }
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            final TransactionAggregator aggregator = new TransactionAggregator();
+            final ObjectMapper objectMapper = new ObjectMapper();
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new ReactiveBalanceRoutes(null, aggregator, objectMapper, 1L, 1L, 1,
+                            Schedulers.parallel()))
+                    .withMessage("bankAccountService must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ReactiveBalanceRoutes(bankAccountService, aggregator, objectMapper, 0L, 1L,
+                            1, Schedulers.parallel()))
+                    .withMessage("intervalMillis must be positive");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ReactiveBalanceRoutes(bankAccountService, aggregator, objectMapper, 1L, 1L,
+                            0, Schedulers.parallel()))
+                    .withMessage("maxSubscribers must be positive");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ReactiveBalanceServer(new InetSocketAddress(0), 0, routes, objectMapper))
+                    .withMessage("eventLoopThreads must be positive");
+        }
+    }
+
+    @Test
+    public void balanceReadsAreServed() {
+        assertEquals("1.0", client.get().uri("/account/balance").responseContent().aggregate().asString()
+                .block(Duration.ofSeconds(5)));
+        assertThat(client.get().uri("/account/balance/snapshot").responseContent().aggregate().asString()
+                .block(Duration.ofSeconds(5)))
+                .contains("\"version\":1", "\"balanceInMinorUnits\":100");
+        assertThat(client.get().uri("/account/aggregates").responseContent().aggregate().asString()
+                .block(Duration.ofSeconds(5)))
+                .startsWith("[");
+    }
+
+    @Test
+    public void manyOpenStreamsShareOneEventLoopAndAllReceiveChanges() throws InterruptedException {
+        final CountDownLatch first = new CountDownLatch(STREAMS);
+        final CountDownLatch changed = new CountDownLatch(STREAMS);
+        final List<Disposable> streams = new ArrayList<>();
+        for (int i = 0; i < STREAMS; i++) {
+            streams.add(client.get().uri("/account/balance/stream").responseContent().asString()
+                    .subscribe(chunk -> {
+                        if (chunk.contains("id:1")) first.countDown();
+                        if (chunk.contains("id:2")) changed.countDown();
+                    }));
+        }
+        try {
+            assertTrue(first.await(20, TimeUnit.SECONDS), "every stream receives the current balance");
+            awaitSubscribers(STREAMS);
+
+            published.set(BalanceSnapshot.of(2, 200L, 2, -1));
+
+            assertTrue(changed.await(20, TimeUnit.SECONDS), "every stream receives the change");
+        } finally {
+            streams.forEach(Disposable::dispose);
+        }
+        awaitSubscribers(0);
+    }
+
+    @Test
+    public void streamsAreLimited() throws InterruptedException {
+        start(2);
+        final List<Disposable> streams = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            streams.add(client.get().uri("/account/balance/stream").responseContent().subscribe());
+        }
+        try {
+            awaitSubscribers(2);
+
+            assertEquals(503, client.get().uri("/account/balance/stream").response()
+                    .map(response -> response.status().code())
+                    .block(Duration.ofSeconds(5)));
+        } finally {
+            streams.forEach(Disposable::dispose);
+        }
+    }
+
+    @Test
+    public void newStreamStartsFromTheLatestBalance() {
+        published.set(BalanceSnapshot.of(7, 700L, 7, -1));
+
+        final String event = client.get().uri("/account/balance/stream").responseContent().asString()
+                .filter(chunk -> chunk.contains("event:balance"))
+                .blockFirst(Duration.ofSeconds(5));
+
+        assertThat(event).contains("id:7", "\"balance\":7.0");
+    }
+}
@@ -0,0 +1,40 @@
+package net.jpmchase.transaction.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    @Test
+    public void convertsBetweenMajorAndMinorUnits() {
+        assertEquals(12_346L, Money.toMinorUnits(123.455));
+        assertEquals(10L, Money.toMinorUnits(0.1));
+        assertEquals(500L, Money.toMinorUnits(5L));
+        assertEquals(-1.5, Money.toMajorUnits(-150L));
+    }
+
+    @Test
+    public void wholeUnitConversionSaturates() {
+        assertEquals(Long.MAX_VALUE, Money.toMinorUnits(Long.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE, Money.toMinorUnits(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void formatsAsPlainDecimal() {
+        assertEquals("123.45", Money.format(12_345L));
+        assertEquals("-0.05", Money.format(-5L));
+    }
+
+    @Test
+    public void summationIsOrderIndependent() {
+        long forwards = 0;
+        long backwards = 0;
+        for (int i = 1; i <= 1_000; i++) {
+            forwards += Money.toMinorUnits(i * 0.01);
+            backwards += Money.toMinorUnits((1_001 - i) * 0.01);
+        }
+        assertEquals(forwards, backwards);
+        assertEquals(500_500L, forwards);
+    }
+}
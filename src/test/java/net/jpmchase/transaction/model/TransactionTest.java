@@ -6,8 +6,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import java.util.function.Supplier;
 
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 import static org.assertj.core.api.Assertions.assertThatNullPointerException;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -30,6 +33,18 @@ class TransactionTest {
                     .withMessage("id must not be null");
         }
 
+        @Test
+        public void idMustFitTheJournal() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new Transaction("x".repeat(49), amount, transactionType))
+                    .withMessage("id must not be longer than 48 bytes");
+
+            // 25 two-byte characters are 50 UTF-8 bytes
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> Transaction.ofMinorUnits("\u00e9".repeat(25), 1L, transactionType))
+                    .withMessage("id must not be longer than 48 bytes");
+        }
+
         @Test
         public void transactionTypeMustNotBeNull(){
             assertThatNullPointerException()
@@ -46,4 +61,46 @@ class TransactionTest {
                         Transaction::getTransactionType)
                 .containsExactly(amount, id, transactionType);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void amountIsHeldInMinorUnits() {
+        final Transaction transaction = new Transaction(id, 0.1 + 0.2, TransactionType.DEBIT);
+        assertThat(transaction)
+                .extracting(Transaction::getAmountInMinorUnits,
+                        Transaction::getSignedAmountInMinorUnits,
+                        Transaction::getAmount)
+                .containsExactly(30L, -30L, 0.3);
+    }
+
+    @Test
+    public void ofMinorUnitsKeepsExactAmount() {
+        assertThat(Transaction.ofMinorUnits(id, 12_345L, transactionType))
+                .extracting(Transaction::getAmountInMinorUnits, Transaction::getAmount)
+                .containsExactly(12_345L, 123.45);
+    }
+
+    @Test
+    public void uuidIdsRenderCanonicallyOnlyWhenAsked() {
+        final UUID uuid = UUID.randomUUID();
+        final Transaction transaction = Transaction.ofUuid(uuid.getMostSignificantBits(),
+                uuid.getLeastSignificantBits(), 100L, transactionType);
+
+        final byte[] encoded = new byte[64];
+        final int length = transaction.encodeId(encoded);
+        assertThat(new String(encoded, 0, length, StandardCharsets.US_ASCII)).isEqualTo(uuid.toString());
+        assertThat(transaction.getIdLength()).isEqualTo(36);
+        assertThat(transaction.hasUuidId()).isTrue();
+        assertThat(transaction.getId()).isEqualTo(uuid.toString());
+    }
+
+    @Test
+    public void stringIdsEncodeAsUtf8() {
+        final Transaction transaction = Transaction.ofMinorUnits("caf\u00e9", 100L, transactionType);
+
+        final byte[] encoded = new byte[64];
+        final int length = transaction.encodeId(encoded);
+        assertThat(new String(encoded, 0, length, StandardCharsets.UTF_8)).isEqualTo("caf\u00e9");
+        assertThat(transaction.getIdLength()).isEqualTo(5);
+        assertThat(transaction.hasUuidId()).isFalse();
+    }
+}
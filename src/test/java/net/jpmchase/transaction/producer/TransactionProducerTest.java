@@ -1,15 +1,21 @@
 package net.jpmchase.transaction.producer;
 
+import net.jpmchase.transaction.enums.TransactionType;
 import net.jpmchase.transaction.model.Transaction;
 import net.jpmchase.transaction.service.BankAccountService;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
+import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,7 +27,30 @@ public class TransactionProducerTest {
 
     @BeforeEach
     public void setUp() {
-        transactionProducer = new TransactionProducer(bankAccountService, 20000L, 500000L);
+        transactionProducer = new TransactionProducer(bankAccountService, 20000L, 500000L, 50L, 2, 0.5, 10L);
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new TransactionProducer(null, 1L, 2L, 50L, 2, 0.5, 10L))
+                    .withMessage("bankAccountService must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new TransactionProducer(bankAccountService, 3L, 2L, 50L, 2, 0.5, 10L))
+                    .withMessage("lowerLimit must not exceed upperLimit");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new TransactionProducer(bankAccountService, 1L, 2L, 50L, 0, 0.5, 10L))
+                    .withMessage("producerCount must be positive");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new TransactionProducer(bankAccountService, 1L, 2L, 50L, 2, 1.5, 10L))
+                    .withMessage("creditRatio must be between 0 and 1");
+        }
     }
 
     @Test
@@ -31,5 +60,52 @@ public class TransactionProducerTest {
         Thread.sleep(100);
         executorService.shutdownNow();
         verify(bankAccountService, atLeastOnce()).processTransaction(any(Transaction.class));
+        transactionProducer.stopProducing();
+    }
+
+    @Test
+    public void producesAmountsWithinLimitsAndConfiguredMix() throws InterruptedException {
+        transactionProducer = new TransactionProducer(bankAccountService, 100L, 200L, 0L, 1, 1.0, 10L);
+        transactionProducer.startProducing();
+        Thread.sleep(50);
+        transactionProducer.stopProducing();
+
+        final ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(bankAccountService, atLeastOnce()).processTransaction(captor.capture());
+        assertThat(captor.getAllValues())
+                .allSatisfy(transaction -> {
+                    assertThat(transaction.getTransactionType()).isEqualTo(TransactionType.CREDIT);
+                    assertThat(transaction.getAmount()).isBetween(100.0, 200.0);
+                    assertThat(UUID.fromString(transaction.getId()).version()).isEqualTo(4);
+                    assertThat(UUID.fromString(transaction.getId()).variant()).isEqualTo(2);
+                });
+    }
+
+    @Test
+    public void holdsTargetRate() throws InterruptedException {
+        transactionProducer = new TransactionProducer(bankAccountService, 1L, 2L, 2_000L, 4, 0.5, 10L);
+        final long start = System.nanoTime();
+        transactionProducer.startProducing();
+        Thread.sleep(500);
+        transactionProducer.stopProducing();
+        final long produced = transactionProducer.producedTransactions();
+        final double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        // the schedule never runs ahead, so the rate cannot exceed the target beyond each worker's first slot;
+        // the lower bound only has to survive a busy machine delaying the workers
+        assertThat(produced).isLessThanOrEqualTo((long) (2_000 * elapsedSeconds) + 4);
+        assertThat(produced / elapsedSeconds).isGreaterThan(1_000.0);
+    }
+
+    @Test
+    public void backsOffWhenTheServiceFails() throws InterruptedException {
+        doThrow(new IllegalStateException("unavailable")).when(bankAccountService).processTransaction(any());
+        transactionProducer = new TransactionProducer(bankAccountService, 1L, 2L, 0L, 1, 0.5, 10L);
+        transactionProducer.startProducing();
+        Thread.sleep(250);
+        transactionProducer.stopProducing();
+
+        verify(bankAccountService, atMost(4)).processTransaction(any(Transaction.class));
+        assertThat(transactionProducer.producedTransactions()).isZero();
     }
 }
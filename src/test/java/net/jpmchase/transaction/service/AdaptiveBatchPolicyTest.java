@@ -0,0 +1,102 @@
+package net.jpmchase.transaction.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.BatchCutReason;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveBatchPolicyTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private AdaptiveBatchPolicy policy;
+
+    @BeforeEach
+    public void setUp() {
+        policy = new AdaptiveBatchPolicy(100_000L, 5L, 200L, 0.05);
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new AdaptiveBatchPolicy(null, 5L, 200L, 0.05))
+                    .withMessage("maxBatchSize must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AdaptiveBatchPolicy(0L, 5L, 200L, 0.05))
+                    .withMessage("maxBatchSize must be positive");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AdaptiveBatchPolicy(100L, 300L, 200L, 0.05))
+                    .withMessage("linger range must be positive and ordered");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AdaptiveBatchPolicy(100L, 5L, 200L, 1.0))
+                    .withMessage("publishOverhead must be between 0 and 1");
+        }
+    }
+
+    @Test
+    public void startsSmallAndFresh() {
+        assertEquals(1L, policy.maxBatchSize());
+        assertEquals(5 * MILLIS, policy.lingerNanos());
+    }
+
+    @Test
+    public void heavyLoadGrowsBatchesUpToTheCeiling() {
+        // 1M tx/s with a 2 ms publish: one batch per 40 ms keeps publishing at 5% of ingest time
+        for (int i = 0; i < 50; i++) {
+            policy.recordCut(BatchCutReason.SIZE, 40_000, 40 * MILLIS, 2 * MILLIS);
+        }
+        assertEquals(40 * MILLIS, policy.lingerNanos());
+        assertThat(policy.maxBatchSize()).isBetween(39_000L, 41_000L);
+
+        for (int i = 0; i < 50; i++) {
+            policy.recordCut(BatchCutReason.SIZE, 100_000, 10 * MILLIS, 8 * MILLIS);
+        }
+        assertEquals(100_000L, policy.maxBatchSize());
+        assertThat(policy.lingerNanos()).isCloseTo(160 * MILLIS, within(MILLIS));
+    }
+
+    @Test
+    public void lightLoadKeepsBatchesSmallAndCutsThemByAge() {
+        // 50 tx/s with a 50 us publish
+        for (int i = 0; i < 50; i++) {
+            policy.recordCut(BatchCutReason.LINGER, 1, 20 * MILLIS, 50_000L);
+        }
+        assertEquals(1L, policy.maxBatchSize());
+        assertEquals(5 * MILLIS, policy.lingerNanos());
+    }
+
+    @Test
+    public void slowDownstreamIsBoundedByMaxLinger() {
+        for (int i = 0; i < 50; i++) {
+            policy.recordCut(BatchCutReason.SIZE, 1_000, 100 * MILLIS, 50 * MILLIS);
+        }
+        assertEquals(200 * MILLIS, policy.lingerNanos());
+        assertThat(policy.maxBatchSize()).isBetween(1_900L, 2_100L);
+    }
+
+    @Test
+    public void decisionsAreExposedAsMetrics() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        policy.bindTo(registry);
+        policy.recordCut(BatchCutReason.LINGER, 10, 100 * MILLIS, MILLIS);
+
+        assertEquals(1.0, registry.get("audit.batch.cuts").tag("reason", "linger").functionCounter().count());
+        assertEquals(2.0, registry.get("audit.batch.policy.size.limit").gauge().value());
+        assertEquals(20.0, registry.get("audit.batch.policy.linger").timeGauge().value(TimeUnit.MILLISECONDS));
+        assertEquals(100.0, registry.get("audit.batch.policy.ingest.rate").gauge().value());
+        assertEquals(1.0, registry.get("audit.batch.policy.publish.latency").timeGauge()
+                .value(TimeUnit.MILLISECONDS));
+    }
+}
@@ -1,16 +1,24 @@
 package net.jpmchase.transaction.service;
 
 import com.google.common.collect.ImmutableList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.BatchCutReason;
 import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.BalanceSnapshot;
 import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.model.WindowAggregate;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
 import net.jpmchase.transaction.service.audit.AuditService;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.util.Arrays;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +30,9 @@ public class BankAccountServiceImplTest {
     private BankAccountService service;
     @Mock
     private AuditService auditService;
+    private SimpleMeterRegistry meterRegistry;
+    private TransactionAggregator aggregator;
+    private TransactionDeduplicator deduplicator;
 
     private final long maxBatchValue = 1000L;
     private final long maxBatchSize = 10L;
@@ -29,7 +40,11 @@ public class BankAccountServiceImplTest {
     @BeforeEach
     public void setUp() {
         auditService = mock(AuditService.class);
-        service = new BankAccountServiceImpl(maxBatchValue, maxBatchSize, auditService);
+        meterRegistry = new SimpleMeterRegistry();
+        aggregator = new TransactionAggregator();
+        deduplicator = new TransactionDeduplicator(1_024);
+        service = new BankAccountServiceImpl(maxBatchValue, BatchPolicy.fixed(maxBatchSize), auditService, aggregator, deduplicator,
+                meterRegistry);
     }
 
     @Nested
@@ -38,16 +53,34 @@ public class BankAccountServiceImplTest {
         @Test
         public void injectedServicesMustNotBeNull() {
             assertThatNullPointerException()
-                    .isThrownBy(() -> new BankAccountServiceImpl(null, maxBatchSize, auditService))
+                    .isThrownBy(() -> new BankAccountServiceImpl(null, BatchPolicy.fixed(maxBatchSize), auditService, aggregator,
+                            deduplicator, meterRegistry))
                     .withMessage("maxBatchValue must not be null");
 
             assertThatNullPointerException()
-                    .isThrownBy(() -> new BankAccountServiceImpl(maxBatchValue, null, auditService))
-                    .withMessage("maxBatchSize must not be null");
+                    .isThrownBy(() -> new BankAccountServiceImpl(maxBatchValue, null, auditService, aggregator,
+                            deduplicator, meterRegistry))
+                    .withMessage("batchPolicy must not be null");
 
             assertThatNullPointerException()
-                    .isThrownBy(() -> new BankAccountServiceImpl(maxBatchValue, maxBatchSize, null))
+                    .isThrownBy(() -> new BankAccountServiceImpl(maxBatchValue, BatchPolicy.fixed(maxBatchSize), null, aggregator,
+                            deduplicator, meterRegistry))
                     .withMessage("auditService must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new BankAccountServiceImpl(maxBatchValue, BatchPolicy.fixed(maxBatchSize), auditService, null,
+                            deduplicator, meterRegistry))
+                    .withMessage("aggregator must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new BankAccountServiceImpl(maxBatchValue, BatchPolicy.fixed(maxBatchSize), auditService, aggregator,
+                            null, meterRegistry))
+                    .withMessage("deduplicator must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new BankAccountServiceImpl(maxBatchValue, BatchPolicy.fixed(maxBatchSize), auditService, aggregator,
+                            deduplicator, null))
+                    .withMessage("meterRegistry must not be null");
             }
     }
 
@@ -84,7 +117,7 @@ public class BankAccountServiceImplTest {
         public void testPublishBatchForAudit_Synchronized() throws InterruptedException {
             Thread t1 = new Thread(() -> service.processTransaction(new Transaction("ACC12345", 100.0,
                     TransactionType.CREDIT)));
-            Thread t2 = new Thread(() -> service.processTransaction(new Transaction("ACC12345", 200.0,
+            Thread t2 = new Thread(() -> service.processTransaction(new Transaction("ACC67890", 200.0,
                     TransactionType.DEBIT)));
             t1.start();
             t2.start();
@@ -97,7 +130,7 @@ public class BankAccountServiceImplTest {
         @Test
         public void testProcessTransaction_ExceptionHandling() {
             Transaction transaction = mock(Transaction.class);
-            doThrow(new RuntimeException("exception")).when(transaction).getAmount();
+            doThrow(new RuntimeException("exception")).when(transaction).getSignedAmountInMinorUnits();
             assertThatExceptionOfType(RuntimeException.class)
                     .isThrownBy(() -> service.processTransaction(transaction))
                     .withMessage("Error occurred while processing transaction: exception");
@@ -106,6 +139,245 @@ public class BankAccountServiceImplTest {
     }
 
 
+    @Nested
+    class ProcessTransactions {
+
+        @Test
+        public void transactionsMustNotBeNull() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> service.processTransactions(null, 0))
+                    .withMessage("transactions must not be null");
+        }
+
+        @Test
+        public void countMustFitTheArray() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> service.processTransactions(new Transaction[2], 3))
+                    .withMessage("count must be between 0 and the array length");
+        }
+
+        @Test
+        public void nullTransactionLeavesBalanceUntouched() {
+            final Transaction[] transactions = {new Transaction("A", 10.0, TransactionType.CREDIT), null};
+            assertThatNullPointerException()
+                    .isThrownBy(() -> service.processTransactions(transactions, 2))
+                    .withMessage("transaction must not be null");
+            assertEquals(0.0, service.retrieveBalance());
+        }
+
+        @Test
+        public void appliesNetDeltaOfTheFirstCountTransactions() {
+            final Transaction[] transactions = {
+                    new Transaction("A", 100.0, TransactionType.CREDIT),
+                    new Transaction("B", 30.5, TransactionType.DEBIT),
+                    new Transaction("C", 999.0, TransactionType.CREDIT)};
+            service.processTransactions(transactions, 2);
+            assertEquals(6_950L, service.retrieveBalanceInMinorUnits());
+            verifyNoInteractions(auditService);
+        }
+
+        @Test
+        public void cutsAuditBatchesAtTheSameBoundariesAsSingleTransactions() {
+            final Transaction[] transactions = new Transaction[25];
+            for (int i = 0; i < transactions.length; i++) {
+                transactions[i] = new Transaction("T" + i, 1.0, TransactionType.CREDIT);
+            }
+            service.processTransactions(transactions, transactions.length);
+
+            verify(auditService).publishBatch(ImmutableList.copyOf(Arrays.asList(transactions).subList(0, 10)), 0);
+            verify(auditService).publishBatch(ImmutableList.copyOf(Arrays.asList(transactions).subList(10, 20)), 1);
+            verify(auditService, times(2)).publishLatencyNanos();
+            verifyNoMoreInteractions(auditService);
+            assertEquals(25.0, service.retrieveBalance());
+        }
+    }
+
+    @Nested
+    class Deduplication {
+
+        @Test
+        public void redeliveredTransactionIsAppliedOnce() {
+            final Transaction transaction = new Transaction(UUID.randomUUID().toString(), 100.0, TransactionType.CREDIT);
+            service.processTransaction(transaction);
+            service.processTransaction(transaction);
+
+            assertEquals(100.0, service.retrieveBalance());
+            assertEquals(1L, service.retrieveBalanceSnapshot().transactionCount());
+            assertEquals(1.0, meterRegistry.get("bank.account.duplicates").counter().count());
+        }
+
+        @Test
+        public void bulkSkipsDuplicatesWithoutTouchingTheCallersArray() {
+            service.processTransaction(new Transaction("A", 1.0, TransactionType.CREDIT));
+            final Transaction[] transactions = new Transaction[12];
+            for (int i = 0; i < transactions.length; i++) {
+                transactions[i] = new Transaction(i % 4 == 0 ? "A" : "T" + i, 1.0, TransactionType.CREDIT);
+            }
+            final Transaction[] original = transactions.clone();
+
+            service.processTransactions(transactions, transactions.length);
+
+            assertArrayEquals(original, transactions);
+            assertEquals(10.0, service.retrieveBalance());
+            assertEquals(3.0, meterRegistry.get("bank.account.duplicates").counter().count());
+            verify(auditService).publishBatch(argThat(batch -> batch.size() == 10
+                    && batch.stream().filter(t -> t.getId().equals("A")).count() == 1), eq(0));
+        }
+    }
+
+    @Nested
+    class BatchPolicyFeedback {
+
+        @Test
+        public void policyLimitAppliesFromTheNextBatch() {
+            final BatchPolicy policy = mock(BatchPolicy.class);
+            when(policy.maxBatchSize()).thenReturn(2L, 3L);
+            when(policy.lingerNanos()).thenReturn(Long.MAX_VALUE);
+            final BankAccountServiceImpl adaptive = new BankAccountServiceImpl(maxBatchValue, policy, auditService,
+                    aggregator, deduplicator, meterRegistry);
+
+            for (int i = 0; i < 5; i++) {
+                adaptive.processTransaction(new Transaction("T" + i, 1.0, TransactionType.CREDIT));
+            }
+
+            verify(policy).recordCut(eq(BatchCutReason.SIZE), eq(2), anyLong(), anyLong());
+            verify(policy).recordCut(eq(BatchCutReason.SIZE), eq(3), anyLong(), anyLong());
+            verify(auditService).publishBatch(any(ImmutableList.class), eq(1));
+        }
+
+        @Test
+        public void valueCeilingIsReportedAsTheReason() {
+            final BatchPolicy policy = mock(BatchPolicy.class);
+            when(policy.maxBatchSize()).thenReturn(100L);
+            when(policy.lingerNanos()).thenReturn(Long.MAX_VALUE);
+            final BankAccountServiceImpl adaptive = new BankAccountServiceImpl(maxBatchValue, policy, auditService,
+                    aggregator, deduplicator, meterRegistry);
+
+            adaptive.processTransaction(new Transaction("T", 1_000.0, TransactionType.CREDIT));
+
+            verify(policy).recordCut(eq(BatchCutReason.VALUE), eq(1), anyLong(), anyLong());
+        }
+
+        @Test
+        public void policyIsFedTheAuditServicePublishLatency() {
+            final BatchPolicy policy = mock(BatchPolicy.class);
+            when(policy.maxBatchSize()).thenReturn(1L);
+            when(policy.lingerNanos()).thenReturn(Long.MAX_VALUE);
+            when(auditService.publishLatencyNanos()).thenReturn(7_000_000L);
+            final BankAccountServiceImpl adaptive = new BankAccountServiceImpl(maxBatchValue, policy, auditService,
+                    aggregator, deduplicator, meterRegistry);
+
+            adaptive.processTransaction(new Transaction("T", 1.0, TransactionType.CREDIT));
+
+            verify(policy).recordCut(eq(BatchCutReason.SIZE), eq(1), anyLong(), eq(7_000_000L));
+        }
+
+        @Test
+        public void lingeringBatchIsCutByAge() {
+            final BatchPolicy policy = mock(BatchPolicy.class);
+            when(policy.maxBatchSize()).thenReturn(100L);
+            when(policy.lingerNanos()).thenReturn(TimeUnit.MILLISECONDS.toNanos(20));
+            try (BankAccountServiceImpl adaptive = new BankAccountServiceImpl(maxBatchValue, policy, auditService,
+                    aggregator, deduplicator, meterRegistry)) {
+                adaptive.processTransaction(new Transaction("T", 1.0, TransactionType.CREDIT));
+
+                verify(auditService, timeout(2_000)).publishBatch(any(ImmutableList.class), eq(0));
+                verify(policy, timeout(2_000)).recordCut(eq(BatchCutReason.LINGER), eq(1), anyLong(), anyLong());
+                assertEquals(0, adaptive.retrieveBalanceSnapshot().lastBatchNumber());
+            }
+        }
+    }
+
+    @Nested
+    class Journaling {
+
+        @Test
+        public void batchStaysPendingWhenJournalingFails() {
+            doThrow(new IllegalStateException("disk full")).doNothing()
+                    .when(auditService).publishBatch(any(ImmutableList.class), eq(0));
+            for (int i = 0; i < maxBatchSize - 1; i++) {
+                service.processTransaction(new Transaction("T" + i, 1.0, TransactionType.CREDIT));
+            }
+            assertThatRuntimeException()
+                    .isThrownBy(() -> service.processTransaction(new Transaction("T9", 1.0, TransactionType.CREDIT)));
+
+            service.processTransaction(new Transaction("T10", 1.0, TransactionType.CREDIT));
+
+            verify(auditService, times(2)).publishBatch(any(ImmutableList.class), eq(0));
+            verify(auditService).publishBatch(argThat(batch -> batch.size() == maxBatchSize + 1), eq(0));
+            assertEquals(0, service.retrieveBalanceSnapshot().lastBatchNumber());
+        }
+
+        @Test
+        public void closeCutsThePendingBatch() {
+            final BatchPolicy policy = mock(BatchPolicy.class);
+            when(policy.maxBatchSize()).thenReturn(100L);
+            when(policy.lingerNanos()).thenReturn(Long.MAX_VALUE);
+            final BankAccountServiceImpl closing = new BankAccountServiceImpl(maxBatchValue, policy, auditService,
+                    aggregator, deduplicator, meterRegistry);
+            closing.processTransaction(new Transaction("A", 1.0, TransactionType.CREDIT));
+            closing.processTransaction(new Transaction("B", 2.0, TransactionType.CREDIT));
+
+            closing.close();
+
+            verify(auditService).publishBatch(argThat(batch -> batch.size() == 2), eq(0));
+            verify(policy).recordCut(eq(BatchCutReason.FLUSH), eq(2), anyLong(), anyLong());
+            verify(auditService).awaitJournaled();
+        }
+    }
+
+    @Nested
+    class Metrics {
+
+        @Test
+        public void countsTransactionsAndBatchCuts() {
+            for (int i = 0; i < maxBatchSize; i++) {
+                service.processTransaction(new Transaction("T" + i, 12.5, TransactionType.CREDIT));
+            }
+            final Transaction[] bulk = {new Transaction("B", 1.0, TransactionType.DEBIT)};
+            service.processTransactions(bulk, 1);
+
+            assertEquals(11.0, meterRegistry.get("bank.account.transactions").counter().count());
+            assertEquals(1L, meterRegistry.get("audit.batch.size").summary().count());
+            assertEquals(10.0, meterRegistry.get("audit.batch.size").summary().totalAmount());
+            assertEquals(125.0, meterRegistry.get("audit.batch.value").summary().totalAmount());
+            assertEquals(1L, meterRegistry.get("bank.account.process").tag("mode", "bulk").timer().count());
+        }
+
+        @Test
+        public void failedBulkCallCountsNothing() {
+            final Transaction failing = mock(Transaction.class);
+            when(failing.getId()).thenReturn("F");
+            doThrow(new RuntimeException("exception")).when(failing).getSignedAmountInMinorUnits();
+            final Transaction[] bulk = {new Transaction("A", 1.0, TransactionType.CREDIT), failing};
+
+            assertThatRuntimeException().isThrownBy(() -> service.processTransactions(bulk, 2));
+
+            assertEquals(0.0, meterRegistry.get("bank.account.transactions").counter().count());
+            assertEquals(0.0, meterRegistry.get("bank.account.duplicates").counter().count());
+            assertEquals(0.0, service.retrieveBalance());
+        }
+
+        @Test
+        public void feedsWindowedAggregates() {
+            service.processTransaction(new Transaction("A", 12.5, TransactionType.CREDIT));
+            final Transaction[] bulk = {new Transaction("B", 2.0, TransactionType.DEBIT)};
+            service.processTransactions(bulk, 1);
+
+            final WindowAggregate minute = aggregator.aggregates().get(1);
+            assertEquals(2L, minute.count());
+            assertEquals(10.5, minute.netFlow());
+        }
+
+        @Test
+        public void samplesSingleTransactionTiming() {
+            for (int i = 0; i < 640; i++) {
+                service.processTransaction(new Transaction("T" + i, 1.0, TransactionType.CREDIT));
+            }
+            assertEquals(10L, meterRegistry.get("bank.account.process").tag("mode", "single").timer().count());
+        }
+    }
+
     @Nested
     class RetrieveBalance {
         @Test
@@ -114,6 +386,40 @@ public class BankAccountServiceImplTest {
             service.processTransaction(new Transaction("ACC12345", 100.0, TransactionType.CREDIT));
             assertEquals(100.0, service.retrieveBalance());
         }
+
+        @Test
+        public void snapshotCarriesCountBatchAndVersion() {
+            final BalanceSnapshot initial = service.retrieveBalanceSnapshot();
+            assertEquals(BalanceSnapshot.of(0, 0, 0, -1), initial);
+
+            for (int i = 0; i < maxBatchSize + 2; i++) {
+                service.processTransaction(new Transaction("T" + i, 2.5, TransactionType.CREDIT));
+            }
+
+            final BalanceSnapshot snapshot = service.retrieveBalanceSnapshot();
+            assertEquals(30.0, snapshot.balance());
+            assertEquals(3_000L, snapshot.balanceInMinorUnits());
+            assertEquals(12L, snapshot.transactionCount());
+            assertEquals(0, snapshot.lastBatchNumber());
+            assertEquals(12L, snapshot.version());
+        }
+
+        @Test
+        public void readersAlwaysSeeAWholePublication() throws InterruptedException {
+            final Thread writer = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    service.processTransaction(new Transaction("T" + i, 1.0, TransactionType.CREDIT));
+                }
+            });
+            writer.start();
+            while (writer.isAlive()) {
+                final BalanceSnapshot snapshot = service.retrieveBalanceSnapshot();
+                assertEquals(snapshot.transactionCount() * 100L, snapshot.balanceInMinorUnits());
+                assertEquals(snapshot.transactionCount() / maxBatchSize - 1, snapshot.lastBatchNumber());
+            }
+            writer.join();
+            assertEquals(50_000.0, service.retrieveBalance());
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package net.jpmchase.transaction.service;
+
+import com.google.common.collect.ImmutableList;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchAccumulatorTest {
+
+    @Test
+    public void tracksValueAndCountIncrementally() {
+        final BatchAccumulator accumulator = new BatchAccumulator(100_000, 10);
+
+        assertFalse(accumulator.add(new Transaction("A", 100.0, TransactionType.CREDIT)));
+        assertFalse(accumulator.add(new Transaction("B", 250.0, TransactionType.DEBIT)));
+
+        assertEquals(35_000L, accumulator.value());
+        assertEquals(2, accumulator.size());
+    }
+
+    @Test
+    public void reportsFullWhenValueLimitReached() {
+        final BatchAccumulator accumulator = new BatchAccumulator(100_000, 10);
+
+        assertFalse(accumulator.add(new Transaction("A", 600.0, TransactionType.CREDIT)));
+        assertTrue(accumulator.add(new Transaction("B", 400.0, TransactionType.CREDIT)));
+    }
+
+    @Test
+    public void reportsFullWhenSizeLimitReached() {
+        final BatchAccumulator accumulator = new BatchAccumulator(100_000, 3);
+
+        assertFalse(accumulator.add(new Transaction("A", 1.0, TransactionType.CREDIT)));
+        assertFalse(accumulator.add(new Transaction("B", 1.0, TransactionType.CREDIT)));
+        assertTrue(accumulator.add(new Transaction("C", 1.0, TransactionType.CREDIT)));
+    }
+
+    @Test
+    public void sizeLimitCanChangeBetweenBatches() {
+        final BatchAccumulator accumulator = new BatchAccumulator(100_000, 3);
+        accumulator.setMaxBatchSize(1);
+
+        assertTrue(accumulator.add(new Transaction("A", 1.0, TransactionType.CREDIT)));
+        assertFalse(accumulator.isValueFull());
+    }
+
+    @Test
+    public void pendingBatchIsKeptUntilCleared() {
+        final BatchAccumulator accumulator = new BatchAccumulator(100_000, 2);
+        final Transaction first = new Transaction("A", 10.0, TransactionType.CREDIT);
+        final Transaction second = new Transaction("B", 20.0, TransactionType.DEBIT);
+        accumulator.add(first);
+        accumulator.add(second);
+
+        final ImmutableList<Transaction> batch = accumulator.pending();
+        assertThat(batch).containsExactly(first, second);
+        assertEquals(2, accumulator.size());
+
+        accumulator.clear();
+        assertThat(batch).containsExactly(first, second);
+        assertEquals(0L, accumulator.value());
+        assertEquals(0, accumulator.size());
+        assertFalse(accumulator.isFull());
+    }
+}
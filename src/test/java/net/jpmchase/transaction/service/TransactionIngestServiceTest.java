@@ -0,0 +1,67 @@
+package net.jpmchase.transaction.service;
+
+import net.jpmchase.transaction.codec.NdjsonTransactionReader;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionIngestServiceTest {
+
+    private TransactionIngestService service;
+    @Mock
+    private BankAccountService bankAccountService;
+
+    @BeforeEach
+    public void setUp() {
+        service = new TransactionIngestService(bankAccountService);
+    }
+
+    @Test
+    public void injectedServiceMustNotBeNull() {
+        assertThatNullPointerException()
+                .isThrownBy(() -> new TransactionIngestService(null))
+                .withMessage("bankAccountService must not be null");
+    }
+
+    @Test
+    public void everyStreamedTransactionIsProcessed() throws IOException {
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2_500; i++) {
+            body.append("{\"id\":\"T").append(i).append("\",\"amount\":1.25,\"transactionType\":\"CREDIT\"}\n");
+        }
+
+        assertEquals(2_500, service.ingest(ndjson(body.toString())));
+        verify(bankAccountService, times(2)).processTransactions(any(Transaction[].class),
+                eq(TransactionIngestService.CHUNK_SIZE));
+        verify(bankAccountService).processTransactions(any(Transaction[].class), eq(452));
+    }
+
+    @Test
+    public void malformedTransactionReportsHowManyWereAccepted() {
+        final String body = """
+                {"id":"A","amount":1,"transactionType":"CREDIT"}
+                {"id":"B","amount":"x","transactionType":"CREDIT"}
+                """;
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> service.ingest(ndjson(body)))
+                .withMessage("Malformed transaction 2: amount must be a number (1 accepted before it)");
+        verify(bankAccountService).processTransactions(any(Transaction[].class), eq(1));
+    }
+
+    private static NdjsonTransactionReader ndjson(final String body) throws IOException {
+        return new NdjsonTransactionReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
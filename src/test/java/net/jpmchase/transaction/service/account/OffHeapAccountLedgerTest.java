@@ -0,0 +1,148 @@
+package net.jpmchase.transaction.service.account;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapAccountLedgerTest {
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void expectedAccountsMustBePositive() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new OffHeapAccountLedger(0))
+                    .withMessage("expectedAccounts must be positive");
+        }
+
+        @Test
+        public void roundedCapacityMustFitOneBuffer() {
+            // 40M accounts need 53.3M slots, rounded up to 2^26 slots of 32 bytes: one byte past Integer.MAX_VALUE
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new OffHeapAccountLedger(40_000_000))
+                    .withMessage("expectedAccounts too large for a single ledger");
+        }
+    }
+
+    @Test
+    public void accountKeysRoundTrip() {
+        final long key = AccountNumbers.encode("ACC12345");
+        assertNotEquals(0L, key);
+        assertEquals("ACC12345", AccountNumbers.decode(key));
+    }
+
+    @Test
+    public void openAndApplyUpdatesAccounts() {
+        final OffHeapAccountLedger ledger = new OffHeapAccountLedger(16);
+        final long first = AccountNumbers.encode("ACC00001");
+        final long second = AccountNumbers.encode("ACC00002");
+
+        assertEquals(TransactionResult.ACCEPTED, apply(ledger, first, 500L));
+        assertEquals(TransactionResult.ACCEPTED, apply(ledger, second, -250L));
+        assertEquals(TransactionResult.ACCEPTED, apply(ledger, first, -300L));
+
+        assertEquals(200L, ledger.balance(first));
+        assertEquals(-250L, ledger.balance(second));
+        assertEquals(2, ledger.size());
+    }
+
+    @Test
+    public void totalBalanceSumsEveryAccount() {
+        final OffHeapAccountLedger ledger = new OffHeapAccountLedger(16);
+        assertEquals(0L, ledger.totalBalance());
+
+        apply(ledger, AccountNumbers.encode("ACC00001"), 500L);
+        apply(ledger, AccountNumbers.encode("ACC00002"), -250L);
+        apply(ledger, AccountNumbers.encode("ACC00001"), 100L);
+
+        assertEquals(350L, ledger.totalBalance());
+    }
+
+    @Test
+    public void probesPastCollisionsUntilFull() {
+        final OffHeapAccountLedger ledger = new OffHeapAccountLedger(100);
+        for (int i = 0; i < ledger.maxAccounts(); i++) {
+            apply(ledger, AccountNumbers.encode(String.format("ACC%05d", i)), i);
+        }
+        for (int i = 0; i < ledger.maxAccounts(); i++) {
+            assertEquals(i, ledger.balance(AccountNumbers.encode(String.format("ACC%05d", i))));
+        }
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> apply(ledger, AccountNumbers.encode("ACCZZZZZ"), 1L))
+                .withMessageContaining("capacity");
+    }
+
+    @Test
+    public void missingAccountIsNotPresent() {
+        final OffHeapAccountLedger ledger = new OffHeapAccountLedger(16);
+        assertFalse(ledger.contains(AccountNumbers.encode("ACC12345")));
+        assertThatExceptionOfType(NoSuchElementException.class)
+                .isThrownBy(() -> ledger.balance(AccountNumbers.encode("ACC12345")))
+                .withMessage("Account number is not present");
+    }
+
+    @Test
+    public void debitsAreCheckedAgainstAccountLimits() {
+        final OffHeapAccountLedger ledger = new OffHeapAccountLedger(16);
+        final int offset = ledger.open(AccountNumbers.encode("ACC12345"), new AccountLimits(1_000L, 5_000L));
+
+        assertEquals(TransactionResult.ACCEPTED, ledger.tryApply(offset, 2_000L));
+        assertEquals(TransactionResult.REJECTED_DEBIT_LIMIT, ledger.tryApply(offset, -5_001L));
+        assertEquals(TransactionResult.ACCEPTED, ledger.tryApply(offset, -3_000L));
+        assertEquals(TransactionResult.REJECTED_OVERDRAFT, ledger.tryApply(offset, -1L));
+        assertEquals(-1_000L, ledger.balance(AccountNumbers.encode("ACC12345")));
+        assertEquals(TransactionResult.ACCEPTED, ledger.tryApply(offset, 50L));
+    }
+
+    @Test
+    public void limitsCanBeReplaced() {
+        final OffHeapAccountLedger ledger = new OffHeapAccountLedger(16);
+        final long key = AccountNumbers.encode("ACC12345");
+        final int offset = ledger.open(key, AccountLimits.UNLIMITED);
+
+        assertEquals(AccountLimits.UNLIMITED, ledger.limits(key));
+        ledger.setLimits(key, new AccountLimits(0L, 100L));
+        assertEquals(new AccountLimits(0L, 100L), ledger.limits(key));
+        assertEquals(TransactionResult.REJECTED_OVERDRAFT, ledger.tryApply(offset, -1L));
+
+        assertThatExceptionOfType(NoSuchElementException.class)
+                .isThrownBy(() -> ledger.limits(AccountNumbers.encode("ACC99999")))
+                .withMessage("Account number is not present");
+    }
+
+    @Test
+    public void footprintStaysWithinNinetyBytesPerAccount() {
+        final OffHeapAccountLedger ledger = new OffHeapAccountLedger(1_000_000);
+        assertThat(ledger.offHeapBytes()).isLessThanOrEqualTo(90L * 1_000_000);
+        assertThat(ledger.maxAccounts()).isGreaterThanOrEqualTo(1_000_000);
+    }
+
+    @Test
+    public void readersSeeBothLimitsOfOneUpdate() throws InterruptedException {
+        final OffHeapAccountLedger ledger = new OffHeapAccountLedger(16);
+        final long key = AccountNumbers.encode("ACC12345");
+        final AccountLimits tight = new AccountLimits(0L, 100L);
+        final AccountLimits loose = new AccountLimits(100L, 0L);
+        ledger.open(key, tight);
+
+        final Thread writer = new Thread(() -> {
+            for (int i = 0; i < 200_000; i++) ledger.setLimits(key, i % 2 == 0 ? loose : tight);
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            assertThat(ledger.limits(key)).isIn(tight, loose);
+        }
+        writer.join();
+    }
+
+    private static TransactionResult apply(final OffHeapAccountLedger ledger, final long key, final long amount) {
+        return ledger.tryApply(ledger.open(key, AccountLimits.UNLIMITED), amount);
+    }
+}
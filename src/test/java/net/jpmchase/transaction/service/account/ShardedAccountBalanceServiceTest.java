@@ -0,0 +1,225 @@
+package net.jpmchase.transaction.service.account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.TotalBalance;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedAccountBalanceServiceTest {
+
+    private ShardedAccountBalanceService service;
+
+    @BeforeEach
+    public void setUp() {
+        service = new ShardedAccountBalanceService(16, 1_000, null, null);
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new ShardedAccountBalanceService(null, 16, null, null))
+                    .withMessage("shardCount must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new ShardedAccountBalanceService(16, null, null, null))
+                    .withMessage("maxAccounts must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ShardedAccountBalanceService(12, 16, null, null))
+                    .withMessage("shardCount must be a positive power of two");
+        }
+
+        @Test
+        public void accountNumberMustBeValid() {
+            final Transaction transaction = new Transaction("T1", 1.0, TransactionType.CREDIT);
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> service.processTransaction(null, transaction))
+                    .withMessage("accountNumber must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> service.processTransaction("ACC1234", transaction))
+                    .withMessage("Account number invalid");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> service.processTransaction("XYZ12345", transaction))
+                    .withMessage("Account number invalid");
+        }
+
+        @Test
+        public void transactionMustNotBeNull() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> service.processTransaction("ACC12345", null))
+                    .withMessage("transaction must not be null");
+        }
+    }
+
+    @Nested
+    class ProcessTransaction {
+
+        @Test
+        public void balancesAreTrackedPerAccount() {
+            service.processTransaction("ACC12345", new Transaction("T1", 100.0, TransactionType.CREDIT));
+            service.processTransaction("ACC12345", new Transaction("T2", 30.0, TransactionType.DEBIT));
+            service.processTransaction("ACC67890", new Transaction("T3", 50.0, TransactionType.DEBIT));
+
+            assertEquals(70.0, service.retrieveBalance("ACC12345"));
+            assertEquals(-50.0, service.retrieveBalance("ACC67890"));
+            assertEquals(2, service.accountCount());
+        }
+
+        @Test
+        public void concurrentWritersAcrossAccountsAreNotLost() throws InterruptedException {
+            final int threads = 8;
+            final int perThread = 10_000;
+            final List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        final String account = String.format("ACC%05d", i % 100);
+                        service.processTransaction(account, new Transaction("T", 1.0, TransactionType.CREDIT));
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            for (final Thread worker : workers) worker.join();
+
+            assertEquals(100, service.accountCount());
+            assertEquals(threads * perThread / 100.0, service.retrieveBalance("ACC00042"));
+        }
+    }
+
+    @Nested
+    class Limits {
+
+        @Test
+        public void limitsMustNotBeNegative() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AccountLimits(-1L, 0L))
+                    .withMessage("overdraftLimit must not be negative");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AccountLimits(0L, -1L))
+                    .withMessage("maxDebit must not be negative");
+        }
+
+        @Test
+        public void rejectedDebitsLeaveTheBalanceUnchanged() {
+            service.setLimits("ACC12345", AccountLimits.of(100.0, 500.0));
+            service.processTransaction("ACC12345", new Transaction("T0", 200.0, TransactionType.CREDIT));
+
+            assertEquals(TransactionResult.ACCEPTED,
+                    service.processTransaction("ACC12345", new Transaction("T1", 300.0, TransactionType.DEBIT)));
+            assertEquals(TransactionResult.REJECTED_DEBIT_LIMIT,
+                    service.processTransaction("ACC12345", new Transaction("T2", 500.01, TransactionType.DEBIT)));
+            assertEquals(TransactionResult.REJECTED_OVERDRAFT,
+                    service.processTransaction("ACC12345", new Transaction("T3", 0.01, TransactionType.DEBIT)));
+
+            assertEquals(-100.0, service.retrieveBalance("ACC12345"));
+            assertEquals(2, service.transactionCount(TransactionResult.ACCEPTED));
+            assertEquals(1, service.transactionCount(TransactionResult.REJECTED_DEBIT_LIMIT));
+            assertEquals(1, service.transactionCount(TransactionResult.REJECTED_OVERDRAFT));
+        }
+
+        @Test
+        public void rejectedFirstDebitDoesNotOpenTheAccount() {
+            service = new ShardedAccountBalanceService(16, 1_000, 0.0, null);
+
+            assertEquals(TransactionResult.REJECTED_OVERDRAFT,
+                    service.processTransaction("ACC12345", new Transaction("T1", 1.0, TransactionType.DEBIT)));
+            assertEquals(0, service.accountCount());
+
+            service.processTransaction("ACC12345", new Transaction("T2", 1.0, TransactionType.CREDIT));
+            assertEquals(new AccountLimits(0L, Long.MAX_VALUE), service.retrieveLimits("ACC12345"));
+        }
+
+        @Test
+        public void concurrentDebitsNeverBreachTheOverdraftLimit() throws InterruptedException {
+            service.setLimits("ACC12345", AccountLimits.of(0.0, 1.0));
+            service.processTransaction("ACC12345", new Transaction("T0", 1_000.0, TransactionType.CREDIT));
+
+            final List<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                workers.add(new Thread(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        service.processTransaction("ACC12345", new Transaction("T", 0.5, TransactionType.DEBIT));
+                    }
+                }));
+            }
+            workers.forEach(Thread::start);
+            for (final Thread worker : workers) worker.join();
+
+            assertEquals(0.0, service.retrieveBalance("ACC12345"));
+            assertEquals(2_001, service.transactionCount(TransactionResult.ACCEPTED));
+            assertEquals(6_000, service.transactionCount(TransactionResult.REJECTED_OVERDRAFT));
+        }
+
+        @Test
+        public void outcomesAreExposedAsMetrics() {
+            final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            service.bindTo(registry);
+            service.setLimits("ACC12345", new AccountLimits(0L, Long.MAX_VALUE));
+            service.processTransaction("ACC12345", new Transaction("T1", 1.0, TransactionType.DEBIT));
+
+            assertEquals(1.0, registry.get("account.transactions").tag("result", "rejected_overdraft")
+                    .functionCounter().count());
+            assertEquals(0.0, registry.get("account.transactions").tag("result", "accepted")
+                    .functionCounter().count());
+            assertEquals(1.0, registry.get("account.count").gauge().value());
+        }
+    }
+
+    @Nested
+    class RetrieveBalance {
+
+        @Test
+        public void unknownAccountIsNotPresent() {
+            assertThatExceptionOfType(NoSuchElementException.class)
+                    .isThrownBy(() -> service.retrieveBalance("ACC99999"))
+                    .withMessage("Account number is not present");
+        }
+
+        @Test
+        public void fractionalAmountsAreExact() {
+            for (int i = 0; i < 10; i++) {
+                service.processTransaction("ACC12345", new Transaction("T" + i, 0.1, TransactionType.CREDIT));
+            }
+            assertEquals(1.0, service.retrieveBalance("ACC12345"));
+        }
+
+        @Test
+        public void alphanumericAccountNumbersAreAccepted() {
+            service.processTransaction("ACCZ9A0B", new Transaction("T1", 5.0, TransactionType.CREDIT));
+            assertEquals(5.0, service.retrieveBalance("ACCZ9A0B"));
+        }
+
+        @Test
+        public void totalBalanceSumsEveryShard() {
+            for (int i = 0; i < 100; i++) {
+                service.processTransaction(String.format("ACC%05d", i),
+                        new Transaction("T" + i, i, i % 2 == 0 ? TransactionType.CREDIT : TransactionType.DEBIT));
+            }
+
+            final TotalBalance total = service.retrieveTotalBalance();
+            assertEquals(-50.0, total.balance());
+            assertEquals(-5_000L, total.balanceInMinorUnits());
+            assertEquals(100L, total.accountCount());
+            assertEquals(1, total.nodesReached());
+            assertThat(total.unreachableNodes()).isEmpty();
+        }
+    }
+}
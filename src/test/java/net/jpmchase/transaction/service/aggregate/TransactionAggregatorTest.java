@@ -0,0 +1,81 @@
+package net.jpmchase.transaction.service.aggregate;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.model.WindowAggregate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionAggregatorTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private TransactionAggregator aggregator;
+
+    @BeforeEach
+    public void setUp() {
+        aggregator = new TransactionAggregator(now::get);
+    }
+
+    @Test
+    public void emptyWindowsReportZeros() {
+        final List<WindowAggregate> aggregates = aggregator.aggregates();
+
+        assertThat(aggregates).extracting(WindowAggregate::window).containsExactly("1s", "1m", "1h");
+        assertThat(aggregates).extracting(WindowAggregate::windowSeconds).containsExactly(1.0, 60.0, 3600.0);
+        assertThat(aggregates).allSatisfy(aggregate -> {
+            assertEquals(0L, aggregate.count());
+            assertEquals(0.0, aggregate.minAmount());
+            assertEquals(0.0, aggregate.maxAmount());
+        });
+    }
+
+    @Test
+    public void aggregatesCreditsDebitsAndExtremes() {
+        aggregator.record(new Transaction("A", 100.0, TransactionType.CREDIT));
+        aggregator.record(new Transaction[]{
+                new Transaction("B", 30.25, TransactionType.DEBIT),
+                new Transaction("C", 5.0, TransactionType.CREDIT),
+                new Transaction("D", 999.0, TransactionType.CREDIT)}, 2);
+
+        final WindowAggregate second = aggregator.aggregates().get(0);
+        assertEquals(3L, second.count());
+        assertEquals(3.0, second.transactionsPerSecond());
+        assertEquals(105.0, second.creditVolume());
+        assertEquals(30.25, second.debitVolume());
+        assertEquals(74.75, second.netFlow());
+        assertEquals(5.0, second.minAmount());
+        assertEquals(100.0, second.maxAmount());
+    }
+
+    @Test
+    public void transactionsAgeOutOfShorterWindowsFirst() {
+        aggregator.record(new Transaction("A", 10.0, TransactionType.CREDIT));
+        now.addAndGet(1_500L);
+        aggregator.record(new Transaction("B", 20.0, TransactionType.DEBIT));
+
+        assertThat(aggregator.aggregates()).extracting(WindowAggregate::count).containsExactly(1L, 2L, 2L);
+
+        now.addAndGet(60_000L);
+        assertThat(aggregator.aggregates()).extracting(WindowAggregate::count).containsExactly(0L, 0L, 2L);
+
+        now.addAndGet(3_600_000L);
+        assertThat(aggregator.aggregates()).extracting(WindowAggregate::count).containsExactly(0L, 0L, 0L);
+    }
+
+    @Test
+    public void recycledBucketsStartFromZero() {
+        aggregator.record(new Transaction("A", 10.0, TransactionType.CREDIT));
+        now.addAndGet(1_000L);
+        aggregator.record(new Transaction("B", 20.0, TransactionType.CREDIT));
+
+        final WindowAggregate second = aggregator.aggregates().get(0);
+        assertEquals(1L, second.count());
+        assertEquals(20.0, second.minAmount());
+    }
+}
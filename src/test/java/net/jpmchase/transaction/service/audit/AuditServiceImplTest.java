@@ -1,27 +1,91 @@
 package net.jpmchase.transaction.service.audit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.BatchReconciliation;
+import net.jpmchase.transaction.model.Reconciliation;
 import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.audit.columnar.ReconciliationQuery;
+import net.jpmchase.transaction.service.audit.journal.JournalCursor;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import net.jpmchase.transaction.service.audit.sink.AuditSink;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class AuditServiceImplTest {
 
     private AuditServiceImpl service;
+    private TransactionJournal journal;
+    private SimpleMeterRegistry meterRegistry;
+    @Mock
+    private AuditSink sink;
+    @TempDir
+    Path journalDirectory;
 
     @BeforeEach
     public void setUp() {
-        service = new AuditServiceImpl();
+        journal = TransactionJournal.open(journalDirectory, 1024);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new AuditServiceImpl(journal, sink, meterRegistry, 4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.close();
+        journal.close();
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void journalMustNotBeNull() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new AuditServiceImpl(null, sink, new SimpleMeterRegistry(), 4))
+                    .withMessage("journal must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new AuditServiceImpl(journal, null, new SimpleMeterRegistry(), 4))
+                    .withMessage("sink must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new AuditServiceImpl(journal, sink, null, 4))
+                    .withMessage("meterRegistry must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AuditServiceImpl(journal, sink, new SimpleMeterRegistry(), 0))
+                    .withMessage("queueCapacity must be positive");
+        }
     }
 
     @Nested
@@ -52,6 +116,7 @@ public class AuditServiceImplTest {
             );
 
             service.publishBatch(transactions, 1);
+            service.awaitJournaled();
             assertEquals(service.getTransactionHistory().size(), transactions.size());
         }
 
@@ -68,9 +133,185 @@ public class AuditServiceImplTest {
             t2.start();
             t1.join();
             t2.join();
+            service.awaitJournaled();
 
             assertEquals(4, service.getTransactionHistory().size());
         }
 
     }
+
+    @Nested
+    class Journaling {
+
+        private final List<Transaction> batch = List.of(new Transaction("ACC12345", 100.0, TransactionType.CREDIT));
+
+        @Test
+        public void batchBoundariesDoNotWaitForTheJournal() throws InterruptedException {
+            final CountDownLatch released = new CountDownLatch(1);
+            final TransactionJournal slowJournal = mock(TransactionJournal.class);
+            when(slowJournal.append(any(), anyInt())).thenAnswer(invocation -> {
+                released.await();
+                return 0L;
+            });
+            final AuditServiceImpl handOff = new AuditServiceImpl(slowJournal, sink, new SimpleMeterRegistry(), 4);
+            try {
+                assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+                    for (int batchNumber = 0; batchNumber < 4; batchNumber++) {
+                        handOff.publishBatch(batch, batchNumber);
+                    }
+                });
+
+                final Thread durable = new Thread(handOff::awaitJournaled);
+                durable.start();
+                durable.join(200);
+                assertTrue(durable.isAlive(), "durability waits for the journal");
+
+                released.countDown();
+                durable.join(2_000);
+                assertFalse(durable.isAlive());
+                final InOrder inOrder = inOrder(slowJournal);
+                for (int batchNumber = 0; batchNumber < 4; batchNumber++) {
+                    inOrder.verify(slowJournal).append(batch, batchNumber);
+                }
+            } finally {
+                released.countDown();
+                handOff.close();
+            }
+        }
+
+        @Test
+        public void failingJournalIsRetriedAndRefusesHandOffsMeanwhile() throws InterruptedException {
+            final AtomicBoolean diskFull = new AtomicBoolean(true);
+            final TransactionJournal failingJournal = mock(TransactionJournal.class);
+            when(failingJournal.append(any(), anyInt())).thenAnswer(invocation -> {
+                if (diskFull.get()) throw new UncheckedIOException(new IOException("disk full"));
+                return 0L;
+            });
+            final AuditServiceImpl handOff = new AuditServiceImpl(failingJournal, sink, new SimpleMeterRegistry(), 4);
+            try {
+                handOff.publishBatch(batch, 0);
+
+                assertThatExceptionOfType(UncheckedIOException.class)
+                        .isThrownBy(handOff::awaitJournaled)
+                        .withMessageContaining("disk full");
+                assertThatExceptionOfType(UncheckedIOException.class)
+                        .isThrownBy(() -> handOff.publishBatch(batch, 1));
+
+                diskFull.set(false);
+
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (true) {
+                    try {
+                        handOff.awaitJournaled();
+                        break;
+                    } catch (final UncheckedIOException e) {
+                        assertTrue(System.nanoTime() < deadline, "the journal is retried");
+                        Thread.sleep(10);
+                    }
+                }
+                verify(failingJournal, atLeast(2)).append(batch, 0);
+                verify(sink, timeout(2_000)).publish(batch, 0);
+            } finally {
+                handOff.close();
+            }
+        }
+    }
+
+    @Nested
+    class Sink {
+
+        @Test
+        public void journaledBatchesAreSentDownstream() {
+            final List<Transaction> transactions = List.of(new Transaction("ACC12345", 100.0, TransactionType.CREDIT));
+
+            service.publishBatch(transactions, 7);
+
+            verify(sink, timeout(2_000)).publish(transactions, 7);
+        }
+
+        @Test
+        public void sinkFailuresAreCountedWithoutLosingTheJournal() {
+            doThrow(new UncheckedIOException(new IOException("connection refused"))).when(sink).publish(any(), anyInt());
+
+            service.publishBatch(List.of(new Transaction("ACC12345", 100.0, TransactionType.CREDIT)), 0);
+            service.publishBatch(List.of(new Transaction("ACC67890", 100.0, TransactionType.CREDIT)), 1);
+            service.awaitJournaled();
+
+            assertEquals(2, service.getTransactionHistory().size());
+            verify(sink, timeout(2_000).times(2)).publish(any(), anyInt());
+            assertEquals(2.0, meterRegistry.get("audit.sink.failures").counter().count());
+        }
+
+        @Test
+        public void publishLatencyIncludesAsynchronousDelivery() {
+            when(sink.deliveryNanos()).thenReturn(5_000_000_000L);
+
+            service.publishBatch(List.of(new Transaction("ACC12345", 100.0, TransactionType.CREDIT)), 0);
+            service.close();
+
+            assertThat(service.publishLatencyNanos()).isGreaterThan(5_000_000_000L);
+        }
+    }
+
+    @Nested
+    class Reconcile {
+
+        @Test
+        public void publishedBatchesAreReconciled() {
+            service.publishBatch(List.of(
+                    new Transaction("ACC12345", 100.0, TransactionType.CREDIT),
+                    new Transaction("ACC67890", 40.0, TransactionType.DEBIT)), 0);
+            service.publishBatch(List.of(new Transaction("ACC12345", 10.0, TransactionType.DEBIT)), 1);
+            service.awaitJournaled();
+
+            assertEquals(Reconciliation.of(2, 1, 10_000L, 2, 5_000L), service.reconcile(ReconciliationQuery.ALL));
+            assertThat(service.reconcileBatches(ReconciliationQuery.of(1, 1, null, null)))
+                    .extracting(BatchReconciliation::netFlow)
+                    .containsExactly(-10.0);
+        }
+
+        @Test
+        public void historyIsReconciledAfterRestart() {
+            service.publishBatch(List.of(new Transaction("ACC12345", 100.0, TransactionType.CREDIT)), 0);
+            service.close();
+
+            final AuditServiceImpl restarted = new AuditServiceImpl(journal, sink, new SimpleMeterRegistry(), 4);
+            try {
+                assertEquals(service.reconcile(ReconciliationQuery.ALL), restarted.reconcile(ReconciliationQuery.ALL));
+                assertEquals(1, restarted.reconcile(ReconciliationQuery.ALL).creditCount());
+            } finally {
+                restarted.close();
+            }
+        }
+    }
+
+    @Nested
+    class History {
+
+        @Test
+        public void historyIsReadBackFromJournal() {
+            service.publishBatch(List.of(new Transaction("ACC12345", 100.0, TransactionType.CREDIT)), 0);
+            service.publishBatch(List.of(new Transaction("ACC67890", 200.0, TransactionType.DEBIT)), 1);
+            service.awaitJournaled();
+
+            assertThat(service.getTransactionHistory())
+                    .extracting(Transaction::getId, Transaction::getAmount, Transaction::getTransactionType)
+                    .containsExactly(tuple("ACC12345", 100.0, TransactionType.CREDIT),
+                            tuple("ACC67890", 200.0, TransactionType.DEBIT));
+        }
+
+        @Test
+        public void historyCanBeScannedByBatch() {
+            for (int batch = 0; batch < 5; batch++) {
+                service.publishBatch(List.of(new Transaction("T" + batch, batch, TransactionType.CREDIT)), batch);
+            }
+            service.awaitJournaled();
+
+            final JournalCursor cursor = service.historyForBatches(2, 3);
+            final List<Integer> batches = new ArrayList<>();
+            while (cursor.next()) batches.add(cursor.batchNumber());
+
+            assertThat(batches).containsExactly(2, 3);
+        }
+    }
 }
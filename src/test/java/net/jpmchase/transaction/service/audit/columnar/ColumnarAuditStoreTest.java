@@ -0,0 +1,211 @@
+package net.jpmchase.transaction.service.audit.columnar;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.BatchReconciliation;
+import net.jpmchase.transaction.model.Reconciliation;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarAuditStoreTest {
+
+    @TempDir
+    Path directory;
+    private TransactionJournal journal;
+    private ColumnarAuditStore store;
+
+    @BeforeEach
+    public void setUp() {
+        journal = TransactionJournal.open(directory, 3);
+        store = new ColumnarAuditStore(journal);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        journal.close();
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void queryBoundsMustBeOrdered() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> ReconciliationQuery.of(5, 4, null, null))
+                    .withMessage("fromBatch must not be after toBatch");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> ReconciliationQuery.of(null, null, 10L, 9L))
+                    .withMessage("fromMillis must not be after toMillis");
+        }
+
+        @Test
+        public void argumentsMustNotBeNull() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new ColumnarAuditStore(null))
+                    .withMessage("journal must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> store.reconcile(null))
+                    .withMessage("query must not be null");
+        }
+    }
+
+    @Test
+    public void emptyStoreReconcilesToZero() {
+        assertEquals(Reconciliation.of(0, 0, 0, 0, 0), store.reconcile(ReconciliationQuery.ALL));
+        assertThat(store.reconcileBatches(ReconciliationQuery.ALL)).isEmpty();
+    }
+
+    @Test
+    public void totalsAreSplitByType() {
+        final long first = journal.append(List.of(
+                Transaction.ofMinorUnits("A", 10_000L, TransactionType.CREDIT),
+                Transaction.ofMinorUnits("B", 2_550L, TransactionType.DEBIT),
+                Transaction.ofMinorUnits("C", 450L, TransactionType.CREDIT)), 0);
+        final long second = journal.append(List.of(Transaction.ofMinorUnits("D", 900L, TransactionType.DEBIT)), 1);
+
+        final Reconciliation reconciliation = store.reconcile(ReconciliationQuery.ALL);
+
+        assertEquals(new Reconciliation(2, 4, 2, 104.5, 2, 34.5, 70.0, 7_000L), reconciliation);
+        assertThat(store.reconcileBatches(ReconciliationQuery.ALL)).containsExactly(
+                new BatchReconciliation(0, first, 2, 104.5, 1, 25.5, 79.0),
+                new BatchReconciliation(1, second, 0, 0.0, 1, 9.0, -9.0));
+    }
+
+    @Test
+    public void batchesSpanningSegmentsAreCountedOnce() {
+        journal.append(List.of(Transaction.ofMinorUnits("A", 100L, TransactionType.CREDIT),
+                Transaction.ofMinorUnits("B", 200L, TransactionType.CREDIT)), 0);
+        journal.append(List.of(Transaction.ofMinorUnits("C", 300L, TransactionType.CREDIT),
+                Transaction.ofMinorUnits("D", 400L, TransactionType.DEBIT),
+                Transaction.ofMinorUnits("E", 500L, TransactionType.CREDIT),
+                Transaction.ofMinorUnits("F", 600L, TransactionType.DEBIT)), 1);
+
+        assertEquals(2, journal.segmentCount());
+        assertEquals(Reconciliation.of(2, 4, 1_100L, 2, 1_000L), store.reconcile(ReconciliationQuery.ALL));
+        assertThat(store.reconcileBatches(ReconciliationQuery.ALL))
+                .extracting(BatchReconciliation::batchNumber, BatchReconciliation::creditCount,
+                        BatchReconciliation::debitCount)
+                .containsExactly(tuple(0, 2L, 0L), tuple(1, 2L, 2L));
+    }
+
+    @Test
+    public void queriesFilterByBatchAndTime() throws InterruptedException {
+        final long[] timestamps = new long[10];
+        for (int batch = 0; batch < 10; batch++) {
+            timestamps[batch] = journal.append(
+                    List.of(Transaction.ofMinorUnits("T" + batch, 100L, TransactionType.CREDIT)), batch);
+            Thread.sleep(2);
+        }
+
+        assertEquals(3, store.reconcile(ReconciliationQuery.of(2, 4, null, null)).transactionCount());
+        assertEquals(2, store.reconcile(ReconciliationQuery.of(null, null, timestamps[5], timestamps[7]))
+                .transactionCount());
+        assertThat(store.reconcileBatches(ReconciliationQuery.of(3, null, null, timestamps[5])))
+                .extracting(BatchReconciliation::batchNumber)
+                .containsExactly(3, 4);
+    }
+
+    @Test
+    public void laterBatchesAreFoldedIntoBuiltColumns() {
+        journal.append(List.of(Transaction.ofMinorUnits("A", 100L, TransactionType.CREDIT)), 0);
+        assertEquals(1, store.reconcile(ReconciliationQuery.ALL).transactionCount());
+
+        journal.append(List.of(Transaction.ofMinorUnits("B", 200L, TransactionType.CREDIT),
+                Transaction.ofMinorUnits("C", 50L, TransactionType.DEBIT)), 1);
+
+        assertEquals(Reconciliation.of(2, 2, 300L, 1, 50L), store.reconcile(ReconciliationQuery.ALL));
+    }
+
+    @Test
+    public void parallelReconcileMatchesALinearScan(@TempDir final Path largeDirectory) {
+        final TransactionJournal large = TransactionJournal.open(largeDirectory, 1 << 15);
+        final Random random = new Random(42);
+        long credits = 0;
+        long debits = 0;
+        int debitCount = 0;
+        for (int batch = 0; batch < 40; batch++) {
+            final List<Transaction> transactions = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                final long amount = random.nextInt(1_000_000);
+                final boolean debit = random.nextBoolean();
+                transactions.add(Transaction.ofMinorUnits("T", amount,
+                        debit ? TransactionType.DEBIT : TransactionType.CREDIT));
+                if (debit) {
+                    debits += amount;
+                    debitCount++;
+                } else {
+                    credits += amount;
+                }
+            }
+            large.append(transactions, batch);
+        }
+
+        assertEquals(Reconciliation.of(40, 400_000 - debitCount, credits, debitCount, debits),
+                new ColumnarAuditStore(large).reconcile(ReconciliationQuery.ALL));
+        large.close();
+    }
+
+    @Test
+    public void sealedColumnsAreReusedAfterRestart() throws IOException {
+        for (int batch = 0; batch < 4; batch++) {
+            journal.append(List.of(
+                    Transaction.ofMinorUnits("C" + batch, 100L + batch, TransactionType.CREDIT),
+                    Transaction.ofMinorUnits("D" + batch, 50L, TransactionType.DEBIT)), batch);
+        }
+        final Reconciliation reconciliation = store.reconcile(ReconciliationQuery.ALL);
+        final List<BatchReconciliation> batches = store.reconcileBatches(ReconciliationQuery.ALL);
+        journal.close();
+
+        journal = TransactionJournal.open(directory, 3);
+        final ColumnarAuditStore restarted = new ColumnarAuditStore(journal);
+
+        assertThat(columnFiles()).hasSize(3);
+        assertEquals(reconciliation, restarted.reconcile(ReconciliationQuery.ALL));
+        assertEquals(batches, restarted.reconcileBatches(ReconciliationQuery.ALL));
+    }
+
+    @Test
+    public void columnsOfAReplacedJournalAreRebuilt() throws IOException {
+        journal.append(List.of(Transaction.ofMinorUnits("A", 100L, TransactionType.CREDIT),
+                Transaction.ofMinorUnits("B", 200L, TransactionType.CREDIT),
+                Transaction.ofMinorUnits("C", 300L, TransactionType.CREDIT)), 0);
+        store.reconcile(ReconciliationQuery.ALL);
+        journal.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : files.filter(file -> file.toString().endsWith(".journal")).toList()) {
+                Files.delete(file);
+            }
+        }
+
+        journal = TransactionJournal.open(directory, 3);
+        journal.append(List.of(Transaction.ofMinorUnits("X", 5L, TransactionType.DEBIT),
+                Transaction.ofMinorUnits("Y", 6L, TransactionType.DEBIT),
+                Transaction.ofMinorUnits("Z", 7L, TransactionType.DEBIT)), 0);
+
+        assertEquals(Reconciliation.of(1, 0, 0L, 3, 18L),
+                new ColumnarAuditStore(journal).reconcile(ReconciliationQuery.ALL));
+    }
+
+    private List<Path> columnFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("columns-")).toList();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package net.jpmchase.transaction.service.audit.journal;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void openArgumentsMustBeValid() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> TransactionJournal.open(null, 16))
+                    .withMessage("directory must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> TransactionJournal.open(directory, 0))
+                    .withMessage("recordsPerSegment out of range");
+        }
+    }
+
+    @Test
+    public void recordsRoundTripAcrossSegments() {
+        final TransactionJournal journal = TransactionJournal.open(directory, 4);
+        for (int batch = 0; batch < 5; batch++) {
+            journal.append(List.of(
+                    Transaction.ofMinorUnits("C" + batch, 100L + batch, TransactionType.CREDIT),
+                    Transaction.ofMinorUnits("D" + batch, 50L, TransactionType.DEBIT)), batch);
+        }
+
+        assertEquals(10, journal.recordCount());
+        assertEquals(3, journal.segmentCount());
+
+        final JournalCursor cursor = journal.cursor();
+        long net = 0;
+        int records = 0;
+        while (cursor.next()) {
+            assertEquals(records, cursor.position());
+            assertEquals(records / 2, cursor.batchNumber());
+            assertThat(cursor.timestampMillis()).isPositive();
+            net += cursor.signedAmountInMinorUnits();
+            records++;
+        }
+        assertEquals(10, records);
+        assertEquals(5 * 100 + 10 - 5 * 50, net);
+    }
+
+    @Test
+    public void lastBatchNumberFollowsAppends() {
+        final TransactionJournal journal = TransactionJournal.open(directory, 2);
+        assertEquals(-1, journal.lastBatchNumber());
+
+        journal.append(List.of(new Transaction("T1", 1.0, TransactionType.CREDIT)), 3);
+        journal.append(List.of(new Transaction("T2", 1.0, TransactionType.CREDIT),
+                new Transaction("T3", 1.0, TransactionType.CREDIT)), 4);
+
+        assertEquals(4, journal.lastBatchNumber());
+    }
+
+    @Test
+    public void longestAcceptedIdsFitTheRecord() {
+        final TransactionJournal journal = TransactionJournal.open(directory, 4);
+        final String longest = "x".repeat(Transaction.MAX_ID_BYTES);
+        final String longestUtf8 = "\u00e9".repeat(Transaction.MAX_ID_BYTES / 2);
+        journal.append(List.of(new Transaction(longest, 1.0, TransactionType.CREDIT),
+                new Transaction(longestUtf8, 1.0, TransactionType.CREDIT)), 0);
+
+        final JournalCursor cursor = journal.cursor();
+        assertTrue(cursor.next());
+        assertEquals(longest, cursor.id());
+        assertTrue(cursor.next());
+        assertEquals(longestUtf8, cursor.id());
+    }
+
+    @Test
+    public void cursorReadsUtf8Ids() {
+        final TransactionJournal journal = TransactionJournal.open(directory, 4);
+        journal.append(List.of(new Transaction("pay-£5", 5.0, TransactionType.CREDIT)), 0);
+
+        final JournalCursor cursor = journal.cursor();
+        assertTrue(cursor.next());
+        assertEquals("pay-£5", cursor.toTransaction().getId());
+        assertEquals(500L, cursor.toTransaction().getAmountInMinorUnits());
+    }
+
+    @Test
+    public void batchRangeSkipsOtherBatches() {
+        final TransactionJournal journal = TransactionJournal.open(directory, 2);
+        for (int batch = 0; batch < 10; batch++) {
+            journal.append(List.of(new Transaction("T" + batch, 1.0, TransactionType.CREDIT)), batch);
+        }
+
+        final JournalCursor cursor = journal.batches(4, 6);
+        final List<String> ids = new ArrayList<>();
+        while (cursor.next()) ids.add(cursor.id());
+
+        assertThat(ids).containsExactly("T4", "T5", "T6");
+    }
+
+    @Test
+    public void reopenedJournalContinuesAfterExistingRecords() {
+        TransactionJournal journal = TransactionJournal.open(directory, 4);
+        journal.append(List.of(new Transaction("A", 1.0, TransactionType.CREDIT),
+                new Transaction("B", 2.0, TransactionType.CREDIT),
+                new Transaction("C", 3.0, TransactionType.CREDIT)), 0);
+        journal.close();
+
+        journal = TransactionJournal.open(directory, 4);
+        assertEquals(3, journal.recordCount());
+        journal.append(List.of(new Transaction("D", 4.0, TransactionType.DEBIT),
+                new Transaction("E", 5.0, TransactionType.DEBIT)), 1);
+
+        final JournalCursor cursor = journal.cursor(3);
+        final List<String> ids = new ArrayList<>();
+        while (cursor.next()) ids.add(cursor.id());
+        assertThat(ids).containsExactly("D", "E");
+        assertEquals(2, journal.segmentCount());
+    }
+
+    @Test
+    public void tornTailIsDroppedOnReopen() throws IOException {
+        TransactionJournal journal = TransactionJournal.open(directory, 8);
+        journal.append(List.of(new Transaction("A", 1.0, TransactionType.CREDIT)), 0);
+        journal.append(List.of(new Transaction("B", 2.0, TransactionType.CREDIT)), 1);
+        journal.close();
+        corrupt(directory.resolve(String.format("segment-%020d.journal", 0)), JournalRecords.RECORD_BYTES + 8);
+
+        journal = TransactionJournal.open(directory, 8);
+        assertEquals(1, journal.recordCount());
+    }
+
+    @Test
+    public void tornBatchIsDroppedWholeOnReopen() throws IOException {
+        TransactionJournal journal = TransactionJournal.open(directory, 4);
+        journal.append(List.of(new Transaction("A", 1.0, TransactionType.CREDIT),
+                new Transaction("B", 2.0, TransactionType.CREDIT)), 0);
+        journal.append(List.of(new Transaction("C", 3.0, TransactionType.CREDIT),
+                new Transaction("D", 4.0, TransactionType.CREDIT),
+                new Transaction("E", 5.0, TransactionType.CREDIT)), 1);
+        journal.close();
+        corrupt(directory.resolve(String.format("segment-%020d.journal", 4)), 8);
+
+        journal = TransactionJournal.open(directory, 4);
+        assertEquals(2, journal.recordCount());
+        assertEquals(0, journal.lastBatchNumber());
+        assertEquals(1, journal.segmentCount());
+
+        journal.append(List.of(new Transaction("F", 6.0, TransactionType.DEBIT)), 1);
+        journal.close();
+        journal = TransactionJournal.open(directory, 4);
+        final JournalCursor cursor = journal.cursor();
+        final List<String> ids = new ArrayList<>();
+        while (cursor.next()) ids.add(cursor.id());
+        assertThat(ids).containsExactly("A", "B", "F");
+    }
+
+    @Test
+    public void tornBatchStraddlingSegmentsIsDroppedWholeOnReopen() throws IOException {
+        TransactionJournal journal = TransactionJournal.open(directory, 4);
+        journal.append(List.of(new Transaction("A", 1.0, TransactionType.CREDIT),
+                new Transaction("B", 2.0, TransactionType.CREDIT)), 0);
+        journal.append(List.of(new Transaction("C", 3.0, TransactionType.CREDIT),
+                new Transaction("D", 4.0, TransactionType.CREDIT),
+                new Transaction("E", 5.0, TransactionType.CREDIT),
+                new Transaction("F", 6.0, TransactionType.CREDIT),
+                new Transaction("G", 7.0, TransactionType.CREDIT)), 1);
+        journal.close();
+        corrupt(directory.resolve(String.format("segment-%020d.journal", 4)), 2L * JournalRecords.RECORD_BYTES + 8);
+
+        journal = TransactionJournal.open(directory, 4);
+        assertEquals(2, journal.recordCount());
+        assertEquals(1, journal.segmentCount());
+        assertThat(ids(journal.cursor())).containsExactly("A", "B");
+
+        journal.append(List.of(new Transaction("H", 8.0, TransactionType.DEBIT)), 1);
+        assertThat(ids(journal.cursor())).containsExactly("A", "B", "H");
+        journal.close();
+
+        journal = TransactionJournal.open(directory, 4);
+        assertEquals(3, journal.recordCount());
+        assertThat(ids(journal.cursor())).containsExactly("A", "B", "H");
+    }
+
+    @Test
+    public void corruptedRecordFailsOnRead() throws IOException {
+        final TransactionJournal journal = TransactionJournal.open(directory, 2);
+        for (int batch = 0; batch < 3; batch++) {
+            journal.append(List.of(new Transaction("T" + batch, 1.0, TransactionType.CREDIT)), batch);
+        }
+        journal.close();
+        corrupt(directory.resolve(String.format("segment-%020d.journal", 0)), 8);
+
+        final JournalCursor cursor = TransactionJournal.open(directory, 2).cursor();
+        assertThatIllegalStateException()
+                .isThrownBy(cursor::next)
+                .withMessage("journal record 0 failed its checksum");
+    }
+
+    @Test
+    public void segmentSizeMustMatchExistingFiles() {
+        TransactionJournal.open(directory, 4)
+                .append(List.of(new Transaction("A", 1.0, TransactionType.CREDIT)), 0);
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> TransactionJournal.open(directory, 8));
+    }
+
+    private static List<String> ids(final JournalCursor cursor) {
+        final List<String> ids = new ArrayList<>();
+        while (cursor.next()) ids.add(cursor.id());
+        return ids;
+    }
+
+    private static void corrupt(final Path file, final long position) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(position);
+            final int value = raf.read();
+            raf.seek(position);
+            raf.write(value ^ 0xFF);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.BackPressurePolicy;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncAuditSinkTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    private final List<Transaction> batch = List.of(
+            new Transaction("ACC12345", 100.0, TransactionType.CREDIT),
+            new Transaction("ACC67890", 200.0, TransactionType.DEBIT));
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            final AuditSink delegate = AuditSink.discarding();
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new AsyncAuditSink(null, 1, BackPressurePolicy.BLOCK, spillDirectory))
+                    .withMessage("delegate must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new AsyncAuditSink(delegate, 0, BackPressurePolicy.BLOCK, spillDirectory))
+                    .withMessage("queueCapacity must be positive");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new AsyncAuditSink(delegate, 1, null, spillDirectory))
+                    .withMessage("backPressurePolicy must not be null");
+        }
+    }
+
+    @Test
+    public void blockPolicyPublishesEveryBatchInOrder() {
+        final RecordingAuditSink delegate = new RecordingAuditSink();
+        final AsyncAuditSink sink = new AsyncAuditSink(delegate, 2, BackPressurePolicy.BLOCK, spillDirectory);
+
+        for (int i = 0; i < 50; i++) sink.publish(batch, i);
+        sink.close();
+
+        assertEquals(range(50), delegate.batchNumbers);
+        assertEquals(50, sink.publishedBatches());
+        assertThat(sink.maxPublishLatencyNanos()).isPositive();
+        assertThat(sink.deliveryNanos()).isPositive();
+    }
+
+    @Test
+    public void dropPolicyCountsDroppedBatches() {
+        final RecordingAuditSink delegate = new RecordingAuditSink();
+        delegate.gate = new CountDownLatch(1);
+        final AsyncAuditSink sink = new AsyncAuditSink(delegate, 1, BackPressurePolicy.DROP, spillDirectory);
+
+        for (int i = 0; i < 10; i++) sink.publish(batch, i);
+        delegate.gate.countDown();
+        sink.close();
+
+        assertThat(sink.droppedBatches()).isPositive();
+        assertEquals(10, sink.droppedBatches() + delegate.batchNumbers.size());
+    }
+
+    @Test
+    public void spillPolicyDeliversSpilledBatchesInOrder() {
+        final RecordingAuditSink delegate = new RecordingAuditSink();
+        delegate.gate = new CountDownLatch(1);
+        final AsyncAuditSink sink = new AsyncAuditSink(delegate, 1, BackPressurePolicy.SPILL, spillDirectory);
+
+        for (int i = 0; i < 10; i++) sink.publish(batch, i);
+        assertThat(sink.spilledBatches()).isPositive();
+        delegate.gate.countDown();
+        sink.close();
+
+        assertEquals(range(10), delegate.batchNumbers);
+        assertEquals(0, sink.spilledBatches());
+        assertEquals(0, sink.droppedBatches());
+        assertEquals(200.0, delegate.lastBatch.get(1).getAmount());
+        assertEquals("ACC67890", delegate.lastBatch.get(1).getId());
+    }
+
+    @Test
+    public void bindsQueueMetrics() {
+        final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        final AsyncAuditSink sink = new AsyncAuditSink(new RecordingAuditSink(), 4,
+                BackPressurePolicy.BLOCK, spillDirectory);
+        sink.bindTo(registry);
+
+        for (int i = 0; i < 3; i++) sink.publish(batch, i);
+        sink.close();
+
+        assertEquals(3.0, registry.get("audit.async.published").functionCounter().count());
+        assertEquals(0.0, registry.get("audit.async.queue.depth").gauge().value());
+        assertThat(registry.get("audit.async.publish.latency.max").timeGauge().value()).isPositive();
+    }
+
+    private static List<Integer> range(final int count) {
+        final List<Integer> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) numbers.add(i);
+        return numbers;
+    }
+
+    private static class RecordingAuditSink implements AuditSink {
+        private final List<Integer> batchNumbers = Collections.synchronizedList(new ArrayList<>());
+        private volatile List<Transaction> lastBatch;
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @Override
+        public void publish(final List<Transaction> transactions, final int batchNumber) {
+            try {
+                gate.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            batchNumbers.add(batchNumber);
+            lastBatch = transactions;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.jpmchase.transaction.service.audit.sink.SocketAuditSinkTest.assertFrame;
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileAuditSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void constructorArgumentsMustBeValid() {
+            final Path file = directory.resolve("audit.frames");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new FileAuditSink(null, 1, 0L))
+                    .withMessage("file must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new FileAuditSink(file, 10, 0L))
+                    .withMessage("compressionLevel out of range");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new FileAuditSink(file, 1, -1L))
+                    .withMessage("flushIntervalMillis must not be negative");
+        }
+    }
+
+    @Test
+    public void batchesAreReadBackFromTheFile() throws IOException {
+        final Path file = directory.resolve("nested/audit.frames");
+        final List<Transaction> first = List.of(
+                Transaction.ofMinorUnits("ACC12345", 10_000L, TransactionType.CREDIT),
+                Transaction.ofMinorUnits("Zahlung-ü-€", 1L, TransactionType.DEBIT));
+        final List<Transaction> second = List.of(
+                Transaction.ofMinorUnits("ACC67890", 2_550L, TransactionType.DEBIT));
+
+        try (FileAuditSink sink = new FileAuditSink(file, 1, 0L)) {
+            sink.publish(first, 1);
+            sink.publish(second, 2);
+        }
+        try (FileAuditSink sink = new FileAuditSink(file, 1, 60_000L)) {
+            sink.publish(List.of(), 3);
+        }
+
+        final List<AuditFrame> frames = readAll(file);
+        assertEquals(3, frames.size());
+        assertFrame(frames.get(0), 1, first);
+        assertFrame(frames.get(1), 2, second);
+        assertFrame(frames.get(2), 3, List.of());
+    }
+
+    @Test
+    public void bodiesAreCompressed() throws IOException {
+        final Path file = directory.resolve("audit.frames");
+        final List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            batch.add(Transaction.ofMinorUnits(String.format("ACC%05d", i % 100), 1_000L, TransactionType.CREDIT));
+        }
+
+        try (FileAuditSink sink = new FileAuditSink(file, 1, 0L)) {
+            sink.publish(batch, 0);
+        }
+
+        assertThat(Files.size(file)).isLessThan(10_000L * (AuditFrames.RECORD_OVERHEAD + 8) / 4);
+        assertEquals(10_000, readAll(file).get(0).transactions().size());
+    }
+
+    @Test
+    public void corruptOrTornFramesAreDetected() throws IOException {
+        final Path file = directory.resolve("audit.frames");
+        try (FileAuditSink sink = new FileAuditSink(file, 1, 0L)) {
+            sink.publish(List.of(Transaction.ofMinorUnits("ACC12345", 100L, TransactionType.CREDIT)), 0);
+        }
+        final long size = Files.size(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x55}), size - 1);
+        }
+        assertThatExceptionOfType(StreamCorruptedException.class).isThrownBy(() -> readAll(file));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 2);
+        }
+        assertThatExceptionOfType(EOFException.class).isThrownBy(() -> readAll(file));
+    }
+
+    private static List<AuditFrame> readAll(final Path file) throws IOException {
+        final List<AuditFrame> frames = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file)) {
+            AuditFrame frame;
+            while ((frame = AuditFrames.read(channel, true)) != null) {
+                frames.add(frame);
+            }
+        }
+        return frames;
+    }
+}
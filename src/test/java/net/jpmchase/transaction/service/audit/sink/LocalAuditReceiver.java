@@ -0,0 +1,83 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for the downstream audit system: accepts connections one at a time and decodes every frame received.
+ */
+class LocalAuditReceiver implements AutoCloseable {
+    private final ServerSocketChannel server;
+    private final SocketAddress address;
+    private final BlockingQueue<AuditFrame> frames = new LinkedBlockingQueue<>();
+    private final Thread acceptor;
+
+    private LocalAuditReceiver(final ServerSocketChannel server) throws IOException {
+        this.server = server;
+        this.address = server.getLocalAddress();
+        this.acceptor = new Thread(this::receive, "local-audit-receiver");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    static LocalAuditReceiver tcp() {
+        try {
+            return new LocalAuditReceiver(ServerSocketChannel.open()
+                    .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0)));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static LocalAuditReceiver unix(final Path socketFile) {
+        try {
+            Files.deleteIfExists(socketFile);
+            return new LocalAuditReceiver(ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                    .bind(UnixDomainSocketAddress.of(socketFile)));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    SocketAddress address() {
+        return address;
+    }
+
+    /**
+     * Next frame received, or null if none arrives within the timeout.
+     */
+    AuditFrame poll(final long timeoutMillis) throws InterruptedException {
+        return frames.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void receive() {
+        while (server.isOpen()) {
+            try (SocketChannel connection = server.accept()) {
+                AuditFrame frame;
+                while ((frame = AuditFrames.read(connection, false)) != null) {
+                    frames.add(frame);
+                }
+            } catch (final IOException e) {
+                // connection dropped or receiver closed
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        server.close();
+        acceptor.join(1_000L);
+    }
+}
@@ -0,0 +1,170 @@
+package net.jpmchase.transaction.service.audit.sink;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SocketAuditSinkTest {
+
+    private static final List<Transaction> BATCH = List.of(
+            Transaction.ofMinorUnits("ACC12345", 10_000L, TransactionType.CREDIT),
+            Transaction.ofMinorUnits("ACC67890", 2_550L, TransactionType.DEBIT));
+
+    @TempDir
+    Path directory;
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void constructorArgumentsMustBeValid() {
+            final InetSocketAddress address = new InetSocketAddress("localhost", 7070);
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new SocketAuditSink(null, 1_024, 0L, 1_000L))
+                    .withMessage("address must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new SocketAuditSink(address, 0, 0L, 1_000L))
+                    .withMessage("bufferBytes must be positive");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new SocketAuditSink(address, 1_024, -1L, 1_000L))
+                    .withMessage("flushIntervalMillis must not be negative");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new SocketAuditSink(address, 1_024, 0L, 0L))
+                    .withMessage("timeoutMillis must be positive");
+        }
+
+        @Test
+        public void addressesAreParsed() {
+            assertEquals(new InetSocketAddress("localhost", 7070), SocketAuditSink.address("localhost:7070"));
+            assertEquals(UnixDomainSocketAddress.of("/tmp/audit.sock"), SocketAuditSink.address("unix:/tmp/audit.sock"));
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> SocketAuditSink.address("localhost"))
+                    .withMessage("address must be host:port or unix:/path");
+        }
+    }
+
+    @Test
+    public void batchesAreStreamedOverTcp() throws Exception {
+        try (LocalAuditReceiver receiver = LocalAuditReceiver.tcp();
+             SocketAuditSink sink = new SocketAuditSink(receiver.address(), 1_024, 0L, 1_000L)) {
+            sink.publish(BATCH, 1);
+            sink.publish(BATCH.subList(0, 1), 2);
+
+            assertFrame(receiver.poll(5_000L), 1, BATCH);
+            assertFrame(receiver.poll(5_000L), 2, BATCH.subList(0, 1));
+        }
+    }
+
+    @Test
+    public void batchesAreStreamedOverUnixSocket() throws Exception {
+        try (LocalAuditReceiver receiver = LocalAuditReceiver.unix(directory.resolve("audit.sock"));
+             SocketAuditSink sink = new SocketAuditSink(receiver.address(), 1_024, 0L, 1_000L)) {
+            sink.publish(BATCH, 3);
+
+            assertFrame(receiver.poll(5_000L), 3, BATCH);
+        }
+    }
+
+    @Test
+    public void batchesAreCoalescedUntilFlushed() throws Exception {
+        try (LocalAuditReceiver receiver = LocalAuditReceiver.tcp();
+             SocketAuditSink sink = new SocketAuditSink(receiver.address(), 64 * 1_024, 60_000L, 1_000L)) {
+            sink.publish(BATCH, 1);
+            sink.publish(BATCH, 2);
+            assertNull(receiver.poll(100L));
+
+            sink.flush();
+            assertFrame(receiver.poll(5_000L), 1, BATCH);
+            assertFrame(receiver.poll(5_000L), 2, BATCH);
+        }
+    }
+
+    @Test
+    public void framesLargerThanTheBufferAreSentDirectly() throws Exception {
+        try (LocalAuditReceiver receiver = LocalAuditReceiver.tcp();
+             SocketAuditSink sink = new SocketAuditSink(receiver.address(), 16, 60_000L, 1_000L)) {
+            sink.publish(BATCH, 1);
+
+            assertFrame(receiver.poll(5_000L), 1, BATCH);
+        }
+    }
+
+    @Test
+    public void unreachableReceiverFailsThePublish() throws Exception {
+        final LocalAuditReceiver receiver = LocalAuditReceiver.tcp();
+        receiver.close();
+
+        try (SocketAuditSink sink = new SocketAuditSink(receiver.address(), 1_024, 0L, 1_000L)) {
+            assertThatExceptionOfType(UncheckedIOException.class)
+                    .isThrownBy(() -> sink.publish(BATCH, 1))
+                    .withMessageStartingWith("Error sending audit frames to");
+        }
+    }
+
+    @Test
+    public void failuresBackOffWithoutReconnecting() throws Exception {
+        final LocalAuditReceiver receiver = LocalAuditReceiver.tcp();
+        receiver.close();
+
+        try (SocketAuditSink sink = new SocketAuditSink(receiver.address(), 1_024, 0L, 1_000L)) {
+            assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(() -> sink.publish(BATCH, 1));
+            assertThatExceptionOfType(UncheckedIOException.class)
+                    .isThrownBy(() -> sink.publish(BATCH, 2))
+                    .withMessageStartingWith("Error sending audit frames to")
+                    .havingCause()
+                    .withMessageStartingWith("receiver unavailable, next attempt in");
+        }
+    }
+
+    @Test
+    public void stalledReceiverTimesOutTheSend() throws Exception {
+        final List<Transaction> large = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            large.add(Transaction.ofMinorUnits("T" + i, 1L, TransactionType.CREDIT));
+        }
+        // accepts connections in the kernel backlog but never reads
+        try (ServerSocketChannel stalled = ServerSocketChannel.open()
+                .setOption(StandardSocketOptions.SO_RCVBUF, 4_096)
+                .bind(new InetSocketAddress("localhost", 0));
+             SocketAuditSink sink = new SocketAuditSink(stalled.getLocalAddress(), 1_024, 0L, 200L)) {
+            final long start = System.nanoTime();
+            assertThatExceptionOfType(UncheckedIOException.class)
+                    .isThrownBy(() -> {
+                        for (int batch = 0; batch < 100; batch++) sink.publish(large, batch);
+                    })
+                    .withCauseInstanceOf(SocketTimeoutException.class);
+            assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(5));
+        }
+    }
+
+    static void assertFrame(final AuditFrame frame, final int batchNumber, final List<Transaction> transactions) {
+        assertNotNull(frame);
+        assertEquals(batchNumber, frame.batchNumber());
+        assertThat(frame.transactions())
+                .extracting(Transaction::getId, Transaction::getAmountInMinorUnits, Transaction::getTransactionType)
+                .containsExactlyElementsOf(transactions.stream()
+                        .map(t -> tuple(t.getId(), t.getAmountInMinorUnits(), t.getTransactionType()))
+                        .toList());
+    }
+}
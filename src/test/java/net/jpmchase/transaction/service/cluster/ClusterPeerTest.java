@@ -0,0 +1,94 @@
+package net.jpmchase.transaction.service.cluster;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.account.AccountNumbers;
+import net.jpmchase.transaction.service.account.ShardedAccountBalanceService;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterPeerTest {
+
+    private static final String ACCOUNT = "ACC12345";
+    private static final long KEY = AccountNumbers.encode(ACCOUNT);
+    private static final Transaction TRANSACTION = new Transaction("T1", 1.0, TransactionType.CREDIT);
+
+    @Test
+    public void staleIdleConnectionIsRetriedOnce() throws IOException {
+        final ShardedAccountBalanceService accounts = new ShardedAccountBalanceService(16, 1_000, null, null);
+        try (ServerSocket oneRequestPerConnection = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             ClusterPeer peer = new ClusterPeer(
+                     (InetSocketAddress) oneRequestPerConnection.getLocalSocketAddress(), 1_000)) {
+            final Thread server = new Thread(() -> {
+                while (!oneRequestPerConnection.isClosed()) {
+                    try (Socket socket = oneRequestPerConnection.accept();
+                         DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                         DataOutputStream out = new DataOutputStream(
+                                 new BufferedOutputStream(socket.getOutputStream()))) {
+                        ClusterProtocol.serve(in.readUnsignedByte(), in, out, accounts);
+                        out.flush();
+                    } catch (final IOException ignored) {
+                        // the listener was closed
+                    }
+                }
+            });
+            server.setDaemon(true);
+            server.start();
+
+            assertEquals(TransactionResult.ACCEPTED,
+                    peer.call(ClusterProtocol.apply(KEY, TRANSACTION), ClusterProtocol::readResult));
+            assertEquals(TransactionResult.ACCEPTED, peer.call(ClusterProtocol.apply(KEY,
+                    new Transaction("T2", 1.0, TransactionType.CREDIT)), ClusterProtocol::readResult));
+
+            assertEquals(2.0, accounts.retrieveBalance(ACCOUNT));
+        }
+    }
+
+    @Test
+    public void unansweredRequestHasAnUnknownOutcome() throws IOException {
+        try (ServerSocket silent = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             ClusterPeer peer = new ClusterPeer((InetSocketAddress) silent.getLocalSocketAddress(), 200)) {
+            final Thread reader = new Thread(() -> {
+                try (Socket socket = silent.accept()) {
+                    new DataInputStream(socket.getInputStream()).readFully(new byte[64]);
+                } catch (final IOException ignored) {
+                    // the peer gives up and closes the connection
+                }
+            });
+            reader.start();
+
+            assertThatExceptionOfType(OutcomeUnknownException.class)
+                    .isThrownBy(() -> peer.call(ClusterProtocol.apply(KEY, TRANSACTION), ClusterProtocol::readResult))
+                    .withMessageContaining("outcome is unknown");
+        }
+    }
+
+    @Test
+    public void unreachableNodeHasNotReceivedTheRequest() throws IOException {
+        final InetSocketAddress closed;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            closed = (InetSocketAddress) socket.getLocalSocketAddress();
+        }
+
+        try (ClusterPeer peer = new ClusterPeer(closed, 200)) {
+            assertThatExceptionOfType(UncheckedIOException.class)
+                    .isThrownBy(() -> peer.call(ClusterProtocol.apply(KEY, TRANSACTION), ClusterProtocol::readResult))
+                    .isNotInstanceOf(OutcomeUnknownException.class)
+                    .withMessageContaining("unreachable");
+        }
+    }
+}
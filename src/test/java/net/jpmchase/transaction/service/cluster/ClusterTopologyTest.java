@@ -0,0 +1,79 @@
+package net.jpmchase.transaction.service.cluster;
+
+import net.jpmchase.transaction.service.account.AccountNumbers;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ClusterTopologyTest {
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void nodesMustBeValid() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> ClusterTopology.parse(null, 0))
+                    .withMessage("nodes must not be blank");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> ClusterTopology.parse("localhost:7101", null))
+                    .withMessage("localNode must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> ClusterTopology.parse("localhost", 0))
+                    .withMessage("node address must be host:port, was 'localhost'");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> ClusterTopology.parse("localhost:7101,localhost:7102", 2))
+                    .withMessage("localNode must index one of the 2 nodes");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new ClusterTopology(List.of(), 0))
+                    .withMessage("nodes must not be empty");
+        }
+    }
+
+    @Test
+    public void parsesNodeList() {
+        final ClusterTopology topology = ClusterTopology.parse("localhost:7101, localhost:7102,10.0.0.3:7103", 1);
+
+        assertEquals(3, topology.nodeCount());
+        assertEquals(1, topology.localNode());
+        assertTrue(topology.isLocal(1));
+        assertFalse(topology.isLocal(0));
+        assertEquals("localhost", topology.localAddress().getHostString());
+        assertEquals(7102, topology.localAddress().getPort());
+        assertEquals(7103, topology.address(2).getPort());
+    }
+
+    @Test
+    public void everyNodeAgreesOnTheOwner() {
+        final String nodes = "localhost:7101,localhost:7102,localhost:7103";
+        final ClusterTopology first = ClusterTopology.parse(nodes, 0);
+        final ClusterTopology third = ClusterTopology.parse(nodes, 2);
+
+        for (int i = 0; i < 1_000; i++) {
+            final long key = AccountNumbers.encode(String.format("ACC%05d", i));
+            assertEquals(first.ownerOf(key), third.ownerOf(key));
+        }
+    }
+
+    @Test
+    public void accountsSpreadEvenlyOverNodes() {
+        final ClusterTopology topology = ClusterTopology.parse("a:1,b:1,c:1,d:1,e:1", 0);
+        final int[] owned = new int[topology.nodeCount()];
+        final int accounts = 100_000;
+        for (int i = 0; i < accounts; i++) {
+            owned[topology.ownerOf(AccountNumbers.encode(String.format("ACC%05d", i)))]++;
+        }
+
+        for (final int count : owned) {
+            assertThat(count).isBetween(accounts / 5 * 95 / 100, accounts / 5 * 105 / 100);
+        }
+    }
+}
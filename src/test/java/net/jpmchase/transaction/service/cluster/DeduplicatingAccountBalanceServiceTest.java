@@ -0,0 +1,69 @@
+package net.jpmchase.transaction.service.cluster;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.account.AccountLimits;
+import net.jpmchase.transaction.service.account.ShardedAccountBalanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeduplicatingAccountBalanceServiceTest {
+
+    private static final String ACCOUNT = "ACC12345";
+
+    private ShardedAccountBalanceService accounts;
+    private DeduplicatingAccountBalanceService service;
+
+    @BeforeEach
+    public void setUp() {
+        accounts = new ShardedAccountBalanceService(16, 1_000, null, null);
+        service = new DeduplicatingAccountBalanceService(accounts, 1_024);
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new DeduplicatingAccountBalanceService(null, 1_024))
+                    .withMessage("delegate must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new DeduplicatingAccountBalanceService(accounts, 0))
+                    .withMessage("windowSize must be positive");
+        }
+    }
+
+    @Test
+    public void acceptedTransactionIsAppliedOnce() {
+        final UUID id = UUID.randomUUID();
+        final Transaction transaction = Transaction.ofUuid(id.getMostSignificantBits(), id.getLeastSignificantBits(),
+                1_000L, TransactionType.CREDIT);
+
+        assertEquals(TransactionResult.ACCEPTED, service.processTransaction(ACCOUNT, transaction));
+        assertEquals(TransactionResult.ACCEPTED, service.processTransaction(ACCOUNT,
+                Transaction.ofMinorUnits(id.toString(), 1_000L, TransactionType.CREDIT)));
+
+        assertEquals(10.0, service.retrieveBalance(ACCOUNT));
+    }
+
+    @Test
+    public void rejectedTransactionIsJudgedAgainWhenResent() {
+        service.setLimits(ACCOUNT, AccountLimits.of(0.0, 50.0));
+        final Transaction debit = new Transaction("T1", 20.0, TransactionType.DEBIT);
+
+        assertEquals(TransactionResult.REJECTED_OVERDRAFT, service.processTransaction(ACCOUNT, debit));
+        service.processTransaction(ACCOUNT, new Transaction("T2", 30.0, TransactionType.CREDIT));
+
+        assertEquals(TransactionResult.ACCEPTED, service.processTransaction(ACCOUNT, debit));
+        assertEquals(10.0, service.retrieveBalance(ACCOUNT));
+    }
+}
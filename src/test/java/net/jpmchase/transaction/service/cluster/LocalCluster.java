@@ -0,0 +1,81 @@
+package net.jpmchase.transaction.service.cluster;
+
+import net.jpmchase.transaction.service.account.AccountNumbers;
+import net.jpmchase.transaction.service.account.ShardedAccountBalanceService;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test harness running a partitioned cluster of several nodes in one JVM, each with its own accounts and its own
+ * {@link ClusterServer} on a free loopback port, talking to each other over real TCP connections. Owned accounts
+ * are deduplicated as in {@code ClusterConfiguration}.
+ */
+final class LocalCluster implements AutoCloseable {
+    static final int TIMEOUT_MILLIS = 1_000;
+
+    static final int DEDUP_WINDOW = 1_024;
+
+    private final List<ShardedAccountBalanceService> owned = new ArrayList<>();
+    private final List<DeduplicatingAccountBalanceService> deduplicated = new ArrayList<>();
+    private final List<ClusterServer> servers = new ArrayList<>();
+    private final List<PartitionedAccountBalanceService> nodes = new ArrayList<>();
+    private final ClusterTopology topology;
+
+    LocalCluster(final int nodeCount) {
+        final List<InetSocketAddress> addresses = new ArrayList<>();
+        for (int node = 0; node < nodeCount; node++) {
+            final ShardedAccountBalanceService accounts = new ShardedAccountBalanceService(16, 10_000, null, null);
+            final DeduplicatingAccountBalanceService applyOnce =
+                    new DeduplicatingAccountBalanceService(accounts, DEDUP_WINDOW);
+            final ClusterServer server = new ClusterServer(
+                    new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), applyOnce);
+            owned.add(accounts);
+            deduplicated.add(applyOnce);
+            servers.add(server);
+            addresses.add(server.localAddress());
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            nodes.add(new PartitionedAccountBalanceService(new ClusterTopology(addresses, node),
+                    deduplicated.get(node), TIMEOUT_MILLIS));
+        }
+        this.topology = new ClusterTopology(addresses, 0);
+    }
+
+    /**
+     * The partitioned service of a node, accepting requests for any account.
+     */
+    PartitionedAccountBalanceService node(final int node) {
+        return nodes.get(node);
+    }
+
+    /**
+     * The accounts a node owns, bypassing routing.
+     */
+    ShardedAccountBalanceService owned(final int node) {
+        return owned.get(node);
+    }
+
+    int ownerOf(final String accountNumber) {
+        return topology.ownerOf(AccountNumbers.encode(accountNumber));
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Take a node off the network, as if its process had died.
+     */
+    void stop(final int node) {
+        servers.get(node).close();
+    }
+
+    @Override
+    public void close() {
+        nodes.forEach(PartitionedAccountBalanceService::close);
+        servers.forEach(ClusterServer::close);
+    }
+}
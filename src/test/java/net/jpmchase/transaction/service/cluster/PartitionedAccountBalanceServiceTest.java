@@ -0,0 +1,279 @@
+package net.jpmchase.transaction.service.cluster;
+
+import net.jpmchase.transaction.enums.TransactionResult;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.TotalBalance;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.account.AccountLimits;
+import net.jpmchase.transaction.service.account.ShardedAccountBalanceService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PartitionedAccountBalanceServiceTest {
+
+    private LocalCluster cluster;
+
+    @BeforeEach
+    public void setUp() {
+        cluster = new LocalCluster(3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cluster.close();
+    }
+
+    private String accountOwnedBy(final int node) {
+        for (int i = 0; ; i++) {
+            final String accountNumber = String.format("ACC%05d", i);
+            if (cluster.ownerOf(accountNumber) == node) return accountNumber;
+        }
+    }
+
+    private static Transaction credit(final String id, final double amount) {
+        return new Transaction(id, amount, TransactionType.CREDIT);
+    }
+
+    private static Transaction debit(final String id, final double amount) {
+        return new Transaction(id, amount, TransactionType.DEBIT);
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            final ClusterTopology topology = new ClusterTopology(List.of(new InetSocketAddress(7101)), 0);
+            final ShardedAccountBalanceService local = new ShardedAccountBalanceService(16, 16, null, null);
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new PartitionedAccountBalanceService(null, local, 1_000))
+                    .withMessage("topology must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new PartitionedAccountBalanceService(topology, null, 1_000))
+                    .withMessage("local must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new PartitionedAccountBalanceService(topology, local, 0))
+                    .withMessage("timeoutMillis must be positive");
+        }
+
+        @Test
+        public void requestsAreValidatedBeforeRouting() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> cluster.node(0).processTransaction("ACC1234", credit("T1", 1.0)))
+                    .withMessage("Account number invalid");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> cluster.node(0).processTransaction(accountOwnedBy(1), null))
+                    .withMessage("transaction must not be null");
+
+            assertEquals(0, cluster.node(0).forwardedCount());
+        }
+    }
+
+    @Nested
+    class Routing {
+
+        @Test
+        public void anyNodeAcceptsAnyAccount() {
+            for (int i = 0; i < 300; i++) {
+                final String accountNumber = String.format("ACC%05d", i % 30);
+                assertEquals(TransactionResult.ACCEPTED,
+                        cluster.node(i % cluster.size()).processTransaction(accountNumber, credit("T" + i, 1.5)));
+            }
+
+            for (int i = 0; i < 30; i++) {
+                final String accountNumber = String.format("ACC%05d", i);
+                for (int node = 0; node < cluster.size(); node++) {
+                    assertEquals(15.0, cluster.node(node).retrieveBalance(accountNumber));
+                }
+            }
+            assertThat(cluster.node(0).forwardedCount()).isPositive();
+        }
+
+        @Test
+        public void eachAccountLivesOnlyOnItsOwner() {
+            for (int i = 0; i < 60; i++) {
+                cluster.node(0).processTransaction(String.format("ACC%05d", i), credit("T" + i, 1.0));
+            }
+
+            long owned = 0;
+            for (int node = 0; node < cluster.size(); node++) {
+                owned += cluster.owned(node).accountCount();
+                for (int i = 0; i < 60; i++) {
+                    final String accountNumber = String.format("ACC%05d", i);
+                    if (cluster.ownerOf(accountNumber) != node) {
+                        final int other = node;
+                        assertThatExceptionOfType(NoSuchElementException.class)
+                                .isThrownBy(() -> cluster.owned(other).retrieveBalance(accountNumber));
+                    }
+                }
+            }
+            assertEquals(60, owned);
+        }
+
+        @Test
+        public void remoteFailuresKeepTheirMeaning() {
+            assertThatExceptionOfType(NoSuchElementException.class)
+                    .isThrownBy(() -> cluster.node(0).retrieveBalance(accountOwnedBy(1)))
+                    .withMessage("Account number is not present");
+
+            assertThatExceptionOfType(NoSuchElementException.class)
+                    .isThrownBy(() -> cluster.node(0).retrieveLimits(accountOwnedBy(2)));
+        }
+
+        @Test
+        public void limitsAreEnforcedByTheOwner() {
+            final String accountNumber = accountOwnedBy(2);
+            cluster.node(0).setLimits(accountNumber, AccountLimits.of(100.0, 80.0));
+
+            assertEquals(AccountLimits.of(100.0, 80.0), cluster.node(1).retrieveLimits(accountNumber));
+            assertEquals(TransactionResult.REJECTED_DEBIT_LIMIT,
+                    cluster.node(1).processTransaction(accountNumber, debit("T1", 90.0)));
+            assertEquals(TransactionResult.ACCEPTED,
+                    cluster.node(1).processTransaction(accountNumber, debit("T2", 70.0)));
+            assertEquals(TransactionResult.REJECTED_OVERDRAFT,
+                    cluster.node(0).processTransaction(accountNumber, debit("T3", 40.0)));
+            assertEquals(-70.0, cluster.owned(2).retrieveBalance(accountNumber));
+        }
+
+        @Test
+        public void concurrentCallersShareConnections() {
+            final List<CompletableFuture<Void>> callers = new ArrayList<>();
+            for (int caller = 0; caller < 4; caller++) {
+                final int entry = caller % cluster.size();
+                final int id = caller;
+                callers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        cluster.node(entry).processTransaction(String.format("ACC%05d", i % 50),
+                                credit(id + "-" + i, 1.0));
+                    }
+                }));
+            }
+            callers.forEach(CompletableFuture::join);
+
+            assertEquals(2_000.0, cluster.node(0).retrieveTotalBalance().balance());
+            for (int i = 0; i < 50; i++) {
+                assertEquals(40.0, cluster.node(2).retrieveBalance(String.format("ACC%05d", i)));
+            }
+        }
+    }
+
+    @Nested
+    class TotalBalances {
+
+        @Test
+        public void gatheredFromEveryNode() {
+            for (int i = 0; i < 100; i++) {
+                cluster.node(i % cluster.size()).processTransaction(String.format("ACC%05d", i),
+                        i % 4 == 0 ? debit("T" + i, 2.0) : credit("T" + i, 1.0));
+            }
+
+            for (int node = 0; node < cluster.size(); node++) {
+                final TotalBalance total = cluster.node(node).retrieveTotalBalance();
+                assertEquals(25.0, total.balance());
+                assertEquals(100L, total.accountCount());
+                assertEquals(3, total.nodesReached());
+                assertThat(total.unreachableNodes()).isEmpty();
+                assertEquals(100L, cluster.node(node).accountCount());
+            }
+        }
+
+        @Test
+        public void scalesToMoreNodes() {
+            try (LocalCluster larger = new LocalCluster(5)) {
+                for (int i = 0; i < 500; i++) {
+                    larger.node(i % larger.size()).processTransaction(String.format("ACC%05d", i), credit("T" + i, 2.0));
+                }
+
+                final TotalBalance total = larger.node(3).retrieveTotalBalance();
+                assertEquals(1_000.0, total.balance());
+                assertEquals(500L, total.accountCount());
+                assertEquals(5, total.nodesReached());
+                for (int node = 0; node < larger.size(); node++) {
+                    assertThat(larger.owned(node).accountCount()).isPositive();
+                }
+            }
+        }
+    }
+
+    @Nested
+    class Failover {
+
+        @Test
+        public void accountsOfAStoppedNodeAreUnavailable() {
+            final String lost = accountOwnedBy(2);
+            final String kept = accountOwnedBy(1);
+            cluster.node(0).processTransaction(lost, credit("T1", 10.0));
+            cluster.node(0).processTransaction(kept, credit("T2", 20.0));
+
+            cluster.stop(2);
+
+            assertThatExceptionOfType(UncheckedIOException.class)
+                    .isThrownBy(() -> cluster.node(0).processTransaction(lost, credit("T3", 1.0)))
+                    .withMessageContaining("unreachable");
+            assertThatExceptionOfType(UncheckedIOException.class)
+                    .isThrownBy(() -> cluster.node(1).retrieveBalance(lost));
+            assertThat(cluster.node(0).forwardFailures()).isPositive();
+
+            assertEquals(TransactionResult.ACCEPTED, cluster.node(0).processTransaction(kept, credit("T4", 5.0)));
+            assertEquals(25.0, cluster.node(0).retrieveBalance(kept));
+        }
+
+        @Test
+        public void resentTransactionIsAppliedOnceByItsOwner() {
+            final String accountNumber = accountOwnedBy(2);
+
+            assertEquals(TransactionResult.ACCEPTED,
+                    cluster.node(0).processTransaction(accountNumber, credit("T1", 10.0)));
+            assertEquals(TransactionResult.ACCEPTED,
+                    cluster.node(1).processTransaction(accountNumber, credit("T1", 10.0)));
+            assertEquals(TransactionResult.ACCEPTED,
+                    cluster.node(2).processTransaction(accountNumber, credit("T1", 10.0)));
+
+            assertEquals(10.0, cluster.owned(2).retrieveBalance(accountNumber));
+        }
+
+        @Test
+        public void totalBalanceReportsUnreachableNodes() {
+            final String lost = accountOwnedBy(2);
+            final String kept = accountOwnedBy(0);
+            cluster.node(1).processTransaction(lost, credit("T1", 10.0));
+            cluster.node(1).processTransaction(kept, credit("T2", 20.0));
+
+            cluster.stop(2);
+
+            final TotalBalance total = cluster.node(0).retrieveTotalBalance();
+            assertEquals(20.0, total.balance());
+            assertEquals(1L, total.accountCount());
+            assertEquals(2, total.nodesReached());
+            assertThat(total.unreachableNodes()).hasSize(1);
+        }
+
+        @Test
+        public void stoppedNodeCanStillServeItsOwnCallers() {
+            final String lost = accountOwnedBy(2);
+            cluster.node(0).processTransaction(lost, credit("T1", 10.0));
+
+            cluster.stop(2);
+
+            assertEquals(10.0, cluster.node(2).retrieveBalance(lost));
+            final TotalBalance total = cluster.node(2).retrieveTotalBalance();
+            assertEquals(3, total.nodesReached());
+        }
+    }
+}
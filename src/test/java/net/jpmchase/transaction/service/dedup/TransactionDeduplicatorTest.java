@@ -0,0 +1,138 @@
+package net.jpmchase.transaction.service.dedup;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionDeduplicatorTest {
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void windowSizeMustBePositive() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new TransactionDeduplicator(null))
+                    .withMessage("windowSize must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new TransactionDeduplicator(0))
+                    .withMessage("windowSize must be positive");
+        }
+
+        @Test
+        public void roundedCapacityMustFitOneBuffer() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new TransactionDeduplicator(40_000_000))
+                    .withMessage("expectedIds too large for a single set");
+        }
+    }
+
+    @Test
+    public void uuidBitsAndTheirTextAreTheSameId() {
+        final TransactionDeduplicator deduplicator = new TransactionDeduplicator(16);
+        final UUID uuid = UUID.randomUUID();
+
+        assertTrue(deduplicator.firstSeen(Transaction.ofUuid(uuid.getMostSignificantBits(),
+                uuid.getLeastSignificantBits(), 1L, TransactionType.CREDIT)));
+        assertFalse(deduplicator.firstSeen(uuid.toString()));
+        assertFalse(deduplicator.firstSeen(Transaction.ofMinorUnits(uuid.toString(), 1L, TransactionType.CREDIT)));
+    }
+
+    @Test
+    public void uuidsMapExactlyOntoTheirBits() {
+        final UUID uuid = UUID.randomUUID();
+        assertEquals(uuid.getMostSignificantBits(), TransactionIds.high(uuid.toString()));
+        assertEquals(uuid.getLeastSignificantBits(), TransactionIds.low(uuid.toString()));
+        assertEquals(uuid.getMostSignificantBits(), TransactionIds.high(uuid.toString().toUpperCase()));
+    }
+
+    @Test
+    public void otherIdsAreHashed() {
+        assertNotEquals(0L, TransactionIds.high("zzzzzzzz-0000-0000-0000-000000000000"));
+        assertNotEquals(0L, TransactionIds.high("0000000\u00e9-0000-0000-0000-000000000000"));
+        assertNotEquals(TransactionIds.high("ACC12345"), TransactionIds.high("ACC12346"));
+        assertNotEquals(TransactionIds.high("ACC12345"), TransactionIds.low("ACC12345"));
+    }
+
+    @Test
+    public void duplicatesAreDetected() {
+        final TransactionDeduplicator deduplicator = new TransactionDeduplicator(16);
+        final String id = UUID.randomUUID().toString();
+
+        assertTrue(deduplicator.firstSeen(id));
+        assertFalse(deduplicator.firstSeen(id));
+        assertTrue(deduplicator.firstSeen("ACC12345"));
+        assertFalse(deduplicator.firstSeen("ACC12345"));
+    }
+
+    @Test
+    public void seenLooksUpWithoutRecording() {
+        final TransactionDeduplicator deduplicator = new TransactionDeduplicator(16);
+        final Transaction transaction = Transaction.ofMinorUnits("ACC12345", 1L, TransactionType.CREDIT);
+
+        assertFalse(deduplicator.seen(transaction));
+        assertFalse(deduplicator.seen(transaction));
+        assertTrue(deduplicator.firstSeen(transaction));
+        assertTrue(deduplicator.seen(transaction));
+        assertFalse(TransactionDeduplicator.disabled().seen(transaction));
+    }
+
+    @Test
+    public void zeroKeyIsTracked() {
+        final TransactionDeduplicator deduplicator = new TransactionDeduplicator(16);
+        final String nil = new UUID(0L, 0L).toString();
+
+        assertTrue(deduplicator.firstSeen(nil));
+        assertFalse(deduplicator.firstSeen(nil));
+    }
+
+    @Test
+    public void rememberAtLeastTheWindow() {
+        final int window = 1_000;
+        final TransactionDeduplicator deduplicator = new TransactionDeduplicator(window);
+
+        for (int i = 0; i < 10 * window; i++) {
+            assertTrue(deduplicator.firstSeen("T" + i));
+            assertFalse(deduplicator.firstSeen("T" + (i - window / 2 > 0 ? i - window / 2 : i)));
+            if (i >= window) assertFalse(deduplicator.firstSeen("T" + (i - window + 1)));
+        }
+        assertTrue(deduplicator.firstSeen("T0"));
+    }
+
+    @Test
+    public void retiredGenerationIsZeroedAsKeysAreAdded() {
+        final OffHeapIdGenerations generations = new OffHeapIdGenerations(4);
+        for (long key = 1; key <= 4; key++) assertTrue(generations.add(0, key, key));
+
+        generations.retire(0);
+        for (long key = 5; key <= 7; key++) generations.add(1, key, key);
+        assertTrue(generations.isClearing(0));
+        generations.add(1, 8L, 8L);
+
+        assertFalse(generations.isClearing(0));
+        for (long key = 1; key <= 4; key++) assertFalse(generations.contains(0, key, key));
+        assertEquals(0, generations.size(0));
+    }
+
+    @Test
+    public void disabledTreatsEveryIdAsNew() {
+        final TransactionDeduplicator deduplicator = TransactionDeduplicator.disabled();
+
+        assertTrue(deduplicator.firstSeen("A"));
+        assertTrue(deduplicator.firstSeen("A"));
+        assertEquals(0L, deduplicator.offHeapBytes());
+    }
+
+    @Test
+    public void footprintStaysOffHeap() {
+        final TransactionDeduplicator deduplicator = new TransactionDeduplicator(1 << 20);
+        assertThat(deduplicator.offHeapBytes()).isLessThanOrEqualTo(128L << 20);
+    }
+}
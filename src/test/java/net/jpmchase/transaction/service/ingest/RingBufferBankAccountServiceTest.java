@@ -0,0 +1,132 @@
+package net.jpmchase.transaction.service.ingest;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RingBufferBankAccountServiceTest {
+
+    private RingBufferBankAccountService service;
+    @Mock
+    private BankAccountService delegate;
+
+    @BeforeEach
+    public void setUp() {
+        service = new RingBufferBankAccountService(delegate, 1024);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        service.close();
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustNotBeNull() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new RingBufferBankAccountService(null, 1024))
+                    .withMessage("delegate must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new RingBufferBankAccountService(delegate, null))
+                    .withMessage("ringBufferSize must not be null");
+        }
+
+        @Test
+        public void transactionMustNotBeNull() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> service.processTransaction(null))
+                    .withMessage("transaction must not be null");
+        }
+    }
+
+    @Test
+    public void consumerAppliesPublishedTransactionsToDelegate() throws InterruptedException {
+        final List<Transaction> applied = recordApplied();
+        final Transaction transaction = new Transaction("ACC12345", 100.0, TransactionType.CREDIT);
+        service.processTransaction(transaction);
+        verify(delegate, timeout(1_000)).processTransactions(any(Transaction[].class), anyInt());
+        service.close();
+        assertThat(applied).containsExactly(transaction);
+    }
+
+    @Test
+    public void consumerSurvivesDelegateFailure() throws InterruptedException {
+        final Transaction failing = new Transaction("A", 1.0, TransactionType.CREDIT);
+        final Transaction next = new Transaction("B", 2.0, TransactionType.CREDIT);
+        final List<Transaction> applied = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            final Transaction[] chunk = invocation.getArgument(0);
+            if (chunk[0] == failing) throw new RuntimeException("boom");
+            applied.addAll(Arrays.asList(chunk).subList(0, invocation.<Integer>getArgument(1)));
+            return null;
+        }).when(delegate).processTransactions(any(Transaction[].class), anyInt());
+
+        service.processTransaction(failing);
+        verify(delegate, timeout(1_000)).processTransactions(any(Transaction[].class), anyInt());
+        service.processTransaction(next);
+
+        verify(delegate, timeout(1_000).times(2)).processTransactions(any(Transaction[].class), anyInt());
+        service.close();
+        assertThat(applied).containsExactly(next);
+    }
+
+    @Test
+    public void closeDrainsPendingTransactions() throws InterruptedException {
+        final List<Transaction> applied = recordApplied();
+        for (int i = 0; i < 500; i++) {
+            service.processTransaction(new Transaction("T" + i, 1.0, TransactionType.DEBIT));
+        }
+        service.close();
+
+        assertThat(applied).hasSize(500);
+        assertEquals(0, service.pendingTransactions());
+    }
+
+    @Test
+    public void bulkPublishPreservesOrder() throws InterruptedException {
+        final List<Transaction> applied = recordApplied();
+        final Transaction[] transactions = new Transaction[3];
+        for (int i = 0; i < transactions.length; i++) {
+            transactions[i] = new Transaction("T" + i, 1.0, TransactionType.CREDIT);
+        }
+        service.processTransactions(transactions, 2);
+        service.close();
+
+        assertThat(applied).containsExactly(transactions[0], transactions[1]);
+    }
+
+    private List<Transaction> recordApplied() {
+        final List<Transaction> applied = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            final Transaction[] chunk = invocation.getArgument(0);
+            applied.addAll(Arrays.asList(chunk).subList(0, invocation.<Integer>getArgument(1)));
+            return null;
+        }).when(delegate).processTransactions(any(Transaction[].class), anyInt());
+        return applied;
+    }
+
+    @Test
+    public void retrieveBalanceDelegates() {
+        when(delegate.retrieveBalance()).thenReturn(42.0);
+        assertEquals(42.0, service.retrieveBalance());
+    }
+}
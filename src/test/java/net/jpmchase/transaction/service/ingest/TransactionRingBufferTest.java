@@ -0,0 +1,89 @@
+package net.jpmchase.transaction.service.ingest;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionRingBufferTest {
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void capacityMustBePowerOfTwo() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new TransactionRingBuffer(1000))
+                    .withMessage("capacity must be a positive power of two");
+        }
+
+        @Test
+        public void transactionMustNotBeNull() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new TransactionRingBuffer(8).publish(null))
+                    .withMessage("transaction must not be null");
+        }
+    }
+
+    @Test
+    public void drainsInPublishOrderAcrossLaps() {
+        final TransactionRingBuffer ringBuffer = new TransactionRingBuffer(4);
+        final Transaction[] sink = new Transaction[3];
+        final List<String> drained = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            ringBuffer.publish(new Transaction("T" + i, i, TransactionType.CREDIT));
+            if (i % 2 == 1) {
+                final int n = ringBuffer.drainTo(sink);
+                for (int j = 0; j < n; j++) drained.add(sink[j].getId());
+            }
+        }
+
+        assertEquals(0, ringBuffer.size());
+        assertThat(drained).containsExactly("T0", "T1", "T2", "T3", "T4", "T5", "T6", "T7", "T8", "T9");
+    }
+
+    @Test
+    public void drainReturnsZeroWhenEmpty() {
+        assertEquals(0, new TransactionRingBuffer(8).drainTo(new Transaction[8]));
+    }
+
+    @Test
+    public void deliversEveryTransactionFromConcurrentProducers() throws InterruptedException {
+        final TransactionRingBuffer ringBuffer = new TransactionRingBuffer(64);
+        final int producers = 4;
+        final int perProducer = 10_000;
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    ringBuffer.publish(new Transaction(producer + "-" + i, 1.0, TransactionType.CREDIT));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        final Set<String> seen = new HashSet<>();
+        final Transaction[] sink = new Transaction[32];
+        while (seen.size() < producers * perProducer) {
+            final int n = ringBuffer.drainTo(sink);
+            for (int i = 0; i < n; i++) {
+                assertTrue(seen.add(sink[i].getId()), "duplicate delivery of " + sink[i].getId());
+            }
+        }
+        for (final Thread thread : threads) thread.join();
+
+        assertEquals(producers * perProducer, seen.size());
+        assertEquals(0, ringBuffer.drainTo(sink));
+    }
+}
@@ -0,0 +1,121 @@
+package net.jpmchase.transaction.service.recovery;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.BatchPolicy;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecoveryServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private TransactionJournal journal;
+    private Path snapshotFile;
+
+    @BeforeEach
+    public void setUp() {
+        journal = TransactionJournal.open(directory.resolve("journal"), 64);
+        snapshotFile = directory.resolve("snapshot.bin");
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            final BankAccountServiceImpl service = newBankAccountService(journal);
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new RecoveryService(null, snapshotFile, service, 1L))
+                    .withMessage("journal must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new RecoveryService(journal, snapshotFile, null, 1L))
+                    .withMessage("bankAccountService must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new RecoveryService(journal, snapshotFile, service, 0L))
+                    .withMessage("snapshotIntervalSeconds must be positive");
+        }
+    }
+
+    @Test
+    public void recoversExactBalanceAndBatchNumberFromJournal() {
+        final BankAccountServiceImpl before = newBankAccountService(journal);
+        final long expected = ingest(before, 1_000, 1);
+
+        final BankAccountServiceImpl after = newBankAccountService(journal);
+        final RecoverySnapshot recovered = new RecoveryService(journal, snapshotFile, after, 60L).recover();
+
+        assertEquals(journal.recordCount(), recovered.journalPosition());
+        assertEquals(expected, after.retrieveBalanceInMinorUnits());
+        assertEquals(before.retrieveBalanceInMinorUnits(), after.retrieveBalanceInMinorUnits());
+        assertEquals(100, recovered.nextBatchNumber());
+    }
+
+    @Test
+    public void replaysOnlyJournalWrittenAfterSnapshot() {
+        final BankAccountServiceImpl first = newBankAccountService(journal);
+        final RecoveryService firstRecovery = new RecoveryService(journal, snapshotFile, first, 60L);
+        firstRecovery.recover();
+        ingest(first, 500, 2);
+        final RecoverySnapshot snapshot = firstRecovery.snapshot();
+        assertEquals(500, snapshot.journalPosition());
+        ingest(first, 330, 3);
+
+        final BankAccountServiceImpl second = newBankAccountService(journal);
+        final RecoverySnapshot recovered = new RecoveryService(journal, snapshotFile, second, 60L).recover();
+
+        assertEquals(first.retrieveBalanceInMinorUnits(), second.retrieveBalanceInMinorUnits());
+        assertEquals(83, recovered.nextBatchNumber());
+
+        second.processTransaction(Transaction.ofMinorUnits("next", 1L, TransactionType.CREDIT));
+        assertEquals(first.retrieveBalanceInMinorUnits() + 1, second.retrieveBalanceInMinorUnits());
+    }
+
+    @Test
+    public void snapshotAheadOfJournalIsRejected() {
+        new SnapshotStore(snapshotFile).write(new RecoverySnapshot(10L, 0L, 0));
+        final RecoveryService recovery = new RecoveryService(journal, snapshotFile, newBankAccountService(journal), 60L);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(recovery::recover)
+                .withMessage("snapshot is ahead of the journal: 10 > 0 records");
+    }
+
+    private BankAccountServiceImpl newBankAccountService(final TransactionJournal journal) {
+        return new BankAccountServiceImpl(Long.MAX_VALUE, BatchPolicy.fixed(10L), journal::append, new TransactionAggregator(),
+                new TransactionDeduplicator(1_024), new SimpleMeterRegistry());
+    }
+
+    private static long ingest(final BankAccountServiceImpl service, final int count, final long seed) {
+        final Random random = new Random(seed);
+        final List<Transaction> transactions = new ArrayList<>();
+        long expected = 0;
+        for (int i = 0; i < count; i++) {
+            final Transaction transaction = Transaction.ofMinorUnits("T" + seed + "-" + i, random.nextInt(1_000_000),
+                    random.nextBoolean() ? TransactionType.CREDIT : TransactionType.DEBIT);
+            transactions.add(transaction);
+            expected += transaction.getSignedAmountInMinorUnits();
+        }
+        transactions.forEach(service::processTransaction);
+        return expected;
+    }
+}
@@ -0,0 +1,45 @@
+package net.jpmchase.transaction.service.recovery;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void missingSnapshotIsEmpty() {
+        assertEquals(Optional.empty(), new SnapshotStore(directory.resolve("snapshot.bin")).read());
+    }
+
+    @Test
+    public void snapshotRoundTrips() {
+        final SnapshotStore store = new SnapshotStore(directory.resolve("snapshot.bin"));
+        store.write(new RecoverySnapshot(10L, -1234L, 3));
+        store.write(new RecoverySnapshot(20L, 5678L, 4));
+
+        assertEquals(Optional.of(new RecoverySnapshot(20L, 5678L, 4)), store.read());
+    }
+
+    @Test
+    public void corruptedSnapshotIsRejected() throws IOException {
+        final Path file = directory.resolve("snapshot.bin");
+        new SnapshotStore(file).write(new RecoverySnapshot(10L, 100L, 1));
+        final byte[] bytes = Files.readAllBytes(file);
+        bytes[6] ^= 0x01;
+        Files.write(file, bytes);
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> new SnapshotStore(file).read())
+                .withMessageContaining("corrupted");
+    }
+}
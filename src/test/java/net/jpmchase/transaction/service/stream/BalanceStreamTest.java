@@ -0,0 +1,251 @@
+package net.jpmchase.transaction.service.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpmchase.transaction.model.BalanceSnapshot;
+import net.jpmchase.transaction.service.BankAccountService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BalanceStreamTest {
+
+    private static final long HEARTBEAT_MILLIS = 1_000L;
+    private static final long SEND_TIMEOUT_MILLIS = 500L;
+
+    @Mock
+    private BankAccountService bankAccountService;
+
+    private final AtomicLong now = new AtomicLong();
+    private BalanceStream stream;
+
+    @BeforeEach
+    public void setUp() {
+        stream = new BalanceStream(bankAccountService, new ObjectMapper(), HEARTBEAT_MILLIS, 2, SEND_TIMEOUT_MILLIS,
+                now::get, Runnable::run);
+    }
+
+    /**
+     * Emitter that records the text of every event instead of writing to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new ArrayList<>();
+        private boolean broken;
+
+        @Override
+        public synchronized void send(final Set<DataWithMediaType> items) throws IOException {
+            if (broken) throw new IOException("Broken pipe");
+            final StringBuilder event = new StringBuilder();
+            items.forEach(item -> event.append(item.getData()));
+            events.add(event.toString());
+        }
+    }
+
+    /**
+     * Emitter whose writes block until released, like a client that has stopped reading.
+     */
+    private static class StalledEmitter extends SseEmitter {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(final Set<DataWithMediaType> items) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("Broken pipe");
+        }
+    }
+
+    private RecordingEmitter subscribe() {
+        return (RecordingEmitter) stream.subscribe(new RecordingEmitter());
+    }
+
+    private void publish(final long version, final long balanceInMinorUnits) {
+        when(bankAccountService.retrieveBalanceSnapshot())
+                .thenReturn(BalanceSnapshot.of(version, balanceInMinorUnits, version, -1));
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            final ObjectMapper objectMapper = new ObjectMapper();
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new BalanceStream(null, objectMapper, 1L, 1, 1L, now::get, Runnable::run))
+                    .withMessage("bankAccountService must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new BalanceStream(bankAccountService, null, 1L, 1, 1L, now::get, Runnable::run))
+                    .withMessage("objectMapper must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new BalanceStream(bankAccountService, objectMapper, 0L, 1, 1L, now::get,
+                            Runnable::run))
+                    .withMessage("heartbeatMillis must be positive");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new BalanceStream(bankAccountService, objectMapper, 1L, 0, 1L, now::get,
+                            Runnable::run))
+                    .withMessage("maxSubscribers must be positive");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new BalanceStream(bankAccountService, objectMapper, 1L, 1, 0L, now::get,
+                            Runnable::run))
+                    .withMessage("sendTimeoutMillis must be positive");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new BalanceStream(bankAccountService, objectMapper, 0L, 1L, 1, 1L, 1))
+                    .withMessage("intervalMillis must be positive");
+        }
+
+        @Test
+        public void subscribersAreLimited() {
+            subscribe();
+            subscribe();
+
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> stream.subscribe())
+                    .withMessage("Balance stream subscriber limit of 2 reached");
+            assertEquals(2, stream.subscriberCount());
+        }
+    }
+
+    @Test
+    public void idleStreamDoesNotSampleTheBalance() {
+        stream.tick();
+
+        verifyNoInteractions(bankAccountService);
+    }
+
+    @Test
+    public void newSubscriberReceivesTheCurrentBalance() {
+        publish(3, 12_345L);
+        final RecordingEmitter subscriber = subscribe();
+
+        stream.tick();
+
+        assertThat(subscriber.events).hasSize(1);
+        assertThat(subscriber.events.get(0))
+                .contains("id:3", "event:balance", "\"balance\":123.45", "\"version\":3");
+    }
+
+    @Test
+    public void changesArePushedOnceAndConflated() {
+        publish(1, 100L);
+        final RecordingEmitter first = subscribe();
+        final RecordingEmitter second = subscribe();
+        stream.tick();
+
+        stream.tick();
+        publish(5, 500L);
+        stream.tick();
+        stream.tick();
+
+        assertThat(first.events).hasSize(2);
+        assertThat(first.events.get(1)).contains("id:5", "\"balanceInMinorUnits\":500");
+        assertEquals(first.events, second.events);
+        assertEquals(4, stream.eventCount());
+    }
+
+    @Test
+    public void quietStreamSendsHeartbeats() {
+        publish(1, 100L);
+        final RecordingEmitter subscriber = subscribe();
+        stream.tick();
+
+        now.addAndGet(HEARTBEAT_MILLIS - 1);
+        stream.tick();
+        assertThat(subscriber.events).hasSize(1);
+
+        now.addAndGet(1);
+        stream.tick();
+        assertThat(subscriber.events).hasSize(2);
+        assertThat(subscriber.events.get(1)).startsWith(":");
+    }
+
+    @Test
+    public void brokenSubscribersAreDropped() {
+        publish(1, 100L);
+        final RecordingEmitter healthy = subscribe();
+        final RecordingEmitter broken = subscribe();
+        stream.tick();
+
+        broken.broken = true;
+        publish(2, 200L);
+        stream.tick();
+
+        assertEquals(1, stream.subscriberCount());
+        assertThat(healthy.events).hasSize(2);
+        assertDoesNotThrow(() -> subscribe());
+    }
+
+    @Test
+    public void stalledSubscriberDoesNotHoldUpOthersAndIsDisconnected() throws InterruptedException {
+        final ExecutorService sender = Executors.newFixedThreadPool(2);
+        stream = new BalanceStream(bankAccountService, new ObjectMapper(), HEARTBEAT_MILLIS, 2, SEND_TIMEOUT_MILLIS,
+                now::get, sender);
+        try {
+            publish(1, 100L);
+            final StalledEmitter stalled = (StalledEmitter) stream.subscribe(new StalledEmitter());
+            final RecordingEmitter healthy = subscribe();
+            stream.tick();
+            assertTrue(stalled.writing.await(5, TimeUnit.SECONDS));
+
+            for (long version = 2; version <= 5; version++) {
+                publish(version, version * 100L);
+                stream.tick();
+            }
+            awaitVersion(healthy, 5);
+
+            now.addAndGet(SEND_TIMEOUT_MILLIS + 1);
+            assertTimeoutPreemptively(Duration.ofSeconds(5), stream::tick, "ticker waited on the stalled write");
+
+            assertEquals(1, stream.subscriberCount());
+            assertEquals(1, stream.stalledCount());
+            publish(6, 600L);
+            assertTimeoutPreemptively(Duration.ofSeconds(5), stream::tick);
+            awaitVersion(healthy, 6);
+            stalled.release.countDown();
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    private static void awaitVersion(final RecordingEmitter emitter, final long version)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            synchronized (emitter) {
+                if (!emitter.events.isEmpty() && emitter.events.get(emitter.events.size() - 1)
+                        .contains("id:" + version)) return;
+            }
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for events");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package net.jpmchase.transaction.service.wal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import net.jpmchase.transaction.service.BankAccountServiceImpl;
+import net.jpmchase.transaction.service.BatchPolicy;
+import net.jpmchase.transaction.service.aggregate.TransactionAggregator;
+import net.jpmchase.transaction.service.audit.journal.TransactionJournal;
+import net.jpmchase.transaction.service.dedup.TransactionDeduplicator;
+import net.jpmchase.transaction.service.recovery.RecoveryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DurableBankAccountServiceTest {
+
+    private static final long BATCH_SIZE = 10L;
+
+    @TempDir
+    Path directory;
+
+    private TransactionJournal journal;
+
+    @BeforeEach
+    public void setUp() {
+        journal = TransactionJournal.open(directory.resolve("journal"), 64);
+    }
+
+    private BankAccountServiceImpl newBankAccountService() {
+        return new BankAccountServiceImpl(Long.MAX_VALUE, BatchPolicy.fixed(BATCH_SIZE), journal::append,
+                new TransactionAggregator(), new TransactionDeduplicator(1_024), new SimpleMeterRegistry());
+    }
+
+    private WriteAheadLog openLog() {
+        return WriteAheadLog.open(directory.resolve("wal"), journal.recordCount(), 0L);
+    }
+
+    /**
+     * Bring up a service over the same journal and log, as the application does after a restart.
+     */
+    private DurableBankAccountService restart() {
+        final BankAccountServiceImpl delegate = newBankAccountService();
+        new RecoveryService(journal, directory.resolve("snapshot.bin"), delegate, 60L).recover();
+        final DurableBankAccountService service = new DurableBankAccountService(delegate, openLog(), journal, 60L);
+        service.recover();
+        return service;
+    }
+
+    private static Transaction transaction(final int i) {
+        return Transaction.ofMinorUnits("T" + i, 100L + i, i % 3 == 0 ? TransactionType.DEBIT : TransactionType.CREDIT);
+    }
+
+    private static long ingest(final DurableBankAccountService service, final int from, final int to) {
+        long expected = 0;
+        for (int i = from; i < to; i++) {
+            service.processTransaction(transaction(i));
+            expected += transaction(i).getSignedAmountInMinorUnits();
+        }
+        return expected;
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void injectedValuesMustBeValid() {
+            final BankAccountServiceImpl delegate = newBankAccountService();
+            final WriteAheadLog log = openLog();
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new DurableBankAccountService(null, log, journal, 1L))
+                    .withMessage("delegate must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new DurableBankAccountService(delegate, null, journal, 1L))
+                    .withMessage("log must not be null");
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> new DurableBankAccountService(delegate, log, null, 1L))
+                    .withMessage("journal must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new DurableBankAccountService(delegate, log, journal, 0L))
+                    .withMessage("checkpointIntervalSeconds must be positive");
+            log.close();
+        }
+
+        @Test
+        public void transactionMustNotBeNull() {
+            final WriteAheadLog log = openLog();
+            final DurableBankAccountService service =
+                    new DurableBankAccountService(newBankAccountService(), log, journal, 1L);
+
+            assertThatNullPointerException()
+                    .isThrownBy(() -> service.processTransaction(null))
+                    .withMessage("transaction must not be null");
+            assertEquals(0, log.durableCount());
+            log.close();
+        }
+    }
+
+    @Test
+    public void transactionsNotYetJournaledSurviveACrash() {
+        final WriteAheadLog log = openLog();
+        final DurableBankAccountService before =
+                new DurableBankAccountService(newBankAccountService(), log, journal, 60L);
+        final long expected = ingest(before, 0, 25);
+        assertEquals(20, journal.recordCount());
+        log.close();
+
+        final DurableBankAccountService after = restart();
+
+        assertEquals(expected, after.retrieveBalanceInMinorUnits());
+    }
+
+    @Test
+    public void journaledTransactionsAreNotAppliedTwice() {
+        final WriteAheadLog log = openLog();
+        final DurableBankAccountService before =
+                new DurableBankAccountService(newBankAccountService(), log, journal, 60L);
+        final long expected = ingest(before, 0, 30);
+        assertEquals(30, journal.recordCount());
+        log.close();
+
+        final DurableBankAccountService after = restart();
+
+        assertEquals(expected, after.retrieveBalanceInMinorUnits());
+    }
+
+    @Test
+    public void bulkProcessingIsDurable() {
+        final WriteAheadLog log = openLog();
+        final DurableBankAccountService before =
+                new DurableBankAccountService(newBankAccountService(), log, journal, 60L);
+        final Transaction[] batch = {transaction(0), transaction(1), transaction(2)};
+        before.processTransactions(batch, batch.length);
+        log.close();
+
+        assertEquals(before.retrieveBalanceInMinorUnits(), restart().retrieveBalanceInMinorUnits());
+    }
+
+    @Test
+    public void checkpointJournalsPendingTransactionsBeforeDeletingGenerations() {
+        final WriteAheadLog log = openLog();
+        final DurableBankAccountService service =
+                new DurableBankAccountService(newBankAccountService(), log, journal, 60L);
+        final long first = ingest(service, 0, 15);
+
+        service.checkpoint();
+        assertEquals(15, journal.recordCount());
+        assertEquals(1, log.generationCount());
+
+        final long second = ingest(service, 15, 25);
+        service.checkpoint();
+        assertEquals(25, journal.recordCount());
+        assertEquals(1, log.generationCount());
+        log.close();
+
+        assertEquals(first + second, restart().retrieveBalanceInMinorUnits());
+    }
+
+    @Test
+    public void generationsAreKeptWhileTheirTransactionsCannotBeJournaled() {
+        final AtomicBoolean journalFails = new AtomicBoolean();
+        final BankAccountServiceImpl delegate = new BankAccountServiceImpl(Long.MAX_VALUE,
+                BatchPolicy.fixed(BATCH_SIZE), (transactions, batchNumber) -> {
+                    if (journalFails.get()) throw new UncheckedIOException(new IOException("Disk full"));
+                    journal.append(transactions, batchNumber);
+                }, new TransactionAggregator(), new TransactionDeduplicator(1_024), new SimpleMeterRegistry());
+        final WriteAheadLog log = openLog();
+        final DurableBankAccountService service = new DurableBankAccountService(delegate, log, journal, 60L);
+        final long expected = ingest(service, 0, 5);
+
+        journalFails.set(true);
+        assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(service::checkpoint);
+        assertEquals(0, journal.recordCount());
+        assertEquals(1, log.generationCount());
+        log.close();
+
+        assertEquals(expected, restart().retrieveBalanceInMinorUnits());
+    }
+}
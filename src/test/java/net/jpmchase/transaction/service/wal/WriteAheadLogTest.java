@@ -0,0 +1,189 @@
+package net.jpmchase.transaction.service.wal;
+
+import net.jpmchase.transaction.enums.TransactionType;
+import net.jpmchase.transaction.model.Transaction;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private static Transaction credit(final String id, final long amount) {
+        return Transaction.ofMinorUnits(id, amount, TransactionType.CREDIT);
+    }
+
+    private List<Transaction> replay(final WriteAheadLog log) {
+        final List<Transaction> replayed = new ArrayList<>();
+        log.replay(replayed::add);
+        return replayed;
+    }
+
+    private List<Path> files() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Nested
+    class PreConditions {
+
+        @Test
+        public void openArgumentsMustBeValid() {
+            assertThatNullPointerException()
+                    .isThrownBy(() -> WriteAheadLog.open(null, 0L, 0L))
+                    .withMessage("directory must not be null");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> WriteAheadLog.open(directory, -1L, 0L))
+                    .withMessage("journalPosition must not be negative");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> WriteAheadLog.open(directory, 0L, -1L))
+                    .withMessage("groupCommitMicros must not be negative");
+        }
+
+        @Test
+        public void appendsAfterCloseAreRejected() {
+            final WriteAheadLog log = WriteAheadLog.open(directory, 0L, 0L);
+            log.close();
+
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> log.append(credit("T1", 1L)))
+                    .withMessage("Write-ahead log is closed");
+        }
+
+        @Test
+        public void idsTheJournalCannotStoreAreRejectedBeforeAppending() {
+            final WriteAheadLog log = WriteAheadLog.open(directory, 0L, 0L);
+            final Transaction tooLong = mock(Transaction.class);
+            when(tooLong.getId()).thenReturn("X".repeat(Transaction.MAX_ID_BYTES + 1));
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> log.append(tooLong))
+                    .withMessage("transaction id must not be longer than 48 bytes");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> log.append(new Transaction[]{credit("T1", 1L), tooLong}, 2));
+
+            assertEquals(0, log.durableCount());
+            log.close();
+        }
+    }
+
+    @Test
+    public void appendedTransactionsAreReplayedAfterReopening() {
+        final WriteAheadLog log = WriteAheadLog.open(directory, 7L, 0L);
+        log.append(credit("T1", 100L));
+        log.append(new Transaction[]{
+                Transaction.ofMinorUnits("pay-£5", 500L, TransactionType.DEBIT), credit("T3", 1L), null}, 2);
+        assertEquals(3, log.durableCount());
+        log.close();
+
+        final WriteAheadLog reopened = WriteAheadLog.open(directory, 9L, 0L);
+        final List<Transaction> replayed = replay(reopened);
+
+        assertThat(replayed).extracting(Transaction::getId).containsExactly("T1", "pay-£5", "T3");
+        assertEquals(-500L, replayed.get(1).getSignedAmountInMinorUnits());
+        assertEquals(7L, reopened.firstJournalPosition());
+        assertEquals(2, reopened.generationCount());
+        reopened.close();
+    }
+
+    @Test
+    public void tornTailIsIgnored() throws IOException {
+        final WriteAheadLog log = WriteAheadLog.open(directory, 0L, 0L);
+        log.append(credit("T1", 1L));
+        log.append(credit("T2", 2L));
+        log.close();
+        try (RandomAccessFile file = new RandomAccessFile(files().get(0).toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        final WriteAheadLog reopened = WriteAheadLog.open(directory, 0L, 0L);
+        assertThat(replay(reopened)).extracting(Transaction::getId).containsExactly("T1");
+        reopened.close();
+    }
+
+    @Test
+    public void corruptRecordEndsReplay() throws IOException {
+        final WriteAheadLog log = WriteAheadLog.open(directory, 0L, 0L);
+        log.append(credit("T1", 1L));
+        log.append(credit("T2", 2L));
+        log.append(credit("T3", 3L));
+        log.close();
+        try (RandomAccessFile file = new RandomAccessFile(files().get(0).toFile(), "rw")) {
+            final long secondAmount = WriteAheadLog.HEADER_BYTES + (8 + 11 + 2) + 8;
+            file.seek(secondAmount);
+            file.write(0x7F);
+        }
+
+        final WriteAheadLog reopened = WriteAheadLog.open(directory, 0L, 0L);
+        assertThat(replay(reopened)).extracting(Transaction::getId).containsExactly("T1");
+        reopened.close();
+    }
+
+    @Test
+    public void concurrentAppendersShareForces() {
+        final WriteAheadLog log = WriteAheadLog.open(directory, 0L, 0L);
+        final int threads = 16;
+        final int appendsPerThread = 200;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final List<CompletableFuture<Void>> appenders = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            final int id = thread;
+            appenders.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < appendsPerThread; i++) log.append(credit(id + "-" + i, i));
+            }, executor));
+        }
+        appenders.forEach(CompletableFuture::join);
+        executor.shutdown();
+
+        assertEquals(threads * appendsPerThread, log.durableCount());
+        assertThat(log.commitCount()).isLessThan(threads * appendsPerThread);
+        log.close();
+
+        final WriteAheadLog reopened = WriteAheadLog.open(directory, 0L, 0L);
+        assertEquals(threads * appendsPerThread, replay(reopened).size());
+        reopened.close();
+    }
+
+    @Test
+    public void rolledGenerationsCanBeDeleted() throws IOException {
+        final WriteAheadLog log = WriteAheadLog.open(directory, 0L, 0L);
+        log.append(credit("T1", 1L));
+        final long second = log.roll(10L);
+        log.append(credit("T2", 2L));
+        final long third = log.roll(20L);
+        assertEquals(3, files().size());
+
+        log.deleteBefore(second);
+        assertEquals(2, log.generationCount());
+        assertEquals(10L, log.firstJournalPosition());
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> log.deleteBefore(third + 1))
+                .withMessage("cannot delete the generation being written");
+        log.close();
+
+        final WriteAheadLog reopened = WriteAheadLog.open(directory, 30L, 0L);
+        assertThat(replay(reopened)).extracting(Transaction::getId).containsExactly("T2");
+        reopened.close();
+    }
+}